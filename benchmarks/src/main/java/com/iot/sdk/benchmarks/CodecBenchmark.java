@@ -0,0 +1,60 @@
+package com.iot.sdk.benchmarks;
+
+import com.iot.sdk.model.RrpcResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RRPC和自定义指令路径上的Base64编解码：消息内容UTF-8编码后Base64编码，设备响应Base64解码后按UTF-8还原
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+    /**
+     * 消息长度(字符)
+     */
+    @Param({"64", "1024"})
+    public int messageLength;
+
+    private String message;
+    private String encoded;
+    private RrpcResult reply;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("{\"data\":\"");
+        while (builder.length() < messageLength - 2) {
+            builder.append(builder.length() % 7 == 0 ? '温' : 'x');
+        }
+        message = builder.append("\"}").toString();
+        encoded = Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8));
+        reply = new RrpcResult(encoded);
+    }
+
+    @Benchmark
+    public String encodeMessage() {
+        return Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String decodeReply() {
+        return reply.getPayload();
+    }
+}
@@ -0,0 +1,70 @@
+package com.iot.sdk.benchmarks;
+
+import com.iot.sdk.device.CommandJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 指令日志的写入吞吐，对比默认的只写映射内存与每次写入后刷盘
+ * 每轮迭代使用新的临时目录，结果受磁盘和文件系统影响较大
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=benchmark-logback.xml")
+@State(Scope.Benchmark)
+public class CommandJournalBenchmark {
+    private static final String MESSAGE = "{\"switch\":\"on\",\"brightness\":80}";
+
+    @Param({"false", "true"})
+    public boolean forceOnAppend;
+
+    private Path directory;
+    private CommandJournal journal;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("command-journal-bench");
+        journal = CommandJournal.builder(directory)
+                .segmentSize(64 * 1024 * 1024)
+                .forceOnAppend(forceOnAppend)
+                .open();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        return journal.appendCustomCommand("device-0001", MESSAGE);
+    }
+
+    @Benchmark
+    public boolean appendAndAcknowledge() throws IOException {
+        return journal.acknowledge(journal.appendCustomCommand("device-0001", MESSAGE));
+    }
+}
@@ -0,0 +1,25 @@
+package com.iot.sdk.benchmarks;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+import java.io.OutputStream;
+
+/**
+ * 格式化并编码日志事件后丢弃输出
+ */
+public class DiscardingAppender extends OutputStreamAppender<ILoggingEvent> {
+    @Override
+    public void start() {
+        setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        super.start();
+    }
+}
@@ -0,0 +1,42 @@
+package com.iot.sdk.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的平台响应样本
+ */
+final class Fixtures {
+    /**
+     * 设备离线时长，超过一天，触发离线时长的完整格式化
+     */
+    static final long OFFLINE_SINCE = System.currentTimeMillis() - 26 * 60 * 60 * 1000L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * 批量状态响应，在线、离线、未激活设备混合
+     */
+    static String batchStatusResponse(int count) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"data\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String status = i % 10 == 0 ? "UNACTIVE" : i % 3 == 0 ? "OFFLINE" : "ONLINE";
+            json.append("{\"deviceName\":\"device-").append(i).append("\",\"deviceId\":\"id-").append(i)
+                    .append("\",\"status\":\"").append(status).append("\",\"timestamp\":")
+                    .append(OFFLINE_SINCE + i * 1000L).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    static List<String> deviceNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add("device-" + i);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,136 @@
+package com.iot.sdk.benchmarks;
+
+import com.google.gson.Gson;
+import com.iot.sdk.client.RequestBodies;
+import com.iot.sdk.client.RequestPayload;
+import com.iot.sdk.device.DeviceRequests;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求构建：序列化请求体并写出(模拟发送)
+ * <ul>
+ *     <li>string：HashMap经gson.toJson生成字符串，再由RequestBody.create编码为字节(原实现)</li>
+ *     <li>map：HashMap由Gson在写出时直接编码进输出(Map接口的现有实现)</li>
+ *     <li>typed：类型化请求体在写出时直接编码进输出(DeviceManager的现有实现)</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBuildingBenchmark {
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+    private static final String RRPC_MESSAGE = "{\"cmd\":\"version\",\"args\":{\"verbose\":true}}";
+
+    private final Gson gson = new Gson();
+
+    /**
+     * 批量状态查询的设备列表
+     */
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1", "10", "100"})
+        public int deviceCount;
+
+        List<String> deviceNames;
+
+        @Setup
+        public void setup() {
+            deviceNames = Fixtures.deviceNames(deviceCount);
+        }
+    }
+
+    @Benchmark
+    public long batchStatusString(Batch batch) throws IOException {
+        return writeString(gson.toJson(batchStatusMap(batch.deviceNames)));
+    }
+
+    @Benchmark
+    public long batchStatusMap(Batch batch) throws IOException {
+        Map<String, Object> payload = batchStatusMap(batch.deviceNames);
+        return writePayload(writer -> gson.toJson(payload, Map.class, writer));
+    }
+
+    @Benchmark
+    public long batchStatusTyped(Batch batch) throws IOException {
+        return writePayload(DeviceRequests.batchStatus(batch.deviceNames, null));
+    }
+
+    @Benchmark
+    public long rrpcString() throws IOException {
+        return writeString(gson.toJson(rrpcPayloadMap()));
+    }
+
+    @Benchmark
+    public long rrpcMap() throws IOException {
+        Map<String, Object> payload = rrpcPayloadMap();
+        return writePayload(writer -> gson.toJson(payload, Map.class, writer));
+    }
+
+    @Benchmark
+    public long rrpcTyped() throws IOException {
+        return writePayload(DeviceRequests.rrpc("device-0001", "pk", RRPC_MESSAGE, 5000));
+    }
+
+    private static Map<String, Object> batchStatusMap(List<String> deviceNames) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("deviceName", deviceNames);
+        return payload;
+    }
+
+    private static Map<String, Object> rrpcPayloadMap() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("deviceName", "device-0001");
+        payload.put("productKey", "pk");
+        payload.put("requestBase64Byte",
+                Base64.getEncoder().encodeToString(RRPC_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+        payload.put("timeout", 5000);
+        return payload;
+    }
+
+    private static long writeString(String json) throws IOException {
+        RequestBody body = RequestBody.create(json, JSON_MEDIA_TYPE);
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        return drain(sink);
+    }
+
+    /**
+     * 使用客户端的JsonRequestBody：构建时统计长度，写出时由JsonWriter直接编码进输出
+     */
+    private static long writePayload(RequestPayload payload) throws IOException {
+        RequestBody body = RequestBodies.json(payload);
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        return drain(sink);
+    }
+
+    private static long drain(Buffer sink) {
+        long size = sink.size();
+        sink.clear();
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package com.iot.sdk.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.iot.sdk.model.BatchStatusResult;
+import com.iot.sdk.model.ModelAdapters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量状态响应的解析：JSON树解析(JsonParser.parseString，JsonObject接口使用)
+ * 与类型化流式解码(ModelAdapters，queryBatchDeviceStatus使用)对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+    @Param({"1", "10", "100"})
+    public int deviceCount;
+
+    private String response;
+
+    @Setup
+    public void setup() {
+        response = Fixtures.batchStatusResponse(deviceCount);
+    }
+
+    @Benchmark
+    public JsonObject parseTree() {
+        return JsonParser.parseString(response).getAsJsonObject();
+    }
+
+    @Benchmark
+    public BatchStatusResult parseTyped() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(response));
+        BatchStatusResult result = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("data".equals(reader.nextName())) {
+                result = ModelAdapters.BATCH_STATUS_RESULT.read(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+}
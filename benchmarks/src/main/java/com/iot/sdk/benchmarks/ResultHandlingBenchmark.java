@@ -0,0 +1,133 @@
+package com.iot.sdk.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.device.DeviceManager;
+import com.iot.sdk.mock.DeviceState;
+import com.iot.sdk.mock.MockPlatform;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeviceManager成功路径上结果处理的开销
+ * quiet=false为默认行为(INFO日志、状态映射和时间格式化)，quiet=true关闭这些展示性处理。
+ * 响应来自平台替身({@link MockPlatform})：每个端点的首个响应经回环HTTP取得后由拦截器记录，
+ * 此后的调用直接重放，不经过网络，只衡量SDK自身的开销。配合 -prof gc 查看每次调用的分配量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=benchmark-logback.xml")
+@State(Scope.Benchmark)
+public class ResultHandlingBenchmark {
+    @Param({"false", "true"})
+    public boolean quiet;
+
+    private MockPlatform platform;
+    private IoTClient client;
+    private DeviceManager deviceManager;
+    private List<String> deviceNames;
+
+    @Setup
+    public void setup() throws IOException {
+        platform = MockPlatform.builder().permanentToken("benchmark-token").start();
+        // device-0在线，用于RRPC和自定义指令；状态查询的设备已离线一天以上，触发离线时长的完整格式化
+        platform.getDevices().populate("pk", "device-", 100);
+        platform.getDevices().add("pk", "device-offline", DeviceState.ONLINE)
+                .setState(DeviceState.OFFLINE, Fixtures.OFFLINE_SINCE);
+        OkHttpClient httpClient = new OkHttpClient.Builder().addInterceptor(new ReplayInterceptor()).build();
+        client = IoTSdk.clientBuilder(platform.getBaseUrl())
+                .token("benchmark-token")
+                .httpClient(httpClient)
+                .build();
+        deviceManager = DeviceManager.builder(client).quiet(quiet).build();
+        deviceNames = Fixtures.deviceNames(100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        platform.close();
+    }
+
+    @Benchmark
+    public JsonObject getDeviceStatus() throws IOException {
+        return deviceManager.getDeviceStatus("device-offline", null);
+    }
+
+    @Benchmark
+    public JsonObject batchGetDeviceStatus() throws IOException {
+        return deviceManager.batchGetDeviceStatus(deviceNames, null);
+    }
+
+    @Benchmark
+    public JsonObject sendRrpcMessage() throws IOException {
+        return deviceManager.sendRrpcMessage("device-0", "pk", "{\"cmd\":\"version\"}", 5000);
+    }
+
+    @Benchmark
+    public JsonObject sendCustomCommand() throws IOException {
+        return deviceManager.sendCustomCommand("device-0", "{\"switch\":\"on\"}");
+    }
+
+    /**
+     * 按路径记录平台替身的首个响应并在此后重放，同一路径的请求体差异不影响响应
+     */
+    private static final class ReplayInterceptor implements Interceptor {
+        private final Map<String, Recorded> responses = new ConcurrentHashMap<>();
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            Recorded recorded = responses.get(path);
+            if (recorded == null) {
+                try (Response response = chain.proceed(request)) {
+                    ResponseBody body = response.body();
+                    recorded = new Recorded(response, body.contentType(), body.bytes());
+                }
+                responses.putIfAbsent(path, recorded);
+            }
+            return recorded.response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(recorded.body, recorded.contentType))
+                    .build();
+        }
+    }
+
+    private static final class Recorded {
+        private final Response response;
+        private final MediaType contentType;
+        private final byte[] body;
+
+        Recorded(Response response, MediaType contentType, byte[] body) {
+            this.response = response.newBuilder().body(null).build();
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
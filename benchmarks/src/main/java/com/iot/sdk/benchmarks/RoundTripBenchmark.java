@@ -0,0 +1,82 @@
+package com.iot.sdk.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.device.DeviceManager;
+import com.iot.sdk.mock.MockPlatform;
+import com.iot.sdk.model.BatchStatusResult;
+import com.iot.sdk.model.DeviceStatus;
+import com.iot.sdk.model.RrpcResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 经本机回环地址上的平台替身({@link MockPlatform})的端到端往返，包含连接池、HTTP编解码和结果处理
+ * 使用安静模式，不含展示性日志的开销(见 {@link ResultHandlingBenchmark})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=benchmark-logback.xml")
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+    @Param({"1", "100"})
+    public int deviceCount;
+
+    private MockPlatform platform;
+    private IoTClient client;
+    private DeviceManager deviceManager;
+    private List<String> deviceNames;
+
+    @Setup
+    public void setup() throws IOException {
+        platform = MockPlatform.builder().permanentToken("benchmark-token").start();
+        // 设备状态按在线、离线、未激活循环分配，device-0在线
+        platform.getDevices().populate("pk", "device-", deviceCount);
+        client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("benchmark-token").build();
+        deviceManager = DeviceManager.builder(client).quiet(true).build();
+        deviceNames = Fixtures.deviceNames(deviceCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        platform.close();
+    }
+
+    @Benchmark
+    public JsonObject batchGetDeviceStatus() throws IOException {
+        return deviceManager.batchGetDeviceStatus(deviceNames, null);
+    }
+
+    @Benchmark
+    public BatchStatusResult queryBatchDeviceStatus() throws IOException {
+        return deviceManager.queryBatchDeviceStatus(deviceNames, null);
+    }
+
+    @Benchmark
+    public DeviceStatus queryDeviceStatus() throws IOException {
+        return deviceManager.queryDeviceStatus("device-0", null);
+    }
+
+    @Benchmark
+    public RrpcResult sendRrpcMessageForResult() throws IOException {
+        return deviceManager.sendRrpcMessageForResult("device-0", "pk", "{\"cmd\":\"version\"}", 5000);
+    }
+}
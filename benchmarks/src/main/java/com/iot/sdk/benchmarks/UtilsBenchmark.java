@@ -0,0 +1,43 @@
+package com.iot.sdk.benchmarks;
+
+import com.iot.sdk.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间戳和时长格式化
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UtilsBenchmark {
+    private final long timestamp = Fixtures.OFFLINE_SINCE;
+    private final long end = Fixtures.OFFLINE_SINCE + 26 * 60 * 60 * 1000L + 17 * 60 * 1000L;
+
+    @Benchmark
+    public String formatTimestamp() {
+        return Utils.formatTimestamp(timestamp);
+    }
+
+    @Benchmark
+    public String formatTimestampCustomPattern() {
+        return Utils.formatTimestamp(timestamp, "yyyy/MM/dd HH:mm");
+    }
+
+    @Benchmark
+    public String formatDuration() {
+        return Utils.formatDuration(timestamp, end);
+    }
+}
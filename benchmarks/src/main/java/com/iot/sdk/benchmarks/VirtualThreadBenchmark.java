@@ -0,0 +1,122 @@
+package com.iot.sdk.benchmarks;
+
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.VirtualThreads;
+import com.iot.sdk.device.DeviceManager;
+import com.iot.sdk.mock.DeviceState;
+import com.iot.sdk.mock.MockPlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程与虚拟线程的吞吐对比：每次同时发起10000个设备状态查询，经本机回环地址上的平台替身({@link MockPlatform})往返
+ * <ul>
+ *     <li>platform：固定大小的平台线程池调用阻塞接口，并发度受线程数限制</li>
+ *     <li>virtual：每个调用一个虚拟线程调用阻塞接口，客户端启用虚拟线程模式，需要Java 21及以上版本</li>
+ *     <li>async：异步接口，调度器使用OkHttp默认的平台线程池，最大并发数与虚拟线程模式相同</li>
+ *     <li>virtualAsync：异步接口，客户端启用虚拟线程模式，每个请求在调度器的一个虚拟线程上执行，需要Java 21及以上版本</li>
+ * </ul>
+ * platform与virtual对比同一阻塞接口在两种线程上的吞吐，async与virtualAsync为异步接口的参照。
+ * 结果为每秒完成的调用数；并发建连较多，需确保进程文件描述符上限足够
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=benchmark-logback.xml")
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+    private static final int CALLS = 10_000;
+
+    @Param({"platform", "virtual", "async", "virtualAsync"})
+    public String mode;
+
+    /**
+     * platform模式的线程池大小，与常见Servlet容器的默认工作线程数相同
+     */
+    @Param({"200"})
+    public int platformThreads;
+
+    private MockPlatform platform;
+    private IoTClient client;
+    private DeviceManager deviceManager;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        // 替身不注入延迟，处理线程不阻塞，默认线程数不会成为瓶颈；调大连接等待队列以承受大量并发建连
+        platform = MockPlatform.builder()
+                .backlog(4096)
+                .permanentToken("benchmark-token")
+                .start();
+        platform.getDevices().add("pk", "device-0", DeviceState.ONLINE);
+        IoTClient.Builder builder = IoTSdk.clientBuilder(platform.getBaseUrl())
+                .token("benchmark-token")
+                .connectionPool(1024, 5, TimeUnit.MINUTES);
+        switch (mode) {
+            case "platform":
+                executor = Executors.newFixedThreadPool(platformThreads);
+                break;
+            case "virtual":
+                builder.virtualThreads(true);
+                executor = VirtualThreads.newExecutor("benchmark-caller-");
+                break;
+            case "async":
+                builder.maxRequests(IoTClient.Builder.DEFAULT_VIRTUAL_MAX_REQUESTS)
+                        .maxRequestsPerHost(IoTClient.Builder.DEFAULT_VIRTUAL_MAX_REQUESTS);
+                break;
+            case "virtualAsync":
+                builder.virtualThreads(true);
+                break;
+            default:
+                throw new IllegalArgumentException("未知的模式: " + mode);
+        }
+        client = builder.build();
+        deviceManager = DeviceManager.builder(client).quiet(true).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        client.close();
+        platform.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int queryDeviceStatus() throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            futures.add(executor != null
+                    ? executor.submit(() -> deviceManager.queryDeviceStatus("device-0", null))
+                    : deviceManager.queryDeviceStatusAsync("device-0", null, null));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+}
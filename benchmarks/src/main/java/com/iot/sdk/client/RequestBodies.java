@@ -0,0 +1,20 @@
+package com.iot.sdk.client;
+
+import okhttp3.RequestBody;
+
+/**
+ * 让基准测试使用客户端包内可见的 {@link JsonRequestBody}，测量的是客户端实际的请求体实现
+ */
+public final class RequestBodies {
+
+    private RequestBodies() {
+    }
+
+    /**
+     * @param payload 请求体
+     * @return 与IoTClient发送POST请求时相同的请求体
+     */
+    public static RequestBody json(RequestPayload payload) {
+        return JsonRequestBody.create(payload);
+    }
+}
@@ -1,5 +1,6 @@
 package com.iot.sdk;
 
+import com.iot.sdk.client.ClientPool;
 import com.iot.sdk.client.IoTClient;
 import com.iot.sdk.device.DeviceManager;
 
@@ -37,6 +38,28 @@ public class IoTSdk {
         return new IoTClient(baseUrl, appId, appSecret);
     }
     
+    /**
+     * 创建IoT客户端构建器
+     * 可配置超时、连接池、调度器和协议，并支持多个客户端共享同一HTTP传输层
+     *
+     * @param baseUrl API基础URL
+     * @return IoTClient.Builder 客户端构建器
+     */
+    public static IoTClient.Builder clientBuilder(String baseUrl) {
+        return IoTClient.builder(baseUrl);
+    }
+
+    /**
+     * 创建多租户客户端池构建器
+     * 按appId懒创建客户端，所有租户共享同一HTTP传输层，空闲租户自动淘汰
+     *
+     * @param baseUrl API基础URL
+     * @return ClientPool.Builder 客户端池构建器
+     */
+    public static ClientPool.Builder clientPoolBuilder(String baseUrl) {
+        return ClientPool.builder(baseUrl);
+    }
+
     /**
      * 创建设备管理器
      *
@@ -46,4 +69,15 @@ public class IoTSdk {
     public static DeviceManager createDeviceManager(IoTClient client) {
         return new DeviceManager(client);
     }
+
+    /**
+     * 创建设备管理器构建器
+     * 可配置缓存等可选功能
+     *
+     * @param client IoT客户端实例
+     * @return DeviceManager.Builder 设备管理器构建器
+     */
+    public static DeviceManager.Builder deviceManagerBuilder(IoTClient client) {
+        return DeviceManager.builder(client);
+    }
 } 
\ No newline at end of file
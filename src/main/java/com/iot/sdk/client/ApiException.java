@@ -0,0 +1,26 @@
+package com.iot.sdk.client;
+
+import java.io.IOException;
+
+/**
+ * 平台返回业务失败(success=false)或返回数据不完整时抛出的异常
+ */
+public class ApiException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String errorMessage;
+
+    public ApiException(String errorMessage) {
+        super("API调用失败: " + errorMessage);
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * 获取平台返回的错误信息
+     *
+     * @return 错误信息
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
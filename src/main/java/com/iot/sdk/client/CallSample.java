@@ -0,0 +1,118 @@
+package com.iot.sdk.client;
+
+/**
+ * 一次HTTP调用的测量结果
+ * DNS、建连和TLS阶段只在新建连接时发生，复用连接池中的连接时对应耗时为-1。
+ */
+public final class CallSample {
+    private final String endpoint;
+    private final int statusCode;
+    private final boolean failed;
+    private final boolean cancelled;
+    private final long dnsNanos;
+    private final long connectNanos;
+    private final long tlsNanos;
+    private final long timeToFirstByteNanos;
+    private final long totalNanos;
+    private final long requestBytes;
+    private final long responseBytes;
+
+    CallSample(String endpoint, int statusCode, boolean failed, boolean cancelled, long dnsNanos,
+               long connectNanos, long tlsNanos, long timeToFirstByteNanos, long totalNanos,
+               long requestBytes, long responseBytes) {
+        this.endpoint = endpoint;
+        this.statusCode = statusCode;
+        this.failed = failed;
+        this.cancelled = cancelled;
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+        this.timeToFirstByteNanos = timeToFirstByteNanos;
+        this.totalNanos = totalNanos;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * @return API端点路径
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return HTTP状态码，未收到响应时为-1
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return 是否因网络异常、超时或取消而失败
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return 是否被主动取消(如对冲请求落败)
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return DNS解析耗时(纳秒)，未解析时为-1
+     */
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * @return 建立连接耗时(纳秒，含TLS握手)，复用连接时为-1
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * @return TLS握手耗时(纳秒)，未握手时为-1
+     */
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * @return 从调用开始到开始收到响应头的耗时(纳秒)，未收到响应时为-1
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    /**
+     * @return 调用总耗时(纳秒)，到响应体读完或关闭为止
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return 请求体字节数
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return 响应体字节数(网络传输的字节数)
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CallSample{endpoint=" + endpoint + ", status=" + statusCode + ", failed=" + failed
+                + ", totalNanos=" + totalNanos + ", responseBytes=" + responseBytes + "}";
+    }
+}
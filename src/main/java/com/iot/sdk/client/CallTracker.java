@@ -0,0 +1,27 @@
+package com.iot.sdk.client;
+
+import okhttp3.Call;
+
+/**
+ * 记录一次逻辑请求实际发出的Call，支持在Call创建之前或之后取消
+ * 认证失效重放时新的Call会替换旧的Call
+ */
+final class CallTracker {
+    private volatile boolean cancelled;
+    private volatile Call call;
+
+    void register(Call call) {
+        this.call = call;
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
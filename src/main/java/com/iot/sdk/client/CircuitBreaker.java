@@ -0,0 +1,315 @@
+package com.iot.sdk.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按端点的熔断器
+ * 每个端点统计最近若干次请求的结果，故障(连接失败、超时、HTTP 429/5xx)比例达到阈值时熔断，
+ * 熔断期间请求直接以 {@link CircuitBreakerOpenException} 失败；熔断时间过后进入半开状态，
+ * 放行少量探测请求，全部成功则恢复，任一失败则重新熔断。业务失败(success=false)不计为故障。
+ */
+public class CircuitBreaker {
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 正常放行
+         */
+        CLOSED,
+        /**
+         * 熔断，直接拒绝
+         */
+        OPEN,
+        /**
+         * 半开，放行探测请求
+         */
+        HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final ConcurrentHashMap<String, EndpointCircuit> endpoints = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private CircuitBreaker(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.openNanos = builder.openNanos;
+        this.halfOpenProbes = builder.halfOpenProbes;
+    }
+
+    /**
+     * 创建熔断器构建器
+     *
+     * @return 熔断器构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取端点当前状态
+     *
+     * @param endpoint API端点路径
+     * @return 熔断器状态
+     */
+    public State getState(String endpoint) {
+        EndpointCircuit circuit = endpoints.get(endpoint);
+        return circuit != null ? circuit.currentState() : State.CLOSED;
+    }
+
+    /**
+     * 获取所有端点的状态
+     *
+     * @return 端点路径到状态的映射
+     */
+    public Map<String, State> snapshot() {
+        Map<String, State> result = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointCircuit> entry : endpoints.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().currentState());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 请求发出前检查，熔断或半开探测名额已满时抛出异常
+     */
+    void acquire(String endpoint) throws CircuitBreakerOpenException {
+        EndpointCircuit circuit = endpoints.get(endpoint);
+        if (circuit == null) {
+            circuit = endpoints.computeIfAbsent(endpoint, EndpointCircuit::new);
+        }
+        circuit.acquire();
+    }
+
+    /**
+     * 记录请求结果
+     *
+     * @param failure 是否为故障
+     */
+    void record(String endpoint, boolean failure) {
+        EndpointCircuit circuit = endpoints.get(endpoint);
+        if (circuit != null) {
+            circuit.record(failure);
+        }
+    }
+
+    /**
+     * 请求未实际发出(如被并发限制拒绝)，归还半开探测名额
+     */
+    void ignore(String endpoint) {
+        EndpointCircuit circuit = endpoints.get(endpoint);
+        if (circuit != null) {
+            circuit.ignore();
+        }
+    }
+
+    private final class EndpointCircuit {
+        private final String endpoint;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final boolean[] outcomes = new boolean[windowSize];
+        private int position;
+        private int calls;
+        private int failures;
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        EndpointCircuit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void acquire() throws CircuitBreakerOpenException {
+            lock.lock();
+            try {
+                if (state == State.CLOSED) {
+                    return;
+                }
+                if (state == State.OPEN) {
+                    long remaining = openNanos - (System.nanoTime() - openedAtNanos);
+                    if (remaining > 0) {
+                        throw new CircuitBreakerOpenException(endpoint, TimeUnit.NANOSECONDS.toMillis(remaining));
+                    }
+                    state = State.HALF_OPEN;
+                    probesInFlight = 0;
+                    probeSuccesses = 0;
+                    logger.info("端点进入半开状态, 开始探测: {}", endpoint);
+                }
+                if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                    throw new CircuitBreakerOpenException(endpoint, 0);
+                }
+                probesInFlight++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void record(boolean failure) {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN) {
+                    if (probesInFlight > 0) {
+                        probesInFlight--;
+                    }
+                    if (failure) {
+                        open();
+                    } else if (++probeSuccesses >= halfOpenProbes) {
+                        close();
+                    }
+                    return;
+                }
+                if (state == State.OPEN) {
+                    // 熔断前已发出的请求
+                    return;
+                }
+                if (calls == windowSize) {
+                    if (outcomes[position]) {
+                        failures--;
+                    }
+                } else {
+                    calls++;
+                }
+                outcomes[position] = failure;
+                if (failure) {
+                    failures++;
+                }
+                position = (position + 1) % windowSize;
+                if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                    open();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void ignore() {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN && probesInFlight > 0) {
+                    probesInFlight--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        State currentState() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void open() {
+            logger.warn("端点故障率过高, 熔断 {} 毫秒: {}", TimeUnit.NANOSECONDS.toMillis(openNanos), endpoint);
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+
+        private void close() {
+            logger.info("端点探测成功, 恢复正常: {}", endpoint);
+            state = State.CLOSED;
+            calls = 0;
+            failures = 0;
+            position = 0;
+        }
+    }
+
+    /**
+     * 熔断器构建器
+     */
+    public static class Builder {
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private long openNanos = TimeUnit.SECONDS.toNanos(10);
+        private int halfOpenProbes = 3;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置统计窗口，默认统计最近50次请求，至少20次请求后才会熔断
+         *
+         * @param windowSize   窗口大小
+         * @param minimumCalls 最少请求数
+         * @return 当前构建器
+         */
+        public Builder window(int windowSize, int minimumCalls) {
+            if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("无效的统计窗口");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * 设置熔断的故障比例阈值，默认0.5
+         *
+         * @param failureRateThreshold 故障比例，取值(0, 1]
+         * @return 当前构建器
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("故障比例阈值必须在0和1之间");
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * 设置熔断持续时间，默认10秒
+         *
+         * @param duration 持续时间
+         * @param unit     时间单位
+         * @return 当前构建器
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("熔断持续时间必须大于0");
+            }
+            this.openNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * 设置半开状态下的探测请求数，默认3
+         *
+         * @param halfOpenProbes 探测请求数
+         * @return 当前构建器
+         */
+        public Builder halfOpenProbes(int halfOpenProbes) {
+            if (halfOpenProbes <= 0) {
+                throw new IllegalArgumentException("探测请求数必须大于0");
+            }
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        /**
+         * 构建熔断器
+         *
+         * @return 熔断器
+         */
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
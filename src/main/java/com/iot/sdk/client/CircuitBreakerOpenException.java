@@ -0,0 +1,33 @@
+package com.iot.sdk.client;
+
+import java.io.IOException;
+
+/**
+ * 端点熔断期间请求被直接拒绝时抛出的异常，请求未发送到平台
+ */
+public class CircuitBreakerOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+    private final long retryAfterMillis;
+
+    public CircuitBreakerOpenException(String endpoint, long retryAfterMillis) {
+        super("端点已熔断: " + endpoint + " (" + retryAfterMillis + " 毫秒后尝试恢复)");
+        this.endpoint = endpoint;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return API端点路径
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return 距离进入半开状态的剩余时间(毫秒)，半开探测名额已满时为0
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
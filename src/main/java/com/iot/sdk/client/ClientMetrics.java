@@ -0,0 +1,39 @@
+package com.iot.sdk.client;
+
+/**
+ * 客户端请求指标的接收方
+ * 客户端默认使用 {@link #NOOP}，此时不安装HTTP事件监听，请求路径上没有任何额外开销。
+ * 可使用内置的 {@link MetricsRecorder}，或实现本接口把指标转交给其他监控系统。
+ * <p>
+ * 方法在OkHttp调度线程或调用线程上被调用，实现需线程安全且不应阻塞。
+ */
+public interface ClientMetrics {
+    /**
+     * 不记录任何指标
+     */
+    ClientMetrics NOOP = new ClientMetrics() {
+        @Override
+        public void recordCall(CallSample sample) {
+        }
+
+        @Override
+        public void recordResult(String endpoint, boolean success) {
+        }
+    };
+
+    /**
+     * 一次HTTP调用结束(成功、失败或取消)
+     * 重试、对冲和认证失效后的重放各自是一次独立的调用
+     *
+     * @param sample 调用的耗时、状态码和大小
+     */
+    void recordCall(CallSample sample);
+
+    /**
+     * 响应已解码，记录平台返回的业务结果
+     *
+     * @param endpoint API端点路径
+     * @param success  响应中的success字段是否为true
+     */
+    void recordResult(String endpoint, boolean success);
+}
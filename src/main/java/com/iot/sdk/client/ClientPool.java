@@ -0,0 +1,521 @@
+package com.iot.sdk.client;
+
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 多租户客户端池
+ * 按appId在首次使用时创建客户端，所有租户共享同一HTTP传输层(连接池和调度器)，每个租户独立获取和刷新token。
+ * 空闲超时或超过租户上限的客户端被淘汰，淘汰时保留其token，同一租户再次使用时在token有效期内直接复用，
+ * 不需要重新认证。首次创建时异步获取token，不阻塞调用线程。
+ * <p>
+ * 热路径只有两次并发哈希表查找，不加锁。
+ */
+public class ClientPool implements Closeable {
+    private final Logger logger = LoggerFactory.getLogger(ClientPool.class);
+
+    private final String baseUrl;
+    private final OkHttpClient httpClient;
+    private final boolean ownsTransport;
+    private final Function<String, String> secretResolver;
+    private final Consumer<IoTClient.Builder> customizer;
+    private final long tokenTtlMillis;
+    private final int maxTenants;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    private final TokenCache tokenCache;
+    private final AtomicBoolean sweepPending = new AtomicBoolean();
+    private final ScheduledFuture<?> sweeper;
+    private volatile boolean closed;
+
+    private ClientPool(Builder builder) {
+        if (builder.baseUrl == null || builder.baseUrl.isEmpty()) {
+            throw new IllegalArgumentException("无效的baseUrl");
+        }
+        if (builder.secretResolver == null) {
+            throw new IllegalArgumentException("应用密钥查询函数不能为空");
+        }
+        this.baseUrl = builder.baseUrl;
+        this.ownsTransport = builder.httpClient == null;
+        this.httpClient = ownsTransport ? builder.buildHttpClient() : builder.httpClient;
+        this.secretResolver = builder.secretResolver;
+        this.customizer = builder.customizer;
+        this.tokenTtlMillis = builder.tokenTtlMillis;
+        this.maxTenants = builder.maxTenants;
+        this.idleTimeoutNanos = builder.idleTimeoutNanos;
+        this.tokenCache = new TokenCache(builder.maxCachedTokens);
+        long sweepMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 2);
+        this.sweeper = SharedScheduler.get().scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建客户端池构建器
+     *
+     * @param baseUrl API基础URL
+     * @return 客户端池构建器
+     */
+    public static Builder builder(String baseUrl) {
+        return new Builder(baseUrl);
+    }
+
+    /**
+     * 获取租户的客户端，首次使用时创建并等待获取token
+     *
+     * @param appId 应用ID
+     * @return 客户端，被淘汰后不应继续持有
+     * @throws IOException 获取token失败
+     */
+    public IoTClient get(String appId) throws IOException {
+        try {
+            return getAsync(appId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待租户客户端创建时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e.getCause());
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("创建租户客户端失败", cause);
+        }
+    }
+
+    /**
+     * 异步获取租户的客户端
+     * 同一租户的并发首次调用只创建一个客户端；创建失败的租户不会被缓存，下次调用重新创建
+     *
+     * @param appId 应用ID
+     * @return 获取到token后完成的客户端
+     */
+    public CompletableFuture<IoTClient> getAsync(String appId) {
+        if (appId == null || appId.isEmpty()) {
+            throw new IllegalArgumentException("无效的appId");
+        }
+        while (true) {
+            Tenant tenant = tenants.get(appId);
+            if (tenant == null) {
+                if (closed) {
+                    throw new IllegalStateException("客户端池已关闭");
+                }
+                Tenant created = new Tenant();
+                tenant = tenants.putIfAbsent(appId, created);
+                if (tenant == null) {
+                    tenant = created;
+                    create(appId, created);
+                    if (tenants.size() > maxTenants && sweepPending.compareAndSet(false, true)) {
+                        SharedScheduler.get().execute(this::sweep);
+                    }
+                }
+            }
+            // 先更新访问时间再确认租户仍在表中，与evict中先移除再检查访问时间配对，
+            // 淘汰与获取并发时要么这里看到租户已被移除而重新获取，要么淘汰方看到新的访问时间而放弃关闭
+            tenant.lastAccessNanos = System.nanoTime();
+            if (tenants.get(appId) == tenant) {
+                return tenant.client;
+            }
+        }
+    }
+
+    /**
+     * 移除租户的客户端和缓存的token，用于应用密钥变更或租户下线
+     *
+     * @param appId 应用ID
+     */
+    public void invalidate(String appId) {
+        Tenant tenant = tenants.remove(appId);
+        if (tenant != null) {
+            tenant.client.thenAccept(IoTClient::close);
+        }
+        tokenCache.remove(appId);
+    }
+
+    /**
+     * @return 当前持有客户端的租户数
+     */
+    public int size() {
+        return tenants.size();
+    }
+
+    /**
+     * @return 缓存token的已淘汰租户数
+     */
+    public int cachedTokenCount() {
+        return tokenCache.size();
+    }
+
+    /**
+     * 获取共享的HTTP传输层
+     *
+     * @return OkHttp客户端
+     */
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * 关闭所有租户的客户端，停止token刷新
+     * 传输层由客户端池创建时一并关闭，由外部传入时不关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        sweeper.cancel(false);
+        for (String appId : new ArrayList<>(tenants.keySet())) {
+            Tenant tenant = tenants.remove(appId);
+            if (tenant != null) {
+                tenant.client.thenAccept(IoTClient::close);
+            }
+        }
+        if (ownsTransport) {
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+        }
+    }
+
+    private void create(String appId, Tenant tenant) {
+        CompletableFuture<IoTClient> future;
+        try {
+            String appSecret = secretResolver.apply(appId);
+            if (appSecret == null || appSecret.isEmpty()) {
+                throw new IllegalArgumentException("未找到租户的应用密钥: " + appId);
+            }
+            IoTClient.Builder builder = IoTClient.builder(baseUrl)
+                    .httpClient(httpClient)
+                    .credentials(appId, appSecret)
+                    .tokenTtl(tokenTtlMillis, TimeUnit.MILLISECONDS);
+            if (customizer != null) {
+                customizer.accept(builder);
+            }
+            CachedToken cached = tokenCache.remove(appId);
+            if (cached != null && (tokenTtlMillis <= 0 || System.currentTimeMillis() - cached.issuedAt < tokenTtlMillis)) {
+                builder.token(cached.token).tokenIssuedAt(cached.issuedAt);
+            }
+            future = builder.buildAsync();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((client, error) -> {
+            if (error != null) {
+                tenants.remove(appId, tenant);
+                tenant.client.completeExceptionally(Futures.unwrap(error));
+            } else if (!tenant.client.complete(client)) {
+                client.close();
+            }
+        });
+    }
+
+    /**
+     * 淘汰空闲超时的租户，租户数仍超过上限时按最近使用时间淘汰最久未使用的租户
+     * 包内可见以便测试直接触发淘汰
+     */
+    void sweep() {
+        sweepPending.set(false);
+        try {
+            long now = System.nanoTime();
+            List<Candidate> candidates = new ArrayList<>();
+            for (Map.Entry<String, Tenant> entry : tenants.entrySet()) {
+                Tenant tenant = entry.getValue();
+                if (!tenant.client.isDone()) {
+                    continue;
+                }
+                long lastAccess = tenant.lastAccessNanos;
+                if (now - lastAccess >= idleTimeoutNanos) {
+                    evict(entry.getKey(), tenant, lastAccess);
+                } else {
+                    candidates.add(new Candidate(entry.getKey(), tenant, lastAccess));
+                }
+            }
+            int excess = tenants.size() - maxTenants;
+            if (excess > 0) {
+                candidates.sort((a, b) -> Long.compare(a.lastAccessNanos, b.lastAccessNanos));
+                for (int i = 0; i < excess && i < candidates.size(); i++) {
+                    Candidate candidate = candidates.get(i);
+                    evict(candidate.appId, candidate.tenant, candidate.lastAccessNanos);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("淘汰租户客户端失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param seenAccessNanos 作出淘汰决定时读到的访问时间
+     */
+    private void evict(String appId, Tenant tenant, long seenAccessNanos) {
+        if (!tenants.remove(appId, tenant)) {
+            return;
+        }
+        IoTClient client = tenant.client.getNow(null);
+        if (client == null) {
+            return;
+        }
+        if (tenant.lastAccessNanos != seenAccessNanos) {
+            // 决定淘汰后租户又被访问，客户端可能已返回给调用方，放回表中
+            if (tenants.putIfAbsent(appId, tenant) != null) {
+                // 期间已有调用方看到移除并创建了新客户端，旧客户端在一个空闲超时后关闭
+                SharedScheduler.get().schedule(client::close, idleTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            return;
+        }
+        String token = client.getToken();
+        if (token != null) {
+            tokenCache.put(appId, new CachedToken(token, client.getTokenIssuedAt()));
+        }
+        client.close();
+    }
+
+    private static final class Tenant {
+        final CompletableFuture<IoTClient> client = new CompletableFuture<>();
+        volatile long lastAccessNanos = System.nanoTime();
+    }
+
+    private static final class Candidate {
+        final String appId;
+        final Tenant tenant;
+        final long lastAccessNanos;
+
+        Candidate(String appId, Tenant tenant, long lastAccessNanos) {
+            this.appId = appId;
+            this.tenant = tenant;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    private static final class CachedToken {
+        final String token;
+        final long issuedAt;
+
+        CachedToken(String token, long issuedAt) {
+            this.token = token;
+            this.issuedAt = issuedAt;
+        }
+    }
+
+    /**
+     * 已淘汰租户的token，按LRU顺序限制条数，只在创建和淘汰客户端时访问
+     */
+    private static final class TokenCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, CachedToken> tokens;
+
+        TokenCache(int maxSize) {
+            this.tokens = new LinkedHashMap<String, CachedToken>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        void put(String appId, CachedToken token) {
+            lock.lock();
+            try {
+                tokens.put(appId, token);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        CachedToken remove(String appId) {
+            lock.lock();
+            try {
+                return tokens.remove(appId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return tokens.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 客户端池构建器
+     */
+    public static class Builder {
+        private final String baseUrl;
+        private Function<String, String> secretResolver;
+        private Consumer<IoTClient.Builder> customizer;
+        private OkHttpClient httpClient;
+        private int maxRequests = 256;
+        private int maxRequestsPerHost = 256;
+        private long tokenTtlMillis = TimeUnit.MINUTES.toMillis(IoTClient.Builder.DEFAULT_TOKEN_TTL_MINUTES);
+        private int maxTenants = 10_000;
+        private long idleTimeoutNanos = TimeUnit.MINUTES.toNanos(10);
+        private int maxCachedTokens = 100_000;
+
+        private Builder(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        /**
+         * 设置按appId查询应用密钥的函数，每个租户创建客户端时调用一次
+         *
+         * @param secretResolver 查询函数，返回null表示租户不存在
+         * @return 当前构建器
+         */
+        public Builder secretResolver(Function<String, String> secretResolver) {
+            this.secretResolver = secretResolver;
+            return this;
+        }
+
+        /**
+         * 设置租户客户端的额外配置，如重试策略、熔断器和指标
+         * 传输层已由客户端池统一配置，不能再配置连接池和调度器
+         *
+         * @param customizer 对每个租户的客户端构建器调用
+         * @return 当前构建器
+         */
+        public Builder clientCustomizer(Consumer<IoTClient.Builder> customizer) {
+            this.customizer = customizer;
+            return this;
+        }
+
+        /**
+         * 使用已有的HTTP传输层，关闭客户端池时不会关闭该传输层
+         *
+         * @param httpClient OkHttp客户端
+         * @return 当前构建器
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * 设置共享调度器的最大并发请求数，默认256
+         *
+         * @param maxRequests 所有租户合计的最大并发请求数
+         * @return 当前构建器
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests <= 0) {
+                throw new IllegalArgumentException("最大并发请求数必须大于0");
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * 设置共享调度器的单主机最大并发请求数，默认256
+         * 所有租户访问同一平台地址，该值通常与最大并发请求数相同
+         *
+         * @param maxRequestsPerHost 单主机最大并发请求数
+         * @return 当前构建器
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("单主机最大并发请求数必须大于0");
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * 设置token有效期，默认120分钟
+         * 租户客户端在有效期过去80%时主动刷新，缓存的token超过有效期后不再复用
+         *
+         * @param ttl  有效期，小于等于0时不主动刷新
+         * @param unit 时间单位
+         * @return 当前构建器
+         */
+        public Builder tokenTtl(long ttl, TimeUnit unit) {
+            this.tokenTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * 设置同时持有客户端的最大租户数，默认10000，超过时淘汰最久未使用的租户
+         *
+         * @param maxTenants 最大租户数
+         * @return 当前构建器
+         */
+        public Builder maxTenants(int maxTenants) {
+            if (maxTenants <= 0) {
+                throw new IllegalArgumentException("最大租户数必须大于0");
+            }
+            this.maxTenants = maxTenants;
+            return this;
+        }
+
+        /**
+         * 设置租户客户端的空闲超时，默认10分钟
+         *
+         * @param idleTimeout 空闲超时
+         * @param unit        时间单位
+         * @return 当前构建器
+         */
+        public Builder idleTimeout(long idleTimeout, TimeUnit unit) {
+            if (idleTimeout <= 0) {
+                throw new IllegalArgumentException("空闲超时必须大于0");
+            }
+            this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+            return this;
+        }
+
+        /**
+         * 设置已淘汰租户的最大token缓存条数，默认100000
+         *
+         * @param maxCachedTokens 最大缓存条数，为0时不缓存
+         * @return 当前构建器
+         */
+        public Builder maxCachedTokens(int maxCachedTokens) {
+            if (maxCachedTokens < 0) {
+                throw new IllegalArgumentException("token缓存条数不能小于0");
+            }
+            this.maxCachedTokens = maxCachedTokens;
+            return this;
+        }
+
+        /**
+         * 构建客户端池
+         *
+         * @return 客户端池
+         */
+        public ClientPool build() {
+            return new ClientPool(this);
+        }
+
+        private OkHttpClient buildHttpClient() {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            return new OkHttpClient.Builder()
+                    .connectTimeout(IoTClient.Builder.DEFAULT_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .readTimeout(IoTClient.Builder.DEFAULT_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .writeTimeout(IoTClient.Builder.DEFAULT_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .dispatcher(dispatcher)
+                    .build();
+        }
+    }
+}
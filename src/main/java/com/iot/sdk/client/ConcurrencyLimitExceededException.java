@@ -0,0 +1,43 @@
+package com.iot.sdk.client;
+
+import java.io.IOException;
+
+/**
+ * 请求超过端点并发上限且无法排队(队列已满或等待超时)时抛出的异常
+ * 请求未发送到平台，调用方可稍后重试或降级处理
+ */
+public class ConcurrencyLimitExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+    private final int limit;
+    private final int queueDepth;
+
+    public ConcurrencyLimitExceededException(String endpoint, String reason, int limit, int queueDepth) {
+        super(reason + ": " + endpoint + " (上限: " + limit + ", 排队: " + queueDepth + ")");
+        this.endpoint = endpoint;
+        this.limit = limit;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * @return API端点路径
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return 拒绝时的并发上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return 拒绝时的等待队列长度
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+}
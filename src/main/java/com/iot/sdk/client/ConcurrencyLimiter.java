@@ -0,0 +1,537 @@
+package com.iot.sdk.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按端点的自适应并发限制
+ * 每个端点独立维护并发上限，根据请求结果以AIMD方式调整：
+ * 请求失败(网络异常、HTTP 429/5xx)或近期平滑延迟超过无负载延迟的容忍倍数时按比例降低上限，
+ * 正常且上限被实际用到时每轮(约上限个请求)增加1。
+ * 无负载延迟取最近两个统计窗口(各30秒)内的最小延迟，以适应平台基线延迟的变化。
+ * 超过上限的请求进入有界等待队列，队列已满或等待超时时以 {@link ConcurrencyLimitExceededException} 快速失败。
+ * <p>
+ * 同一个限制器可配置给多个客户端，共享同一组端点上限。
+ */
+public class ConcurrencyLimiter {
+    private static final long RTT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int maxQueueSize;
+    private final long maxWaitNanos;
+    private final ConcurrentHashMap<String, EndpointLimit> endpoints = new ConcurrentHashMap<>();
+
+    private ConcurrencyLimiter(Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyTolerance = builder.latencyTolerance;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxWaitNanos = builder.maxWaitNanos;
+    }
+
+    /**
+     * 创建并发限制构建器
+     *
+     * @return 并发限制构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取端点当前的并发上限，端点尚无请求时返回初始上限
+     *
+     * @param endpoint API端点路径
+     * @return 并发上限
+     */
+    public int getLimit(String endpoint) {
+        EndpointLimit limit = endpoints.get(endpoint);
+        return limit != null ? limit.snapshot().getLimit() : initialLimit;
+    }
+
+    /**
+     * 获取所有端点的状态快照
+     *
+     * @return 端点路径到状态的映射
+     */
+    public Map<String, EndpointStats> snapshot() {
+        Map<String, EndpointStats> result = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointLimit> entry : endpoints.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 同步获取许可，超过上限时在队列中等待
+     */
+    Permit acquire(String endpoint) throws IOException {
+        EndpointLimit limit = endpointLimit(endpoint);
+        CompletableFuture<Permit> future = limit.acquire();
+        if (future.isDone()) {
+            return await(future);
+        }
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            abandon(limit, future);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待并发许可时被中断");
+        } catch (TimeoutException e) {
+            if (limit.cancel(future)) {
+                limit.timeouts.increment();
+                throw limit.rejection("等待并发许可超时");
+            }
+            // 超时的同时已被分配许可
+            return await(future);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * 异步获取许可，超过上限时排队，等待超时后以异常完成
+     */
+    CompletableFuture<Permit> acquireAsync(String endpoint) {
+        EndpointLimit limit = endpointLimit(endpoint);
+        CompletableFuture<Permit> future = limit.acquire();
+        if (!future.isDone()) {
+            ScheduledFuture<?> timeout = SharedScheduler.get().schedule(() -> {
+                if (limit.cancel(future)) {
+                    limit.timeouts.increment();
+                    future.completeExceptionally(limit.rejection("等待并发许可超时"));
+                }
+            }, maxWaitNanos, TimeUnit.NANOSECONDS);
+            // 获得许可后立即从共享调度器中移除超时任务，持续排队时不会堆积已失效的任务
+            future.whenComplete((permit, error) -> timeout.cancel(false));
+        }
+        return future;
+    }
+
+    private EndpointLimit endpointLimit(String endpoint) {
+        EndpointLimit limit = endpoints.get(endpoint);
+        if (limit == null) {
+            limit = endpoints.computeIfAbsent(endpoint, EndpointLimit::new);
+        }
+        return limit;
+    }
+
+    private static void abandon(EndpointLimit limit, CompletableFuture<Permit> future) {
+        if (!limit.cancel(future)) {
+            // 已被分配许可，直接归还
+            future.thenAccept(Permit::discard);
+        }
+    }
+
+    /**
+     * 等待队列只以 {@link ConcurrencyLimitExceededException} 异常完成，其他异常原样抛出或包装为IOException
+     */
+    private static IOException failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException("获取并发许可失败", cause);
+    }
+
+    private static Permit await(CompletableFuture<Permit> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待并发许可时被中断");
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * 单个请求持有的许可，请求结束时归还一次
+     */
+    static final class Permit {
+        private final EndpointLimit owner;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(EndpointLimit owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * 归还许可并提交本次请求的结果
+         *
+         * @param dropped 请求是否因过载失败(网络异常、HTTP 429/5xx)
+         */
+        void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                owner.release(System.nanoTime() - startNanos, dropped, true);
+            }
+        }
+
+        /**
+         * 归还许可但不参与上限调整
+         */
+        void discard() {
+            if (released.compareAndSet(false, true)) {
+                owner.release(0, false, false);
+            }
+        }
+    }
+
+    /**
+     * 单个端点的上限、在途数和等待队列
+     */
+    final class EndpointLimit {
+        private final String endpoint;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private double limit = initialLimit;
+        private int inFlight;
+        private double shortRttNanos;
+        private long noLoadRttNanos;
+        private long windowMinRttNanos;
+        private long windowStartNanos = System.nanoTime();
+        private long lastDecreaseNanos;
+
+        EndpointLimit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        CompletableFuture<Permit> acquire() {
+            lock.lock();
+            try {
+                if (waiters.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    return CompletableFuture.completedFuture(new Permit(this));
+                }
+                if (waiters.size() >= maxQueueSize || maxWaitNanos <= 0) {
+                    rejections.increment();
+                    CompletableFuture<Permit> rejected = new CompletableFuture<>();
+                    rejected.completeExceptionally(rejection("并发已达上限"));
+                    return rejected;
+                }
+                CompletableFuture<Permit> waiter = new CompletableFuture<>();
+                waiters.addLast(waiter);
+                return waiter;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 从等待队列中移除，返回false表示已被分配许可
+         */
+        boolean cancel(CompletableFuture<Permit> waiter) {
+            lock.lock();
+            try {
+                return waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(long rttNanos, boolean dropped, boolean sample) {
+            List<CompletableFuture<Permit>> granted;
+            lock.lock();
+            try {
+                inFlight--;
+                if (sample) {
+                    adjust(rttNanos, dropped);
+                }
+                granted = grant();
+            } finally {
+                lock.unlock();
+            }
+            // 在锁外完成，避免在持锁时执行调用方的回调
+            for (CompletableFuture<Permit> waiter : granted) {
+                Permit permit = new Permit(this);
+                if (!waiter.complete(permit)) {
+                    permit.discard();
+                }
+            }
+        }
+
+        private void adjust(long rttNanos, boolean dropped) {
+            long now = System.nanoTime();
+            boolean congested = dropped;
+            if (!dropped) {
+                if (shortRttNanos == 0) {
+                    shortRttNanos = rttNanos;
+                    noLoadRttNanos = rttNanos;
+                    windowMinRttNanos = rttNanos;
+                } else {
+                    shortRttNanos += (rttNanos - shortRttNanos) * 0.1;
+                    windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+                    noLoadRttNanos = Math.min(noLoadRttNanos, rttNanos);
+                    if (now - windowStartNanos > RTT_WINDOW_NANOS) {
+                        // 只保留上一个窗口的最小值，让基线能随平台变化而上升
+                        noLoadRttNanos = windowMinRttNanos;
+                        windowMinRttNanos = rttNanos;
+                        windowStartNanos = now;
+                    }
+                    congested = shortRttNanos > noLoadRttNanos * latencyTolerance;
+                }
+            }
+            if (congested) {
+                // 每个往返周期最多降低一次，避免同一波失败把上限压到最低
+                if (now - lastDecreaseNanos > shortRttNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if ((inFlight + 1) * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        private List<CompletableFuture<Permit>> grant() {
+            List<CompletableFuture<Permit>> granted = null;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                CompletableFuture<Permit> waiter = waiters.pollFirst();
+                if (waiter.isDone()) {
+                    continue;
+                }
+                inFlight++;
+                if (granted == null) {
+                    granted = new ArrayList<>();
+                }
+                granted.add(waiter);
+            }
+            return granted != null ? granted : Collections.<CompletableFuture<Permit>>emptyList();
+        }
+
+        ConcurrencyLimitExceededException rejection(String reason) {
+            EndpointStats stats = snapshot();
+            return new ConcurrencyLimitExceededException(endpoint, reason, stats.getLimit(), stats.getQueueDepth());
+        }
+
+        EndpointStats snapshot() {
+            lock.lock();
+            try {
+                return new EndpointStats((int) limit, inFlight, waiters.size(),
+                        TimeUnit.NANOSECONDS.toMicros((long) shortRttNanos),
+                        TimeUnit.NANOSECONDS.toMicros(noLoadRttNanos), rejections.sum(), timeouts.sum());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 单个端点的状态快照
+     */
+    public static class EndpointStats {
+        private final int limit;
+        private final int inFlight;
+        private final int queueDepth;
+        private final long averageLatencyMicros;
+        private final long noLoadLatencyMicros;
+        private final long rejectedCount;
+        private final long timeoutCount;
+
+        EndpointStats(int limit, int inFlight, int queueDepth, long averageLatencyMicros, long noLoadLatencyMicros,
+                      long rejectedCount, long timeoutCount) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.queueDepth = queueDepth;
+            this.averageLatencyMicros = averageLatencyMicros;
+            this.noLoadLatencyMicros = noLoadLatencyMicros;
+            this.rejectedCount = rejectedCount;
+            this.timeoutCount = timeoutCount;
+        }
+
+        /**
+         * @return 当前并发上限
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return 在途请求数
+         */
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * @return 等待队列长度
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return 近期平滑延迟(微秒)
+         */
+        public long getAverageLatencyMicros() {
+            return averageLatencyMicros;
+        }
+
+        /**
+         * @return 估计的无负载延迟(微秒)
+         */
+        public long getNoLoadLatencyMicros() {
+            return noLoadLatencyMicros;
+        }
+
+        /**
+         * @return 因队列已满被拒绝的请求数
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return 等待超时的请求数
+         */
+        public long getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointStats{limit=" + limit + ", inFlight=" + inFlight + ", queueDepth=" + queueDepth
+                    + ", averageLatencyMicros=" + averageLatencyMicros + ", noLoadLatencyMicros=" + noLoadLatencyMicros
+                    + ", rejected=" + rejectedCount
+                    + ", timeouts=" + timeoutCount + "}";
+        }
+    }
+
+    /**
+     * 并发限制构建器
+     */
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private double latencyTolerance = 2.0;
+        private int maxQueueSize = 256;
+        private long maxWaitNanos = TimeUnit.SECONDS.toNanos(5);
+
+        private Builder() {
+        }
+
+        /**
+         * 设置初始并发上限，默认20
+         *
+         * @param initialLimit 初始上限
+         * @return 当前构建器
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * 设置并发上限的调整范围，默认1到200
+         *
+         * @param minLimit 最小上限
+         * @param maxLimit 最大上限
+         * @return 当前构建器
+         */
+        public Builder limitRange(int minLimit, int maxLimit) {
+            if (minLimit <= 0 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("无效的并发上限范围");
+            }
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * 设置过载时上限的缩减比例，默认0.9
+         *
+         * @param backoffRatio 缩减比例，取值(0, 1)
+         * @return 当前构建器
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("缩减比例必须在0和1之间");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * 设置延迟容忍倍数，近期平滑延迟超过无负载延迟的该倍数时视为过载，默认2.0
+         *
+         * @param latencyTolerance 容忍倍数，必须大于1
+         * @return 当前构建器
+         */
+        public Builder latencyTolerance(double latencyTolerance) {
+            if (latencyTolerance <= 1) {
+                throw new IllegalArgumentException("延迟容忍倍数必须大于1");
+            }
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * 设置每个端点的最大等待队列长度，默认256，为0时超过上限立即拒绝
+         *
+         * @param maxQueueSize 最大队列长度
+         * @return 当前构建器
+         */
+        public Builder maxQueueSize(int maxQueueSize) {
+            if (maxQueueSize < 0) {
+                throw new IllegalArgumentException("队列长度不能为负数");
+            }
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * 设置排队的最长等待时间，默认5秒，为0时超过上限立即拒绝
+         *
+         * @param maxWait 最长等待时间
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder maxWait(long maxWait, TimeUnit unit) {
+            if (maxWait < 0) {
+                throw new IllegalArgumentException("等待时间不能为负数");
+            }
+            this.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * 构建并发限制
+         *
+         * @return 并发限制
+         */
+        public ConcurrencyLimiter build() {
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("初始上限必须在上限范围内");
+            }
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.iot.sdk.client;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步结果的辅助方法
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * 剥离 {@link CompletionException} 和 {@link ExecutionException} 包装，返回实际的失败原因
+     *
+     * @param error 异步调用的失败
+     * @return 最内层的失败原因；没有包装时返回原对象
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,159 @@
+package com.iot.sdk.client;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * 一次对冲请求的协调
+ * 首个请求在对冲延迟内未完成时(且对冲预算允许)发出第二个相同请求。
+ * 先收到成功响应头的一路获得解码权并取消另一路，因此响应处理器只会被一路调用；
+ * 一路失败时等待另一路；两路都失败时优先以获得解码权一路的异常完成。
+ */
+final class HedgedExchange {
+    private final String endpoint;
+    private final HedgingPolicy policy;
+    private final IoTClient.ResponseDecoder decoder;
+    private final BiFunction<IoTClient.ResponseDecoder, CallTracker, CompletableFuture<JsonObject>> sender;
+    private final CompletableFuture<JsonObject> result = new CompletableFuture<>();
+    private final CallTracker[] trackers = {new CallTracker(), new CallTracker()};
+    private final long[] startNanos = new long[2];
+    private final AtomicInteger winner = new AtomicInteger(-1);
+    private final Throwable[] errors = new Throwable[2];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int running;
+    private boolean hedgeAllowed = true;
+    private ScheduledFuture<?> timer;
+
+    HedgedExchange(String endpoint, HedgingPolicy policy, IoTClient.ResponseDecoder decoder,
+                   BiFunction<IoTClient.ResponseDecoder, CallTracker, CompletableFuture<JsonObject>> sender) {
+        this.endpoint = endpoint;
+        this.policy = policy;
+        this.decoder = decoder;
+        this.sender = sender;
+    }
+
+    CompletableFuture<JsonObject> start() {
+        policy.onRequest(endpoint);
+        lock.lock();
+        try {
+            running = 1;
+        } finally {
+            lock.unlock();
+        }
+        launch(0);
+
+        ScheduledFuture<?> scheduled = SharedScheduler.get().schedule(this::hedge,
+                policy.delayNanos(endpoint), TimeUnit.NANOSECONDS);
+        lock.lock();
+        try {
+            timer = scheduled;
+        } finally {
+            lock.unlock();
+        }
+        if (result.isDone()) {
+            scheduled.cancel(false);
+        }
+        // 调用方取消时取消两路请求
+        result.whenComplete((json, error) -> {
+            if (result.isCancelled()) {
+                trackers[0].cancel();
+                trackers[1].cancel();
+            }
+        });
+        return result;
+    }
+
+    private void launch(int index) {
+        startNanos[index] = System.nanoTime();
+        CompletableFuture<JsonObject> attempt;
+        try {
+            attempt = sender.apply(guarded(index), trackers[index]);
+        } catch (RuntimeException e) {
+            attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(e);
+        }
+        attempt.whenComplete((json, error) -> onAttemptComplete(index, json, error));
+    }
+
+    private void hedge() {
+        lock.lock();
+        try {
+            if (!hedgeAllowed || result.isDone() || winner.get() >= 0 || !policy.tryHedge(endpoint)) {
+                return;
+            }
+            hedgeAllowed = false;
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        launch(1);
+    }
+
+    /**
+     * 只有收到成功状态码的一路会尝试获得解码权，错误状态码直接交给原解码器抛出异常
+     */
+    private IoTClient.ResponseDecoder guarded(int index) {
+        return response -> {
+            if (response.isSuccessful() && !winner.compareAndSet(-1, index) && winner.get() != index) {
+                throw new IOException("对冲请求已由另一路响应");
+            }
+            if (response.isSuccessful()) {
+                trackers[1 - index].cancel();
+            }
+            return decoder.decode(response);
+        };
+    }
+
+    private void onAttemptComplete(int index, JsonObject json, Throwable error) {
+        if (error == null) {
+            cancelTimer();
+            // 延迟样本从首个请求发出时计起，见 HedgingPolicy#onSuccess
+            policy.onSuccess(endpoint, index == 1, System.nanoTime() - startNanos[0]);
+            trackers[1 - index].cancel();
+            result.complete(json);
+            return;
+        }
+        boolean last;
+        Throwable failure = error;
+        lock.lock();
+        try {
+            errors[index] = error;
+            running--;
+            // 首个请求已失败时不再发出对冲，由上层重试策略决定是否重试
+            hedgeAllowed = false;
+            last = running == 0;
+            // 获得解码权的一路失败时，以它的异常为准，而不是落败一路的取消异常
+            int won = winner.get();
+            if (last && won >= 0 && errors[won] != null) {
+                failure = errors[won];
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (last) {
+            cancelTimer();
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private void cancelTimer() {
+        ScheduledFuture<?> scheduled;
+        lock.lock();
+        try {
+            scheduled = timer;
+        } finally {
+            lock.unlock();
+        }
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.iot.sdk.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 幂等读请求的对冲策略
+ * 请求在对冲延迟内未收到响应时再发送一个相同请求，取先到的结果并取消另一路。
+ * 对冲延迟可固定，也可取该端点最近成功请求延迟的指定分位数(默认p95)，样本不足时使用后备延迟。
+ * 延迟样本是首个请求的延迟；对冲获胜时首个请求被取消，以它已等待的时间作为样本，
+ * 因此分位数略低于不对冲时的真实值，但不会被对冲一路的较短延迟逐步拉低。
+ * <p>
+ * 对冲总量受预算限制：每个请求存入一定比例的令牌，每次对冲消耗一个令牌，
+ * 对冲请求数不会超过总请求数的该比例。
+ */
+public class HedgingPolicy {
+    private static final long TOKEN_SCALE = 1000;
+    /**
+     * 预算最多累积的对冲次数，允许短时突发
+     */
+    private static final long MAX_BURST = 10;
+    private static final int SAMPLE_CAPACITY = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final Set<String> hedgedEndpoints;
+    private final long fixedDelayNanos;
+    private final double percentile;
+    private final long fallbackDelayNanos;
+    private final long tokenDeposit;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+    private final ConcurrentHashMap<String, EndpointHedging> endpoints = new ConcurrentHashMap<>();
+
+    private HedgingPolicy(Builder builder) {
+        this.hedgedEndpoints = builder.hedgedEndpoints;
+        this.fixedDelayNanos = builder.fixedDelayNanos;
+        this.percentile = builder.percentile;
+        this.fallbackDelayNanos = builder.fallbackDelayNanos;
+        this.tokenDeposit = (long) (builder.maxHedgeRatio * TOKEN_SCALE);
+        this.maxTokens = MAX_BURST * TOKEN_SCALE;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * 创建对冲策略构建器
+     *
+     * @return 对冲策略构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取所有端点的对冲统计
+     *
+     * @return 端点路径到统计的映射
+     */
+    public Map<String, EndpointStats> snapshot() {
+        Map<String, EndpointStats> result = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointHedging> entry : endpoints.entrySet()) {
+            EndpointHedging hedging = entry.getValue();
+            result.put(entry.getKey(), new EndpointStats(hedging.requests.sum(), hedging.hedges.sum(),
+                    hedging.wins.sum(), TimeUnit.NANOSECONDS.toMillis(delayNanos(hedging))));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    boolean isHedgedEndpoint(String endpoint) {
+        return hedgedEndpoints.contains(endpoint);
+    }
+
+    void onRequest(String endpoint) {
+        endpointHedging(endpoint).requests.increment();
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokenDeposit)));
+    }
+
+    /**
+     * 预算允许时消耗一个令牌并返回true
+     */
+    boolean tryHedge(String endpoint) {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+        endpointHedging(endpoint).hedges.increment();
+        return true;
+    }
+
+    /**
+     * 记录首个请求的延迟
+     * 只记录获胜一路的延迟会使样本偏向较快的一路，分位数逐轮下降、对冲越来越早；
+     * 对冲获胜时首个请求的真实延迟未知，调用方传入首个请求发出至今的时间，作为其延迟的下限。
+     *
+     * @param hedgeWon     是否由对冲请求获胜
+     * @param latencyNanos 从首个请求发出到获得结果的时间
+     */
+    void onSuccess(String endpoint, boolean hedgeWon, long latencyNanos) {
+        EndpointHedging hedging = endpointHedging(endpoint);
+        if (hedgeWon) {
+            hedging.wins.increment();
+        }
+        if (fixedDelayNanos <= 0) {
+            hedging.record(latencyNanos);
+        }
+    }
+
+    long delayNanos(String endpoint) {
+        return delayNanos(endpointHedging(endpoint));
+    }
+
+    private long delayNanos(EndpointHedging hedging) {
+        if (fixedDelayNanos > 0) {
+            return fixedDelayNanos;
+        }
+        long observed = hedging.percentileNanos;
+        return observed > 0 ? observed : fallbackDelayNanos;
+    }
+
+    private EndpointHedging endpointHedging(String endpoint) {
+        EndpointHedging hedging = endpoints.get(endpoint);
+        if (hedging == null) {
+            hedging = endpoints.computeIfAbsent(endpoint, key -> new EndpointHedging());
+        }
+        return hedging;
+    }
+
+    /**
+     * 单个端点的统计和最近延迟样本
+     */
+    private final class EndpointHedging {
+        final LongAdder requests = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final ReentrantLock lock = new ReentrantLock();
+        final long[] samples = new long[SAMPLE_CAPACITY];
+        int position;
+        int count;
+        /**
+         * 初值使样本数首次达到下限时立即计算分位数，之后每64个样本重算一次
+         */
+        int sinceRecompute = RECOMPUTE_INTERVAL - 1;
+        volatile long percentileNanos;
+
+        void record(long latencyNanos) {
+            long[] copy = null;
+            int size = 0;
+            lock.lock();
+            try {
+                samples[position] = latencyNanos;
+                position = (position + 1) % SAMPLE_CAPACITY;
+                if (count < SAMPLE_CAPACITY) {
+                    count++;
+                }
+                if (count >= MIN_SAMPLES && ++sinceRecompute >= RECOMPUTE_INTERVAL) {
+                    sinceRecompute = 0;
+                    size = count;
+                    copy = Arrays.copyOf(samples, size);
+                }
+            } finally {
+                lock.unlock();
+            }
+            // 在锁外排序，每64个样本重算一次分位数
+            if (copy != null) {
+                Arrays.sort(copy);
+                int index = (int) Math.min(size - 1, Math.ceil(percentile / 100 * size) - 1);
+                percentileNanos = copy[Math.max(0, index)];
+            }
+        }
+    }
+
+    /**
+     * 单个端点的对冲统计
+     */
+    public static class EndpointStats {
+        private final long requestCount;
+        private final long hedgeCount;
+        private final long hedgeWinCount;
+        private final long delayMillis;
+
+        EndpointStats(long requestCount, long hedgeCount, long hedgeWinCount, long delayMillis) {
+            this.requestCount = requestCount;
+            this.hedgeCount = hedgeCount;
+            this.hedgeWinCount = hedgeWinCount;
+            this.delayMillis = delayMillis;
+        }
+
+        /**
+         * @return 请求数
+         */
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        /**
+         * @return 发出的对冲请求数
+         */
+        public long getHedgeCount() {
+            return hedgeCount;
+        }
+
+        /**
+         * @return 对冲请求先于原请求返回的次数
+         */
+        public long getHedgeWinCount() {
+            return hedgeWinCount;
+        }
+
+        /**
+         * @return 对冲率(对冲请求数/请求数)
+         */
+        public double getHedgeRate() {
+            return requestCount == 0 ? 0 : (double) hedgeCount / requestCount;
+        }
+
+        /**
+         * @return 当前对冲延迟(毫秒)
+         */
+        public long getDelayMillis() {
+            return delayMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EndpointStats{requests=%d, hedges=%d, wins=%d, hedgeRate=%.3f, delayMillis=%d}",
+                    requestCount, hedgeCount, hedgeWinCount, getHedgeRate(), delayMillis);
+        }
+    }
+
+    /**
+     * 对冲策略构建器
+     */
+    public static class Builder {
+        private Set<String> hedgedEndpoints = RetryPolicy.DEFAULT_RETRYABLE_ENDPOINTS;
+        private long fixedDelayNanos;
+        private double percentile = 95;
+        private long fallbackDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private double maxHedgeRatio = 0.05;
+
+        private Builder() {
+        }
+
+        /**
+         * 使用固定的对冲延迟
+         *
+         * @param delay 延迟
+         * @param unit  时间单位
+         * @return 当前构建器
+         */
+        public Builder fixedDelay(long delay, TimeUnit unit) {
+            if (delay <= 0) {
+                throw new IllegalArgumentException("对冲延迟必须大于0");
+            }
+            this.fixedDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * 以端点最近延迟的分位数作为对冲延迟(默认方式，p95)，样本不足时使用后备延迟(默认100毫秒)
+         *
+         * @param percentile    分位数，取值(0, 100)
+         * @param fallbackDelay 后备延迟
+         * @param unit          时间单位
+         * @return 当前构建器
+         */
+        public Builder percentileDelay(double percentile, long fallbackDelay, TimeUnit unit) {
+            if (percentile <= 0 || percentile >= 100 || fallbackDelay <= 0) {
+                throw new IllegalArgumentException("无效的分位数或后备延迟");
+            }
+            this.fixedDelayNanos = 0;
+            this.percentile = percentile;
+            this.fallbackDelayNanos = unit.toNanos(fallbackDelay);
+            return this;
+        }
+
+        /**
+         * 设置对冲请求占总请求的最大比例，默认0.05
+         *
+         * @param maxHedgeRatio 最大比例，取值(0, 1]
+         * @return 当前构建器
+         */
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            if (maxHedgeRatio <= 0 || maxHedgeRatio > 1) {
+                throw new IllegalArgumentException("对冲比例必须在0和1之间");
+            }
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        /**
+         * 设置对冲的端点，默认为设备详情、设备状态和批量状态查询
+         * 只应包含幂等端点
+         *
+         * @param endpoints 端点路径
+         * @return 当前构建器
+         */
+        public Builder hedgedEndpoints(String... endpoints) {
+            this.hedgedEndpoints = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(endpoints)));
+            return this;
+        }
+
+        /**
+         * 构建对冲策略
+         *
+         * @return 对冲策略
+         */
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.iot.sdk.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数线性直方图
+ * 小于16的值各占一个桶，之后每个2的幂区间再均分为16个桶，相对误差不超过1/16。
+ * 记录只做原子自增，不加锁也不分配内存；不小于2^41的值计入最后一个桶，该桶的分位数按最大值返回。
+ * <p>
+ * 数值单位由使用方决定，客户端指标中延迟以微秒记录，大小以字节记录。
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final double RANK_TOLERANCE = 1e-9;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值，负数按0记录
+     *
+     * @param value 值
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // 其他线程更新了最大值，重新比较
+        }
+    }
+
+    /**
+     * 复制当前计数，复制期间的并发记录可能部分计入
+     *
+     * @return 直方图快照
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 桶内的最大值
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @return 记录的值个数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 所有值之和
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * @return 最大值
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return 平均值，没有记录时为0
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 获取分位数，返回所在桶的上界(不超过最大值)
+         *
+         * @param percentile 分位数，取值(0, 100]
+         * @return 分位数的值，没有记录时为0
+         */
+        public long getPercentile(double percentile) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("分位数必须在0和100之间");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            // 分位数通常是十进制小数(如99.9)，浮点乘积可能略大于整数而被多取一位，减去远小于1的容差后再取整
+            long rank = Math.max(1, (long) Math.ceil(percentile * count / 100 - RANK_TOLERANCE));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == counts.length - 1 ? max : Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * 统计不超过指定值的记录数，用于导出自定义边界的累积桶
+         * 指定值落在桶内部时按整个桶计入，结果可能偏大一个桶的计数
+         *
+         * @param value 上界
+         * @return 记录数
+         */
+        public long getCountAtOrBelow(long value) {
+            if (value < 0) {
+                return 0;
+            }
+            int last = indexOf(value);
+            long total = 0;
+            for (int i = 0; i <= last; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Histogram{count=%d, mean=%.1f, p50=%d, p99=%d, max=%d}",
+                    count, getMean(), getPercentile(50), getPercentile(99), max);
+        }
+    }
+}
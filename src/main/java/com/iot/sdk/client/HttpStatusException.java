@@ -0,0 +1,24 @@
+package com.iot.sdk.client;
+
+import java.io.IOException;
+
+/**
+ * 平台返回非2xx HTTP状态码时抛出的异常
+ */
+public class HttpStatusException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String statusMessage) {
+        super("请求失败: " + statusCode + " " + statusMessage);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return HTTP状态码
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -1,31 +1,73 @@
 package com.iot.sdk.client;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.HashMap;
+import java.util.function.BooleanSupplier;
 
 /**
  * IoT云平台SDK客户端
  * 提供与IoT云平台交互的基础功能
  */
-public class IoTClient {
+public class IoTClient implements Closeable {
+    private static final String AUTH_ENDPOINT = "/api/v1/oauth/auth";
+    /**
+     * 认证失效时不重放的非幂等端点：设备注册、RRPC、自定义指令下发
+     */
+    private static final Set<String> NON_REPLAYABLE_ENDPOINTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "/api/v1/quickdevice/register",
+            "/api/v1/device/rrpc",
+            "/api/v1/device/down/record/add/custom")));
+    private static final String AUTH_FAILURE_CODE = "401";
+    
     private final String baseUrl;
-    private String token;
+    private final TokenManager tokenManager;
     private final String appId;
     private final String appSecret;
     private final OkHttpClient httpClient;
+    /**
+     * 虚拟线程模式下本客户端创建的调度器线程池，关闭客户端时一并关闭；其他情况为null
+     */
+    private final ExecutorService dispatcherExecutor;
+    private final long maxResponseBytes;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgingPolicy hedgingPolicy;
+    private final ClientMetrics metrics;
+    private final boolean metricsEnabled;
     private final Gson gson;
     private final Logger logger;
-    
-    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+    private volatile boolean closed;
     
     /**
      * 使用token初始化IoT客户端
@@ -34,29 +76,7 @@ public class IoTClient {
      * @param token   认证令牌
      */
     public IoTClient(String baseUrl, String token) {
-        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.token = token;
-        this.appId = null;
-        this.appSecret = null;
-        this.gson = new Gson();
-        this.logger = LoggerFactory.getLogger(IoTClient.class);
-        
-        // 检查参数有效性
-        if (this.baseUrl == null || this.baseUrl.isEmpty()) {
-            throw new IllegalArgumentException("无效的baseUrl");
-        }
-        if (this.token == null || this.token.isEmpty()) {
-            throw new IllegalArgumentException("无效的token");
-        }
-        
-        // 配置HTTP客户端
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
-        
-        logger.info("IoT客户端已初始化: {}", this.baseUrl);
+        this(builder(baseUrl).token(token));
     }
 
     /**
@@ -67,68 +87,127 @@ public class IoTClient {
      * @param appSecret 应用密钥
      */
     public IoTClient(String baseUrl, String appId, String appSecret) {
-        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.appId = appId;
-        this.appSecret = appSecret;
-        this.gson = new Gson();
-        this.logger = LoggerFactory.getLogger(IoTClient.class);
-        
+        this(builder(baseUrl).credentials(appId, appSecret));
+    }
+
+    private IoTClient(Builder builder) {
+        this(builder, true);
+    }
+
+    /**
+     * @param fetchToken 使用应用凭证且未提供token时是否在构建时同步获取token
+     */
+    private IoTClient(Builder builder, boolean fetchToken) {
         // 检查参数有效性
-        if (this.baseUrl == null || this.baseUrl.isEmpty()) {
+        if (builder.baseUrl == null || builder.baseUrl.isEmpty()) {
             throw new IllegalArgumentException("无效的baseUrl");
         }
-        if (this.appId == null || this.appId.isEmpty()) {
-            throw new IllegalArgumentException("无效的appId");
-        }
-        if (this.appSecret == null || this.appSecret.isEmpty()) {
-            throw new IllegalArgumentException("无效的appSecret");
+        this.baseUrl = builder.baseUrl.endsWith("/")
+                ? builder.baseUrl.substring(0, builder.baseUrl.length() - 1) : builder.baseUrl;
+        this.appId = builder.appId;
+        this.appSecret = builder.appSecret;
+        this.gson = new Gson();
+        this.logger = LoggerFactory.getLogger(IoTClient.class);
+        
+        boolean hasCredentials = appId != null || appSecret != null;
+        if (hasCredentials) {
+            if (this.appId == null || this.appId.isEmpty()) {
+                throw new IllegalArgumentException("无效的appId");
+            }
+            if (this.appSecret == null || this.appSecret.isEmpty()) {
+                throw new IllegalArgumentException("无效的appSecret");
+            }
+        } else if (builder.token == null || builder.token.isEmpty()) {
+            throw new IllegalArgumentException("无效的token");
         }
         
         // 配置HTTP客户端
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        this.httpClient = builder.buildHttpClient();
+        this.dispatcherExecutor = builder.virtualThreads ? httpClient.dispatcher().executorService() : null;
+        this.maxResponseBytes = builder.maxResponseBytes;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.metrics = builder.metrics;
+        this.metricsEnabled = builder.metrics != ClientMetrics.NOOP;
         
-        // 获取token
-        try {
-            refreshToken();
-        } catch (IOException e) {
-            throw new RuntimeException("初始化客户端时获取token失败", e);
+        String initialToken = builder.token != null && !builder.token.isEmpty() ? builder.token : null;
+        this.tokenManager = new TokenManager(initialToken, builder.tokenIssuedAt,
+                hasCredentials ? this::fetchTokenAsync : null, builder.tokenTtlMillis);
+        
+        // 获取token，异步构建时由调用方发起
+        if (initialToken != null) {
+            tokenManager.start();
+        } else if (fetchToken) {
+            try {
+                refreshToken();
+            } catch (IOException e) {
+                throw new RuntimeException("初始化客户端时获取token失败", e);
+            }
         }
         
         logger.info("IoT客户端已初始化: {}", this.baseUrl);
     }
 
+    /**
+     * 创建IoT客户端构建器
+     *
+     * @param baseUrl API基础URL
+     * @return 客户端构建器
+     */
+    public static Builder builder(String baseUrl) {
+        return new Builder(baseUrl);
+    }
+
     /**
      * 刷新认证token
+     * 并发调用会合并为一次认证请求
      *
      * @throws IOException 网络请求异常
      */
     public void refreshToken() throws IOException {
-        if (appId == null || appSecret == null) {
+        if (!tokenManager.canRefresh()) {
             throw new IllegalStateException("未配置应用凭证，无法刷新token");
         }
+        awaitRefresh(null);
+    }
 
-        String endpoint = "/api/v1/oauth/auth";
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("appId", appId);
-        payload.put("appSecret", appSecret);
+    private CompletableFuture<String> fetchTokenAsync() {
+        RequestPayload payload = JsonPayload.builder()
+                .add("appId", appId)
+                .add("appSecret", appSecret)
+                .build();
 
-        JsonObject response = makeRequest(endpoint, payload, "POST", null);
-        if (checkResponse(response) && response.has("data")) {
-            // 直接获取data字段的值作为token
-            this.token = response.get("data").getAsString();
-            logger.info("Token刷新成功");
-        } else {
-            throw new IOException("获取token失败：" + 
-                (response.has("errorMessage") ? response.get("errorMessage").getAsString() : "未知错误"));
+        return sendAsync(AUTH_ENDPOINT, payload, "POST", null, this::parseResponse, false).thenApply(response -> {
+            if (checkResponse(response) && response.has("data")) {
+                logger.info("Token刷新成功");
+                // 直接获取data字段的值作为token
+                return response.get("data").getAsString();
+            }
+            throw new CompletionException(new IOException("获取token失败：" + 
+                (response.has("errorMessage") ? response.get("errorMessage").getAsString() : "未知错误")));
+        });
+    }
+
+    private void awaitRefresh(String staleToken) throws IOException {
+        try {
+            tokenManager.refresh(staleToken).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待token刷新时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e.getCause());
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("获取token失败", cause);
         }
     }
     
     /**
      * 发送API请求的通用方法
+     * 配置了应用凭证时，认证失效的请求会在token刷新后自动重放一次
      *
      * @param endpoint          API端点路径
      * @param payload           请求体数据
@@ -138,6 +217,526 @@ public class IoTClient {
      */
     public JsonObject makeRequest(String endpoint, Map<String, Object> payload, 
                                 String method, Map<String, String> additionalHeaders) throws IOException {
+        return makeRequest(endpoint, new MapPayload(gson, payload), method, additionalHeaders);
+    }
+
+    /**
+     * 发送API请求，请求体直接写入请求缓冲区
+     * GET请求的查询参数只支持Map形式，见 {@link #get(String, Map)}
+     *
+     * @param endpoint          API端点路径
+     * @param payload           请求体
+     * @param method            HTTP方法
+     * @param additionalHeaders 附加的请求头
+     * @return API响应结果
+     * @throws IOException 网络请求异常
+     */
+    public JsonObject makeRequest(String endpoint, RequestPayload payload,
+                                  String method, Map<String, String> additionalHeaders) throws IOException {
+        return execute(endpoint, payload, method, additionalHeaders, this::parseResponse, () -> true);
+    }
+
+    /**
+     * 以流式解码方式发送POST请求
+     * 响应体直接由 {@link JsonReader} 从网络流中读取，每个顶层字段交给处理器，
+     * 不会把完整响应读成字符串或JSON树，单次调用的峰值内存与响应大小无关。
+     *
+     * @param endpoint API端点路径
+     * @param payload  请求体数据
+     * @param handler  顶层字段处理器
+     * @return 响应外壳，仅包含处理器未消费的字段(如success、errorMessage)
+     * @throws IOException 网络请求异常或响应超过大小上限
+     */
+    public JsonObject postStreaming(String endpoint, Map<String, Object> payload,
+                                    ResponseFieldHandler handler) throws IOException {
+        return postStreaming(endpoint, new MapPayload(gson, payload), handler);
+    }
+
+    /**
+     * 以流式解码方式发送POST请求
+     *
+     * @param endpoint API端点路径
+     * @param payload  请求体
+     * @param handler  顶层字段处理器
+     * @return 响应外壳
+     * @throws IOException 网络请求异常或响应超过大小上限
+     * @see #postStreaming(String, Map, ResponseFieldHandler)
+     */
+    public JsonObject postStreaming(String endpoint, RequestPayload payload,
+                                    ResponseFieldHandler handler) throws IOException {
+        boolean[] delivered = new boolean[1];
+        return execute(endpoint, payload, "POST", null, response -> parseStreaming(response, tracking(handler, delivered)),
+                () -> !delivered[0]);
+    }
+
+    /**
+     * 以流式解码方式异步发送POST请求
+     * 处理器在OkHttp调度线程上被调用
+     *
+     * @param endpoint         API端点路径
+     * @param payload          请求体数据
+     * @param handler          顶层字段处理器
+     * @param callbackExecutor 执行完成回调的线程池，可为null
+     * @return 异步响应外壳
+     * @see #postStreaming(String, Map, ResponseFieldHandler)
+     */
+    public CompletableFuture<JsonObject> postStreamingAsync(String endpoint, Map<String, Object> payload,
+                                                          ResponseFieldHandler handler, Executor callbackExecutor) {
+        return postStreamingAsync(endpoint, new MapPayload(gson, payload), handler, callbackExecutor);
+    }
+
+    /**
+     * 以流式解码方式异步发送POST请求
+     *
+     * @param endpoint         API端点路径
+     * @param payload          请求体
+     * @param handler          顶层字段处理器
+     * @param callbackExecutor 执行完成回调的线程池，可为null
+     * @return 异步响应外壳
+     * @see #postStreaming(String, Map, ResponseFieldHandler)
+     */
+    public CompletableFuture<JsonObject> postStreamingAsync(String endpoint, RequestPayload payload,
+                                                          ResponseFieldHandler handler, Executor callbackExecutor) {
+        CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        boolean[] delivered = new boolean[1];
+        sendWithRetryAsync(endpoint, payload, "POST", null, response -> parseStreaming(response, tracking(handler, delivered)),
+                () -> !delivered[0])
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        completeExceptionally(future, Futures.unwrap(error), callbackExecutor);
+                    } else {
+                        complete(future, response, callbackExecutor);
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * 发送请求，配置了重试策略时对幂等端点的暂时性故障按退避时间重试
+     *
+     * @param replayable 失败后能否重放，流式处理器已消费数据时不能重放
+     */
+    private JsonObject execute(String endpoint, RequestPayload payload, String method,
+                               Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                               BooleanSupplier replayable) throws IOException {
+        boolean retryable = retryPolicy != null && retryPolicy.isRetryableEndpoint(endpoint);
+        if (retryable) {
+            retryPolicy.onRequest();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (isHedged(endpoint)) {
+                    return awaitHedged(sendHedgedAsync(endpoint, payload, method, additionalHeaders, decoder));
+                }
+                return executeOnce(endpoint, payload, method, additionalHeaders, decoder, true);
+            } catch (IOException e) {
+                if (!retryable || !replayable.getAsBoolean() || !retryPolicy.tryRetry(e, attempt)) {
+                    throw e;
+                }
+                long delay = retryPolicy.backoffMillis(attempt);
+                logger.warn("请求失败, {} 毫秒后第{}次重试: {}, 原因: {}", delay, attempt, endpoint, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    InterruptedIOException interrupted = new InterruptedIOException("等待重试时被中断");
+                    interrupted.addSuppressed(e);
+                    throw interrupted;
+                }
+            }
+        }
+    }
+
+    private JsonObject executeOnce(String endpoint, RequestPayload payload, String method,
+                                   Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                                   boolean allowAuthRetry) throws IOException {
+        String usedToken = tokenManager.currentToken();
+        Request request = buildRequest(endpoint, payload, method, additionalHeaders, usedToken);
+        boolean checkAuth = allowAuthRetry && tokenManager.canRefresh();
+        boolean retryOnAuth = checkAuth && isReplayableOnAuthFailure(endpoint);
+        ConcurrencyLimiter.Permit permit = acquire(endpoint);
+        boolean dropped = true;
+        
+        // 发送请求
+        try (Response response = httpClient.newCall(request).execute()) {
+            dropped = isOverloaded(response);
+            if (!(retryOnAuth && response.code() == 401)) {
+                if (checkAuth && response.code() == 401) {
+                    refreshWithoutReplay(endpoint, usedToken);
+                }
+                JsonObject json = decoder.decode(response);
+                recordResult(endpoint, json);
+                if (!(checkAuth && isAuthFailure(json))) {
+                    return json;
+                }
+                if (!retryOnAuth) {
+                    refreshWithoutReplay(endpoint, usedToken);
+                    return json;
+                }
+            }
+        } finally {
+            finish(endpoint, permit, dropped);
+        }
+        
+        logger.info("token已失效，刷新后重试请求: {}", endpoint);
+        awaitRefresh(usedToken);
+        return executeOnce(endpoint, payload, method, additionalHeaders, decoder, false);
+    }
+
+    /**
+     * 依次通过熔断器和并发限制
+     */
+    private ConcurrencyLimiter.Permit acquire(String endpoint) throws IOException {
+        if (circuitBreaker != null) {
+            circuitBreaker.acquire(endpoint);
+        }
+        if (concurrencyLimiter == null) {
+            return null;
+        }
+        try {
+            return concurrencyLimiter.acquire(endpoint);
+        } catch (IOException | RuntimeException e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.ignore(endpoint);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 请求结束，归还并发许可并记录熔断统计
+     *
+     * @param dropped 是否因过载或网络故障失败
+     */
+    private void finish(String endpoint, ConcurrencyLimiter.Permit permit, boolean dropped) {
+        if (permit != null) {
+            permit.release(dropped);
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.record(endpoint, dropped);
+        }
+    }
+
+    /**
+     * 请求未完成(被取消或未能发出)，归还并发许可，不计入熔断统计
+     */
+    private void abandon(String endpoint, ConcurrencyLimiter.Permit permit) {
+        if (permit != null) {
+            permit.discard();
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.ignore(endpoint);
+        }
+    }
+
+    /**
+     * 记录处理器是否已消费数据
+     */
+    private static ResponseFieldHandler tracking(ResponseFieldHandler handler, boolean[] delivered) {
+        return (name, reader) -> {
+            boolean consumed = handler.onField(name, reader);
+            if (consumed) {
+                delivered[0] = true;
+            }
+            return consumed;
+        };
+    }
+
+    /**
+     * 异步发送API请求的通用方法
+     * 基于OkHttp的enqueue实现，调用线程不会被阻塞
+     *
+     * @param endpoint          API端点路径
+     * @param payload           请求体数据
+     * @param method            HTTP方法(默认POST)
+     * @param additionalHeaders 附加的请求头
+     * @param callbackExecutor  执行完成回调的线程池，为null时在OkHttp调度线程上完成
+     * @return 异步API响应结果，失败时以IOException异常完成
+     */
+    public CompletableFuture<JsonObject> makeRequestAsync(String endpoint, Map<String, Object> payload,
+                                                        String method, Map<String, String> additionalHeaders,
+                                                        Executor callbackExecutor) {
+        return makeRequestAsync(endpoint, new MapPayload(gson, payload), method, additionalHeaders, callbackExecutor);
+    }
+
+    /**
+     * 异步发送API请求，请求体直接写入请求缓冲区
+     *
+     * @param endpoint          API端点路径
+     * @param payload           请求体
+     * @param method            HTTP方法
+     * @param additionalHeaders 附加的请求头
+     * @param callbackExecutor  执行完成回调的线程池，为null时在OkHttp调度线程上完成
+     * @return 异步API响应结果，失败时以IOException异常完成
+     */
+    public CompletableFuture<JsonObject> makeRequestAsync(String endpoint, RequestPayload payload,
+                                                        String method, Map<String, String> additionalHeaders,
+                                                        Executor callbackExecutor) {
+        CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        sendWithRetryAsync(endpoint, payload, method, additionalHeaders, this::parseResponse, () -> true).whenComplete((response, error) -> {
+            if (error != null) {
+                completeExceptionally(future, Futures.unwrap(error), callbackExecutor);
+            } else {
+                complete(future, response, callbackExecutor);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 异步发送请求，重试规则同 {@link #execute}，退避等待由共享调度线程计时，不占用调用线程
+     */
+    private CompletableFuture<JsonObject> sendWithRetryAsync(String endpoint, RequestPayload payload, String method,
+                                                             Map<String, String> additionalHeaders,
+                                                             ResponseDecoder decoder, BooleanSupplier replayable) {
+        boolean retryable = retryPolicy != null && retryPolicy.isRetryableEndpoint(endpoint);
+        if (!retryable) {
+            return sendAttemptAsync(endpoint, payload, method, additionalHeaders, decoder);
+        }
+        retryPolicy.onRequest();
+        CompletableFuture<JsonObject> result = new CompletableFuture<>();
+        attemptAsync(endpoint, payload, method, additionalHeaders, decoder, replayable, 1, result);
+        return result;
+    }
+
+    private void attemptAsync(String endpoint, RequestPayload payload, String method,
+                              Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                              BooleanSupplier replayable, int attempt, CompletableFuture<JsonObject> result) {
+        sendAttemptAsync(endpoint, payload, method, additionalHeaders, decoder).whenComplete((json, error) -> {
+            if (error == null) {
+                result.complete(json);
+                return;
+            }
+            Throwable cause = Futures.unwrap(error);
+            if (!(cause instanceof IOException) || !replayable.getAsBoolean()
+                    || !retryPolicy.tryRetry((IOException) cause, attempt)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = retryPolicy.backoffMillis(attempt);
+            logger.warn("请求失败, {} 毫秒后第{}次重试: {}, 原因: {}", delay, attempt, endpoint, cause.getMessage());
+            SharedScheduler.get().schedule(() -> attemptAsync(endpoint, payload, method, additionalHeaders, decoder,
+                    replayable, attempt + 1, result), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private CompletableFuture<JsonObject> sendAttemptAsync(String endpoint, RequestPayload payload, String method,
+                                                           Map<String, String> additionalHeaders,
+                                                           ResponseDecoder decoder) {
+        if (isHedged(endpoint)) {
+            return sendHedgedAsync(endpoint, payload, method, additionalHeaders, decoder);
+        }
+        return sendAsync(endpoint, payload, method, additionalHeaders, decoder, true);
+    }
+
+    private boolean isHedged(String endpoint) {
+        return hedgingPolicy != null && hedgingPolicy.isHedgedEndpoint(endpoint);
+    }
+
+    /**
+     * 发送对冲请求：首个请求在对冲延迟内未收到响应时再发送一个相同请求，
+     * 先收到成功响应头的一路负责解码，另一路通过 {@link Call#cancel()} 取消
+     */
+    private CompletableFuture<JsonObject> sendHedgedAsync(String endpoint, RequestPayload payload, String method,
+                                                          Map<String, String> additionalHeaders,
+                                                          ResponseDecoder decoder) {
+        return new HedgedExchange(endpoint, hedgingPolicy, decoder,
+                (guarded, tracker) -> sendAsync(endpoint, payload, method, additionalHeaders, guarded, true, tracker))
+                .start();
+    }
+
+    private static JsonObject awaitHedged(CompletableFuture<JsonObject> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待对冲请求结果时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e.getCause());
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private CompletableFuture<JsonObject> sendAsync(String endpoint, RequestPayload payload, String method,
+                                                    Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                                                    boolean allowAuthRetry) {
+        return sendAsync(endpoint, payload, method, additionalHeaders, decoder, allowAuthRetry, null);
+    }
+
+    /**
+     * 依次通过熔断器和并发限制后发送
+     *
+     * @param tracker 记录实际发出的Call以便取消，可为null
+     */
+    private CompletableFuture<JsonObject> sendAsync(String endpoint, RequestPayload payload, String method,
+                                                    Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                                                    boolean allowAuthRetry, CallTracker tracker) {
+        if (circuitBreaker != null) {
+            try {
+                circuitBreaker.acquire(endpoint);
+            } catch (CircuitBreakerOpenException e) {
+                CompletableFuture<JsonObject> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+        }
+        if (concurrencyLimiter == null) {
+            return send(endpoint, payload, method, additionalHeaders, decoder, allowAuthRetry, null, tracker);
+        }
+        // 排队中的请求在前一个请求归还许可的线程上发出
+        return concurrencyLimiter.acquireAsync(endpoint)
+                .whenComplete((permit, error) -> {
+                    if (error != null && circuitBreaker != null) {
+                        circuitBreaker.ignore(endpoint);
+                    }
+                })
+                .thenCompose(permit ->
+                        send(endpoint, payload, method, additionalHeaders, decoder, allowAuthRetry, permit, tracker));
+    }
+
+    private CompletableFuture<JsonObject> send(String endpoint, RequestPayload payload, String method,
+                                               Map<String, String> additionalHeaders, ResponseDecoder decoder,
+                                               boolean allowAuthRetry, ConcurrencyLimiter.Permit permit,
+                                               CallTracker tracker) {
+        CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        String usedToken = tokenManager.currentToken();
+        Request request;
+        try {
+            request = buildRequest(endpoint, payload, method, additionalHeaders, usedToken);
+        } catch (RuntimeException e) {
+            abandon(endpoint, permit);
+            future.completeExceptionally(e);
+            return future;
+        }
+        boolean checkAuth = allowAuthRetry && tokenManager.canRefresh();
+        boolean retryOnAuth = checkAuth && isReplayableOnAuthFailure(endpoint);
+
+        Call newCall = httpClient.newCall(request);
+        if (tracker != null) {
+            tracker.register(newCall);
+        }
+        newCall.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (call.isCanceled()) {
+                    // 主动取消(如对冲请求落败)不代表端点故障
+                    abandon(endpoint, permit);
+                } else {
+                    finish(endpoint, permit, true);
+                }
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                // 响应体需在OkHttp线程上读取，完成回调再交给调用方的线程池
+                boolean dropped = isOverloaded(response);
+                try (Response r = response) {
+                    if (!(retryOnAuth && r.code() == 401)) {
+                        if (checkAuth && r.code() == 401) {
+                            refreshWithoutReplay(endpoint, usedToken);
+                        }
+                        JsonObject json = decoder.decode(r);
+                        recordResult(endpoint, json);
+                        boolean authFailed = checkAuth && isAuthFailure(json);
+                        if (authFailed && !retryOnAuth) {
+                            refreshWithoutReplay(endpoint, usedToken);
+                        }
+                        if (!authFailed || !retryOnAuth) {
+                            finish(endpoint, permit, dropped);
+                            future.complete(json);
+                            return;
+                        }
+                    }
+                } catch (Exception e) {
+                    finish(endpoint, permit, dropped);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                finish(endpoint, permit, dropped);
+
+                // 认证失效：等待单次刷新完成后重放请求
+                logger.info("token已失效，刷新后重试请求: {}", endpoint);
+                tokenManager.refresh(usedToken)
+                        .thenCompose(newToken -> sendAsync(endpoint, payload, method, additionalHeaders, decoder, false,
+                                tracker))
+                        .whenComplete((json, error) -> {
+                            if (error != null) {
+                                future.completeExceptionally(Futures.unwrap(error));
+                            } else {
+                                future.complete(json);
+                            }
+                        });
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 平台限流或服务端错误，作为并发限制的过载信号
+     */
+    private static boolean isOverloaded(Response response) {
+        return response.code() == 429 || response.code() >= 500;
+    }
+
+    /**
+     * 记录平台返回的业务结果，未启用指标时不做任何处理
+     */
+    private void recordResult(String endpoint, JsonObject response) {
+        if (!metricsEnabled) {
+            return;
+        }
+        JsonElement success = response.get("success");
+        try {
+            metrics.recordResult(endpoint, success != null && success.isJsonPrimitive() && success.getAsBoolean());
+        } catch (RuntimeException e) {
+            logger.error("指标记录失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 判断平台是否因token失效而拒绝请求，只按认证失败错误码判断，不解析错误信息文本
+     */
+    private static boolean isAuthFailure(JsonObject response) {
+        JsonElement success = response.get("success");
+        if (success != null && success.isJsonPrimitive() && success.getAsBoolean()) {
+            return false;
+        }
+        JsonElement code = response.has("code") ? response.get("code") : response.get("errorCode");
+        return code != null && code.isJsonPrimitive() && AUTH_FAILURE_CODE.equals(code.getAsString());
+    }
+
+    /**
+     * 认证失效后能否重放请求；非幂等请求可能已被平台处理，重放会重复执行
+     */
+    private static boolean isReplayableOnAuthFailure(String endpoint) {
+        return !NON_REPLAYABLE_ENDPOINTS.contains(endpoint);
+    }
+
+    /**
+     * 非幂等请求认证失效时不重放，只触发后台刷新，后续请求使用新token
+     */
+    private void refreshWithoutReplay(String endpoint, String usedToken) {
+        logger.warn("token已失效，非幂等请求不重放: {}", endpoint);
+        tokenManager.refresh(usedToken).whenComplete((token, error) -> {
+            if (error != null) {
+                logger.error("刷新token失败: {}", Futures.unwrap(error).getMessage());
+            }
+        });
+    }
+
+    /**
+     * 构建HTTP请求
+     */
+    private Request buildRequest(String endpoint, RequestPayload payload,
+                                 String method, Map<String, String> additionalHeaders, String token) {
         // 构建完整URL
         String url = baseUrl + endpoint;
         
@@ -159,21 +758,26 @@ public class IoTClient {
         
         Request.Builder requestBuilder = new Request.Builder()
                 .headers(headersBuilder.build());
+        if (metricsEnabled) {
+            requestBuilder.tag(MetricsEventListener.EndpointTag.class, new MetricsEventListener.EndpointTag(endpoint));
+        }
         
         // 根据HTTP方法构建请求
         if ("POST".equalsIgnoreCase(method)) {
-            String jsonPayload = payload != null ? gson.toJson(payload) : "{}";
-            RequestBody requestBody = RequestBody.create(jsonPayload, JSON_MEDIA_TYPE);
+            JsonRequestBody requestBody = JsonRequestBody.create(payload);
             requestBuilder.url(url).post(requestBody);
             
-            logger.debug("发送POST请求: {}", url);
-            logger.debug("请求体: {}", jsonPayload);
+            if (logger.isDebugEnabled()) {
+                logger.debug("发送POST请求: {}", url);
+                logger.debug("请求体: {}", requestBody.utf8());
+            }
         } else if ("GET".equalsIgnoreCase(method)) {
             HttpUrl.Builder urlBuilder = HttpUrl.parse(url).newBuilder();
             
             // 添加查询参数
-            if (payload != null) {
-                for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            Map<String, Object> params = queryParameters(payload);
+            if (params != null) {
+                for (Map.Entry<String, Object> entry : params.entrySet()) {
                     if (entry.getValue() != null) {
                         urlBuilder.addQueryParameter(entry.getKey(), entry.getValue().toString());
                     }
@@ -186,16 +790,121 @@ public class IoTClient {
             throw new IllegalArgumentException("不支持的HTTP方法: " + method);
         }
         
-        // 发送请求
-        try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("请求失败: " + response.code() + " " + response.message());
+        return requestBuilder.build();
+    }
+
+    private static Map<String, Object> queryParameters(RequestPayload payload) {
+        if (payload == null) {
+            return null;
+        }
+        if (!(payload instanceof MapPayload)) {
+            throw new IllegalArgumentException("GET请求的查询参数只支持Map形式");
+        }
+        return ((MapPayload) payload).map();
+    }
+
+    /**
+     * 解析HTTP响应为JSON对象
+     */
+    private JsonObject parseResponse(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response.code(), response.message());
+        }
+        
+        ResponseBody body = response.body();
+        String responseBody = limitedSource(body).readString(charsetOf(body));
+        logger.debug("收到响应: {}", responseBody);
+        
+        return JsonParser.parseString(responseBody).getAsJsonObject();
+    }
+
+    /**
+     * 流式解析HTTP响应，顶层字段交给处理器
+     */
+    private JsonObject parseStreaming(Response response, ResponseFieldHandler handler) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response.code(), response.message());
+        }
+        
+        JsonObject envelope = new JsonObject();
+        ResponseBody body = response.body();
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(limitedSource(body).inputStream(), charsetOf(body)))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (!handler.onField(name, reader)) {
+                    envelope.add(name, JsonParser.parseReader(reader));
+                }
             }
-            
-            String responseBody = response.body().string();
-            logger.debug("收到响应: {}", responseBody);
-            
-            return JsonParser.parseString(responseBody).getAsJsonObject();
+            reader.endObject();
+        }
+        logger.debug("收到流式响应: {}", envelope);
+        return envelope;
+    }
+
+    private static Charset charsetOf(ResponseBody body) {
+        MediaType contentType = body.contentType();
+        return contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 包装响应体数据源，读取超过大小上限时中止
+     */
+    private BufferedSource limitedSource(ResponseBody body) throws IOException {
+        if (maxResponseBytes <= 0) {
+            return body.source();
+        }
+        long contentLength = body.contentLength();
+        if (contentLength > maxResponseBytes) {
+            throw new IOException("响应大小超过上限: " + contentLength + " > " + maxResponseBytes);
+        }
+        return Okio.buffer(new ForwardingSource(body.source()) {
+            private long total;
+
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    total += read;
+                    if (total > maxResponseBytes) {
+                        throw new IOException("响应大小超过上限: " + maxResponseBytes);
+                    }
+                }
+                return read;
+            }
+        });
+    }
+
+    /**
+     * 响应解码方式
+     */
+    @FunctionalInterface
+    interface ResponseDecoder {
+        JsonObject decode(Response response) throws IOException;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Executor executor) {
+        if (executor == null) {
+            future.complete(value);
+            return;
+        }
+        try {
+            executor.execute(() -> future.complete(value));
+        } catch (RejectedExecutionException e) {
+            future.complete(value);
+        }
+    }
+
+    private static <T> void completeExceptionally(CompletableFuture<T> future, Throwable error, Executor executor) {
+        if (executor == null) {
+            future.completeExceptionally(error);
+            return;
+        }
+        try {
+            executor.execute(() -> future.completeExceptionally(error));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(error);
         }
     }
     
@@ -209,6 +918,17 @@ public class IoTClient {
     public JsonObject post(String endpoint, Map<String, Object> payload) throws IOException {
         return makeRequest(endpoint, payload, "POST", null);
     }
+
+    /**
+     * 发送POST请求
+     *
+     * @param endpoint API端点路径
+     * @param payload  请求体
+     * @return API响应结果
+     */
+    public JsonObject post(String endpoint, RequestPayload payload) throws IOException {
+        return makeRequest(endpoint, payload, "POST", null);
+    }
     
     /**
      * 发送GET请求
@@ -221,13 +941,145 @@ public class IoTClient {
         return makeRequest(endpoint, params, "GET", null);
     }
     
+    /**
+     * 异步发送POST请求
+     *
+     * @param endpoint API端点路径
+     * @param payload  请求体数据
+     * @return 异步API响应结果
+     */
+    public CompletableFuture<JsonObject> postAsync(String endpoint, Map<String, Object> payload) {
+        return makeRequestAsync(endpoint, payload, "POST", null, null);
+    }
+    
+    /**
+     * 异步发送POST请求
+     *
+     * @param endpoint         API端点路径
+     * @param payload          请求体数据
+     * @param callbackExecutor 执行完成回调的线程池
+     * @return 异步API响应结果
+     */
+    public CompletableFuture<JsonObject> postAsync(String endpoint, Map<String, Object> payload, Executor callbackExecutor) {
+        return makeRequestAsync(endpoint, payload, "POST", null, callbackExecutor);
+    }
+
+    /**
+     * 异步发送POST请求
+     *
+     * @param endpoint API端点路径
+     * @param payload  请求体
+     * @return 异步API响应结果
+     */
+    public CompletableFuture<JsonObject> postAsync(String endpoint, RequestPayload payload) {
+        return makeRequestAsync(endpoint, payload, "POST", null, null);
+    }
+
+    /**
+     * 异步发送POST请求
+     *
+     * @param endpoint         API端点路径
+     * @param payload          请求体
+     * @param callbackExecutor 执行完成回调的线程池
+     * @return 异步API响应结果
+     */
+    public CompletableFuture<JsonObject> postAsync(String endpoint, RequestPayload payload, Executor callbackExecutor) {
+        return makeRequestAsync(endpoint, payload, "POST", null, callbackExecutor);
+    }
+    
+    /**
+     * 获取并发限制
+     *
+     * @return 并发限制，未启用时返回null
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * 获取重试策略
+     *
+     * @return 重试策略，未启用时返回null
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 获取熔断器
+     *
+     * @return 熔断器，未启用时返回null
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 获取对冲策略
+     *
+     * @return 对冲策略，未启用时返回null
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * 获取客户端指标
+     *
+     * @return 客户端指标，未启用时返回 {@link ClientMetrics#NOOP}
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * 获取当前token
      *
      * @return 当前token
      */
     public String getToken() {
-        return token;
+        return tokenManager.currentToken();
+    }
+
+    /**
+     * 获取当前token的获取时间
+     * 构建时提供的token按 {@link Builder#tokenIssuedAt(long)} 计算
+     *
+     * @return 毫秒时间戳，没有token时为0
+     */
+    public long getTokenIssuedAt() {
+        return tokenManager.issuedAt();
+    }
+
+    /**
+     * 关闭客户端，停止token的主动刷新
+     * 不会关闭共享的HTTP传输层；虚拟线程模式下会关闭本客户端创建的调度器线程池，
+     * 已提交的请求继续执行完毕，共享该传输层的其他客户端需先于本客户端关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        tokenManager.close();
+        if (dispatcherExecutor != null) {
+            dispatcherExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return 是否已调用 {@link #close()}
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 获取底层HTTP传输层
+     * 可传给其他客户端的构建器，使多个客户端共享连接池和调度器
+     *
+     * @return OkHttp客户端
+     */
+    public OkHttpClient getHttpClient() {
+        return httpClient;
     }
 
     /**
@@ -250,4 +1102,403 @@ public class IoTClient {
         
         return success;
     }
-} 
\ No newline at end of file
+
+    /**
+     * IoT客户端构建器
+     * 支持配置认证方式、超时、连接池、调度器和协议，并可在多个客户端之间共享同一个HTTP传输层
+     */
+    public static class Builder {
+        /**
+         * 默认连接超时(秒)
+         */
+        public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+        /**
+         * 默认读超时(秒)
+         */
+        public static final long DEFAULT_READ_TIMEOUT_SECONDS = 30;
+        /**
+         * 默认写超时(秒)
+         */
+        public static final long DEFAULT_WRITE_TIMEOUT_SECONDS = 30;
+        /**
+         * 默认token有效期(分钟)
+         */
+        public static final long DEFAULT_TOKEN_TTL_MINUTES = 120;
+        /**
+         * 虚拟线程模式下异步请求的默认最大并发数(总数和单主机)
+         */
+        public static final int DEFAULT_VIRTUAL_MAX_REQUESTS = 1024;
+
+        private final String baseUrl;
+        private String token;
+        private String appId;
+        private String appSecret;
+        private OkHttpClient sharedHttpClient;
+        private ConnectionPool sharedConnectionPool;
+        private long connectTimeoutMillis = -1;
+        private long readTimeoutMillis = -1;
+        private long writeTimeoutMillis = -1;
+        private int maxIdleConnections = -1;
+        private long keepAliveMillis = -1;
+        private int maxRequests = -1;
+        private int maxRequestsPerHost = -1;
+        private List<Protocol> protocols;
+        private boolean virtualThreads;
+        private long tokenTtlMillis = TimeUnit.MINUTES.toMillis(DEFAULT_TOKEN_TTL_MINUTES);
+        private long tokenIssuedAt;
+        private long maxResponseBytes;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private RetryPolicy retryPolicy;
+        private CircuitBreaker circuitBreaker;
+        private HedgingPolicy hedgingPolicy;
+        private ClientMetrics metrics = ClientMetrics.NOOP;
+
+        private Builder(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        /**
+         * 使用token认证
+         * 与应用凭证同时配置时，该token作为初始token，失效后使用应用凭证刷新
+         *
+         * @param token 认证令牌
+         * @return 当前构建器
+         */
+        public Builder token(String token) {
+            this.token = token;
+            return this;
+        }
+
+        /**
+         * 使用应用凭证认证，未同时提供token时在构建时获取token
+         *
+         * @param appId     应用ID
+         * @param appSecret 应用密钥
+         * @return 当前构建器
+         */
+        public Builder credentials(String appId, String appSecret) {
+            this.appId = appId;
+            this.appSecret = appSecret;
+            return this;
+        }
+
+        /**
+         * 设置token有效期，使用应用凭证时在有效期过去80%时于后台主动刷新
+         *
+         * @param ttl  有效期，小于等于0时关闭主动刷新
+         * @param unit 时间单位
+         * @return 当前构建器
+         */
+        public Builder tokenTtl(long ttl, TimeUnit unit) {
+            this.tokenTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * 设置构建时提供的token的获取时间，主动刷新时刻从该时间算起
+         * 复用之前缓存的token时设置，避免按完整有效期等待刷新
+         *
+         * @param issuedAtMillis 获取时间(毫秒时间戳)，未设置时按构建时刻计算
+         * @return 当前构建器
+         */
+        public Builder tokenIssuedAt(long issuedAtMillis) {
+            this.tokenIssuedAt = issuedAtMillis;
+            return this;
+        }
+
+        /**
+         * 设置单个响应体的最大字节数，超过时请求以IOException失败
+         *
+         * @param maxResponseBytes 最大字节数，小于等于0时不限制
+         * @return 当前构建器
+         */
+        public Builder maxResponseBytes(long maxResponseBytes) {
+            this.maxResponseBytes = maxResponseBytes;
+            return this;
+        }
+
+        /**
+         * 启用按端点的自适应并发限制，超过上限的请求排队或快速失败
+         * 同一个限制器可配置给多个客户端
+         *
+         * @param concurrencyLimiter 并发限制
+         * @return 当前构建器
+         */
+        public Builder concurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * 启用幂等读请求的自动重试
+         *
+         * @param retryPolicy 重试策略
+         * @return 当前构建器
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * 启用按端点的熔断
+         * 同一个熔断器可配置给多个客户端
+         *
+         * @param circuitBreaker 熔断器
+         * @return 当前构建器
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * 启用幂等读请求的对冲，降低慢响应造成的尾延迟
+         *
+         * @param hedgingPolicy 对冲策略
+         * @return 当前构建器
+         */
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * 启用请求指标，按端点记录调用数、状态码、各阶段耗时和请求响应大小
+         * 默认不记录，也不安装HTTP事件监听。启用后会替换传输层上已配置的事件监听器。
+         *
+         * @param metrics 指标接收方，如 {@link MetricsRecorder}
+         * @return 当前构建器
+         */
+        public Builder metrics(ClientMetrics metrics) {
+            this.metrics = metrics != null ? metrics : ClientMetrics.NOOP;
+            return this;
+        }
+
+        /**
+         * 共享已有的HTTP传输层（连接池和调度器）
+         * 可通过 {@link IoTClient#getHttpClient()} 获取其他客户端的传输层。
+         * 共享时超时和协议仍可单独配置，但不能再配置连接池和调度器参数。
+         *
+         * @param httpClient 共享的OkHttp客户端
+         * @return 当前构建器
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.sharedHttpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * 共享连接池，调度器仍为每个客户端独立创建
+         *
+         * @param connectionPool 共享的连接池
+         * @return 当前构建器
+         */
+        public Builder connectionPool(ConnectionPool connectionPool) {
+            this.sharedConnectionPool = connectionPool;
+            return this;
+        }
+
+        /**
+         * 设置连接超时
+         *
+         * @param timeout 超时时长
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 设置读超时
+         *
+         * @param timeout 超时时长
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 设置写超时
+         *
+         * @param timeout 超时时长
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder writeTimeout(long timeout, TimeUnit unit) {
+            this.writeTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 设置连接池参数
+         *
+         * @param maxIdleConnections 最大空闲连接数
+         * @param keepAlive          空闲连接保活时长
+         * @param unit               时间单位
+         * @return 当前构建器
+         */
+        public Builder connectionPool(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+            if (maxIdleConnections < 0 || keepAlive <= 0) {
+                throw new IllegalArgumentException("无效的连接池参数");
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveMillis = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * 设置异步请求的最大并发数
+         *
+         * @param maxRequests 最大并发请求数
+         * @return 当前构建器
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests <= 0) {
+                throw new IllegalArgumentException("最大并发请求数必须大于0");
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * 设置同一主机异步请求的最大并发数
+         *
+         * @param maxRequestsPerHost 单主机最大并发请求数
+         * @return 当前构建器
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("单主机最大并发请求数必须大于0");
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * 设置HTTP协议，如 HTTP_2、HTTP_1_1
+         *
+         * @param protocols 协议列表
+         * @return 当前构建器
+         */
+        public Builder protocols(List<Protocol> protocols) {
+            this.protocols = protocols;
+            return this;
+        }
+
+        /**
+         * 启用虚拟线程模式，需要Java 21及以上版本
+         * 异步请求和内部的并发查询(批量状态分页、RRPC广播等)在虚拟线程上执行，完成回调也在虚拟线程上运行；
+         * 调度器的最大并发数未配置时使用 {@link #DEFAULT_VIRTUAL_MAX_REQUESTS}。
+         * 未配置协议时只使用HTTP/1.1，OkHttp的HTTP/2写出在synchronized块内进行，会使虚拟线程固定在载体线程上。
+         * 不能与共享传输层同时配置，共享方的传输层决定线程模式。
+         *
+         * @param virtualThreads 是否启用
+         * @return 当前构建器
+         * @see VirtualThreads#newExecutor(String)
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            if (virtualThreads && !VirtualThreads.isSupported()) {
+                throw new UnsupportedOperationException("虚拟线程需要Java 21及以上版本");
+            }
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * 构建IoT客户端
+         *
+         * @return IoT客户端实例
+         */
+        public IoTClient build() {
+            return new IoTClient(this);
+        }
+
+        /**
+         * 构建IoT客户端，使用应用凭证且未提供token时异步获取token，不阻塞调用线程
+         * 获取token失败时返回的future以异常结束，已创建的客户端会被关闭
+         *
+         * @return 获取到token后完成的客户端
+         */
+        public CompletableFuture<IoTClient> buildAsync() {
+            IoTClient client = new IoTClient(this, false);
+            if (client.getToken() != null) {
+                return CompletableFuture.completedFuture(client);
+            }
+            CompletableFuture<IoTClient> future = client.tokenManager.refresh(null).thenApply(token -> client);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    client.close();
+                }
+            });
+            return future;
+        }
+
+        private OkHttpClient buildHttpClient() {
+            OkHttpClient.Builder httpBuilder;
+            if (sharedHttpClient != null) {
+                if (sharedConnectionPool != null || maxIdleConnections >= 0 || maxRequests > 0 || maxRequestsPerHost > 0
+                        || virtualThreads) {
+                    throw new IllegalStateException("共享传输层时不能单独配置连接池或调度器");
+                }
+                // newBuilder()复用原客户端的连接池和调度器
+                httpBuilder = sharedHttpClient.newBuilder();
+            } else {
+                httpBuilder = new OkHttpClient.Builder()
+                        .connectTimeout(DEFAULT_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .readTimeout(DEFAULT_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .writeTimeout(DEFAULT_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+                if (sharedConnectionPool != null) {
+                    if (maxIdleConnections >= 0) {
+                        throw new IllegalStateException("共享连接池时不能单独配置连接池参数");
+                    }
+                    httpBuilder.connectionPool(sharedConnectionPool);
+                } else if (maxIdleConnections >= 0) {
+                    httpBuilder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS));
+                }
+
+                if (virtualThreads) {
+                    Dispatcher dispatcher = new Dispatcher(VirtualThreads.newExecutor("iot-sdk-http-"));
+                    dispatcher.setMaxRequests(maxRequests > 0 ? maxRequests : DEFAULT_VIRTUAL_MAX_REQUESTS);
+                    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost > 0 ? maxRequestsPerHost : DEFAULT_VIRTUAL_MAX_REQUESTS);
+                    httpBuilder.dispatcher(dispatcher);
+                    if (protocols == null) {
+                        httpBuilder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+                    }
+                } else if (maxRequests > 0 || maxRequestsPerHost > 0) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    if (maxRequests > 0) {
+                        dispatcher.setMaxRequests(maxRequests);
+                    }
+                    if (maxRequestsPerHost > 0) {
+                        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+                    }
+                    httpBuilder.dispatcher(dispatcher);
+                }
+            }
+
+            if (connectTimeoutMillis >= 0) {
+                httpBuilder.connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (readTimeoutMillis >= 0) {
+                httpBuilder.readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (writeTimeoutMillis >= 0) {
+                httpBuilder.writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (protocols != null) {
+                httpBuilder.protocols(protocols);
+            }
+            if (metrics != ClientMetrics.NOOP) {
+                httpBuilder.eventListenerFactory(MetricsEventListener.factory(metrics));
+            }
+            return httpBuilder.build();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.iot.sdk.client;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 由字段列表组成的不可变JSON请求体
+ * 字段按添加顺序写出，值为null的字段不写出。字段值可以是字符串、数字、布尔值或字符串集合，
+ * 集合按引用保存，请求完成前不应修改。
+ */
+public final class JsonPayload implements RequestPayload {
+    private static final JsonPayload EMPTY = new JsonPayload(new String[0], new Object[0]);
+
+    private final String[] names;
+    private final Object[] values;
+    private final int hash;
+
+    private JsonPayload(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+        int h = 1;
+        for (int i = 0; i < names.length; i++) {
+            h = 31 * h + names[i].hashCode();
+            h = 31 * h + values[i].hashCode();
+        }
+        this.hash = h;
+    }
+
+    /**
+     * 创建请求体构建器
+     *
+     * @return 请求体构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 空JSON对象
+     */
+    public static JsonPayload empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public void writeTo(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        for (int i = 0; i < names.length; i++) {
+            writer.name(names[i]);
+            Object value = values[i];
+            if (value instanceof String) {
+                writer.value((String) value);
+            } else if (value instanceof Number) {
+                writer.value((Number) value);
+            } else if (value instanceof Boolean) {
+                writer.value((Boolean) value);
+            } else {
+                writer.beginArray();
+                for (Object element : (Collection<?>) value) {
+                    writer.value(element != null ? element.toString() : null);
+                }
+                writer.endArray();
+            }
+        }
+        writer.endObject();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsonPayload)) {
+            return false;
+        }
+        JsonPayload other = (JsonPayload) o;
+        if (hash != other.hash || names.length != other.names.length) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (!names[i].equals(other.names[i]) || !values[i].equals(other.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return JSON文本
+     */
+    @Override
+    public String toString() {
+        StringWriter out = new StringWriter();
+        try {
+            writeTo(new JsonWriter(out));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 请求体构建器
+     */
+    public static class Builder {
+        private final List<String> names = new ArrayList<>(4);
+        private final List<Object> values = new ArrayList<>(4);
+
+        private Builder() {
+        }
+
+        /**
+         * 添加字符串字段
+         *
+         * @param name  字段名
+         * @param value 字段值，为null时忽略
+         * @return 当前构建器
+         */
+        public Builder add(String name, String value) {
+            return put(name, value);
+        }
+
+        /**
+         * 添加数字字段
+         *
+         * @param name  字段名
+         * @param value 字段值，为null时忽略
+         * @return 当前构建器
+         */
+        public Builder add(String name, Number value) {
+            return put(name, value);
+        }
+
+        /**
+         * 添加布尔字段
+         *
+         * @param name  字段名
+         * @param value 字段值，为null时忽略
+         * @return 当前构建器
+         */
+        public Builder add(String name, Boolean value) {
+            return put(name, value);
+        }
+
+        /**
+         * 添加字符串数组字段
+         *
+         * @param name   字段名
+         * @param values 字段值，为null时忽略
+         * @return 当前构建器
+         */
+        public Builder add(String name, Collection<String> values) {
+            return put(name, values);
+        }
+
+        private Builder put(String name, Object value) {
+            Objects.requireNonNull(name, "字段名不能为空");
+            if (value != null) {
+                names.add(name);
+                values.add(value);
+            }
+            return this;
+        }
+
+        /**
+         * 构建请求体
+         *
+         * @return 请求体
+         */
+        public JsonPayload build() {
+            if (names.isEmpty()) {
+                return EMPTY;
+            }
+            return new JsonPayload(names.toArray(new String[0]), values.toArray());
+        }
+    }
+}
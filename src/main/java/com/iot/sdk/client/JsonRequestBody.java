@@ -0,0 +1,84 @@
+package com.iot.sdk.client;
+
+import com.google.gson.stream.JsonWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JSON请求体
+ * 发送时由 {@link JsonWriter} 经 {@link Utf8SinkWriter} 直接编码为UTF-8写入OkHttp的 {@link BufferedSink}，
+ * 不生成中间字符串，也不为每个请求体分配缓冲区。
+ * 构建时先以 {@link Utf8LengthWriter} 序列化一遍只统计长度：请求仍以Content-Length发送，序列化失败在发送前抛出。
+ * 每次写出都重新序列化，连接失败后OkHttp可重放同一请求体；因此请求完成前不应修改请求体引用的数据。
+ * 与Gson一致转义HTML字符，类型化请求体与Map请求体的字节相同。
+ */
+final class JsonRequestBody extends RequestBody {
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    private final RequestPayload payload;
+    private final long contentLength;
+
+    private JsonRequestBody(RequestPayload payload, long contentLength) {
+        this.payload = payload;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * 创建请求体并计算长度
+     *
+     * @throws IllegalArgumentException 请求体无法序列化
+     */
+    static JsonRequestBody create(RequestPayload payload) {
+        Utf8LengthWriter counter = new Utf8LengthWriter();
+        try {
+            write(payload, counter);
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException("请求体序列化失败: " + e.getMessage(), e);
+        }
+        return new JsonRequestBody(payload, counter.byteCount());
+    }
+
+    private static void write(RequestPayload payload, Writer out) throws IOException {
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.setHtmlSafe(true);
+            if (payload != null) {
+                payload.writeTo(writer);
+            } else {
+                writer.beginObject().endObject();
+            }
+        }
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON_MEDIA_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        write(payload, new Utf8SinkWriter(sink));
+    }
+
+    /**
+     * @return 请求体文本，仅用于调试日志
+     */
+    String utf8() {
+        Buffer buffer = new Buffer();
+        try {
+            writeTo(buffer);
+        } catch (IOException e) {
+            return "<" + e.getMessage() + ">";
+        }
+        return buffer.readUtf8();
+    }
+}
@@ -0,0 +1,45 @@
+package com.iot.sdk.client;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 以Map表示的请求体，兼容原有的Map接口
+ * POST时由Gson直接写入请求体缓冲区，GET时作为查询参数
+ */
+final class MapPayload implements RequestPayload {
+    private final Gson gson;
+    private final Map<String, Object> map;
+
+    MapPayload(Gson gson, Map<String, Object> map) {
+        this.gson = gson;
+        this.map = map;
+    }
+
+    Map<String, Object> map() {
+        return map;
+    }
+
+    @Override
+    public void writeTo(JsonWriter writer) throws IOException {
+        if (map == null) {
+            writer.beginObject().endObject();
+            return;
+        }
+        gson.toJson(map, Map.class, writer);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof MapPayload && Objects.equals(map, ((MapPayload) o).map);
+    }
+
+    @Override
+    public int hashCode() {
+        return map != null ? map.hashCode() : 0;
+    }
+}
@@ -0,0 +1,164 @@
+package com.iot.sdk.client;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 测量单次HTTP调用各阶段耗时的OkHttp事件监听器
+ * 客户端发出的请求带有 {@link EndpointTag}，监听器据此把调用归入端点；没有标记的调用不测量。
+ * 同一调用的事件按顺序发生，字段无需同步。
+ */
+final class MetricsEventListener extends EventListener {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsEventListener.class);
+
+    private final ClientMetrics metrics;
+    private final String endpoint;
+
+    private long callStartNanos;
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long tlsStartNanos;
+    private long dnsNanos = -1;
+    private long connectNanos = -1;
+    private long tlsNanos = -1;
+    private long timeToFirstByteNanos = -1;
+    private int statusCode = -1;
+    private long requestBytes;
+    private long responseBytes;
+    private boolean cancelled;
+    private boolean finished;
+
+    private MetricsEventListener(ClientMetrics metrics, String endpoint) {
+        this.metrics = metrics;
+        this.endpoint = endpoint;
+    }
+
+    static EventListener.Factory factory(ClientMetrics metrics) {
+        return new EventListener.Factory() {
+            @Override
+            public EventListener create(Call call) {
+                EndpointTag tag = call.request().tag(EndpointTag.class);
+                return tag != null ? new MetricsEventListener(metrics, tag.endpoint) : EventListener.NONE;
+            }
+        };
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+        dnsNanos = accumulate(dnsNanos, dnsStartNanos);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos = accumulate(tlsNanos, tlsStartNanos);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        connectNanos = accumulate(connectNanos, connectStartNanos);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+        // 尝试下一个地址前的失败建连同样计入建连耗时
+        connectNanos = accumulate(connectNanos, connectStartNanos);
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestBytes += byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        if (timeToFirstByteNanos < 0) {
+            timeToFirstByteNanos = System.nanoTime() - callStartNanos;
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        statusCode = response.code();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        responseBytes += byteCount;
+    }
+
+    @Override
+    public void canceled(Call call) {
+        cancelled = true;
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        finish(false);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        finish(true);
+    }
+
+    private void finish(boolean failed) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        CallSample sample = new CallSample(endpoint, statusCode, failed, cancelled, dnsNanos, connectNanos,
+                tlsNanos, timeToFirstByteNanos, System.nanoTime() - callStartNanos, requestBytes, responseBytes);
+        try {
+            metrics.recordCall(sample);
+        } catch (RuntimeException e) {
+            logger.error("指标记录失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long accumulate(long total, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return total < 0 ? elapsed : total + elapsed;
+    }
+
+    /**
+     * 请求所属的端点，作为OkHttp请求标记
+     */
+    static final class EndpointTag {
+        final String endpoint;
+
+        EndpointTag(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+}
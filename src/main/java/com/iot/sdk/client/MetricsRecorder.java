@@ -0,0 +1,277 @@
+package com.iot.sdk.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按端点记录客户端指标
+ * 计数和直方图都是累积值，不随快照重置：请求速率和错误率由导出方用相邻两次快照的差值除以时间间隔得到，
+ * 多个导出方同时抓取互不影响。记录路径只有原子自增，不加锁。
+ * <p>
+ * 延迟直方图以微秒记录，大小直方图以字节记录。同一个记录器可配置给多个客户端，指标按端点合并。
+ */
+public class MetricsRecorder implements ClientMetrics {
+    private static final int MAX_STATUS_CODE = 600;
+
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCall(CallSample sample) {
+        EndpointMetrics metrics = endpointMetrics(sample.getEndpoint());
+        metrics.calls.increment();
+        if (sample.isCancelled()) {
+            metrics.cancelled.increment();
+        } else if (sample.isFailed()) {
+            metrics.failures.increment();
+        }
+        int status = sample.getStatusCode();
+        if (status >= 0 && status < MAX_STATUS_CODE) {
+            metrics.statusCounts.incrementAndGet(status);
+        }
+        recordNanos(metrics.dns, sample.getDnsNanos());
+        recordNanos(metrics.connect, sample.getConnectNanos());
+        recordNanos(metrics.tls, sample.getTlsNanos());
+        recordNanos(metrics.timeToFirstByte, sample.getTimeToFirstByteNanos());
+        recordNanos(metrics.total, sample.getTotalNanos());
+        metrics.requestBytes.record(sample.getRequestBytes());
+        if (status >= 0) {
+            metrics.responseBytes.record(sample.getResponseBytes());
+        }
+    }
+
+    @Override
+    public void recordResult(String endpoint, boolean success) {
+        EndpointMetrics metrics = endpointMetrics(endpoint);
+        if (success) {
+            metrics.successResults.increment();
+        } else {
+            metrics.failedResults.increment();
+        }
+    }
+
+    /**
+     * 获取所有端点的指标快照
+     *
+     * @return 端点路径到指标的映射
+     */
+    public Map<String, EndpointStats> snapshot() {
+        Map<String, EndpointStats> result = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void recordNanos(Histogram histogram, long nanos) {
+        if (nanos >= 0) {
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    private EndpointMetrics endpointMetrics(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            metrics = endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * 单个端点的计数和直方图
+     */
+    private static final class EndpointMetrics {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder cancelled = new LongAdder();
+        final LongAdder successResults = new LongAdder();
+        final LongAdder failedResults = new LongAdder();
+        final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS_CODE);
+        final Histogram dns = new Histogram();
+        final Histogram connect = new Histogram();
+        final Histogram tls = new Histogram();
+        final Histogram timeToFirstByte = new Histogram();
+        final Histogram total = new Histogram();
+        final Histogram requestBytes = new Histogram();
+        final Histogram responseBytes = new Histogram();
+
+        EndpointStats snapshot() {
+            Map<Integer, Long> statuses = new TreeMap<>();
+            for (int status = 0; status < MAX_STATUS_CODE; status++) {
+                long count = statusCounts.get(status);
+                if (count > 0) {
+                    statuses.put(status, count);
+                }
+            }
+            return new EndpointStats(calls.sum(), failures.sum(), cancelled.sum(), successResults.sum(),
+                    failedResults.sum(), Collections.unmodifiableMap(statuses), dns.snapshot(), connect.snapshot(),
+                    tls.snapshot(), timeToFirstByte.snapshot(), total.snapshot(), requestBytes.snapshot(),
+                    responseBytes.snapshot());
+        }
+    }
+
+    /**
+     * 单个端点的指标快照
+     */
+    public static class EndpointStats {
+        private final long callCount;
+        private final long failureCount;
+        private final long cancelledCount;
+        private final long successResultCount;
+        private final long failedResultCount;
+        private final Map<Integer, Long> statusCounts;
+        private final Histogram.Snapshot dnsMicros;
+        private final Histogram.Snapshot connectMicros;
+        private final Histogram.Snapshot tlsMicros;
+        private final Histogram.Snapshot timeToFirstByteMicros;
+        private final Histogram.Snapshot totalMicros;
+        private final Histogram.Snapshot requestBytes;
+        private final Histogram.Snapshot responseBytes;
+
+        EndpointStats(long callCount, long failureCount, long cancelledCount, long successResultCount,
+                      long failedResultCount, Map<Integer, Long> statusCounts, Histogram.Snapshot dnsMicros,
+                      Histogram.Snapshot connectMicros, Histogram.Snapshot tlsMicros,
+                      Histogram.Snapshot timeToFirstByteMicros, Histogram.Snapshot totalMicros,
+                      Histogram.Snapshot requestBytes, Histogram.Snapshot responseBytes) {
+            this.callCount = callCount;
+            this.failureCount = failureCount;
+            this.cancelledCount = cancelledCount;
+            this.successResultCount = successResultCount;
+            this.failedResultCount = failedResultCount;
+            this.statusCounts = statusCounts;
+            this.dnsMicros = dnsMicros;
+            this.connectMicros = connectMicros;
+            this.tlsMicros = tlsMicros;
+            this.timeToFirstByteMicros = timeToFirstByteMicros;
+            this.totalMicros = totalMicros;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+        }
+
+        /**
+         * @return HTTP调用数，包括重试、对冲和认证失效后的重放
+         */
+        public long getCallCount() {
+            return callCount;
+        }
+
+        /**
+         * @return 网络异常或超时导致的失败数(不含取消)
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return 被主动取消的调用数
+         */
+        public long getCancelledCount() {
+            return cancelledCount;
+        }
+
+        /**
+         * @return 按HTTP状态码的调用数
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            return statusCounts;
+        }
+
+        /**
+         * @return 非2xx状态码的调用数
+         */
+        public long getHttpErrorCount() {
+            long errors = 0;
+            for (Map.Entry<Integer, Long> entry : statusCounts.entrySet()) {
+                if (entry.getKey() < 200 || entry.getKey() >= 300) {
+                    errors += entry.getValue();
+                }
+            }
+            return errors;
+        }
+
+        /**
+         * @return 平台返回success=true的响应数
+         */
+        public long getSuccessResultCount() {
+            return successResultCount;
+        }
+
+        /**
+         * @return 平台返回success=false的响应数
+         */
+        public long getFailedResultCount() {
+            return failedResultCount;
+        }
+
+        /**
+         * @return 错误率，(网络失败 + 非2xx + success=false) / 调用数
+         */
+        public double getErrorRate() {
+            long counted = callCount - cancelledCount;
+            return counted <= 0 ? 0 : (double) (failureCount + getHttpErrorCount() + failedResultCount) / counted;
+        }
+
+        /**
+         * @return DNS解析耗时(微秒)，只包含新建连接的调用
+         */
+        public Histogram.Snapshot getDnsMicros() {
+            return dnsMicros;
+        }
+
+        /**
+         * @return 建连耗时(微秒，含TLS握手)，只包含新建连接的调用
+         */
+        public Histogram.Snapshot getConnectMicros() {
+            return connectMicros;
+        }
+
+        /**
+         * @return TLS握手耗时(微秒)
+         */
+        public Histogram.Snapshot getTlsMicros() {
+            return tlsMicros;
+        }
+
+        /**
+         * @return 从调用开始到开始收到响应头的耗时(微秒)
+         */
+        public Histogram.Snapshot getTimeToFirstByteMicros() {
+            return timeToFirstByteMicros;
+        }
+
+        /**
+         * @return 调用总耗时(微秒)
+         */
+        public Histogram.Snapshot getTotalMicros() {
+            return totalMicros;
+        }
+
+        /**
+         * @return 请求体大小(字节)
+         */
+        public Histogram.Snapshot getRequestBytes() {
+            return requestBytes;
+        }
+
+        /**
+         * @return 响应体大小(字节)，只包含收到响应的调用
+         */
+        public Histogram.Snapshot getResponseBytes() {
+            return responseBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EndpointStats{calls=%d, failures=%d, cancelled=%d, statuses=%s, resultFailures=%d, "
+                            + "errorRate=%.3f, p50Micros=%d, p99Micros=%d, ttfbP99Micros=%d}",
+                    callCount, failureCount, cancelledCount, statusCounts, failedResultCount, getErrorRate(),
+                    totalMicros.getPercentile(50), totalMicros.getPercentile(99),
+                    timeToFirstByteMicros.getPercentile(99));
+        }
+    }
+}
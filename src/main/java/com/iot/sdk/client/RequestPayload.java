@@ -0,0 +1,24 @@
+package com.iot.sdk.client;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON请求体
+ * 由客户端直接写入请求体缓冲区，不经过中间的Map和字符串。
+ * 启用请求合并时请求体作为合并键的一部分，实现需正确实现equals和hashCode。
+ *
+ * @see JsonPayload
+ */
+@FunctionalInterface
+public interface RequestPayload {
+
+    /**
+     * 写出完整的JSON对象
+     *
+     * @param writer JSON写入器
+     * @throws IOException 写入异常
+     */
+    void writeTo(JsonWriter writer) throws IOException;
+}
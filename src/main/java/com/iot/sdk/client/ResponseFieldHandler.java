@@ -0,0 +1,24 @@
+package com.iot.sdk.client;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * 流式响应字段处理器
+ * 流式解码时，响应JSON的每个顶层字段都会交给处理器，由处理器直接从 {@link JsonReader} 读取，
+ * 无需先把整个响应读成字符串再构建JSON树。
+ */
+@FunctionalInterface
+public interface ResponseFieldHandler {
+
+    /**
+     * 处理一个顶层字段
+     *
+     * @param name   字段名
+     * @param reader 定位在字段值上的读取器
+     * @return 已完整读取(或跳过)该字段的值时返回true；返回false时由客户端读取该值并放入返回的响应外壳中
+     * @throws IOException 读取异常
+     */
+    boolean onField(String name, JsonReader reader) throws IOException;
+}
@@ -0,0 +1,228 @@
+package com.iot.sdk.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 幂等读请求的重试策略
+ * 只重试配置的幂等端点，且只重试暂时性故障(连接失败、超时、HTTP 429/5xx)；
+ * 退避时间为指数增长上限内的完全随机抖动，避免大量客户端同时重试。
+ * <p>
+ * 重试预算以令牌桶实现：每个原始请求存入一定比例的令牌，每次重试消耗一个令牌，
+ * 平台持续故障时重试量被限制在原始请求量的该比例以内，不会放大流量。
+ */
+public class RetryPolicy {
+    /**
+     * 默认可重试的幂等端点
+     */
+    public static final Set<String> DEFAULT_RETRYABLE_ENDPOINTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "/api/v1/quickdevice/detail",
+            "/api/v1/quickdevice/status",
+            "/api/v1/quickdevice/batchGetDeviceState")));
+
+    private static final long TOKEN_SCALE = 1000;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long tokenDeposit;
+    private final long maxTokens;
+    private final Set<String> retryableEndpoints;
+    private final AtomicLong tokens;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.tokenDeposit = (long) (builder.budgetRatio * TOKEN_SCALE);
+        this.maxTokens = builder.maxBudget * TOKEN_SCALE;
+        this.retryableEndpoints = builder.retryableEndpoints;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * 创建重试策略构建器
+     *
+     * @return 重试策略构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 已执行的重试次数
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return 因重试预算耗尽而放弃的重试次数
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * @return 当前剩余的重试预算
+     */
+    public double getRemainingBudget() {
+        return (double) tokens.get() / TOKEN_SCALE;
+    }
+
+    boolean isRetryableEndpoint(String endpoint) {
+        return retryableEndpoints.contains(endpoint);
+    }
+
+    /**
+     * 记录一次原始请求，存入重试预算
+     */
+    void onRequest() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokenDeposit)));
+    }
+
+    /**
+     * 判断第attempt次尝试失败后是否重试，需要重试时消耗一个预算令牌
+     */
+    boolean tryRetry(IOException error, int attempt) {
+        if (attempt >= maxAttempts || !isTransient(error)) {
+            return false;
+        }
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_SCALE) {
+                budgetExhausted.increment();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+        retries.increment();
+        return true;
+    }
+
+    /**
+     * 第attempt次尝试失败后的退避时间：[0, min(最大间隔, 基础间隔 * 2^(attempt-1))]内随机
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = baseDelayMillis << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 暂时性故障：连接失败、超时、连接被重置和HTTP 429/5xx
+     * 业务失败、熔断、并发限制和响应超过大小上限不重试
+     */
+    static boolean isTransient(IOException error) {
+        if (error instanceof HttpStatusException) {
+            int code = ((HttpStatusException) error).getStatusCode();
+            return code == 429 || (code >= 500 && code != 501);
+        }
+        return error instanceof SocketTimeoutException
+                || error instanceof SocketException
+                || error instanceof EOFException;
+    }
+
+    /**
+     * 重试策略构建器
+     */
+    public static class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 100;
+        private long maxDelayMillis = TimeUnit.SECONDS.toMillis(5);
+        private double budgetRatio = 0.1;
+        private long maxBudget = 10;
+        private Set<String> retryableEndpoints = DEFAULT_RETRYABLE_ENDPOINTS;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置最大尝试次数(包含首次请求)，默认3
+         *
+         * @param maxAttempts 最大尝试次数
+         * @return 当前构建器
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("最大尝试次数必须大于0");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * 设置退避时间的基础间隔和上限，默认100毫秒和5秒
+         *
+         * @param baseDelay 基础间隔
+         * @param maxDelay  最大间隔
+         * @param unit      时间单位
+         * @return 当前构建器
+         */
+        public Builder backoff(long baseDelay, long maxDelay, TimeUnit unit) {
+            if (baseDelay <= 0 || maxDelay < baseDelay) {
+                throw new IllegalArgumentException("无效的退避时间");
+            }
+            this.baseDelayMillis = unit.toMillis(baseDelay);
+            this.maxDelayMillis = unit.toMillis(maxDelay);
+            return this;
+        }
+
+        /**
+         * 设置重试预算，默认每个请求存入0.1次重试、最多累积10次
+         *
+         * @param ratio     每个原始请求存入的重试次数
+         * @param maxBudget 最多累积的重试次数
+         * @return 当前构建器
+         */
+        public Builder retryBudget(double ratio, long maxBudget) {
+            if (ratio < 0 || maxBudget < 0) {
+                throw new IllegalArgumentException("无效的重试预算");
+            }
+            this.budgetRatio = ratio;
+            this.maxBudget = maxBudget;
+            return this;
+        }
+
+        /**
+         * 设置可重试的端点，默认为设备详情、设备状态和批量状态查询
+         * 只应包含幂等端点，注册设备、下发指令等非幂等端点不应重试
+         *
+         * @param endpoints 端点路径
+         * @return 当前构建器
+         */
+        public Builder retryableEndpoints(String... endpoints) {
+            this.retryableEndpoints = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(endpoints)));
+            return this;
+        }
+
+        /**
+         * 构建重试策略
+         *
+         * @return 重试策略
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.iot.sdk.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SDK共享的定时调度器
+ * 所有客户端和设备侧组件共用一个守护线程，用于token刷新、轮询触发、超时计时等短小的定时任务，不会阻止JVM退出。
+ * 提交的任务不能阻塞，耗时的工作应转交给其他线程池；调度器由SDK管理，
+ * 对外返回的调度器拒绝 shutdown/shutdownNow，避免一个调用方关闭后其他客户端的定时任务全部失效
+ */
+public final class SharedScheduler {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static volatile ManagedScheduler instance;
+
+    private SharedScheduler() {
+    }
+
+    /**
+     * 获取共享调度器，首次调用时创建
+     *
+     * @return 共享调度器，调用 shutdown/shutdownNow 时抛出 {@link UnsupportedOperationException}
+     */
+    public static ScheduledExecutorService get() {
+        ManagedScheduler scheduler = instance;
+        if (scheduler == null) {
+            synchronized (SharedScheduler.class) {
+                scheduler = instance;
+                if (scheduler == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, "iot-sdk-scheduler-" + THREAD_COUNTER.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    instance = scheduler = new ManagedScheduler(executor);
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * @return 底层线程池，仅供SDK内部检查任务队列
+     */
+    static ScheduledThreadPoolExecutor executor() {
+        get();
+        return instance.delegate;
+    }
+
+    /**
+     * 不能关闭的调度器视图，其余操作委托给底层线程池
+     */
+    private static final class ManagedScheduler implements ScheduledExecutorService {
+        private final ScheduledThreadPoolExecutor delegate;
+
+        ManagedScheduler(ScheduledThreadPoolExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return delegate.schedule(command, delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            return delegate.schedule(callable, delay, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return delegate.scheduleAtFixedRate(command, initialDelay, period, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                         TimeUnit unit) {
+            return delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException("共享调度器由SDK管理，不能关闭");
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException("共享调度器由SDK管理，不能关闭");
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return delegate.submit(task);
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return delegate.submit(task, result);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return delegate.submit(task);
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+            return delegate.invokeAll(tasks);
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.invokeAll(tasks, timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+                throws InterruptedException, ExecutionException {
+            return delegate.invokeAny(tasks);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.invokeAny(tasks, timeout, unit);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(command);
+        }
+    }
+}
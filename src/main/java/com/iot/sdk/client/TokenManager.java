@@ -0,0 +1,154 @@
+package com.iot.sdk.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * token管理
+ * 热路径读取token无锁；并发的刷新请求合并为一次认证调用；
+ * 在token过期前由共享调度器主动刷新
+ */
+class TokenManager {
+    /**
+     * 在有效期过去该比例时主动刷新
+     */
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+    /**
+     * 主动刷新失败后的重试间隔上限(毫秒)
+     */
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final Supplier<CompletableFuture<String>> fetcher;
+    private final long ttlMillis;
+    private final Logger logger = LoggerFactory.getLogger(TokenManager.class);
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+    private volatile String token;
+    private volatile long issuedAtMillis;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private volatile boolean closed;
+
+    /**
+     * @param initialToken    初始token，可为null
+     * @param initialIssuedAt 初始token的获取时间(毫秒时间戳)，小于等于0时按当前时间计算
+     * @param fetcher         获取新token的异步调用，为null时不支持刷新
+     * @param ttlMillis       token有效期(毫秒)，小于等于0时不主动刷新
+     */
+    TokenManager(String initialToken, long initialIssuedAt, Supplier<CompletableFuture<String>> fetcher,
+                 long ttlMillis) {
+        this.token = initialToken;
+        this.issuedAtMillis = initialToken == null ? 0
+                : initialIssuedAt > 0 ? initialIssuedAt : System.currentTimeMillis();
+        this.fetcher = fetcher;
+        this.ttlMillis = ttlMillis;
+    }
+
+    String currentToken() {
+        return token;
+    }
+
+    long issuedAt() {
+        return issuedAtMillis;
+    }
+
+    boolean canRefresh() {
+        return fetcher != null;
+    }
+
+    /**
+     * 开始按有效期主动刷新，刷新时刻从初始token的获取时间算起
+     */
+    void start() {
+        if (token != null) {
+            long age = System.currentTimeMillis() - issuedAtMillis;
+            scheduleRefresh((long) (ttlMillis * REFRESH_AHEAD_RATIO) - age);
+        }
+    }
+
+    /**
+     * 刷新token，正在进行的刷新会被复用
+     *
+     * @param staleToken 调用方认为已失效的token；若当前token已与之不同则直接返回当前token。为null时强制刷新
+     * @return 新token
+     */
+    CompletableFuture<String> refresh(String staleToken) {
+        if (fetcher == null) {
+            throw new IllegalStateException("未配置应用凭证，无法刷新token");
+        }
+        while (true) {
+            String current = token;
+            if (staleToken != null && current != null && !current.equals(staleToken)) {
+                return CompletableFuture.completedFuture(current);
+            }
+            CompletableFuture<String> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<String> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                startFetch(created);
+                return created;
+            }
+        }
+    }
+
+    /**
+     * 停止主动刷新
+     */
+    void close() {
+        closed = true;
+        ScheduledFuture<?> scheduled = scheduledRefresh;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    private void startFetch(CompletableFuture<String> target) {
+        CompletableFuture<String> fetch;
+        try {
+            fetch = fetcher.get();
+        } catch (RuntimeException e) {
+            inFlight.set(null);
+            target.completeExceptionally(e);
+            return;
+        }
+        fetch.whenComplete((newToken, error) -> {
+            if (error == null) {
+                // 先发布新token再清除在途标记，保证之后的调用方能看到新token
+                issuedAtMillis = System.currentTimeMillis();
+                token = newToken;
+                scheduleRefresh((long) (ttlMillis * REFRESH_AHEAD_RATIO));
+            }
+            inFlight.set(null);
+            if (error == null) {
+                target.complete(newToken);
+            } else {
+                target.completeExceptionally(error);
+            }
+        });
+    }
+
+    private void scheduleRefresh(long delayMillis) {
+        if (closed || fetcher == null || ttlMillis <= 0) {
+            return;
+        }
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        scheduledRefresh = SharedScheduler.get().schedule(() -> {
+            refresh(null).whenComplete((newToken, error) -> {
+                if (error != null) {
+                    logger.warn("主动刷新token失败，稍后重试: {}", error.getMessage());
+                    scheduleRefresh(Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(1000, ttlMillis / 10)));
+                }
+            });
+        }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+}
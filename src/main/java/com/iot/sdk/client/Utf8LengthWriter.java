@@ -0,0 +1,72 @@
+package com.iot.sdk.client;
+
+import java.io.Writer;
+
+/**
+ * 只统计UTF-8编码长度而不保存内容的 {@link Writer}
+ * 计数规则与 {@link Utf8SinkWriter} 的写出一致：代理对计4字节，不成对的代理字符按'?'计1字节。
+ */
+final class Utf8LengthWriter extends Writer {
+    private long byteCount;
+    private boolean pendingHighSurrogate;
+
+    /**
+     * @return 已写入字符的UTF-8字节数，调用前应先关闭写入器
+     */
+    long byteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public void write(int c) {
+        count((char) c);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            count(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            count(cbuf[i]);
+        }
+    }
+
+    private void count(char ch) {
+        if (pendingHighSurrogate) {
+            pendingHighSurrogate = false;
+            if (Character.isLowSurrogate(ch)) {
+                byteCount += 4;
+                return;
+            }
+            byteCount++;
+        }
+        if (ch < 0x80) {
+            byteCount++;
+        } else if (ch < 0x800) {
+            byteCount += 2;
+        } else if (Character.isHighSurrogate(ch)) {
+            pendingHighSurrogate = true;
+        } else if (Character.isLowSurrogate(ch)) {
+            byteCount++;
+        } else {
+            byteCount += 3;
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        if (pendingHighSurrogate) {
+            pendingHighSurrogate = false;
+            byteCount++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.iot.sdk.client;
+
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 把字符按UTF-8直接写入Okio输出的 {@link Writer}
+ * 与OutputStreamWriter不同，不为每个实例分配8KB的编码缓冲区，也不需要flush。
+ * 跨两次写入的代理对会被合并；不成对的代理字符按Okio的规则写为'?'。
+ */
+final class Utf8SinkWriter extends Writer {
+    private final BufferedSink sink;
+    private char pendingHighSurrogate;
+
+    Utf8SinkWriter(BufferedSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        char ch = (char) c;
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(ch)) {
+                sink.writeUtf8CodePoint(Character.toCodePoint(high, ch));
+                return;
+            }
+            sink.writeUtf8CodePoint('?');
+        }
+        if (Character.isHighSurrogate(ch)) {
+            pendingHighSurrogate = ch;
+        } else {
+            sink.writeUtf8CodePoint(ch);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (len <= 0) {
+            return;
+        }
+        int end = off + len;
+        if (pendingHighSurrogate != 0) {
+            write(str.charAt(off++));
+        }
+        if (off < end && Character.isHighSurrogate(str.charAt(end - 1))) {
+            pendingHighSurrogate = str.charAt(--end);
+        }
+        if (off < end) {
+            sink.writeUtf8(str, off, end);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        write(new String(cbuf, off, len), 0, len);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            sink.writeUtf8CodePoint('?');
+        }
+    }
+}
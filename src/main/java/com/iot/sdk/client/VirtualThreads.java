@@ -0,0 +1,35 @@
+package com.iot.sdk.client;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程支持
+ * SDK以多版本jar发布，Java 21及以上版本加载 META-INF/versions/21 下的实现；
+ * 此为Java 8版本，不支持虚拟线程。
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * 可用于在虚拟线程上调用 {@link IoTClient} 和 DeviceManager 的阻塞接口
+     *
+     * @param namePrefix 线程名前缀
+     * @return 线程池
+     * @throws UnsupportedOperationException 运行时不支持虚拟线程
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("虚拟线程需要Java 21及以上版本");
+    }
+}
@@ -0,0 +1,280 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.Futures;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 按批异步处理上游元素的流操作
+ * 上游元素攒成批后交给批处理函数，结果按批完成的顺序发给下游。只在下游需求未被在途和已缓存的结果覆盖时
+ * 才发出新批，并且只向上游请求填满一批所需的元素，因此缓存的元素不超过 (maxInFlight + 2) * batchSize。
+ * 未满的批在等待 lingerMillis 后发出，上游结束时立即发出。
+ * 上游或批处理失败时取消上游、丢弃缓存结果并向下游发出错误。
+ * <p>
+ * 所有状态变更都在串行化的 {@link #drain()} 中进行，回调可能来自上游线程、下游线程或HTTP调度线程。
+ * 对上游的 request 和 cancel 也只在 drain 中调用，满足Reactive Streams规范2.7的串行要求。
+ */
+final class BatchingOperator<T, R> implements Subscriber<T>, Subscription {
+    private final Subscriber<? super R> downstream;
+    private final Function<List<T>, CompletableFuture<List<R>>> batchFunction;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final ConcurrentLinkedQueue<T> inputs = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<R> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger resultCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger inFlightItems = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicBoolean lingerScheduled = new AtomicBoolean();
+
+    private volatile Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile boolean cancelled;
+
+    // 以下字段只在drain中访问
+    private List<T> batch;
+    private long batchStartNanos;
+    private long upstreamOutstanding;
+    private long emitted;
+    private boolean terminated;
+
+    private BatchingOperator(Subscriber<? super R> downstream, Function<List<T>, CompletableFuture<List<R>>> batchFunction,
+                             int batchSize, int maxInFlight, long lingerNanos, ScheduledExecutorService scheduler) {
+        this.downstream = downstream;
+        this.batchFunction = batchFunction;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.lingerNanos = lingerNanos;
+        this.scheduler = scheduler;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * 创建冷发布者，每个订阅者独立订阅上游
+     */
+    static <T, R> Publisher<R> publisher(Publisher<T> source, Function<List<T>, CompletableFuture<List<R>>> batchFunction,
+                                         int batchSize, int maxInFlight, long lingerMillis,
+                                         ScheduledExecutorService scheduler) {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        return subscriber -> {
+            if (subscriber == null) {
+                throw new NullPointerException("订阅者不能为空");
+            }
+            source.subscribe(new BatchingOperator<>(subscriber, batchFunction, batchSize, maxInFlight,
+                    lingerNanos, scheduler));
+        };
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("订阅不能为空");
+        }
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (item == null) {
+            throw new NullPointerException("元素不能为空");
+        }
+        inputs.offer(item);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("异常不能为空");
+        }
+        error.compareAndSet(null, throwable);
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error.compareAndSet(null, new IllegalArgumentException("请求数量必须大于0: " + n));
+        } else {
+            long current;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+            } while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (!terminated) {
+                drainOnce();
+            }
+            if (terminated) {
+                inputs.clear();
+                results.clear();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        if (cancelled) {
+            cancelUpstream();
+            return;
+        }
+        Throwable failure = error.get();
+        if (failure != null) {
+            cancelUpstream();
+            downstream.onError(failure);
+            return;
+        }
+
+        long demand = requested.get();
+        while (emitted != demand) {
+            R result = results.poll();
+            if (result == null) {
+                break;
+            }
+            resultCount.decrementAndGet();
+            downstream.onNext(result);
+            emitted++;
+            if (cancelled) {
+                cancelUpstream();
+                return;
+            }
+        }
+
+        fillBatch();
+        long now = System.nanoTime();
+        while (inFlight.get() < maxInFlight && !batch.isEmpty()
+                && resultCount.get() + inFlightItems.get() < demand - emitted) {
+            boolean ready = batch.size() >= batchSize
+                    || (upstreamDone && inputs.isEmpty())
+                    || now - batchStartNanos >= lingerNanos;
+            if (!ready) {
+                break;
+            }
+            launch(batch);
+            batch = new ArrayList<>(batchSize);
+            fillBatch();
+        }
+
+        if (upstreamDone && batch.isEmpty() && inputs.isEmpty() && inFlight.get() == 0 && results.isEmpty()) {
+            terminated = true;
+            downstream.onComplete();
+            return;
+        }
+
+        if (!upstreamDone && resultCount.get() + inFlightItems.get() < demand - emitted) {
+            long missing = batchSize - batch.size() - upstreamOutstanding;
+            if (missing > 0) {
+                upstreamOutstanding += missing;
+                upstream.request(missing);
+            }
+        }
+
+        // 未满的批到期后是否发出只取决于下游需求，由request触发，无需再定时
+        long delay = batchStartNanos + lingerNanos - now;
+        if (!batch.isEmpty() && batch.size() < batchSize && delay > 0 && lingerScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                lingerScheduled.set(false);
+                drain();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void cancelUpstream() {
+        terminated = true;
+        if (!upstreamDone) {
+            upstream.cancel();
+        }
+    }
+
+    private void fillBatch() {
+        while (batch.size() < batchSize) {
+            T item = inputs.poll();
+            if (item == null) {
+                return;
+            }
+            if (upstreamOutstanding > 0) {
+                upstreamOutstanding--;
+            }
+            if (batch.isEmpty()) {
+                batchStartNanos = System.nanoTime();
+            }
+            batch.add(item);
+        }
+    }
+
+    private void launch(List<T> items) {
+        int size = items.size();
+        inFlight.incrementAndGet();
+        inFlightItems.addAndGet(size);
+        CompletableFuture<List<R>> future;
+        try {
+            future = batchFunction.apply(items);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((batchResults, failure) -> {
+            if (failure != null) {
+                error.compareAndSet(null, Futures.unwrap(failure));
+            } else {
+                // 先计数再入队，drain中出队后的计数不会小于0
+                resultCount.addAndGet(batchResults.size());
+                for (R result : batchResults) {
+                    results.offer(result);
+                }
+            }
+            inFlightItems.addAndGet(-size);
+            inFlight.decrementAndGet();
+            drain();
+        });
+    }
+}
@@ -0,0 +1,486 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.Futures;
+import com.iot.sdk.model.RegistrationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 批量设备注册
+ * 以固定数量的在途异步请求注册大量设备，结果逐行追加写入输出文件。
+ * 输出文件同时作为断点：重新运行时先读取文件中已注册成功的(产品密钥, 设备编码)，跳过这些行，
+ * 失败的行会在下次运行时重试。
+ * <p>
+ * 输出文件为UTF-8制表符分隔文本，每行一条记录：
+ * <pre>
+ * OK    productKey  deviceName  nickName  deviceId  deviceSecret
+ * FAIL  productKey  deviceName  nickName  错误信息
+ * </pre>
+ * 每条记录写入后立即刷新到操作系统，进程崩溃时最多丢失正在写入的一行。
+ * 若请求已在平台注册成功但结果尚未写入，重试时平台可能返回设备已存在，该行会记录为失败。
+ */
+public class BulkRegistrar {
+    private static final String OK = "OK";
+    private static final String FAIL = "FAIL";
+
+    private final DeviceManager deviceManager;
+    private final Path outputFile;
+    private final int maxInFlight;
+    private final long progressIntervalMillis;
+    private final Consumer<BulkRegistrationProgress> progressListener;
+    private final Logger logger = LoggerFactory.getLogger(BulkRegistrar.class);
+
+    private final Semaphore permits;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicReference<IOException> writeError = new AtomicReference<>();
+    private volatile boolean stopped;
+    private volatile long totalRows = -1;
+    private volatile long skipped;
+    private volatile long startNanos;
+
+    private BulkRegistrar(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.outputFile = builder.outputFile;
+        this.maxInFlight = builder.maxInFlight;
+        this.progressIntervalMillis = builder.progressIntervalMillis;
+        this.progressListener = builder.progressListener;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 创建批量注册构建器
+     *
+     * @param deviceManager 设备管理器
+     * @param outputFile    结果输出文件(同时作为断点)
+     * @return 批量注册构建器
+     */
+    public static Builder builder(DeviceManager deviceManager, Path outputFile) {
+        return new Builder(deviceManager, outputFile);
+    }
+
+    /**
+     * 读取CSV格式的输入文件，每行为 productKey,deviceName,nickName(nickName可省略)，
+     * 空行和以#开头的行被忽略。返回的迭代器按需读取，适合大文件。
+     * 迭代器同时实现 {@link Closeable}，读取完毕、读取失败或传入 run 方法运行结束(包括提前停止)时关闭文件。
+     *
+     * @param csvFile 输入文件
+     * @return 行迭代器
+     * @throws IOException 打开文件失败
+     */
+    public static Iterator<RegistrationRow> readCsv(Path csvFile) throws IOException {
+        return new CsvRows(Files.newBufferedReader(csvFile, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 注册集合中的所有设备，阻塞直到全部完成
+     *
+     * @param rows 输入行
+     * @return 最终进度
+     * @throws IOException 读写输出文件失败或等待时被中断
+     */
+    public BulkRegistrationProgress run(Iterable<RegistrationRow> rows) throws IOException {
+        long total = rows instanceof Collection ? ((Collection<?>) rows).size() : -1;
+        return run(rows.iterator(), total);
+    }
+
+    /**
+     * 注册迭代器中的所有设备，阻塞直到全部完成
+     * 迭代器实现 {@link Closeable} 时在返回前关闭；每次运行重新统计进度。
+     *
+     * @param rows          输入行
+     * @param expectedTotal 输入总行数，用于估算剩余时间，未知时传-1
+     * @return 最终进度
+     * @throws IOException 读写输出文件失败或等待时被中断
+     */
+    public BulkRegistrationProgress run(Iterator<RegistrationRow> rows, long expectedTotal) throws IOException {
+        boolean interrupted = false;
+        try {
+            Set<String> done = loadCheckpoint();
+            resetProgress(expectedTotal);
+            logger.info("开始批量注册, 已完成: {}, 最大并发: {}", done.size(), maxInFlight);
+
+            long skippedRows = 0;
+            long lastReport = System.nanoTime();
+            try (BufferedWriter writer = openOutput()) {
+                while (rows.hasNext() && !stopped && writeError.get() == null) {
+                    RegistrationRow row = rows.next();
+                    String key = key(row);
+                    if (key != null && !done.add(key)) {
+                        skipped = ++skippedRows;
+                        continue;
+                    }
+                    try {
+                        while (!permits.tryAcquire(progressIntervalMillis, TimeUnit.MILLISECONDS)) {
+                            lastReport = report(lastReport);
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        break;
+                    }
+                    submit(row, writer);
+                    lastReport = report(lastReport);
+                }
+
+                // 在途请求完成前不能关闭输出文件
+                if (!awaitInFlight(lastReport)) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (rows instanceof Closeable) {
+                try {
+                    ((Closeable) rows).close();
+                } catch (IOException e) {
+                    logger.warn("关闭输入失败: {}", e.getMessage());
+                }
+            }
+        }
+
+        BulkRegistrationProgress progress = getProgress();
+        logger.info("批量注册结束: {}", progress);
+        notifyProgress(progress);
+        if (writeError.get() != null) {
+            throw writeError.get();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量注册被中断");
+        }
+        return progress;
+    }
+
+    private void resetProgress(long expectedTotal) {
+        succeeded.reset();
+        failed.reset();
+        writeError.set(null);
+        stopped = false;
+        skipped = 0;
+        totalRows = expectedTotal;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 等待所有在途请求完成，被中断时仍继续等待
+     *
+     * @return 等待期间是否未被中断
+     */
+    private boolean awaitInFlight(long lastReport) {
+        try {
+            while (!permits.tryAcquire(maxInFlight, progressIntervalMillis, TimeUnit.MILLISECONDS)) {
+                lastReport = report(lastReport);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            permits.acquireUninterruptibly(maxInFlight);
+            return false;
+        } finally {
+            permits.release(maxInFlight);
+        }
+    }
+
+    /**
+     * 停止本次运行中新的注册请求提交，已在途的请求完成后run方法返回
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * 获取当前进度
+     *
+     * @return 进度快照
+     */
+    public BulkRegistrationProgress getProgress() {
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BulkRegistrationProgress(totalRows, skipped, succeeded.sum(), failed.sum(),
+                maxInFlight - permits.availablePermits(), elapsed);
+    }
+
+    private void submit(RegistrationRow row, BufferedWriter writer) {
+        if (row.getProductKey() == null || row.getProductKey().isEmpty()
+                || row.getDeviceName() == null || row.getDeviceName().isEmpty()) {
+            record(writer, row, null, new IllegalArgumentException("批量注册需要提供产品密钥和设备编码"));
+            permits.release();
+            return;
+        }
+        try {
+            deviceManager.registerDeviceForResultAsync(row.getProductKey(), row.getDeviceName(), row.getNickName(), null)
+                    .whenComplete((result, error) -> {
+                        try {
+                            record(writer, row, result, error);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            record(writer, row, null, e);
+            permits.release();
+        }
+    }
+
+    private void record(BufferedWriter writer, RegistrationRow row, RegistrationResult result, Throwable error) {
+        StringBuilder line = new StringBuilder(128);
+        if (error == null) {
+            succeeded.increment();
+            line.append(OK).append('\t').append(field(row.getProductKey()))
+                    .append('\t').append(field(row.getDeviceName()))
+                    .append('\t').append(field(row.getNickName()))
+                    .append('\t').append(field(result.getDeviceId()))
+                    .append('\t').append(field(result.getDeviceSecret()));
+        } else {
+            failed.increment();
+            Throwable cause = Futures.unwrap(error);
+            logger.warn("设备注册失败: {}, 原因: {}", row.getDeviceName(), cause.getMessage());
+            line.append(FAIL).append('\t').append(field(row.getProductKey()))
+                    .append('\t').append(field(row.getDeviceName()))
+                    .append('\t').append(field(row.getNickName()))
+                    .append('\t').append(field(cause.getMessage()));
+        }
+        line.append('\n');
+
+        writeLock.lock();
+        try {
+            writer.write(line.toString());
+            writer.flush();
+        } catch (IOException e) {
+            if (writeError.compareAndSet(null, e)) {
+                logger.error("写入注册结果失败, 停止提交新请求: {}", e.getMessage());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 读取输出文件中已注册成功的设备
+     */
+    private Set<String> loadCheckpoint() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(outputFile)) {
+            return done;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(outputFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                // 崩溃时可能留下不完整的最后一行，字段数不足的记录忽略
+                if (fields.length == 6 && OK.equals(fields[0])) {
+                    done.add(fields[1] + '\t' + fields[2]);
+                }
+            }
+        }
+        return done;
+    }
+
+    private BufferedWriter openOutput() throws IOException {
+        if (Files.exists(outputFile) && Files.size(outputFile) > 0) {
+            // 上次写入中断时补齐换行，避免与新记录拼接
+            try (RandomAccessFile file = new RandomAccessFile(outputFile.toFile(), "rw")) {
+                file.seek(file.length() - 1);
+                if (file.read() != '\n') {
+                    file.write('\n');
+                }
+            }
+        }
+        return Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    private long report(long lastReport) {
+        long now = System.nanoTime();
+        if (now - lastReport < TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis)) {
+            return lastReport;
+        }
+        BulkRegistrationProgress progress = getProgress();
+        logger.info("批量注册进度: {}", progress);
+        notifyProgress(progress);
+        return now;
+    }
+
+    private void notifyProgress(BulkRegistrationProgress progress) {
+        if (progressListener != null) {
+            try {
+                progressListener.accept(progress);
+            } catch (RuntimeException e) {
+                logger.error("进度监听器执行失败: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static String key(RegistrationRow row) {
+        if (row.getDeviceName() == null || row.getDeviceName().isEmpty()) {
+            return null;
+        }
+        return field(row.getProductKey()) + '\t' + field(row.getDeviceName());
+    }
+
+    private static String field(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * 按需读取的CSV输入行
+     */
+    private static final class CsvRows implements Iterator<RegistrationRow>, Closeable {
+        private final BufferedReader reader;
+        private RegistrationRow next;
+
+        CsvRows(BufferedReader reader) {
+            this.reader = reader;
+            this.next = advance();
+        }
+
+        private RegistrationRow advance() {
+            boolean eof = true;
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] fields = line.split(",", 3);
+                    eof = false;
+                    return new RegistrationRow(fields[0].trim(),
+                            fields.length > 1 ? fields[1].trim() : null,
+                            fields.length > 2 ? fields[2].trim() : null);
+                }
+                return null;
+            } catch (IOException e) {
+                throw new IllegalStateException("读取输入文件失败: " + e.getMessage(), e);
+            } finally {
+                if (eof) {
+                    closeQuietly();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public RegistrationRow next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            RegistrationRow current = next;
+            next = advance();
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            next = null;
+            reader.close();
+        }
+
+        private void closeQuietly() {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // 读取已结束
+            }
+        }
+    }
+
+    /**
+     * 批量注册构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private final Path outputFile;
+        private int maxInFlight = 16;
+        private long progressIntervalMillis = TimeUnit.SECONDS.toMillis(10);
+        private Consumer<BulkRegistrationProgress> progressListener;
+
+        private Builder(DeviceManager deviceManager, Path outputFile) {
+            if (deviceManager == null) {
+                throw new IllegalArgumentException("设备管理器不能为空");
+            }
+            if (outputFile == null) {
+                throw new IllegalArgumentException("输出文件不能为空");
+            }
+            this.deviceManager = deviceManager;
+            this.outputFile = outputFile;
+        }
+
+        /**
+         * 设置同时在途的最大注册请求数，默认16
+         *
+         * @param maxInFlight 最大在途请求数
+         * @return 当前构建器
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("最大并发数必须大于0");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 设置进度报告间隔，默认10秒
+         *
+         * @param interval 间隔
+         * @param unit     时间单位
+         * @return 当前构建器
+         */
+        public Builder progressInterval(long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("进度报告间隔必须大于0");
+            }
+            this.progressIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * 设置进度监听器，在运行线程上按进度报告间隔调用，结束时再调用一次
+         *
+         * @param progressListener 进度监听器
+         * @return 当前构建器
+         */
+        public Builder progressListener(Consumer<BulkRegistrationProgress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * 构建批量注册
+         *
+         * @return 批量注册
+         */
+        public BulkRegistrar build() {
+            return new BulkRegistrar(this);
+        }
+    }
+}
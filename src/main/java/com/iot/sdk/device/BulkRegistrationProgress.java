@@ -0,0 +1,98 @@
+package com.iot.sdk.device;
+
+/**
+ * 批量注册进度快照
+ */
+public class BulkRegistrationProgress {
+    private final long totalRows;
+    private final long skipped;
+    private final long succeeded;
+    private final long failed;
+    private final int inFlight;
+    private final long elapsedMillis;
+
+    BulkRegistrationProgress(long totalRows, long skipped, long succeeded, long failed, int inFlight,
+                             long elapsedMillis) {
+        this.totalRows = totalRows;
+        this.skipped = skipped;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.inFlight = inFlight;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return 输入总行数，未知时为-1
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * @return 因已在输出文件中注册成功而跳过的行数
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return 本次注册成功数
+     */
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * @return 本次注册失败数
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return 本次已完成的请求数(成功+失败)
+     */
+    public long getCompleted() {
+        return succeeded + failed;
+    }
+
+    /**
+     * @return 当前在途请求数
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return 已运行时间(毫秒)
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return 每秒完成的请求数
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : getCompleted() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return 预计剩余时间(毫秒)，总行数未知或尚无吞吐数据时为-1
+     */
+    public long getEtaMillis() {
+        double throughput = getThroughput();
+        if (totalRows < 0 || throughput <= 0) {
+            return -1;
+        }
+        long remaining = Math.max(0, totalRows - skipped - getCompleted());
+        return (long) (remaining * 1000 / throughput);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkRegistrationProgress{total=%d, skipped=%d, succeeded=%d, failed=%d, inFlight=%d, "
+                        + "throughput=%.1f/s, etaMillis=%d}",
+                totalRows, skipped, succeeded, failed, inFlight, getThroughput(), getEtaMillis());
+    }
+}
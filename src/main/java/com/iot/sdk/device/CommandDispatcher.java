@@ -0,0 +1,564 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自定义指令的异步调度器
+ * 指令提交到有界队列后立即返回，由固定数量的工作线程通过自定义指令接口发送。
+ * 队列按设备编码的哈希分为与工作线程数相同的通道，每个通道由一个工作线程按提交顺序发送，
+ * 因此同一设备的指令严格有序，不同设备的指令并行发送；同一通道内的慢请求会推迟该通道后续的指令。
+ * <p>
+ * 队列容量按通道平均分配，每个通道容量为总容量除以工作线程数(向上取整)，溢出按通道判断：
+ * 一个通道已满时即按溢出策略处理(阻塞等待、丢弃最早的指令或拒绝新指令)，即使其他通道仍有空位。
+ * 提交返回的异步结果在指令发送成功、失败或被丢弃时完成，回调在工作线程中执行，应避免耗时操作。
+ */
+public class CommandDispatcher implements Closeable {
+    /**
+     * 队列已满时的处理方式
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞提交线程直到队列有空位，超过等待时间后拒绝
+         */
+        BLOCK,
+        /**
+         * 丢弃同一通道中最早的待发送指令
+         */
+        DROP_OLDEST,
+        /**
+         * 立即拒绝新指令
+         */
+        REJECT
+    }
+
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final DeviceManager deviceManager;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int laneCapacity;
+    private final Lane[] lanes;
+    private final Logger logger = LoggerFactory.getLogger(CommandDispatcher.class);
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final RateWindow deliveryRate = new RateWindow();
+    private volatile boolean closed;
+
+    private CommandDispatcher(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.blockTimeoutNanos = builder.blockTimeoutNanos;
+        this.laneCapacity = Math.max(1, (builder.queueCapacity + builder.workers - 1) / builder.workers);
+        this.lanes = new Lane[builder.workers];
+        Thread[] workers = new Thread[builder.workers];
+        for (int i = 0; i < lanes.length; i++) {
+            Lane lane = new Lane();
+            lanes[i] = lane;
+            Thread worker = new Thread(() -> work(lane), "iot-command-dispatcher-" + i);
+            worker.setDaemon(true);
+            workers[i] = worker;
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * 创建指令调度器构建器
+     *
+     * @param deviceManager 设备管理器
+     * @return 指令调度器构建器
+     */
+    public static Builder builder(DeviceManager deviceManager) {
+        return new Builder(deviceManager);
+    }
+
+    /**
+     * 提交自定义指令
+     *
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @return 发送结果，平台返回失败时以 {@link com.iot.sdk.client.ApiException} 完成，
+     * 按DROP_OLDEST策略被丢弃时以 {@link CommandRejectedException} 完成
+     * @throws CommandRejectedException 调度器已关闭、队列已满(REJECT)或阻塞等待超时(BLOCK)
+     * @throws InterruptedIOException   阻塞等待时被中断
+     */
+    public CompletableFuture<JsonObject> submit(String deviceName, String messageContent) throws IOException {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        Command command = new Command(deviceName, messageContent);
+        Lane lane = lanes[laneIndex(deviceName)];
+        Command evicted = null;
+        lane.lock.lock();
+        try {
+            if (closed) {
+                throw reject(deviceName, "指令调度器已关闭");
+            }
+            if (lane.queue.size() >= laneCapacity) {
+                switch (overflowPolicy) {
+                    case REJECT:
+                        throw reject(deviceName, "指令队列已满");
+                    case DROP_OLDEST:
+                        evicted = lane.queue.pollFirst();
+                        break;
+                    default:
+                        awaitSpace(lane, deviceName);
+                        break;
+                }
+            }
+            command.enqueuedNanos = System.nanoTime();
+            lane.queue.addLast(command);
+            lane.notEmpty.signal();
+        } finally {
+            lane.lock.unlock();
+        }
+        submitted.increment();
+        if (evicted != null) {
+            dropped.increment();
+            logger.warn("指令队列已满, 丢弃最早的指令, 设备: {}", evicted.deviceName);
+            evicted.future.completeExceptionally(new CommandRejectedException(evicted.deviceName, "指令队列已满, 已被丢弃"));
+        }
+        return command.future;
+    }
+
+    /**
+     * 需持有通道锁
+     */
+    private void awaitSpace(Lane lane, String deviceName) throws IOException {
+        long remaining = blockTimeoutNanos;
+        try {
+            while (lane.queue.size() >= laneCapacity) {
+                if (remaining <= 0) {
+                    throw reject(deviceName, "等待指令队列空位超时");
+                }
+                remaining = lane.notFull.awaitNanos(remaining);
+                if (closed) {
+                    throw reject(deviceName, "指令调度器已关闭");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待指令队列空位时被中断");
+        }
+    }
+
+    private CommandRejectedException reject(String deviceName, String reason) {
+        rejected.increment();
+        return new CommandRejectedException(deviceName, reason);
+    }
+
+    private int laneIndex(String deviceName) {
+        int hash = deviceName.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    private void work(Lane lane) {
+        while (true) {
+            Command command;
+            lane.lock.lock();
+            try {
+                while (lane.queue.isEmpty() && !closed) {
+                    lane.notEmpty.awaitUninterruptibly();
+                }
+                command = lane.queue.pollFirst();
+                if (command == null) {
+                    return;
+                }
+                lane.sending = true;
+                lane.notFull.signal();
+            } finally {
+                lane.lock.unlock();
+            }
+            try {
+                deliver(command);
+            } finally {
+                lane.lock.lock();
+                try {
+                    lane.sending = false;
+                    lane.idle.signalAll();
+                } finally {
+                    lane.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void deliver(Command command) {
+        long waited = System.nanoTime() - command.enqueuedNanos;
+        queueNanos.add(waited);
+        long currentMax;
+        while (waited > (currentMax = maxQueueNanos.get()) && !maxQueueNanos.compareAndSet(currentMax, waited)) {
+            // 重试直到更新最大等待时间
+        }
+        try {
+            JsonObject response = deviceManager.deliverCustomCommand(command.deviceName, command.messageContent);
+            delivered.increment();
+            deliveryRate.record();
+            command.future.complete(response);
+        } catch (Throwable t) {
+            // 包括Error，工作线程退出会使该通道后续的指令永远不被发送
+            failed.increment();
+            logger.error("指令发送失败, 设备: {}, 错误: {}", command.deviceName, t.getMessage());
+            command.future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * 获取调度器统计
+     *
+     * @return 统计快照
+     */
+    public Stats getStats() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            lane.lock.lock();
+            try {
+                depth += lane.queue.size();
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+        long sent = delivered.sum() + failed.sum();
+        return new Stats(depth, submitted.sum(), delivered.sum(), failed.sum(), dropped.sum(), rejected.sum(),
+                sent == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueNanos.sum() / sent),
+                TimeUnit.NANOSECONDS.toMicros(maxQueueNanos.get()), deliveryRate.perSecond());
+    }
+
+    /**
+     * 停止接受新指令，等待已提交的指令发送完毕，最多等待指定时间
+     * 超时后仍未发送的指令以 {@link CommandRejectedException} 完成
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 是否全部发送完毕
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedIOException {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = true;
+        for (Lane lane : lanes) {
+            List<Command> abandoned = null;
+            lane.lock.lock();
+            try {
+                lane.notEmpty.signalAll();
+                lane.notFull.signalAll();
+                while (!lane.queue.isEmpty() || lane.sending) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    lane.idle.awaitNanos(remaining);
+                }
+                if (!lane.queue.isEmpty()) {
+                    drained = false;
+                    abandoned = new ArrayList<>(lane.queue);
+                    lane.queue.clear();
+                }
+                if (lane.sending) {
+                    drained = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待指令发送完毕时被中断");
+            } finally {
+                lane.lock.unlock();
+            }
+            if (abandoned != null) {
+                dropped.add(abandoned.size());
+                for (Command command : abandoned) {
+                    command.future.completeExceptionally(
+                            new CommandRejectedException(command.deviceName, "指令调度器已关闭, 指令未发送"));
+                }
+            }
+        }
+        logger.info("指令调度器已关闭, 全部发送完毕: {}", drained);
+        return drained;
+    }
+
+    /**
+     * 停止接受新指令，最多等待10秒让已提交的指令发送完毕
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown(10, TimeUnit.SECONDS);
+    }
+
+    private static final class Command {
+        final String deviceName;
+        final String messageContent;
+        final CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        long enqueuedNanos;
+
+        Command(String deviceName, String messageContent) {
+            this.deviceName = deviceName;
+            this.messageContent = messageContent;
+        }
+    }
+
+    /**
+     * 一个工作线程负责的有序队列
+     */
+    private static final class Lane {
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition notEmpty = lock.newCondition();
+        final Condition notFull = lock.newCondition();
+        final Condition idle = lock.newCondition();
+        final ArrayDeque<Command> queue = new ArrayDeque<>();
+        boolean sending;
+    }
+
+    /**
+     * 最近若干秒的发送速率，按秒分桶
+     */
+    private static final class RateWindow {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] seconds = new long[RATE_WINDOW_SECONDS];
+        private final long[] counts = new long[RATE_WINDOW_SECONDS];
+
+        void record() {
+            long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            int slot = (int) (second % RATE_WINDOW_SECONDS);
+            lock.lock();
+            try {
+                if (seconds[slot] != second) {
+                    seconds[slot] = second;
+                    counts[slot] = 0;
+                }
+                counts[slot]++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 不含当前未满的一秒
+         */
+        double perSecond() {
+            long current = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long total = 0;
+            lock.lock();
+            try {
+                for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                    long age = current - seconds[i];
+                    if (age >= 1 && age <= RATE_WINDOW_SECONDS - 1) {
+                        total += counts[i];
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return (double) total / (RATE_WINDOW_SECONDS - 1);
+        }
+    }
+
+    /**
+     * 调度器统计快照
+     */
+    public static class Stats {
+        private final int queueDepth;
+        private final long submittedCount;
+        private final long deliveredCount;
+        private final long failedCount;
+        private final long droppedCount;
+        private final long rejectedCount;
+        private final long averageQueueMicros;
+        private final long maxQueueMicros;
+        private final double deliveryRate;
+
+        Stats(int queueDepth, long submittedCount, long deliveredCount, long failedCount, long droppedCount,
+              long rejectedCount, long averageQueueMicros, long maxQueueMicros, double deliveryRate) {
+            this.queueDepth = queueDepth;
+            this.submittedCount = submittedCount;
+            this.deliveredCount = deliveredCount;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.rejectedCount = rejectedCount;
+            this.averageQueueMicros = averageQueueMicros;
+            this.maxQueueMicros = maxQueueMicros;
+            this.deliveryRate = deliveryRate;
+        }
+
+        /**
+         * @return 待发送的指令数
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return 已接受的指令数
+         */
+        public long getSubmittedCount() {
+            return submittedCount;
+        }
+
+        /**
+         * @return 发送成功的指令数
+         */
+        public long getDeliveredCount() {
+            return deliveredCount;
+        }
+
+        /**
+         * @return 发送失败的指令数
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * @return 已接受但未发送就被丢弃的指令数
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        /**
+         * @return 被拒绝提交的指令数
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return 从提交到开始发送的平均等待时间(微秒)
+         */
+        public long getAverageQueueMicros() {
+            return averageQueueMicros;
+        }
+
+        /**
+         * @return 从提交到开始发送的最长等待时间(微秒)
+         */
+        public long getMaxQueueMicros() {
+            return maxQueueMicros;
+        }
+
+        /**
+         * @return 最近10秒的平均发送成功速率(条/秒)
+         */
+        public double getDeliveryRate() {
+            return deliveryRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{queueDepth=%d, submitted=%d, delivered=%d, failed=%d, dropped=%d, rejected=%d, "
+                            + "averageQueueMicros=%d, maxQueueMicros=%d, deliveryRate=%.1f/s}", queueDepth,
+                    submittedCount, deliveredCount, failedCount, droppedCount, rejectedCount, averageQueueMicros,
+                    maxQueueMicros, deliveryRate);
+        }
+    }
+
+    /**
+     * 指令调度器构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private int queueCapacity = 1024;
+        private int workers = 4;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private long blockTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+
+        private Builder(DeviceManager deviceManager) {
+            if (deviceManager == null) {
+                throw new IllegalArgumentException("设备管理器不能为空");
+            }
+            this.deviceManager = deviceManager;
+        }
+
+        /**
+         * 设置队列总容量，默认1024，平均分配到各通道；
+         * 每个通道最多容纳 queueCapacity/workers(向上取整)条指令，单个通道满时即触发溢出策略
+         *
+         * @param queueCapacity 队列容量
+         * @return 当前构建器
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("队列容量必须大于0");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * 设置工作线程数，默认4
+         *
+         * @param workers 工作线程数
+         * @return 当前构建器
+         */
+        public Builder workers(int workers) {
+            if (workers <= 0) {
+                throw new IllegalArgumentException("工作线程数必须大于0");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * 设置队列已满时的处理方式，默认BLOCK
+         *
+         * @param overflowPolicy 溢出策略
+         * @return 当前构建器
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("溢出策略不能为空");
+            }
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * 设置BLOCK策略下的最长等待时间，默认30秒
+         *
+         * @param timeout 等待时间
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder blockTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("等待时间不能为负数");
+            }
+            this.blockTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * 构建并启动指令调度器
+         *
+         * @return 指令调度器
+         */
+        public CommandDispatcher build() {
+            return new CommandDispatcher(this);
+        }
+    }
+}
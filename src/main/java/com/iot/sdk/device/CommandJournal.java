@@ -0,0 +1,556 @@
+package com.iot.sdk.device;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 下行指令的本地持久化日志
+ * 日志由目录中固定大小的内存映射分段文件组成，只追加写入。每条记录带CRC32校验：
+ * <pre>
+ * int 长度 | int CRC32 | byte 记录类型 | long 序号 | 指令内容(仅指令记录)
+ * </pre>
+ * 指令发送成功后追加一条确认记录。重新打开时顺序扫描所有分段，跳过已确认的指令，
+ * 最后一个分段中校验失败的记录视为崩溃时未写完，从该位置继续写入；
+ * 最后一个分段的文件头全零或文件不足文件头长度时视为创建分段时崩溃，重新创建该分段。
+ * <p>
+ * 写入只复制到映射内存，进程崩溃不丢数据，操作系统崩溃或断电可能丢失最近未刷盘的记录；
+ * 需要更强的保证时可开启每次写入后刷盘，或定期调用 {@link #flush()}。
+ * 压缩时把已写满分段中仍未确认的指令复制到当前分段，然后删除这些分段。
+ * 同一目录只能由一个日志对象打开。
+ */
+public class CommandJournal implements Closeable {
+    private static final int MAGIC = 0x494F544A;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte RECORD_COMMAND = 1;
+    private static final byte RECORD_ACK = 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final JournaledCommand.Type[] TYPES = JournaledCommand.Type.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+    private final Logger logger = LoggerFactory.getLogger(CommandJournal.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private final List<Segment> sealed = new ArrayList<>();
+    private final ConcurrentSkipListMap<Long, Pending> pending = new ConcurrentSkipListMap<>();
+    private Segment active;
+    private long nextSequence = 1;
+    private long nextSegmentId = 1;
+    private boolean closed;
+
+    private CommandJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.forceOnAppend = builder.forceOnAppend;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * 创建指令日志构建器
+     *
+     * @param directory 日志目录
+     * @return 指令日志构建器
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * 写入一条自定义指令
+     *
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @return 日志序号
+     * @throws IOException 写入失败
+     */
+    public long appendCustomCommand(String deviceName, String messageContent) throws IOException {
+        return append(JournaledCommand.Type.CUSTOM_COMMAND, null, deviceName, messageContent, 0);
+    }
+
+    /**
+     * 写入一条RRPC消息
+     *
+     * @param productKey     产品密钥
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)
+     * @return 日志序号
+     * @throws IOException 写入失败
+     */
+    public long appendRrpcMessage(String productKey, String deviceName, String messageContent, int timeout)
+            throws IOException {
+        if (productKey == null || productKey.isEmpty()) {
+            throw new IllegalArgumentException("产品密钥不能为空");
+        }
+        return append(JournaledCommand.Type.RRPC, productKey, deviceName, messageContent, timeout);
+    }
+
+    private long append(JournaledCommand.Type type, String productKey, String deviceName, String messageContent,
+                        int timeout) throws IOException {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        long now = System.currentTimeMillis();
+        // 编码在锁外完成
+        ByteBuffer content = encodeCommand(type, productKey, deviceName, messageContent, timeout, now);
+        lock.lock();
+        try {
+            ensureOpen();
+            long sequence = nextSequence++;
+            Segment segment = write(RECORD_COMMAND, sequence, content);
+            pending.put(sequence, new Pending(new JournaledCommand(sequence, type, productKey, deviceName,
+                    messageContent, timeout, now), segment));
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 确认指令已发送，重新打开日志时不再返回该指令
+     *
+     * @param sequence 日志序号
+     * @return 是否为未确认的指令
+     * @throws IOException 写入失败
+     */
+    public boolean acknowledge(long sequence) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            if (pending.remove(sequence) == null) {
+                return false;
+            }
+            write(RECORD_ACK, sequence, null);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取所有未确认的指令，按序号排列
+     *
+     * @return 未确认的指令
+     */
+    public List<JournaledCommand> pending() {
+        return pending(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取最早的若干条未确认指令，按序号排列
+     *
+     * @param limit 最大条数
+     * @return 未确认的指令
+     */
+    public List<JournaledCommand> pending(int limit) {
+        List<JournaledCommand> result = new ArrayList<>(Math.min(limit, 256));
+        for (Pending entry : pending.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.command);
+        }
+        return result;
+    }
+
+    /**
+     * @return 未确认的指令数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return 分段文件数
+     */
+    public int getSegmentCount() {
+        lock.lock();
+        try {
+            return sealed.size() + (active != null ? 1 : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把已写满分段中未确认的指令复制到当前分段，然后删除这些分段
+     *
+     * @return 删除的分段数
+     * @throws IOException 写入失败
+     */
+    public int compact() throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            if (sealed.isEmpty()) {
+                return 0;
+            }
+            List<Segment> removable = new ArrayList<>(sealed);
+            int copied = 0;
+            for (Pending entry : pending.values()) {
+                if (!removable.contains(entry.segment)) {
+                    continue;
+                }
+                JournaledCommand command = entry.command;
+                // 保留原序号，重新打开时按序号去重
+                entry.segment = write(RECORD_COMMAND, command.getSequence(), encodeCommand(command.getType(),
+                        command.getProductKey(), command.getDeviceName(), command.getMessageContent(),
+                        command.getTimeout(), command.getCreatedMillis()));
+                copied++;
+            }
+            // 先确保复制的记录已落盘，再删除旧分段
+            active.buffer.force();
+            for (Segment segment : removable) {
+                sealed.remove(segment);
+                Files.deleteIfExists(segment.path);
+            }
+            logger.info("指令日志压缩完成, 删除分段: {}, 复制未确认指令: {}", removable.size(), copied);
+            return removable.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把当前分段刷写到磁盘
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (active != null && !closed) {
+                active.buffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (active != null) {
+                active.buffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("指令日志已关闭");
+        }
+    }
+
+    // ---- 以下方法需持有锁 ----
+
+    private Segment write(byte recordType, long sequence, ByteBuffer content) throws IOException {
+        int bodySize = 1 + 8 + (content != null ? content.remaining() : 0);
+        int recordSize = RECORD_HEADER_SIZE + bodySize;
+        if (HEADER_SIZE + recordSize > segmentSize) {
+            throw new IllegalArgumentException("指令过大, 超过分段大小: " + recordSize);
+        }
+        if (active == null || active.buffer.remaining() < recordSize) {
+            roll();
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER_SIZE);
+        buffer.put(recordType);
+        buffer.putLong(sequence);
+        if (content != null) {
+            buffer.put(content.duplicate());
+        }
+        crc.reset();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + RECORD_HEADER_SIZE);
+        body.limit(start + recordSize);
+        crc.update(body);
+        // 最后写长度，长度为0的位置即为数据末尾
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, bodySize);
+        if (forceOnAppend) {
+            buffer.force();
+        }
+        return active;
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.buffer.force();
+            sealed.add(active);
+        }
+        // 确认记录和压缩复制的记录序号不递增，分段按单独的编号排序
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX));
+        active = createSegment(path);
+    }
+
+    private Segment createSegment(Path path) throws IOException {
+        Segment segment = new Segment(path, map(path, true));
+        segment.buffer.putInt(MAGIC);
+        segment.buffer.putInt(VERSION);
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path path, boolean create) throws IOException {
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = create ? segmentSize : channel.size();
+            // 映射在通道关闭后仍然有效
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        // 文件名中的分段编号定长补零，按名称排序即按写入顺序排序
+        Collections.sort(paths);
+        long maxSequence = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            boolean last = i == paths.size() - 1;
+            MappedByteBuffer buffer = map(path, false);
+            if (last && !hasHeader(buffer)) {
+                // 创建分段后、写入文件头前崩溃留下的空分段，其中不会有任何记录
+                logger.warn("指令日志最后一个分段未初始化, 重新创建: {}", path);
+                Files.delete(path);
+                active = createSegment(path);
+                continue;
+            }
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("无效的指令日志分段: " + path);
+            }
+            Segment segment = new Segment(path, buffer);
+            buffer.position(HEADER_SIZE);
+            maxSequence = Math.max(maxSequence, scan(segment, last));
+            if (last) {
+                active = segment;
+            } else {
+                sealed.add(segment);
+            }
+        }
+        nextSequence = maxSequence + 1;
+        if (!paths.isEmpty()) {
+            String name = paths.get(paths.size() - 1).getFileName().toString();
+            nextSegmentId = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                    name.length() - SEGMENT_SUFFIX.length())) + 1;
+        }
+        if (!paths.isEmpty()) {
+            logger.info("指令日志恢复完成, 分段数: {}, 未确认指令: {}", paths.size(), pending.size());
+        }
+    }
+
+    private static boolean hasHeader(MappedByteBuffer buffer) {
+        return buffer.capacity() >= HEADER_SIZE && (buffer.getInt(0) != 0 || buffer.getInt(4) != 0);
+    }
+
+    /**
+     * 从当前位置扫描到数据末尾，返回遇到的最大序号
+     */
+    private long scan(Segment segment, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        long maxSequence = 0;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int start = buffer.position();
+            int bodySize = buffer.getInt(start);
+            if (bodySize == 0) {
+                break;
+            }
+            if (bodySize < 9 || bodySize > buffer.capacity() - start - RECORD_HEADER_SIZE
+                    || !checksumMatches(buffer, start, bodySize)) {
+                logger.warn("指令日志记录校验失败, 分段: {}, 位置: {}{}", segment.path, start,
+                        last ? ", 视为未写完的记录并截断" : ", 忽略分段剩余部分");
+                if (last) {
+                    // 清除未写完的记录，避免残留字节在之后被误读
+                    for (int pos = start; pos < buffer.capacity(); pos++) {
+                        buffer.put(pos, (byte) 0);
+                    }
+                }
+                break;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(start + RECORD_HEADER_SIZE);
+            body.limit(start + RECORD_HEADER_SIZE + bodySize);
+            byte recordType = body.get();
+            long sequence = body.getLong();
+            maxSequence = Math.max(maxSequence, sequence);
+            if (recordType == RECORD_COMMAND) {
+                pending.put(sequence, new Pending(decodeCommand(sequence, body), segment));
+            } else if (recordType == RECORD_ACK) {
+                pending.remove(sequence);
+            }
+            buffer.position(start + RECORD_HEADER_SIZE + bodySize);
+        }
+        return maxSequence;
+    }
+
+    private boolean checksumMatches(MappedByteBuffer buffer, int start, int bodySize) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + RECORD_HEADER_SIZE);
+        body.limit(start + RECORD_HEADER_SIZE + bodySize);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue() == buffer.getInt(start + 4);
+    }
+
+    private static ByteBuffer encodeCommand(JournaledCommand.Type type, String productKey, String deviceName,
+                                            String messageContent, int timeout, long createdMillis) {
+        byte[] product = productKey != null ? productKey.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] device = deviceName.getBytes(StandardCharsets.UTF_8);
+        byte[] message = messageContent.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 4 * 3
+                + (product != null ? product.length : 0) + device.length + message.length);
+        buffer.put((byte) type.ordinal());
+        buffer.putInt(timeout);
+        buffer.putLong(createdMillis);
+        putBytes(buffer, product);
+        putBytes(buffer, device);
+        putBytes(buffer, message);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static JournaledCommand decodeCommand(long sequence, ByteBuffer body) {
+        JournaledCommand.Type type = TYPES[body.get()];
+        int timeout = body.getInt();
+        long createdMillis = body.getLong();
+        String productKey = getString(body);
+        String deviceName = getString(body);
+        String messageContent = getString(body);
+        return new JournaledCommand(sequence, type, productKey, deviceName, messageContent, timeout, createdMillis);
+    }
+
+    /**
+     * 长度为-1表示null
+     */
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 未确认的指令及其所在分段
+     */
+    private static final class Pending {
+        final JournaledCommand command;
+        Segment segment;
+
+        Pending(JournaledCommand command, Segment segment) {
+            this.command = command;
+            this.segment = segment;
+        }
+    }
+
+    /**
+     * 指令日志构建器
+     */
+    public static class Builder {
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private boolean forceOnAppend;
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("日志目录不能为空");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * 设置分段文件大小，默认64MB
+         *
+         * @param segmentSize 分段大小(字节)
+         * @return 当前构建器
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 4096) {
+                throw new IllegalArgumentException("分段大小不能小于4096字节");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * 设置是否在每次写入后刷盘，默认否
+         * 开启后可在操作系统崩溃时不丢数据，但写入吞吐会大幅下降
+         *
+         * @param forceOnAppend 是否每次写入后刷盘
+         * @return 当前构建器
+         */
+        public Builder forceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+            return this;
+        }
+
+        /**
+         * 打开指令日志，目录中已有分段时恢复未确认的指令
+         *
+         * @return 指令日志
+         * @throws IOException 读取或创建分段失败
+         */
+        public CommandJournal open() throws IOException {
+            return new CommandJournal(this);
+        }
+    }
+}
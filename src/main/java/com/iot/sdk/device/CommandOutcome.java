@@ -0,0 +1,71 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 单条自定义指令的发送结果
+ */
+public class CommandOutcome {
+    private final CustomCommand command;
+    private final JsonObject response;
+    private final String errorMessage;
+    private final Throwable cause;
+    private final long latencyMillis;
+
+    CommandOutcome(CustomCommand command, JsonObject response, String errorMessage, Throwable cause, long latencyMillis) {
+        this.command = command;
+        this.response = response;
+        this.errorMessage = errorMessage;
+        this.cause = cause;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @return 对应的指令
+     */
+    public CustomCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * @return 平台是否已接收指令
+     */
+    public boolean isDelivered() {
+        return errorMessage == null;
+    }
+
+    /**
+     * @return 平台响应，请求失败时为null
+     */
+    public JsonObject getResponse() {
+        return response;
+    }
+
+    /**
+     * @return 错误信息，发送成功时为null
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * @return 失败原因，发送成功时为null
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * @return 从发出请求到得到结果的耗时(毫秒)
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandOutcome{deviceName=" + command.getDeviceName() + ", delivered=" + isDelivered()
+                + (errorMessage != null ? ", errorMessage=" + errorMessage : "")
+                + ", latencyMillis=" + latencyMillis + "}";
+    }
+}
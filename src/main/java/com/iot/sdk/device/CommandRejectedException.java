@@ -0,0 +1,25 @@
+package com.iot.sdk.device;
+
+import java.io.IOException;
+
+/**
+ * 指令未被调度器接受或在发送前被丢弃时的异常
+ * 指令未发送到平台，调用方可稍后重试或降级处理
+ */
+public class CommandRejectedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String deviceName;
+
+    public CommandRejectedException(String deviceName, String reason) {
+        super(reason + ": " + deviceName);
+        this.deviceName = deviceName;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+}
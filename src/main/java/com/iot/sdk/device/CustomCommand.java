@@ -0,0 +1,43 @@
+package com.iot.sdk.device;
+
+/**
+ * 待发送的自定义指令
+ */
+public class CustomCommand {
+    private final String deviceName;
+    private final String messageContent;
+
+    /**
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     */
+    public CustomCommand(String deviceName, String messageContent) {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        this.deviceName = deviceName;
+        this.messageContent = messageContent;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 消息内容
+     */
+    public String getMessageContent() {
+        return messageContent;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomCommand{deviceName=" + deviceName + "}";
+    }
+}
@@ -0,0 +1,429 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 设备状态/详情的读穿透缓存
+ * 按键哈希分段加锁，每段独立维护LRU顺序和容量，不存在全局锁；
+ * 状态和详情分别配置过期时间，并记录命中、未命中、淘汰和过期次数。
+ * <p>
+ * 读穿透在请求平台前记录失效序号，请求期间发生过任何失效时不写入本次结果，
+ * 避免失效之前发出的请求在失效之后写回旧数据。
+ * 同一设备可能分别以设备编码和设备ID缓存；缓存的响应同时包含两者时记录二者的对应关系，
+ * 按其中之一失效会同时移除另一个键下的条目。
+ */
+public class DeviceCache {
+    /**
+     * 缓存的数据类型
+     */
+    enum Kind {
+        STATUS,
+        DETAIL
+    }
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long statusTtlNanos;
+    private final long detailTtlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private DeviceCache(Builder builder) {
+        int segmentCount = 1;
+        while (segmentCount < builder.concurrencyLevel) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        int perSegment = (int) Math.max(1, (builder.maximumSize + segmentCount - 1) / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.statusTtlNanos = builder.statusTtlNanos;
+        this.detailTtlNanos = builder.detailTtlNanos;
+    }
+
+    /**
+     * 创建缓存构建器
+     *
+     * @return 缓存构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 使某个设备的状态和详情缓存失效
+     * 设备编码和设备ID之一已知对应关系时，另一个键下的条目同时失效；正在进行的读穿透不会写回结果
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     */
+    public void invalidate(String deviceName, String deviceId) {
+        // 先递增序号再移除：在移除之后写入的读穿透一定能看到新的序号
+        invalidations.incrementAndGet();
+        String nameKey = deviceName != null && !deviceName.isEmpty() ? "n:" + deviceName : null;
+        String idKey = deviceId != null && !deviceId.isEmpty() ? "i:" + deviceId : null;
+        String nameAlias = nameKey != null ? removeAlias(nameKey) : null;
+        String idAlias = idKey != null ? removeAlias(idKey) : null;
+        for (String deviceKey : new String[]{nameKey, idKey, nameAlias, idAlias}) {
+            if (deviceKey != null) {
+                remove(Kind.STATUS, deviceKey);
+                remove(Kind.DETAIL, deviceKey);
+            }
+        }
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+                segment.aliases.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存条目数(包含尚未清理的过期条目)
+     *
+     * @return 条目数
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取统计信息快照
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    /**
+     * 读取缓存，未命中或已过期时返回null
+     */
+    JsonObject get(Kind kind, String deviceName, String deviceId) {
+        String key = key(kind, deviceName, deviceId);
+        Segment segment = segmentFor(key);
+        long now = System.nanoTime();
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(key);
+            if (entry != null) {
+                if (now - entry.expiresAtNanos < 0) {
+                    hits.increment();
+                    return entry.value.deepCopy();
+                }
+                segment.entries.remove(key);
+                expirations.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 读穿透请求平台前获取失效序号，写入时传给 {@link #put}
+     */
+    long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * 写入缓存，获取序号之后发生过失效时放弃写入
+     *
+     * @param stamp 请求平台前由 {@link #stamp()} 获取的序号
+     */
+    void put(Kind kind, String deviceName, String deviceId, JsonObject response, long stamp) {
+        long ttl = kind == Kind.STATUS ? statusTtlNanos : detailTtlNanos;
+        if (ttl <= 0) {
+            return;
+        }
+        String key = key(kind, deviceName, deviceId);
+        Segment segment = segmentFor(key);
+        Entry entry = new Entry(response.deepCopy(), System.nanoTime() + ttl);
+        recordAliases(response, deviceName, deviceId, stamp);
+        segment.lock.lock();
+        try {
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            segment.entries.put(key, entry);
+            if (segment.entries.size() > segment.capacity) {
+                Iterator<Map.Entry<String, Entry>> eldest = segment.entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 响应同时给出设备编码和设备ID时记录二者的对应关系，两个方向分别存放在各自键所在的分段
+     */
+    private void recordAliases(JsonObject response, String deviceName, String deviceId, long stamp) {
+        JsonElement data = response.get("data");
+        if (data != null && data.isJsonObject()) {
+            deviceName = stringOr(data.getAsJsonObject(), "deviceName", deviceName);
+            deviceId = stringOr(data.getAsJsonObject(), "deviceId", deviceId);
+        }
+        if (deviceName == null || deviceName.isEmpty() || deviceId == null || deviceId.isEmpty()) {
+            return;
+        }
+        String nameKey = "n:" + deviceName;
+        String idKey = "i:" + deviceId;
+        putAlias(nameKey, idKey, stamp);
+        putAlias(idKey, nameKey, stamp);
+    }
+
+    private void putAlias(String deviceKey, String alias, long stamp) {
+        Segment segment = segmentFor(deviceKey);
+        segment.lock.lock();
+        try {
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            segment.aliases.put(deviceKey, alias);
+            if (segment.aliases.size() > segment.capacity) {
+                Iterator<String> eldest = segment.aliases.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private String removeAlias(String deviceKey) {
+        Segment segment = segmentFor(deviceKey);
+        segment.lock.lock();
+        try {
+            return segment.aliases.remove(deviceKey);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private static String stringOr(JsonObject object, String name, String defaultValue) {
+        JsonElement value = object.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : defaultValue;
+    }
+
+    private void remove(Kind kind, String deviceKey) {
+        String key = kind.name() + '|' + deviceKey;
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 同时提供设备编码和ID时以设备编码为键
+     */
+    private static String key(Kind kind, String deviceName, String deviceId) {
+        return deviceName != null && !deviceName.isEmpty()
+                ? kind.name() + "|n:" + deviceName
+                : kind.name() + "|i:" + deviceId;
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    private static class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        /**
+         * 设备编码与设备ID的对应关系，键和值均为"n:"或"i:"前缀的设备键，容量与条目相同
+         */
+        final LinkedHashMap<String, String> aliases = new LinkedHashMap<>(16, 0.75f, true);
+        final int capacity;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    private static class Entry {
+        final JsonObject value;
+        final long expiresAtNanos;
+
+        Entry(JsonObject value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long expirationCount;
+
+        Stats(long hitCount, long missCount, long evictionCount, long expirationCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+        }
+
+        /**
+         * @return 命中次数
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return 未命中次数(包含已过期)
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return 因容量淘汰的条目数
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * @return 因过期移除的条目数
+         */
+        public long getExpirationCount() {
+            return expirationCount;
+        }
+
+        /**
+         * @return 命中率，无请求时为0
+         */
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                    + ", expirations=" + expirationCount + "}";
+        }
+    }
+
+    /**
+     * 缓存构建器
+     */
+    public static class Builder {
+        private long statusTtlNanos = TimeUnit.SECONDS.toNanos(5);
+        private long detailTtlNanos = TimeUnit.SECONDS.toNanos(60);
+        private long maximumSize = 10_000;
+        private int concurrencyLevel = 16;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置设备状态的过期时间，默认5秒
+         *
+         * @param ttl  过期时间，小于等于0时不缓存状态
+         * @param unit 时间单位
+         * @return 当前构建器
+         */
+        public Builder statusTtl(long ttl, TimeUnit unit) {
+            this.statusTtlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * 设置设备详情的过期时间，默认60秒
+         *
+         * @param ttl  过期时间，小于等于0时不缓存详情
+         * @param unit 时间单位
+         * @return 当前构建器
+         */
+        public Builder detailTtl(long ttl, TimeUnit unit) {
+            this.detailTtlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * 设置最大条目数，默认10000
+         *
+         * @param maximumSize 最大条目数
+         * @return 当前构建器
+         */
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("最大条目数必须大于0");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * 设置分段数(向上取整为2的幂)，默认16
+         *
+         * @param concurrencyLevel 分段数
+         * @return 当前构建器
+         */
+        public Builder concurrencyLevel(int concurrencyLevel) {
+            if (concurrencyLevel <= 0) {
+                throw new IllegalArgumentException("分段数必须大于0");
+            }
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * 构建缓存
+         *
+         * @return 设备缓存
+         */
+        public DeviceCache build() {
+            return new DeviceCache(this);
+        }
+    }
+}
@@ -3,14 +3,36 @@ package com.iot.sdk.device;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.TypeAdapter;
+import com.iot.sdk.client.ApiException;
 import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.JsonPayload;
+import com.iot.sdk.client.ResponseFieldHandler;
+import com.iot.sdk.model.BatchStatusResult;
+import com.iot.sdk.model.DeviceDetail;
+import com.iot.sdk.model.DeviceStatus;
+import com.iot.sdk.model.ModelAdapters;
+import com.iot.sdk.model.RegistrationResult;
+import com.iot.sdk.model.RrpcResult;
+import com.iot.sdk.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.io.InterruptedIOException;
 import java.util.*;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.nio.charset.StandardCharsets;
 import com.google.gson.JsonParser;
 
@@ -18,7 +40,35 @@ import com.google.gson.JsonParser;
  * 设备管理模块，提供设备相关操作
  */
 public class DeviceManager {
+    private static final String REGISTER_ENDPOINT = "/api/v1/quickdevice/register";
+    private static final String DETAIL_ENDPOINT = "/api/v1/quickdevice/detail";
+    private static final String STATUS_ENDPOINT = "/api/v1/quickdevice/status";
+    private static final String BATCH_STATUS_ENDPOINT = "/api/v1/quickdevice/batchGetDeviceState";
+    private static final String RRPC_ENDPOINT = "/api/v1/device/rrpc";
+    private static final String CUSTOM_COMMAND_ENDPOINT = "/api/v1/device/down/record/add/custom";
+    
+    /**
+     * 批量状态查询单次请求支持的最大设备数
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+    
+    /**
+     * 设备状态的中文名称
+     */
+    private static final Map<String, String> STATUS_TEXT;
+
+    static {
+        Map<String, String> statusText = new HashMap<>();
+        statusText.put("ONLINE", "在线");
+        statusText.put("OFFLINE", "离线");
+        statusText.put("UNACTIVE", "未激活");
+        STATUS_TEXT = Collections.unmodifiableMap(statusText);
+    }
+
     private final IoTClient client;
+    private final DeviceCache cache;
+    private final RequestCoalescer coalescer;
+    private final boolean quiet;
     private final Logger logger;
 
     /**
@@ -27,10 +77,52 @@ public class DeviceManager {
      * @param client IoT客户端实例
      */
     public DeviceManager(IoTClient client) {
-        this.client = client;
+        this(builder(client));
+    }
+
+    private DeviceManager(Builder builder) {
+        this.client = builder.client;
+        this.cache = builder.cache;
+        this.coalescer = builder.coalesceReads ? new RequestCoalescer() : null;
+        this.quiet = builder.quiet;
         this.logger = LoggerFactory.getLogger(DeviceManager.class);
     }
 
+    /**
+     * 创建设备管理器构建器
+     *
+     * @param client IoT客户端实例
+     * @return 设备管理器构建器
+     */
+    public static Builder builder(IoTClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * 获取配置的缓存
+     *
+     * @return 设备缓存，未启用时为null
+     */
+    public DeviceCache getCache() {
+        return cache;
+    }
+
+    /**
+     * 获取因请求合并而未实际发出的读请求数
+     *
+     * @return 被合并的请求数，未启用请求合并时为0
+     */
+    public long getCoalescedRequestCount() {
+        return coalescer != null ? coalescer.getCoalescedCount() : 0;
+    }
+
+    /**
+     * 成功结果是否需要格式化输出：未开启安静模式且INFO日志已启用
+     */
+    private boolean presenting() {
+        return !quiet && logger.isInfoEnabled();
+    }
+
     /**
      * 注册设备
      *
@@ -41,30 +133,41 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject registerDevice(String productKey, String deviceName, String nickName) throws IOException {
-        if (productKey == null || productKey.isEmpty()) {
-            throw new IllegalArgumentException("产品密钥不能为空");
-        }
-
-        String endpoint = "/api/v1/quickdevice/register";
-
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("productKey", productKey);
-
-        // 添加可选参数
-        if (deviceName != null && !deviceName.isEmpty()) {
-            payload.put("deviceName", deviceName);
-        }
+        JsonObject response = client.post(REGISTER_ENDPOINT, DeviceRequests.register(productKey, deviceName, nickName));
+        handleRegisterResponse(response);
+        return response;
+    }
 
-        if (nickName != null && !nickName.isEmpty()) {
-            payload.put("nickName", nickName);
-        }
+    /**
+     * 异步注册设备
+     *
+     * @param productKey 产品唯一标识码
+     * @param deviceName 设备标识码，可选
+     * @param nickName   设备显示名称，可选
+     * @param executor   执行完成回调的线程池，可为null
+     * @return 异步注册结果
+     */
+    public CompletableFuture<JsonObject> registerDeviceAsync(String productKey, String deviceName, String nickName,
+                                                             Executor executor) {
+        return client.postAsync(REGISTER_ENDPOINT, DeviceRequests.register(productKey, deviceName, nickName), executor)
+                .thenApply(response -> {
+                    handleRegisterResponse(response);
+                    return response;
+                });
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    /**
+     * 异步注册设备
+     *
+     * @see #registerDeviceAsync(String, String, String, Executor)
+     */
+    public CompletableFuture<JsonObject> registerDeviceAsync(String productKey, String deviceName, String nickName) {
+        return registerDeviceAsync(productKey, deviceName, nickName, null);
+    }
 
+    private void handleRegisterResponse(JsonObject response) {
         // 检查结果并格式化输出
-        if (client.checkResponse(response)) {
+        if (client.checkResponse(response) && presenting()) {
             JsonObject deviceInfo = response.getAsJsonObject("data");
             logger.info("设备注册成功: {}", deviceInfo.get("deviceName").getAsString());
 
@@ -76,8 +179,6 @@ public class DeviceManager {
             logger.info("设备ID: {}", deviceInfo.get("deviceId").getAsString());
             logger.info("设备密钥: {}", deviceInfo.get("deviceSecret").getAsString());
         }
-
-        return response;
     }
 
     /**
@@ -89,44 +190,153 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject getDeviceDetail(String deviceName, String deviceId) throws IOException {
-        // 参数验证
-        if ((deviceName == null || deviceName.isEmpty()) && (deviceId == null || deviceId.isEmpty())) {
-            throw new IllegalArgumentException("设备编码(deviceName)和设备ID(deviceId)至少需要提供一个");
+        JsonObject response = readThrough(DeviceCache.Kind.DETAIL, DETAIL_ENDPOINT, deviceName, deviceId);
+        handleDetailResponse(response);
+        return response;
+    }
+
+    /**
+     * 异步查询设备详情
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @param executor   执行完成回调的线程池，可为null
+     * @return 异步设备详情信息
+     */
+    public CompletableFuture<JsonObject> getDeviceDetailAsync(String deviceName, String deviceId, Executor executor) {
+        return readThroughAsync(DeviceCache.Kind.DETAIL, DETAIL_ENDPOINT, deviceName, deviceId, executor)
+                .thenApply(response -> {
+                    handleDetailResponse(response);
+                    return response;
+                });
+    }
+
+    /**
+     * 异步查询设备详情
+     *
+     * @see #getDeviceDetailAsync(String, String, Executor)
+     */
+    public CompletableFuture<JsonObject> getDeviceDetailAsync(String deviceName, String deviceId) {
+        return getDeviceDetailAsync(deviceName, deviceId, null);
+    }
+
+    /**
+     * 读穿透缓存：命中时直接返回，未命中时请求平台并缓存成功的响应
+     */
+    private JsonObject readThrough(DeviceCache.Kind kind, String endpoint, String deviceName, String deviceId)
+            throws IOException {
+        JsonPayload payload = DeviceRequests.deviceKey(deviceName, deviceId);
+        if (cache != null) {
+            JsonObject cached = cache.get(kind, deviceName, deviceId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = cache != null ? cache.stamp() : 0;
+        JsonObject response = postRead(endpoint, payload);
+        if (cache != null && isSuccess(response)) {
+            cache.put(kind, deviceName, deviceId, response, stamp);
+        }
+        return response;
+    }
+
+    /**
+     * 异步读穿透缓存，命中时返回已完成的Future
+     */
+    private CompletableFuture<JsonObject> readThroughAsync(DeviceCache.Kind kind, String endpoint, String deviceName,
+                                                           String deviceId, Executor executor) {
+        JsonPayload payload = DeviceRequests.deviceKey(deviceName, deviceId);
+        if (cache == null) {
+            return postReadAsync(endpoint, payload, executor);
+        }
+        JsonObject cached = cache.get(kind, deviceName, deviceId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long stamp = cache.stamp();
+        return postReadAsync(endpoint, payload, executor).thenApply(response -> {
+            if (isSuccess(response)) {
+                cache.put(kind, deviceName, deviceId, response, stamp);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * 发送只读请求，启用请求合并时相同的在途请求共享一次调用
+     */
+    private JsonObject postRead(String endpoint, JsonPayload payload) throws IOException {
+        if (coalescer == null) {
+            return client.post(endpoint, payload);
         }
+        return coalescer.execute(endpoint, JsonObject.class, payload, JsonObject::deepCopy,
+                () -> client.post(endpoint, payload));
+    }
 
-        String endpoint = "/api/v1/quickdevice/detail";
+    private CompletableFuture<JsonObject> postReadAsync(String endpoint, JsonPayload payload, Executor executor) {
+        if (coalescer == null) {
+            return client.postAsync(endpoint, payload, executor);
+        }
+        return coalescer.executeAsync(endpoint, JsonObject.class, payload, JsonObject::deepCopy, executor,
+                () -> client.postAsync(endpoint, payload));
+    }
 
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        if (deviceName != null && !deviceName.isEmpty()) {
-            payload.put("deviceName", deviceName);
+    /**
+     * 用批量查询结果填充单设备状态缓存
+     */
+    private void cacheBatchResponse(JsonObject response, long stamp) {
+        if (cache == null || !isSuccess(response) || !response.has("data") || response.get("data").isJsonNull()) {
+            return;
+        }
+        JsonArray devices = extractDeviceArray(response.get("data"));
+        if (devices == null) {
+            return;
         }
-        if (deviceId != null && !deviceId.isEmpty()) {
-            payload.put("deviceId", deviceId);
+        for (JsonElement element : devices) {
+            if (element.isJsonObject()) {
+                cacheDeviceStatus(cache, element.getAsJsonObject(), stamp);
+            }
         }
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    private static void cacheDeviceStatus(DeviceCache cache, JsonObject device, long stamp) {
+        JsonObject statusResponse = new JsonObject();
+        statusResponse.addProperty("success", true);
+        statusResponse.add("data", device);
+        String deviceName = device.has("deviceName") && !device.get("deviceName").isJsonNull()
+                ? device.get("deviceName").getAsString() : null;
+        String deviceId = device.has("deviceId") && !device.get("deviceId").isJsonNull()
+                ? device.get("deviceId").getAsString() : null;
+        if (deviceName != null) {
+            cache.put(DeviceCache.Kind.STATUS, deviceName, null, statusResponse, stamp);
+        }
+        if (deviceId != null) {
+            cache.put(DeviceCache.Kind.STATUS, null, deviceId, statusResponse, stamp);
+        }
+    }
 
+    /**
+     * 判断响应是否成功，不输出日志
+     */
+    private static boolean isSuccess(JsonObject response) {
+        JsonElement success = response != null ? response.get("success") : null;
+        return success != null && !success.isJsonNull() && success.getAsBoolean();
+    }
+
+    private void handleDetailResponse(JsonObject response) {
         // 检查结果并格式化输出
-        if (client.checkResponse(response)) {
+        if (client.checkResponse(response) && presenting()) {
             JsonObject deviceInfo = response.getAsJsonObject("data");
             String deviceStatus = deviceInfo.get("status").getAsString();
 
             // 格式化设备状态
-            Map<String, String> statusMap = new HashMap<>();
-            statusMap.put("ONLINE", "在线");
-            statusMap.put("OFFLINE", "离线");
-            statusMap.put("UNACTIVE", "未激活");
-            String statusText = statusMap.getOrDefault(deviceStatus, deviceStatus);
+            String statusText = STATUS_TEXT.getOrDefault(deviceStatus, deviceStatus);
 
             // 输出设备基础信息
             logger.info("设备ID: {}", deviceInfo.has("deviceId") ? deviceInfo.get("deviceId").getAsString() : "未知");
             logger.info("设备名称: {}", deviceInfo.has("deviceName") ? deviceInfo.get("deviceName").getAsString() : "未知");
             logger.info("设备状态: {}", statusText);
         }
-
-        return response;
     }
 
     /**
@@ -138,27 +348,39 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject getDeviceStatus(String deviceName, String deviceId) throws IOException {
-        // 参数验证
-        if ((deviceName == null || deviceName.isEmpty()) && (deviceId == null || deviceId.isEmpty())) {
-            throw new IllegalArgumentException("设备编码(deviceName)和设备ID(deviceId)至少需要提供一个");
-        }
-
-        String endpoint = "/api/v1/quickdevice/status";
+        JsonObject response = readThrough(DeviceCache.Kind.STATUS, STATUS_ENDPOINT, deviceName, deviceId);
+        handleStatusResponse(response);
+        return response;
+    }
 
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        if (deviceName != null && !deviceName.isEmpty()) {
-            payload.put("deviceName", deviceName);
-        }
-        if (deviceId != null && !deviceId.isEmpty()) {
-            payload.put("deviceId", deviceId);
-        }
+    /**
+     * 异步查询设备在线状态
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @param executor   执行完成回调的线程池，可为null
+     * @return 异步设备状态信息
+     */
+    public CompletableFuture<JsonObject> getDeviceStatusAsync(String deviceName, String deviceId, Executor executor) {
+        return readThroughAsync(DeviceCache.Kind.STATUS, STATUS_ENDPOINT, deviceName, deviceId, executor)
+                .thenApply(response -> {
+                    handleStatusResponse(response);
+                    return response;
+                });
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    /**
+     * 异步查询设备在线状态
+     *
+     * @see #getDeviceStatusAsync(String, String, Executor)
+     */
+    public CompletableFuture<JsonObject> getDeviceStatusAsync(String deviceName, String deviceId) {
+        return getDeviceStatusAsync(deviceName, deviceId, null);
+    }
 
+    private void handleStatusResponse(JsonObject response) {
         // 检查结果并格式化输出
-        if (client.checkResponse(response)) {
+        if (client.checkResponse(response) && presenting()) {
             JsonObject statusData = response.getAsJsonObject("data");
             String deviceStatus = statusData.has("status") ? statusData.get("status").getAsString() : null;
             
@@ -172,19 +394,10 @@ public class DeviceManager {
             }
 
             // 状态映射
-            Map<String, String> statusMap = new HashMap<>();
-            statusMap.put("ONLINE", "在线");
-            statusMap.put("OFFLINE", "离线");
-            statusMap.put("UNACTIVE", "未激活");
-            String statusText = statusMap.getOrDefault(deviceStatus, deviceStatus);
+            String statusText = STATUS_TEXT.getOrDefault(deviceStatus, deviceStatus);
 
             // 时间戳格式化
-            String timeStr = "未知";
-            if (timestampMs > 0) {
-                Date date = new Date(timestampMs);
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                timeStr = sdf.format(date);
-            }
+            String timeStr = timestampMs > 0 ? Utils.formatTimestamp(timestampMs) : "未知";
 
             // 显示状态信息
             logger.info("设备状态: {}", statusText);
@@ -192,29 +405,21 @@ public class DeviceManager {
 
             // 如果设备离线，计算离线时长
             if ("OFFLINE".equals(deviceStatus) && timestampMs > 0) {
-                long nowMs = System.currentTimeMillis();
-                long offlineDurationMs = nowMs - timestampMs;
-                long offlineMinutes = offlineDurationMs / (1000 * 60);
-
-                String offlineText;
-                if (offlineMinutes < 60) {
-                    offlineText = String.format("约 %d 分钟", offlineMinutes);
-                } else {
-                    long offlineHours = offlineMinutes / 60;
-                    if (offlineHours < 24) {
-                        offlineText = String.format("约 %d 小时 %d 分钟", offlineHours, offlineMinutes % 60);
-                    } else {
-                        long offlineDays = offlineHours / 24;
-                        long remainingHours = offlineHours % 24;
-                        offlineText = String.format("约 %d 天 %d 小时", offlineDays, remainingHours);
-                    }
-                }
-
-                logger.info("离线时长: {}", offlineText);
+                long offlineMinutes = (System.currentTimeMillis() - timestampMs) / (1000 * 60);
+                logger.info("离线时长: {}", formatOfflineDuration(offlineMinutes));
             }
         }
+    }
 
-        return response;
+    private static String formatOfflineDuration(long offlineMinutes) {
+        if (offlineMinutes < 60) {
+            return "约 " + offlineMinutes + " 分钟";
+        }
+        long offlineHours = offlineMinutes / 60;
+        if (offlineHours < 24) {
+            return "约 " + offlineHours + " 小时 " + offlineMinutes % 60 + " 分钟";
+        }
+        return "约 " + offlineHours / 24 + " 天 " + offlineHours % 24 + " 小时";
     }
 
     /**
@@ -226,56 +431,131 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject batchGetDeviceStatus(List<String> deviceNameList, List<String> deviceIdList) throws IOException {
-        // 参数验证
-        if ((deviceNameList == null || deviceNameList.isEmpty()) && (deviceIdList == null || deviceIdList.isEmpty())) {
-            throw new IllegalArgumentException("设备编码列表和设备ID列表至少需要提供一个");
-        }
+        long stamp = cacheStamp();
+        JsonObject response = postRead(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList));
+        cacheBatchResponse(response, stamp);
+        handleBatchStatusResponse(response);
+        return response;
+    }
 
-        // 检查设备数量限制
-        int deviceCount = (deviceNameList != null ? deviceNameList.size() : 0) + 
-                         (deviceIdList != null ? deviceIdList.size() : 0);
-        if (deviceCount > 100) {
-            throw new IllegalArgumentException(
-                String.format("单次请求最多支持查询100个设备，当前请求包含%d个设备", deviceCount));
-        }
+    /**
+     * 异步批量查询设备在线状态
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步设备状态信息
+     */
+    public CompletableFuture<JsonObject> batchGetDeviceStatusAsync(List<String> deviceNameList, List<String> deviceIdList,
+                                                                   Executor executor) {
+        long stamp = cacheStamp();
+        return postReadAsync(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList), executor)
+                .thenApply(response -> {
+                    cacheBatchResponse(response, stamp);
+                    handleBatchStatusResponse(response);
+                    return response;
+                });
+    }
 
-        String endpoint = "/api/v1/quickdevice/batchGetDeviceState";
+    /**
+     * 异步批量查询设备在线状态
+     *
+     * @see #batchGetDeviceStatusAsync(List, List, Executor)
+     */
+    public CompletableFuture<JsonObject> batchGetDeviceStatusAsync(List<String> deviceNameList, List<String> deviceIdList) {
+        return batchGetDeviceStatusAsync(deviceNameList, deviceIdList, null);
+    }
 
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        if (deviceNameList != null && !deviceNameList.isEmpty()) {
-            payload.put("deviceName", deviceNameList);
-        }
-        if (deviceIdList != null && !deviceIdList.isEmpty()) {
-            payload.put("deviceId", deviceIdList);
-        }
+    /**
+     * 以流式解码方式批量查询设备在线状态
+     * 响应中的设备逐个解码并交给处理器，不会在内存中保留完整响应
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param deviceHandler  单个设备状态的处理器
+     * @return 响应外壳，包含success、errorMessage等字段，不包含设备数据
+     * @throws IOException 网络请求异常或响应超过大小上限
+     */
+    public JsonObject batchGetDeviceStatusStreaming(List<String> deviceNameList, List<String> deviceIdList,
+                                                    Consumer<JsonObject> deviceHandler) throws IOException {
+        return client.postStreaming(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList),
+                batchStatusFieldHandler(deviceHandler));
+    }
+
+    /**
+     * 以流式解码方式异步批量查询设备在线状态
+     * 处理器在OkHttp调度线程上被调用
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param deviceHandler  单个设备状态的处理器
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步响应外壳
+     */
+    public CompletableFuture<JsonObject> batchGetDeviceStatusStreamingAsync(List<String> deviceNameList,
+                                                                            List<String> deviceIdList,
+                                                                            Consumer<JsonObject> deviceHandler,
+                                                                            Executor executor) {
+        return client.postStreamingAsync(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList),
+                batchStatusFieldHandler(deviceHandler), executor);
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    /**
+     * 处理 data 可能是数组或对象(含devices字段)的情况，逐个设备回调
+     */
+    private static ResponseFieldHandler batchStatusFieldHandler(Consumer<JsonObject> deviceHandler) {
+        return (name, reader) -> {
+            if (!"data".equals(name)) {
+                return false;
+            }
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                readDeviceArray(reader, deviceHandler);
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("devices".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        readDeviceArray(reader, deviceHandler);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+            return true;
+        };
+    }
 
+    private static void readDeviceArray(JsonReader reader, Consumer<JsonObject> deviceHandler) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                deviceHandler.accept(JsonParser.parseReader(reader).getAsJsonObject());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private void handleBatchStatusResponse(JsonObject response) {
         // 检查结果并格式化输出
-        if (client.checkResponse(response)) {
+        if (client.checkResponse(response) && presenting()) {
             if (response.has("data") && !response.get("data").isJsonNull()) {
-                JsonElement dataElement = response.get("data");
-                JsonArray devices;
-                
-                // 处理 data 可能是数组或对象的情况
-                if (dataElement.isJsonArray()) {
-                    devices = dataElement.getAsJsonArray();
-                } else if (dataElement.isJsonObject() && dataElement.getAsJsonObject().has("devices")) {
-                    devices = dataElement.getAsJsonObject().getAsJsonArray("devices");
-                } else {
+                JsonArray devices = extractDeviceArray(response.get("data"));
+                if (devices == null) {
                     logger.warn("返回数据格式不正确");
-                    return response;
+                    return;
                 }
                 
                 logger.info("批量查询设备状态结果, 设备数量: {}", devices.size());
                 
                 // 统计各状态设备数量
-                Map<String, Integer> statusCounts = new HashMap<>();
-                statusCounts.put("ONLINE", 0);
-                statusCounts.put("OFFLINE", 0);
-                statusCounts.put("UNACTIVE", 0);
+                int onlineCount = 0;
+                int offlineCount = 0;
+                int unactiveCount = 0;
                 
                 // 遍历设备列表并处理每个设备的状态
                 for (int i = 0; i < devices.size(); i++) {
@@ -292,8 +572,12 @@ public class DeviceManager {
                             ? device.get("status").getAsString() : "未知";
                         
                         // 更新状态计数
-                        if (statusCounts.containsKey(status)) {
-                            statusCounts.put(status, statusCounts.get(status) + 1);
+                        if ("ONLINE".equals(status)) {
+                            onlineCount++;
+                        } else if ("OFFLINE".equals(status)) {
+                            offlineCount++;
+                        } else if ("UNACTIVE".equals(status)) {
+                            unactiveCount++;
                         }
                         
                         // 获取时间戳
@@ -302,38 +586,232 @@ public class DeviceManager {
                             timestampMs = device.get("timestamp").getAsLong();
                         }
                         
-                        // 格式化状态
-                        Map<String, String> statusMap = new HashMap<>();
-                        statusMap.put("ONLINE", "在线");
-                        statusMap.put("OFFLINE", "离线");
-                        statusMap.put("UNACTIVE", "未激活");
-                        String statusText = statusMap.getOrDefault(status, status);
-                        
-                        // 格式化时间
-                        String timeStr = "未知";
-                        if (timestampMs > 0) {
-                            Date date = new Date(timestampMs);
-                            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                            timeStr = sdf.format(date);
-                        }
-                        
                         // 输出设备信息
                         logger.info("设备 {} (ID: {}) - 状态: {}, 更新时间: {}", 
-                            deviceName, deviceId, statusText, timeStr);
+                            deviceName, deviceId, STATUS_TEXT.getOrDefault(status, status),
+                            timestampMs > 0 ? Utils.formatTimestamp(timestampMs) : "未知");
                     }
                 }
                 
                 // 打印设备状态统计
                 logger.info("设备状态统计: 在线设备: {} 台, 离线设备: {} 台, 未激活设备: {} 台",
-                    statusCounts.get("ONLINE"),
-                    statusCounts.get("OFFLINE"),
-                    statusCounts.get("UNACTIVE"));
+                    onlineCount, offlineCount, unactiveCount);
             } else {
                 logger.warn("返回数据中没有设备状态信息");
             }
         }
+    }
 
-        return response;
+    /**
+     * 处理 data 可能是数组或对象的情况
+     *
+     * @return 设备状态数组，格式不正确时返回null
+     */
+    private static JsonArray extractDeviceArray(JsonElement dataElement) {
+        if (dataElement.isJsonArray()) {
+            return dataElement.getAsJsonArray();
+        } else if (dataElement.isJsonObject() && dataElement.getAsJsonObject().has("devices")) {
+            return dataElement.getAsJsonObject().getAsJsonArray("devices");
+        }
+        return null;
+    }
+
+    /**
+     * 查询任意数量设备的在线状态
+     * 设备列表按每页100个自动分页，各分页并发查询，结果合并为单个映射。
+     * 单个分页失败不影响其他分页，失败信息记录在结果中。
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param maxInFlight    同时在途的最大分页请求数
+     * @return 合并后的设备状态结果
+     * @throws IOException 等待结果时线程被中断
+     */
+    public FleetStatusResult getFleetStatus(List<String> deviceNameList, List<String> deviceIdList,
+                                            int maxInFlight) throws IOException {
+        try {
+            return getFleetStatusAsync(deviceNameList, deviceIdList, maxInFlight, null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待设备状态查询结果时被中断");
+        } catch (ExecutionException e) {
+            throw new IOException("设备状态查询失败", e.getCause());
+        }
+    }
+
+    /**
+     * 异步查询任意数量设备的在线状态
+     * 实际并发度同时受OkHttp调度器的maxRequestsPerHost限制。
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param maxInFlight    同时在途的最大分页请求数
+     * @param executor       执行完成回调及结果合并的线程池，可为null
+     * @return 异步合并结果，分页失败不会使其异常完成
+     */
+    public CompletableFuture<FleetStatusResult> getFleetStatusAsync(List<String> deviceNameList, List<String> deviceIdList,
+                                                                    int maxInFlight, Executor executor) {
+        if ((deviceNameList == null || deviceNameList.isEmpty()) && (deviceIdList == null || deviceIdList.isEmpty())) {
+            throw new IllegalArgumentException("设备编码列表和设备ID列表至少需要提供一个");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("最大并发分页数必须大于0");
+        }
+
+        List<FleetPage> pages = new ArrayList<>();
+        addPages(pages, deviceNameList, true);
+        addPages(pages, deviceIdList, false);
+
+        FleetQuery query = new FleetQuery(pages, executor, cache);
+        int lanes = Math.min(maxInFlight, pages.size());
+        for (int i = 0; i < lanes; i++) {
+            launchPages(query);
+        }
+        return query.result;
+    }
+
+    private static void addPages(List<FleetPage> pages, List<String> values, boolean byName) {
+        if (values == null) {
+            return;
+        }
+        for (int from = 0; from < values.size(); from += MAX_BATCH_SIZE) {
+            int to = Math.min(from + MAX_BATCH_SIZE, values.size());
+            List<String> page = new ArrayList<>(values.subList(from, to));
+            pages.add(byName ? new FleetPage(page, Collections.<String>emptyList())
+                    : new FleetPage(Collections.<String>emptyList(), page));
+        }
+    }
+
+    /**
+     * 每个分页完成后启动下一个分页，保证在途请求数不超过上限
+     * 熔断、限流拒绝等同步完成的分页在当前循环中继续启动下一页，不会随分页数递归加深调用栈
+     */
+    private void launchPages(FleetQuery query) {
+        if (query.launchWip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            launchNextPage(query);
+        } while (query.launchWip.decrementAndGet() != 0);
+    }
+
+    private void launchNextPage(FleetQuery query) {
+        int index = query.nextPage.getAndIncrement();
+        if (index >= query.pages.size()) {
+            return;
+        }
+        FleetPage page = query.pages.get(index);
+        CompletableFuture<JsonObject> future;
+        try {
+            future = client.postAsync(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(page.deviceNames, page.deviceIds),
+                    query.executor);
+        } catch (Throwable t) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(t);
+        }
+        future.whenComplete((response, error) -> {
+            try {
+                if (error != null) {
+                    query.fail(page, error.getMessage(), error);
+                } else if (!client.checkResponse(response)) {
+                    query.fail(page, response.has("errorMessage")
+                            ? response.get("errorMessage").getAsString() : "未知错误", null);
+                } else {
+                    query.merge(page, response);
+                }
+            } catch (Throwable t) {
+                query.fail(page, "处理分页结果失败: " + t, t);
+            }
+
+            if (query.completedPages.incrementAndGet() == query.pages.size()) {
+                try {
+                    FleetStatusResult result = query.finish();
+                    if (presenting()) {
+                        logger.info("大规模设备状态查询完成, 分页数: {}, 设备数量: {}, 失败分页: {}",
+                                result.getPageCount(), result.getDevices().size(), result.getFailures().size());
+                    }
+                    query.result.complete(result);
+                } catch (Throwable t) {
+                    query.result.completeExceptionally(t);
+                }
+            } else {
+                launchPages(query);
+            }
+        });
+    }
+
+    /**
+     * 大规模状态查询的一个分页，按设备编码或设备ID查询
+     */
+    private static final class FleetPage {
+        final List<String> deviceNames;
+        final List<String> deviceIds;
+
+        FleetPage(List<String> deviceNames, List<String> deviceIds) {
+            this.deviceNames = deviceNames;
+            this.deviceIds = deviceIds;
+        }
+    }
+
+    /**
+     * 一次大规模状态查询的共享状态
+     */
+    private static class FleetQuery {
+        final List<FleetPage> pages;
+        final Executor executor;
+        final DeviceCache cache;
+        final long cacheStamp;
+        final AtomicInteger nextPage = new AtomicInteger();
+        final AtomicInteger completedPages = new AtomicInteger();
+        final AtomicInteger launchWip = new AtomicInteger();
+        final Map<String, JsonObject> devices = new ConcurrentHashMap<>();
+        final Queue<FleetStatusResult.PageFailure> failures = new ConcurrentLinkedQueue<>();
+        final CompletableFuture<FleetStatusResult> result = new CompletableFuture<>();
+
+        FleetQuery(List<FleetPage> pages, Executor executor, DeviceCache cache) {
+            this.pages = pages;
+            this.executor = executor;
+            this.cache = cache;
+            this.cacheStamp = cache != null ? cache.stamp() : 0;
+        }
+
+        void merge(FleetPage page, JsonObject response) {
+            JsonElement dataElement = response.get("data");
+            JsonArray array = dataElement == null || dataElement.isJsonNull() ? null : extractDeviceArray(dataElement);
+            if (array == null) {
+                fail(page, "返回数据格式不正确", null);
+                return;
+            }
+            for (JsonElement element : array) {
+                if (element.isJsonNull()) {
+                    continue;
+                }
+                JsonObject device = element.getAsJsonObject();
+                String key = stringOrNull(device, "deviceName");
+                if (key == null) {
+                    key = stringOrNull(device, "deviceId");
+                }
+                if (key != null) {
+                    devices.put(key, device);
+                }
+                if (cache != null) {
+                    cacheDeviceStatus(cache, device, cacheStamp);
+                }
+            }
+        }
+
+        void fail(FleetPage page, String errorMessage, Throwable cause) {
+            failures.add(new FleetStatusResult.PageFailure(page.deviceNames, page.deviceIds, errorMessage, cause));
+        }
+
+        FleetStatusResult finish() {
+            return new FleetStatusResult(new HashMap<>(devices), new ArrayList<>(failures), pages.size());
+        }
+
+        private static String stringOrNull(JsonObject object, String field) {
+            JsonElement element = object.get(field);
+            return element != null && !element.isJsonNull() ? element.getAsString() : null;
+        }
     }
 
     /**
@@ -347,37 +825,53 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject sendRrpcMessage(String deviceName, String productKey, String messageContent, int timeout) throws IOException {
-        // 参数验证
-        if (deviceName == null || deviceName.isEmpty()) {
-            throw new IllegalArgumentException("设备编码不能为空");
-        }
-        if (productKey == null || productKey.isEmpty()) {
-            throw new IllegalArgumentException("产品密钥不能为空");
-        }
-        if (messageContent == null || messageContent.isEmpty()) {
-            throw new IllegalArgumentException("消息内容不能为空");
-        }
-
-        String endpoint = "/api/v1/device/rrpc";
+        JsonObject response = client.post(RRPC_ENDPOINT, DeviceRequests.rrpc(deviceName, productKey, messageContent, timeout));
+        handleRrpcResponse(response);
+        return response;
+    }
 
-        // 消息内容Base64编码
-        String base64Message = Base64.getEncoder().encodeToString(messageContent.getBytes(StandardCharsets.UTF_8));
+    /**
+     * 异步发送RRPC消息到设备
+     *
+     * @param deviceName     设备编码
+     * @param productKey     产品密钥
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步响应结果
+     */
+    public CompletableFuture<JsonObject> sendRrpcMessageAsync(String deviceName, String productKey, String messageContent,
+                                                              int timeout, Executor executor) {
+        return client.postAsync(RRPC_ENDPOINT, DeviceRequests.rrpc(deviceName, productKey, messageContent, timeout), executor)
+                .thenApply(response -> {
+                    handleRrpcResponse(response);
+                    return response;
+                });
+    }
 
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("deviceName", deviceName);
-        payload.put("productKey", productKey);
-        payload.put("requestBase64Byte", base64Message);
-        
-        if (timeout > 0) {
-            payload.put("timeout", timeout);
-        }
+    /**
+     * 异步发送RRPC消息到设备
+     *
+     * @see #sendRrpcMessageAsync(String, String, String, int, Executor)
+     */
+    public CompletableFuture<JsonObject> sendRrpcMessageAsync(String deviceName, String productKey, String messageContent,
+                                                              int timeout) {
+        return sendRrpcMessageAsync(deviceName, productKey, messageContent, timeout, null);
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    /**
+     * 发送RRPC消息，平台返回失败时抛出异常，供指令日志使用
+     */
+    JsonObject deliverRrpcMessage(String deviceName, String productKey, String messageContent, int timeout)
+            throws IOException {
+        JsonObject response = client.post(RRPC_ENDPOINT, DeviceRequests.rrpc(deviceName, productKey, messageContent, timeout));
+        checkEnvelope(response);
+        return response;
+    }
 
+    private void handleRrpcResponse(JsonObject response) {
         // 检查结果
-        if (client.checkResponse(response)) {
+        if (client.checkResponse(response) && presenting()) {
             logger.info("RRPC消息发送成功");
             String base64Response = null;
             
@@ -393,17 +887,6 @@ public class DeviceManager {
                     byte[] decodedBytes = Base64.getDecoder().decode(base64Response);
                     String decodedResponse = new String(decodedBytes, StandardCharsets.UTF_8);
                     logger.info("设备响应内容: {}", decodedResponse);
-                    
-                    // 尝试解析为JSON
-                    try {
-                        JsonParser parser = new JsonParser();
-                        JsonElement jsonElement = parser.parse(decodedResponse);
-                        if (jsonElement.isJsonObject()) {
-                            logger.info("响应内容为JSON格式");
-                        }
-                    } catch (Exception e) {
-                        logger.debug("响应内容不是有效的JSON格式");
-                    }
                 } catch (Exception e) {
                     logger.error("解析响应内容失败: {}", e.getMessage());
                 }
@@ -411,8 +894,6 @@ public class DeviceManager {
                 logger.warn("响应中没有包含payloadBase64Byte或playloadBase64Byte字段");
             }
         }
-
-        return response;
     }
 
     /**
@@ -424,38 +905,421 @@ public class DeviceManager {
      * @throws IOException 网络请求异常
      */
     public JsonObject sendCustomCommand(String deviceName, String messageContent) throws IOException {
-        // 参数验证
-        if (deviceName == null || deviceName.isEmpty()) {
-            throw new IllegalArgumentException("设备编码不能为空");
-        }
-        if (messageContent == null || messageContent.isEmpty()) {
-            throw new IllegalArgumentException("消息内容不能为空");
-        }
+        JsonObject response = client.post(CUSTOM_COMMAND_ENDPOINT, DeviceRequests.customCommand(deviceName, messageContent));
+        handleCustomCommandResponse(response);
+        return response;
+    }
 
-        String endpoint = "/api/v1/device/down/record/add/custom";
+    /**
+     * 异步发送自定义指令到设备
+     *
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步响应结果
+     */
+    public CompletableFuture<JsonObject> sendCustomCommandAsync(String deviceName, String messageContent, Executor executor) {
+        return client.postAsync(CUSTOM_COMMAND_ENDPOINT, DeviceRequests.customCommand(deviceName, messageContent), executor)
+                .thenApply(response -> {
+                    handleCustomCommandResponse(response);
+                    return response;
+                });
+    }
 
-        // 消息内容Base64编码
-        String base64Message = Base64.getEncoder().encodeToString(messageContent.getBytes(StandardCharsets.UTF_8));
+    /**
+     * 异步发送自定义指令到设备
+     *
+     * @see #sendCustomCommandAsync(String, String, Executor)
+     */
+    public CompletableFuture<JsonObject> sendCustomCommandAsync(String deviceName, String messageContent) {
+        return sendCustomCommandAsync(deviceName, messageContent, null);
+    }
 
-        // 构建请求体
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("deviceName", deviceName);
-        payload.put("messageContent", base64Message);
+    /**
+     * 发送自定义指令，平台返回失败时抛出异常，供指令调度器和指令日志使用
+     */
+    JsonObject deliverCustomCommand(String deviceName, String messageContent) throws IOException {
+        JsonObject response = client.post(CUSTOM_COMMAND_ENDPOINT, DeviceRequests.customCommand(deviceName, messageContent));
+        checkEnvelope(response);
+        return response;
+    }
 
-        // 发送请求
-        JsonObject response = client.post(endpoint, payload);
+    /**
+     * 异步发送自定义指令，平台返回失败时以ApiException完成，供指令流使用
+     */
+    CompletableFuture<JsonObject> deliverCustomCommandAsync(String deviceName, String messageContent) {
+        return client.postAsync(CUSTOM_COMMAND_ENDPOINT, DeviceRequests.customCommand(deviceName, messageContent))
+                .thenApply(response -> {
+                    checkEnvelopeUnchecked(response);
+                    return response;
+                });
+    }
 
+    private void handleCustomCommandResponse(JsonObject response) {
         // 检查结果
         if (client.checkResponse(response)) {
-            logger.info("自定义指令下发成功");
-            if (response.has("data")) {
-                logger.info("响应数据: {}", response.get("data"));
+            if (presenting()) {
+                logger.info("自定义指令下发成功");
+                if (response.has("data")) {
+                    logger.info("响应数据: {}", response.get("data"));
+                }
             }
         } else {
             logger.error("自定义指令下发失败: {}", 
                 response.has("errorMessage") ? response.get("errorMessage").getAsString() : "未知错误");
         }
+    }
 
-        return response;
+    /**
+     * 查询设备在线状态，返回类型化结果
+     * 响应通过手写TypeAdapter流式解码，不构建JSON树
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @return 设备状态
+     * @throws ApiException 平台返回失败
+     * @throws IOException  网络请求异常
+     */
+    public DeviceStatus queryDeviceStatus(String deviceName, String deviceId) throws IOException {
+        if (cache != null) {
+            JsonObject response = readThrough(DeviceCache.Kind.STATUS, STATUS_ENDPOINT, deviceName, deviceId);
+            return withDeviceKey(dataFromTree(response, ModelAdapters.DEVICE_STATUS), deviceName, deviceId);
+        }
+        return withDeviceKey(fetchData(STATUS_ENDPOINT, DeviceRequests.deviceKey(deviceName, deviceId),
+                ModelAdapters.DEVICE_STATUS), deviceName, deviceId);
+    }
+
+    /**
+     * 异步查询设备在线状态，返回类型化结果
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @param executor   执行完成回调的线程池，可为null
+     * @return 异步设备状态
+     */
+    public CompletableFuture<DeviceStatus> queryDeviceStatusAsync(String deviceName, String deviceId, Executor executor) {
+        if (cache != null) {
+            return readThroughAsync(DeviceCache.Kind.STATUS, STATUS_ENDPOINT, deviceName, deviceId, executor)
+                    .thenApply(response -> {
+                        try {
+                            return withDeviceKey(dataFromTree(response, ModelAdapters.DEVICE_STATUS), deviceName, deviceId);
+                        } catch (ApiException e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+        }
+        return fetchDataAsync(STATUS_ENDPOINT, DeviceRequests.deviceKey(deviceName, deviceId), ModelAdapters.DEVICE_STATUS, executor)
+                .thenApply(status -> withDeviceKey(status, deviceName, deviceId));
+    }
+
+    /**
+     * 查询设备详情，返回类型化结果
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @return 设备详情
+     * @throws ApiException 平台返回失败
+     * @throws IOException  网络请求异常
+     */
+    public DeviceDetail queryDeviceDetail(String deviceName, String deviceId) throws IOException {
+        if (cache != null) {
+            JsonObject response = readThrough(DeviceCache.Kind.DETAIL, DETAIL_ENDPOINT, deviceName, deviceId);
+            return dataFromTree(response, ModelAdapters.DEVICE_DETAIL);
+        }
+        return fetchData(DETAIL_ENDPOINT, DeviceRequests.deviceKey(deviceName, deviceId), ModelAdapters.DEVICE_DETAIL);
+    }
+
+    /**
+     * 批量查询设备在线状态，返回类型化结果
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @return 批量状态结果
+     * @throws ApiException 平台返回失败
+     * @throws IOException  网络请求异常
+     */
+    public BatchStatusResult queryBatchDeviceStatus(List<String> deviceNameList, List<String> deviceIdList) throws IOException {
+        long stamp = cacheStamp();
+        BatchStatusResult result = fetchData(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList),
+                ModelAdapters.BATCH_STATUS_RESULT);
+        cacheBatchResult(result, stamp);
+        return result;
+    }
+
+    /**
+     * 异步批量查询设备在线状态，返回类型化结果
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步批量状态结果
+     */
+    public CompletableFuture<BatchStatusResult> queryBatchDeviceStatusAsync(List<String> deviceNameList,
+                                                                            List<String> deviceIdList,
+                                                                            Executor executor) {
+        long stamp = cacheStamp();
+        return fetchDataAsync(BATCH_STATUS_ENDPOINT, DeviceRequests.batchStatus(deviceNameList, deviceIdList),
+                ModelAdapters.BATCH_STATUS_RESULT, executor)
+                .thenApply(result -> {
+                    cacheBatchResult(result, stamp);
+                    return result;
+                });
+    }
+
+    private void cacheBatchResult(BatchStatusResult result, long stamp) {
+        if (cache == null) {
+            return;
+        }
+        for (DeviceStatus device : result.getDevices()) {
+            cacheDeviceStatus(cache, ModelAdapters.DEVICE_STATUS.toJsonTree(device).getAsJsonObject(), stamp);
+        }
+    }
+
+    /**
+     * 请求平台前的缓存失效序号，未启用缓存时为0
+     */
+    private long cacheStamp() {
+        return cache != null ? cache.stamp() : 0;
+    }
+
+    /**
+     * 注册设备，返回类型化结果
+     *
+     * @param productKey 产品唯一标识码
+     * @param deviceName 设备标识码，可选
+     * @param nickName   设备显示名称，可选
+     * @return 注册结果
+     * @throws ApiException 平台返回失败
+     * @throws IOException  网络请求异常
+     */
+    public RegistrationResult registerDeviceForResult(String productKey, String deviceName, String nickName) throws IOException {
+        return fetchData(REGISTER_ENDPOINT, DeviceRequests.register(productKey, deviceName, nickName),
+                ModelAdapters.REGISTRATION_RESULT);
+    }
+
+    /**
+     * 异步注册设备，返回类型化结果
+     *
+     * @param productKey 产品唯一标识码
+     * @param deviceName 设备标识码，可选
+     * @param nickName   设备显示名称，可选
+     * @param executor   执行完成回调的线程池，可为null
+     * @return 异步注册结果
+     */
+    public CompletableFuture<RegistrationResult> registerDeviceForResultAsync(String productKey, String deviceName,
+                                                                              String nickName, Executor executor) {
+        return fetchDataAsync(REGISTER_ENDPOINT, DeviceRequests.register(productKey, deviceName, nickName),
+                ModelAdapters.REGISTRATION_RESULT, executor);
+    }
+
+    /**
+     * 发送RRPC消息到设备，返回类型化结果
+     *
+     * @param deviceName     设备编码
+     * @param productKey     产品密钥
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)
+     * @return RRPC结果
+     * @throws ApiException 平台返回失败
+     * @throws IOException  网络请求异常
+     */
+    public RrpcResult sendRrpcMessageForResult(String deviceName, String productKey, String messageContent,
+                                               int timeout) throws IOException {
+        String[] payloadHolder = new String[1];
+        JsonObject envelope = client.postStreaming(RRPC_ENDPOINT,
+                DeviceRequests.rrpc(deviceName, productKey, messageContent, timeout), rrpcFieldHandler(payloadHolder));
+        checkEnvelope(envelope);
+        return new RrpcResult(payloadHolder[0]);
+    }
+
+    /**
+     * 异步发送RRPC消息到设备，返回类型化结果
+     *
+     * @param deviceName     设备编码
+     * @param productKey     产品密钥
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)
+     * @param executor       执行完成回调的线程池，可为null
+     * @return 异步RRPC结果
+     */
+    public CompletableFuture<RrpcResult> sendRrpcMessageForResultAsync(String deviceName, String productKey,
+                                                                       String messageContent, int timeout,
+                                                                       Executor executor) {
+        String[] payloadHolder = new String[1];
+        return client.postStreamingAsync(RRPC_ENDPOINT, DeviceRequests.rrpc(deviceName, productKey, messageContent, timeout),
+                        rrpcFieldHandler(payloadHolder), executor)
+                .thenApply(envelope -> {
+                    checkEnvelopeUnchecked(envelope);
+                    return new RrpcResult(payloadHolder[0]);
+                });
+    }
+
+    /**
+     * 检查两种可能的字段名
+     */
+    private static ResponseFieldHandler rrpcFieldHandler(String[] payloadHolder) {
+        return (name, reader) -> {
+            if (!"payloadBase64Byte".equals(name) && !"playloadBase64Byte".equals(name)) {
+                return false;
+            }
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                payloadHolder[0] = reader.nextString();
+            }
+            return true;
+        };
+    }
+
+    /**
+     * 只读端点的类型化请求可合并，结果对象不可变，可直接共享
+     */
+    private <T> T fetchData(String endpoint, JsonPayload payload, TypeAdapter<T> adapter) throws IOException {
+        if (coalescer != null && !REGISTER_ENDPOINT.equals(endpoint)) {
+            return coalescer.execute(endpoint, adapter, payload, UnaryOperator.identity(),
+                    () -> doFetchData(endpoint, payload, adapter));
+        }
+        return doFetchData(endpoint, payload, adapter);
+    }
+
+    private <T> CompletableFuture<T> fetchDataAsync(String endpoint, JsonPayload payload, TypeAdapter<T> adapter,
+                                                    Executor executor) {
+        if (coalescer != null && !REGISTER_ENDPOINT.equals(endpoint)) {
+            return coalescer.executeAsync(endpoint, adapter, payload, UnaryOperator.identity(), executor,
+                    () -> doFetchDataAsync(endpoint, payload, adapter, null));
+        }
+        return doFetchDataAsync(endpoint, payload, adapter, executor);
+    }
+
+    private <T> T doFetchData(String endpoint, JsonPayload payload, TypeAdapter<T> adapter) throws IOException {
+        List<T> holder = new ArrayList<>(1);
+        JsonObject envelope = client.postStreaming(endpoint, payload, dataFieldHandler(adapter, holder));
+        checkEnvelope(envelope);
+        if (holder.isEmpty() || holder.get(0) == null) {
+            throw new ApiException("返回数据中没有data字段");
+        }
+        return holder.get(0);
+    }
+
+    private <T> CompletableFuture<T> doFetchDataAsync(String endpoint, JsonPayload payload,
+                                                      TypeAdapter<T> adapter, Executor executor) {
+        List<T> holder = new ArrayList<>(1);
+        return client.postStreamingAsync(endpoint, payload, dataFieldHandler(adapter, holder), executor)
+                .thenApply(envelope -> {
+                    checkEnvelopeUnchecked(envelope);
+                    if (holder.isEmpty() || holder.get(0) == null) {
+                        throw new CompletionException(new ApiException("返回数据中没有data字段"));
+                    }
+                    return holder.get(0);
+                });
+    }
+
+    private static <T> ResponseFieldHandler dataFieldHandler(TypeAdapter<T> adapter, List<T> holder) {
+        return (name, reader) -> {
+            if (!"data".equals(name)) {
+                return false;
+            }
+            // 认证失效重放时同一处理器可能被调用两次，只保留最后一次的结果
+            holder.clear();
+            holder.add(adapter.read(reader));
+            return true;
+        };
+    }
+
+    /**
+     * 从已缓存的完整响应中解码data字段
+     */
+    private <T> T dataFromTree(JsonObject response, TypeAdapter<T> adapter) throws ApiException {
+        checkEnvelope(response);
+        JsonElement data = response.get("data");
+        if (data == null || data.isJsonNull()) {
+            throw new ApiException("返回数据中没有data字段");
+        }
+        return adapter.fromJsonTree(data);
+    }
+
+    private void checkEnvelope(JsonObject envelope) throws ApiException {
+        if (!client.checkResponse(envelope)) {
+            throw new ApiException(envelope.has("errorMessage") && !envelope.get("errorMessage").isJsonNull()
+                    ? envelope.get("errorMessage").getAsString() : "未知错误");
+        }
+    }
+
+    private void checkEnvelopeUnchecked(JsonObject envelope) {
+        try {
+            checkEnvelope(envelope);
+        } catch (ApiException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 单设备状态接口的data中通常不含设备标识，使用请求参数补全
+     */
+    private static DeviceStatus withDeviceKey(DeviceStatus status, String deviceName, String deviceId) {
+        if (status.getDeviceName() != null || status.getDeviceId() != null) {
+            return status;
+        }
+        return new DeviceStatus(deviceName, deviceId, status.getState(), status.getTimestamp());
+    }
+
+    /**
+     * 设备管理器构建器
+     */
+    public static class Builder {
+        private final IoTClient client;
+        private DeviceCache cache;
+        private boolean coalesceReads;
+        private boolean quiet;
+
+        private Builder(IoTClient client) {
+            this.client = client;
+        }
+
+        /**
+         * 启用设备状态/详情的读穿透缓存
+         *
+         * @param cache 设备缓存
+         * @return 当前构建器
+         */
+        public Builder cache(DeviceCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * 启用读请求合并
+         * 设备详情、状态和批量状态查询中端点和请求体完全相同的并发请求只发出一次，
+         * 所有等待者得到同一结果或同一异常，同步和异步调用均适用，不依赖缓存
+         *
+         * @param coalesceReads 是否启用
+         * @return 当前构建器
+         */
+        public Builder coalesceReads(boolean coalesceReads) {
+            this.coalesceReads = coalesceReads;
+            return this;
+        }
+
+        /**
+         * 启用安静模式
+         * 成功结果不再格式化输出(状态名称映射、时间格式化、离线时长和逐设备的INFO日志)，
+         * 返回值不受影响，失败结果仍记录日志。高频调用且不需要这些日志时建议开启
+         *
+         * @param quiet 是否启用
+         * @return 当前构建器
+         */
+        public Builder quiet(boolean quiet) {
+            this.quiet = quiet;
+            return this;
+        }
+
+        /**
+         * 构建设备管理器
+         *
+         * @return 设备管理器实例
+         */
+        public DeviceManager build() {
+            return new DeviceManager(this);
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.JsonPayload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 设备管理各端点的类型化请求体
+ * 请求体由客户端直接写入请求缓冲区，无需构建Map。参数校验与 {@link DeviceManager} 的对应方法一致。
+ */
+public final class DeviceRequests {
+
+    private DeviceRequests() {
+    }
+
+    /**
+     * 设备注册请求
+     *
+     * @param productKey 产品密钥
+     * @param deviceName 设备编码，可选
+     * @param nickName   设备名称，可选
+     * @return 请求体
+     */
+    public static JsonPayload register(String productKey, String deviceName, String nickName) {
+        if (productKey == null || productKey.isEmpty()) {
+            throw new IllegalArgumentException("产品密钥不能为空");
+        }
+        return JsonPayload.builder()
+                .add("productKey", productKey)
+                .add("deviceName", emptyToNull(deviceName))
+                .add("nickName", emptyToNull(nickName))
+                .build();
+    }
+
+    /**
+     * 单设备查询请求(设备详情、设备状态)
+     *
+     * @param deviceName 设备编码，可选
+     * @param deviceId   设备唯一标识，可选
+     * @return 请求体
+     */
+    public static JsonPayload deviceKey(String deviceName, String deviceId) {
+        if ((deviceName == null || deviceName.isEmpty()) && (deviceId == null || deviceId.isEmpty())) {
+            throw new IllegalArgumentException("设备编码(deviceName)和设备ID(deviceId)至少需要提供一个");
+        }
+        return JsonPayload.builder()
+                .add("deviceName", emptyToNull(deviceName))
+                .add("deviceId", emptyToNull(deviceId))
+                .build();
+    }
+
+    /**
+     * 批量设备状态查询请求，列表按引用写出，请求完成前不应修改
+     *
+     * @param deviceNameList 设备编码列表，可选
+     * @param deviceIdList   设备唯一标识列表，可选
+     * @return 请求体
+     */
+    public static JsonPayload batchStatus(List<String> deviceNameList, List<String> deviceIdList) {
+        if ((deviceNameList == null || deviceNameList.isEmpty()) && (deviceIdList == null || deviceIdList.isEmpty())) {
+            throw new IllegalArgumentException("设备编码列表和设备ID列表至少需要提供一个");
+        }
+        int deviceCount = (deviceNameList != null ? deviceNameList.size() : 0)
+                + (deviceIdList != null ? deviceIdList.size() : 0);
+        if (deviceCount > DeviceManager.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(String.format("单次请求最多支持查询%d个设备，当前请求包含%d个设备",
+                    DeviceManager.MAX_BATCH_SIZE, deviceCount));
+        }
+        return JsonPayload.builder()
+                .add("deviceName", deviceNameList != null && !deviceNameList.isEmpty() ? deviceNameList : null)
+                .add("deviceId", deviceIdList != null && !deviceIdList.isEmpty() ? deviceIdList : null)
+                .build();
+    }
+
+    /**
+     * RRPC请求，消息内容按UTF-8编码后Base64编码
+     *
+     * @param deviceName     设备编码
+     * @param productKey     产品密钥
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)，小于等于0时使用平台默认值
+     * @return 请求体
+     */
+    public static JsonPayload rrpc(String deviceName, String productKey, String messageContent, int timeout) {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        if (productKey == null || productKey.isEmpty()) {
+            throw new IllegalArgumentException("产品密钥不能为空");
+        }
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        return JsonPayload.builder()
+                .add("deviceName", deviceName)
+                .add("productKey", productKey)
+                .add("requestBase64Byte", base64(messageContent))
+                .add("timeout", timeout > 0 ? Integer.valueOf(timeout) : null)
+                .build();
+    }
+
+    /**
+     * 自定义指令请求，消息内容按UTF-8编码后Base64编码
+     *
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @return 请求体
+     */
+    public static JsonPayload customCommand(String deviceName, String messageContent) {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        return JsonPayload.builder()
+                .add("deviceName", deviceName)
+                .add("messageContent", base64(messageContent))
+                .build();
+    }
+
+    private static String base64(String messageContent) {
+        return Base64.getEncoder().encodeToString(messageContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,214 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.client.ApiException;
+import com.iot.sdk.client.Futures;
+import com.iot.sdk.client.SharedScheduler;
+import com.iot.sdk.model.BatchStatusResult;
+import com.iot.sdk.model.DeviceStatus;
+import org.reactivestreams.Publisher;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Reactive Streams的批量操作
+ * 输入和输出都是 {@link Publisher}，按下游的需求向上游请求元素：下游不再请求时SDK不再查询或发送，
+ * 内存中缓存的元素数由分页大小和在途数决定，与输入总量无关。
+ * Java 9及以上版本可用 {@code org.reactivestreams.FlowAdapters} 与 {@code java.util.concurrent.Flow} 互相转换。
+ * <p>
+ * 返回的发布者是冷的，每次订阅独立订阅上游；结果按请求完成的顺序发出，不保证与输入顺序一致。
+ * 同一个对象可重复使用。
+ */
+public class DeviceStreams {
+    private final DeviceManager deviceManager;
+    private final int pageSize;
+    private final int maxInFlightPages;
+    private final long lingerMillis;
+    private final int maxInFlightCommands;
+    private final ScheduledExecutorService scheduler;
+
+    private DeviceStreams(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.pageSize = builder.pageSize;
+        this.maxInFlightPages = builder.maxInFlightPages;
+        this.lingerMillis = builder.lingerMillis;
+        this.maxInFlightCommands = builder.maxInFlightCommands;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * 创建批量操作构建器
+     *
+     * @param deviceManager 设备管理器
+     * @return 构建器
+     */
+    public static Builder builder(DeviceManager deviceManager) {
+        return new Builder(deviceManager);
+    }
+
+    /**
+     * 按设备编码查询设备状态
+     * 设备编码按分页大小攒批后通过批量状态接口查询，平台未返回的设备不会出现在输出中。
+     * 查询失败时取消上游并以该异常结束。
+     *
+     * @param deviceNames 设备编码流
+     * @return 设备状态流
+     */
+    public Publisher<DeviceStatus> statusByName(Publisher<String> deviceNames) {
+        return BatchingOperator.publisher(deviceNames,
+                page -> devices(deviceManager.queryBatchDeviceStatusAsync(page, null, null)),
+                pageSize, maxInFlightPages, lingerMillis, scheduler);
+    }
+
+    /**
+     * 按设备ID查询设备状态
+     *
+     * @param deviceIds 设备唯一标识流
+     * @return 设备状态流
+     * @see #statusByName(Publisher)
+     */
+    public Publisher<DeviceStatus> statusById(Publisher<String> deviceIds) {
+        return BatchingOperator.publisher(deviceIds,
+                page -> devices(deviceManager.queryBatchDeviceStatusAsync(null, page, null)),
+                pageSize, maxInFlightPages, lingerMillis, scheduler);
+    }
+
+    /**
+     * 发送自定义指令
+     * 每条指令输出一个结果，发送失败记录在结果中，不会结束输出流。
+     * 在途指令数大于1时同一设备的指令可能乱序到达，需要严格有序时将在途指令数设为1或使用 {@link CommandDispatcher}。
+     *
+     * @param commands 指令流
+     * @return 发送结果流
+     */
+    public Publisher<CommandOutcome> sendCustomCommands(Publisher<CustomCommand> commands) {
+        return BatchingOperator.publisher(commands, batch -> deliver(batch.get(0)),
+                1, maxInFlightCommands, 0, scheduler);
+    }
+
+    private static CompletableFuture<List<DeviceStatus>> devices(CompletableFuture<BatchStatusResult> result) {
+        return result.thenApply(BatchStatusResult::getDevices);
+    }
+
+    private CompletableFuture<List<CommandOutcome>> deliver(CustomCommand command) {
+        long start = System.nanoTime();
+        CompletableFuture<JsonObject> future;
+        try {
+            future = deviceManager.deliverCustomCommandAsync(command.getDeviceName(), command.getMessageContent());
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(
+                    Collections.singletonList(new CommandOutcome(command, null, e.getMessage(), e, 0)));
+        }
+        return future.handle((response, error) -> {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (error == null) {
+                return Collections.singletonList(new CommandOutcome(command, response, null, null, latency));
+            }
+            Throwable cause = Futures.unwrap(error);
+            String message = cause instanceof ApiException
+                    ? ((ApiException) cause).getErrorMessage() : cause.getMessage();
+            return Collections.singletonList(new CommandOutcome(command, null,
+                    message != null ? message : cause.getClass().getSimpleName(), cause, latency));
+        });
+    }
+
+    /**
+     * 批量操作构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private int pageSize = DeviceManager.MAX_BATCH_SIZE;
+        private int maxInFlightPages = 2;
+        private long lingerMillis = 50;
+        private int maxInFlightCommands = 8;
+        private ScheduledExecutorService scheduler;
+
+        private Builder(DeviceManager deviceManager) {
+            if (deviceManager == null) {
+                throw new IllegalArgumentException("设备管理器不能为空");
+            }
+            this.deviceManager = deviceManager;
+        }
+
+        /**
+         * 设置状态查询的分页大小，默认100
+         *
+         * @param pageSize 每页设备数，不超过 {@link DeviceManager#MAX_BATCH_SIZE}
+         * @return 当前构建器
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize <= 0 || pageSize > DeviceManager.MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("分页大小必须在1到" + DeviceManager.MAX_BATCH_SIZE + "之间");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * 设置状态查询的最大在途页数，默认2
+         *
+         * @param maxInFlightPages 最大在途页数
+         * @return 当前构建器
+         */
+        public Builder maxInFlightPages(int maxInFlightPages) {
+            if (maxInFlightPages <= 0) {
+                throw new IllegalArgumentException("在途页数必须大于0");
+            }
+            this.maxInFlightPages = maxInFlightPages;
+            return this;
+        }
+
+        /**
+         * 设置未满一页时的最长等待时间，默认50毫秒，上游结束时立即查询
+         *
+         * @param linger 等待时间，为0时有需求即查询
+         * @param unit   时间单位
+         * @return 当前构建器
+         */
+        public Builder linger(long linger, TimeUnit unit) {
+            if (linger < 0) {
+                throw new IllegalArgumentException("等待时间不能小于0");
+            }
+            this.lingerMillis = unit.toMillis(linger);
+            return this;
+        }
+
+        /**
+         * 设置指令发送的最大在途数，默认8
+         *
+         * @param maxInFlightCommands 最大在途指令数
+         * @return 当前构建器
+         */
+        public Builder maxInFlightCommands(int maxInFlightCommands) {
+            if (maxInFlightCommands <= 0) {
+                throw new IllegalArgumentException("在途指令数必须大于0");
+            }
+            this.maxInFlightCommands = maxInFlightCommands;
+            return this;
+        }
+
+        /**
+         * 设置攒批计时调度器，默认使用SDK共享的 {@link SharedScheduler}
+         *
+         * @param scheduler 调度器
+         * @return 当前构建器
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * 构建批量操作
+         *
+         * @return 批量操作
+         */
+        public DeviceStreams build() {
+            return new DeviceStreams(this);
+        }
+    }
+}
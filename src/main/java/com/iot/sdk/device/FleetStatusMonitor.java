@@ -0,0 +1,662 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.SharedScheduler;
+import com.iot.sdk.model.BatchStatusResult;
+import com.iot.sdk.model.DeviceState;
+import com.iot.sdk.model.DeviceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 设备集群状态监控
+ * 按固定间隔(带随机抖动)以每页100个设备轮询已注册设备的在线状态，
+ * 只在状态发生变化(如 ONLINE -> OFFLINE)时通知监听器。
+ * <p>
+ * 设备状态保存在按槽位索引的原始类型数组中，设备编码到槽位的映射使用开放寻址整型表，
+ * 每轮轮询原地更新，不会重新分配整体状态；轮询由单个调度线程触发，请求通过异步接口并发发出，
+ * 不会为每个设备占用线程。
+ */
+public class FleetStatusMonitor implements Closeable {
+    private static final byte NOT_OBSERVED = -1;
+    private static final DeviceState[] STATES = DeviceState.values();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MAX_DEFAULT_JITTER_MILLIS = TimeUnit.SECONDS.toMillis(3);
+
+    private final DeviceManager deviceManager;
+    private final long intervalMillis;
+    private final long jitterMillis;
+    private final int maxInFlight;
+    private final boolean emitInitialState;
+    private final Executor listenerExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final List<StatusChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Logger logger = LoggerFactory.getLogger(FleetStatusMonitor.class);
+
+    /**
+     * 注册/注销和轮询结果合并持有写锁，查询持有读锁
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int highWater;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int deviceCount;
+    /**
+     * 开放寻址索引，元素为槽位+1，0表示空
+     */
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+
+    private volatile boolean running;
+    private volatile ScheduledFuture<?> nextSweep;
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong failedPageCount = new AtomicLong();
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile long lastSweepMillis;
+
+    private FleetStatusMonitor(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.intervalMillis = builder.intervalMillis;
+        this.jitterMillis = builder.jitterMillis;
+        this.maxInFlight = builder.maxInFlight;
+        this.emitInitialState = builder.emitInitialState;
+        this.listenerExecutor = builder.listenerExecutor;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * 创建监控构建器
+     *
+     * @param deviceManager 设备管理器
+     * @return 监控构建器
+     */
+    public static Builder builder(DeviceManager deviceManager) {
+        return new Builder(deviceManager);
+    }
+
+    /**
+     * 添加状态变化监听器
+     *
+     * @param listener 监听器
+     */
+    public void addListener(StatusChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除状态变化监听器
+     *
+     * @param listener 监听器
+     */
+    public void removeListener(StatusChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 注册需要监控的设备
+     *
+     * @param deviceName 设备编码
+     * @return 是否新注册(已注册时返回false)
+     */
+    public boolean register(String deviceName) {
+        if (deviceName == null || deviceName.isEmpty()) {
+            throw new IllegalArgumentException("设备编码不能为空");
+        }
+        lock.writeLock().lock();
+        try {
+            return insert(deviceName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 批量注册需要监控的设备
+     *
+     * @param deviceNames 设备编码集合
+     * @return 新注册的设备数
+     */
+    public int registerAll(Collection<String> deviceNames) {
+        int added = 0;
+        lock.writeLock().lock();
+        try {
+            for (String deviceName : deviceNames) {
+                if (deviceName != null && !deviceName.isEmpty() && insert(deviceName)) {
+                    added++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return added;
+    }
+
+    /**
+     * 取消监控设备
+     *
+     * @param deviceName 设备编码
+     * @return 设备是否曾被注册
+     */
+    public boolean unregister(String deviceName) {
+        lock.writeLock().lock();
+        try {
+            return delete(deviceName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取设备最近一次观测到的状态
+     *
+     * @param deviceName 设备编码
+     * @return 设备状态，未注册或尚未观测到时返回null
+     */
+    public DeviceStatus getStatus(String deviceName) {
+        lock.readLock().lock();
+        try {
+            int slot = find(deviceName);
+            if (slot < 0 || states[slot] == NOT_OBSERVED) {
+                return null;
+            }
+            return new DeviceStatus(deviceName, null, STATES[states[slot]], timestamps[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 已注册的设备数
+     */
+    public int getDeviceCount() {
+        lock.readLock().lock();
+        try {
+            return deviceCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 已完成的轮询轮数
+     */
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * @return 累计失败的分页数
+     */
+    public long getFailedPageCount() {
+        return failedPageCount.get();
+    }
+
+    /**
+     * @return 累计通知的状态变化数
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * @return 最近一轮轮询耗时(毫秒)
+     */
+    public long getLastSweepMillis() {
+        return lastSweepMillis;
+    }
+
+    /**
+     * 开始轮询，首轮在抖动范围内随机延迟后开始
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        long initialDelay = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0;
+        nextSweep = scheduler.schedule(this::sweep, initialDelay, TimeUnit.MILLISECONDS);
+        logger.info("设备状态监控已启动, 设备数量: {}, 轮询间隔: {} 毫秒", getDeviceCount(), intervalMillis);
+    }
+
+    /**
+     * 停止轮询，进行中的分页请求完成后不再调度下一轮
+     */
+    @Override
+    public void close() {
+        running = false;
+        ScheduledFuture<?> scheduled = nextSweep;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    private void sweep() {
+        if (!running) {
+            return;
+        }
+        List<List<String>> pages = snapshotPages();
+        if (pages.isEmpty()) {
+            scheduleNextSweep();
+            return;
+        }
+        Sweep sweep = new Sweep(pages, System.nanoTime());
+        int lanes = Math.min(maxInFlight, pages.size());
+        for (int i = 0; i < lanes; i++) {
+            launchPages(sweep);
+        }
+    }
+
+    private List<List<String>> snapshotPages() {
+        List<List<String>> pages = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<String> page = null;
+            for (int slot = 0; slot < highWater; slot++) {
+                String deviceName = names[slot];
+                if (deviceName == null) {
+                    continue;
+                }
+                if (page == null || page.size() == DeviceManager.MAX_BATCH_SIZE) {
+                    page = new ArrayList<>(DeviceManager.MAX_BATCH_SIZE);
+                    pages.add(page);
+                }
+                page.add(deviceName);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return pages;
+    }
+
+    /**
+     * 发起下一个分页；分页请求同步完成时在当前循环中继续发起，避免逐页递归导致栈溢出
+     */
+    private void launchPages(Sweep sweep) {
+        if (sweep.launchWip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            launchNextPage(sweep);
+        } while (sweep.launchWip.decrementAndGet() != 0);
+    }
+
+    private void launchNextPage(Sweep sweep) {
+        int pageIndex = sweep.nextPage.getAndIncrement();
+        if (pageIndex >= sweep.pages.size()) {
+            return;
+        }
+        List<String> page = sweep.pages.get(pageIndex);
+        try {
+            deviceManager.queryBatchDeviceStatusAsync(page, null, null)
+                    .whenComplete((result, error) -> {
+                        try {
+                            if (error != null) {
+                                failedPageCount.incrementAndGet();
+                                logger.warn("设备状态轮询分页失败, 设备数量: {}, 原因: {}", page.size(), error.getMessage());
+                            } else {
+                                dispatch(apply(result));
+                            }
+                        } catch (Throwable t) {
+                            failedPageCount.incrementAndGet();
+                            logger.error("处理设备状态轮询结果失败: {}", t.getMessage(), t);
+                        } finally {
+                            completePage(sweep);
+                        }
+                    });
+        } catch (Throwable t) {
+            failedPageCount.incrementAndGet();
+            logger.warn("设备状态轮询分页失败: {}", t.getMessage());
+            completePage(sweep);
+        }
+    }
+
+    private void completePage(Sweep sweep) {
+        if (sweep.completedPages.incrementAndGet() == sweep.pages.size()) {
+            lastSweepMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sweep.startNanos);
+            sweepCount.incrementAndGet();
+            logger.debug("设备状态轮询完成, 分页数: {}, 耗时: {} 毫秒", sweep.pages.size(), lastSweepMillis);
+            scheduleNextSweep();
+        } else {
+            launchPages(sweep);
+        }
+    }
+
+    private void scheduleNextSweep() {
+        if (!running) {
+            return;
+        }
+        long delay = intervalMillis;
+        if (jitterMillis > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1);
+        }
+        try {
+            nextSweep = scheduler.schedule(this::sweep, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // 调度器已关闭
+            running = false;
+        }
+    }
+
+    /**
+     * 原地更新设备状态，返回发生变化的事件
+     */
+    private List<StatusChangeEvent> apply(BatchStatusResult result) {
+        List<StatusChangeEvent> events = null;
+        long now = System.currentTimeMillis();
+        int missingName = 0;
+        lock.writeLock().lock();
+        try {
+            for (DeviceStatus device : result.getDevices()) {
+                if (device.getDeviceName() == null || device.getDeviceName().isEmpty()) {
+                    missingName++;
+                    continue;
+                }
+                int slot = find(device.getDeviceName());
+                if (slot < 0) {
+                    // 轮询期间已取消监控
+                    continue;
+                }
+                byte previous = states[slot];
+                byte current = (byte) device.getState().ordinal();
+                timestamps[slot] = device.getTimestamp();
+                if (previous == current) {
+                    continue;
+                }
+                states[slot] = current;
+                if (previous == NOT_OBSERVED && !emitInitialState) {
+                    continue;
+                }
+                if (events == null) {
+                    events = new ArrayList<>();
+                }
+                events.add(new StatusChangeEvent(device.getDeviceName(),
+                        previous == NOT_OBSERVED ? DeviceState.UNKNOWN : STATES[previous],
+                        device.getState(), device.getTimestamp(), now));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (missingName > 0) {
+            logger.warn("设备状态轮询结果中有 {} 条记录缺少设备编码, 已跳过", missingName);
+        }
+        return events != null ? events : Collections.<StatusChangeEvent>emptyList();
+    }
+
+    private void dispatch(List<StatusChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        changeCount.addAndGet(events.size());
+        for (StatusChangeEvent event : events) {
+            for (StatusChangeListener listener : listeners) {
+                if (listenerExecutor != null) {
+                    listenerExecutor.execute(() -> notifyListener(listener, event));
+                } else {
+                    notifyListener(listener, event);
+                }
+            }
+        }
+    }
+
+    private void notifyListener(StatusChangeListener listener, StatusChangeEvent event) {
+        try {
+            listener.onStatusChange(event);
+        } catch (RuntimeException e) {
+            logger.error("状态变化监听器执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    // ---- 以下方法需持有锁 ----
+
+    private int find(String deviceName) {
+        if (deviceName == null) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int pos = mix(deviceName.hashCode()) & mask; ; pos = (pos + 1) & mask) {
+            int entry = index[pos];
+            if (entry == 0) {
+                return -1;
+            }
+            if (deviceName.equals(names[entry - 1])) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private boolean insert(String deviceName) {
+        if (find(deviceName) >= 0) {
+            return false;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == names.length) {
+                int capacity = names.length * 2;
+                names = Arrays.copyOf(names, capacity);
+                states = Arrays.copyOf(states, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            slot = highWater++;
+        }
+        names[slot] = deviceName;
+        states[slot] = NOT_OBSERVED;
+        timestamps[slot] = 0;
+        deviceCount++;
+        if (deviceCount * 2 > index.length) {
+            rebuildIndex(index.length * 2);
+        } else {
+            indexSlot(slot);
+        }
+        return true;
+    }
+
+    private boolean delete(String deviceName) {
+        if (deviceName == null) {
+            return false;
+        }
+        int mask = index.length - 1;
+        int pos = mix(deviceName.hashCode()) & mask;
+        while (true) {
+            int entry = index[pos];
+            if (entry == 0) {
+                return false;
+            }
+            if (deviceName.equals(names[entry - 1])) {
+                break;
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        int slot = index[pos] - 1;
+        // 线性探测的反向移位删除，保持探测链连续
+        int gap = pos;
+        for (int next = (gap + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int home = mix(names[index[next] - 1].hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                index[gap] = index[next];
+                gap = next;
+            }
+        }
+        index[gap] = 0;
+
+        names[slot] = null;
+        states[slot] = NOT_OBSERVED;
+        timestamps[slot] = 0;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        deviceCount--;
+        return true;
+    }
+
+    private void rebuildIndex(int capacity) {
+        index = new int[capacity];
+        for (int slot = 0; slot < highWater; slot++) {
+            if (names[slot] != null) {
+                indexSlot(slot);
+            }
+        }
+    }
+
+    private void indexSlot(int slot) {
+        int mask = index.length - 1;
+        int pos = mix(names[slot].hashCode()) & mask;
+        while (index[pos] != 0) {
+            pos = (pos + 1) & mask;
+        }
+        index[pos] = slot + 1;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 一轮轮询的共享状态
+     */
+    private static class Sweep {
+        final List<List<String>> pages;
+        final long startNanos;
+        final AtomicInteger nextPage = new AtomicInteger();
+        final AtomicInteger launchWip = new AtomicInteger();
+        final AtomicInteger completedPages = new AtomicInteger();
+
+        Sweep(List<List<String>> pages, long startNanos) {
+            this.pages = pages;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * 监控构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private long intervalMillis = TimeUnit.SECONDS.toMillis(30);
+        private long jitterMillis = -1;
+        private int maxInFlight = 4;
+        private boolean emitInitialState;
+        private Executor listenerExecutor;
+        private ScheduledExecutorService scheduler;
+
+        private Builder(DeviceManager deviceManager) {
+            if (deviceManager == null) {
+                throw new IllegalArgumentException("设备管理器不能为空");
+            }
+            this.deviceManager = deviceManager;
+        }
+
+        /**
+         * 设置轮询间隔，默认30秒
+         *
+         * @param interval 间隔
+         * @param unit     时间单位
+         * @return 当前构建器
+         */
+        public Builder interval(long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("轮询间隔必须大于0");
+            }
+            this.intervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * 设置轮询间隔的随机抖动范围(正负)，用于错开多个实例的轮询，必须小于轮询间隔；
+         * 默认为轮询间隔的十分之一，最多3秒
+         *
+         * @param jitter 抖动范围
+         * @param unit   时间单位
+         * @return 当前构建器
+         */
+        public Builder jitter(long jitter, TimeUnit unit) {
+            if (jitter < 0) {
+                throw new IllegalArgumentException("抖动范围不能为负数");
+            }
+            this.jitterMillis = unit.toMillis(jitter);
+            return this;
+        }
+
+        /**
+         * 设置同时在途的最大分页请求数，默认4
+         *
+         * @param maxInFlight 最大在途分页数
+         * @return 当前构建器
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("最大并发分页数必须大于0");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 首次观测到设备状态时是否也通知监听器(变化前状态为UNKNOWN)，默认不通知
+         *
+         * @param emitInitialState 是否通知
+         * @return 当前构建器
+         */
+        public Builder emitInitialState(boolean emitInitialState) {
+            this.emitInitialState = emitInitialState;
+            return this;
+        }
+
+        /**
+         * 设置执行监听器的线程池，未设置时在请求完成线程上直接调用
+         *
+         * @param listenerExecutor 线程池
+         * @return 当前构建器
+         */
+        public Builder listenerExecutor(Executor listenerExecutor) {
+            this.listenerExecutor = listenerExecutor;
+            return this;
+        }
+
+        /**
+         * 使用外部调度器触发轮询，默认使用SDK共享的 {@link SharedScheduler}
+         *
+         * @param scheduler 调度器
+         * @return 当前构建器
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * 构建监控
+         *
+         * @return 设备集群状态监控
+         */
+        public FleetStatusMonitor build() {
+            if (jitterMillis < 0) {
+                jitterMillis = Math.min(MAX_DEFAULT_JITTER_MILLIS, intervalMillis / 10);
+            } else if (jitterMillis >= intervalMillis) {
+                throw new IllegalArgumentException("抖动范围必须小于轮询间隔");
+            }
+            return new FleetStatusMonitor(this);
+        }
+    }
+}
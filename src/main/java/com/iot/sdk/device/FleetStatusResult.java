@@ -0,0 +1,105 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 大规模设备状态查询结果
+ * 合并所有分页的设备状态，并记录失败的分页
+ */
+public class FleetStatusResult {
+    private final Map<String, JsonObject> devices;
+    private final List<PageFailure> failures;
+    private final int pageCount;
+
+    FleetStatusResult(Map<String, JsonObject> devices, List<PageFailure> failures, int pageCount) {
+        this.devices = Collections.unmodifiableMap(devices);
+        this.failures = Collections.unmodifiableList(failures);
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * 获取所有成功返回的设备状态
+     * 键为设备编码(deviceName)，设备编码缺失时使用设备ID(deviceId)
+     *
+     * @return 设备状态映射
+     */
+    public Map<String, JsonObject> getDevices() {
+        return devices;
+    }
+
+    /**
+     * 获取失败的分页
+     *
+     * @return 失败分页列表
+     */
+    public List<PageFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * 获取分页总数
+     *
+     * @return 分页总数
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 是否所有分页都查询成功
+     *
+     * @return 是否全部成功
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * 查询失败的分页
+     */
+    public static class PageFailure {
+        private final List<String> deviceNames;
+        private final List<String> deviceIds;
+        private final String errorMessage;
+        private final Throwable cause;
+
+        PageFailure(List<String> deviceNames, List<String> deviceIds, String errorMessage, Throwable cause) {
+            this.deviceNames = deviceNames;
+            this.deviceIds = deviceIds;
+            this.errorMessage = errorMessage;
+            this.cause = cause;
+        }
+
+        /**
+         * @return 该分页包含的设备编码
+         */
+        public List<String> getDeviceNames() {
+            return deviceNames;
+        }
+
+        /**
+         * @return 该分页包含的设备ID
+         */
+        public List<String> getDeviceIds() {
+            return deviceIds;
+        }
+
+        /**
+         * @return 错误信息
+         */
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        /**
+         * @return 异常原因，平台返回失败时为null
+         */
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+}
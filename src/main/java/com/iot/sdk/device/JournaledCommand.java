@@ -0,0 +1,94 @@
+package com.iot.sdk.device;
+
+/**
+ * 指令日志中的一条待发送指令
+ */
+public class JournaledCommand {
+    /**
+     * 指令类型
+     */
+    public enum Type {
+        /**
+         * 自定义指令
+         */
+        CUSTOM_COMMAND,
+        /**
+         * RRPC消息
+         */
+        RRPC
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String productKey;
+    private final String deviceName;
+    private final String messageContent;
+    private final int timeout;
+    private final long createdMillis;
+
+    JournaledCommand(long sequence, Type type, String productKey, String deviceName, String messageContent,
+                     int timeout, long createdMillis) {
+        this.sequence = sequence;
+        this.type = type;
+        this.productKey = productKey;
+        this.deviceName = deviceName;
+        this.messageContent = messageContent;
+        this.timeout = timeout;
+        this.createdMillis = createdMillis;
+    }
+
+    /**
+     * @return 日志序号，按写入顺序递增
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return 指令类型
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return 产品密钥，自定义指令为null
+     */
+    public String getProductKey() {
+        return productKey;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 消息内容
+     */
+    public String getMessageContent() {
+        return messageContent;
+    }
+
+    /**
+     * @return RRPC超时时间(毫秒)，自定义指令为0
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return 写入日志的时间戳(毫秒)
+     */
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "JournaledCommand{sequence=" + sequence + ", type=" + type + ", deviceName=" + deviceName
+                + (productKey != null ? ", productKey=" + productKey : "") + "}";
+    }
+}
@@ -0,0 +1,380 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.iot.sdk.client.ApiException;
+import com.iot.sdk.client.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 先持久化再发送的下行指令发送器
+ * 指令先写入 {@link CommandJournal} 后立即返回，由后台转发线程按写入顺序发送，发送成功后在日志中确认。
+ * 平台不可达(网络异常、HTTP 429/5xx等)时转发线程按指数退避等待后从未确认的最早指令继续，
+ * 因此平台恢复后积压的指令按原顺序送达；进程重启后只重发未确认的指令。
+ * <p>
+ * 平台返回业务失败(success=false)、HTTP 4xx(408/429除外)或无法解析的响应时重发不会成功，
+ * 该指令同样被确认并通知监听器，不会阻塞后续指令。
+ * 指令在发送成功与写入确认之间进程崩溃时会在重启后重发一次。
+ */
+public class JournaledCommandSender implements Closeable {
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * 指令发送结果监听器
+     */
+    public interface DeliveryListener {
+        /**
+         * 指令发送成功
+         *
+         * @param command  指令
+         * @param response 平台响应
+         */
+        void onDelivered(JournaledCommand command, JsonObject response);
+
+        /**
+         * 平台拒绝指令，指令不再重发
+         *
+         * @param command 指令
+         * @param error   平台返回的错误: {@link ApiException}、{@link HttpStatusException}或响应解析异常
+         */
+        default void onRejected(JournaledCommand command, Exception error) {
+        }
+    }
+
+    private final DeviceManager deviceManager;
+    private final CommandJournal journal;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final DeliveryListener listener;
+    private final Logger logger = LoggerFactory.getLogger(JournaledCommandSender.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeup = lock.newCondition();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder transientFailures = new LongAdder();
+    private boolean signalled;
+    private volatile boolean running;
+    private Thread forwarder;
+
+    private JournaledCommandSender(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.journal = builder.journal;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * 创建发送器构建器
+     *
+     * @param deviceManager 设备管理器
+     * @param journal       指令日志
+     * @return 发送器构建器
+     */
+    public static Builder builder(DeviceManager deviceManager, CommandJournal journal) {
+        return new Builder(deviceManager, journal);
+    }
+
+    /**
+     * 写入自定义指令并通知转发线程
+     *
+     * @param deviceName     设备编码
+     * @param messageContent 消息内容
+     * @return 日志序号
+     * @throws IOException 写入日志失败
+     */
+    public long sendCustomCommand(String deviceName, String messageContent) throws IOException {
+        long sequence = journal.appendCustomCommand(deviceName, messageContent);
+        signal();
+        return sequence;
+    }
+
+    /**
+     * 写入RRPC消息并通知转发线程，设备响应通过监听器获取
+     *
+     * @param deviceName     设备编码
+     * @param productKey     产品密钥
+     * @param messageContent 消息内容
+     * @param timeout        超时时间(毫秒)
+     * @return 日志序号
+     * @throws IOException 写入日志失败
+     */
+    public long sendRrpcMessage(String deviceName, String productKey, String messageContent, int timeout)
+            throws IOException {
+        long sequence = journal.appendRrpcMessage(productKey, deviceName, messageContent, timeout);
+        signal();
+        return sequence;
+    }
+
+    /**
+     * 启动转发线程，日志中已有的未确认指令会首先发送
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            signalled = true;
+            forwarder = new Thread(this::forward, "iot-command-forwarder");
+            forwarder.setDaemon(true);
+            forwarder.start();
+        } finally {
+            lock.unlock();
+        }
+        logger.info("指令转发已启动, 未确认指令: {}", journal.getPendingCount());
+    }
+
+    /**
+     * 停止转发线程，正在发送的指令完成后退出；不关闭指令日志
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        lock.lock();
+        try {
+            running = false;
+            wakeup.signalAll();
+            thread = forwarder;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return 未确认的指令数
+     */
+    public int getPendingCount() {
+        return journal.getPendingCount();
+    }
+
+    /**
+     * @return 发送成功的指令数
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return 被平台拒绝的指令数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 因平台不可达而推迟发送的次数
+     */
+    public long getTransientFailureCount() {
+        return transientFailures.sum();
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            signalled = true;
+            wakeup.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forward() {
+        long backoff = initialBackoffMillis;
+        while (running) {
+            boolean failed = false;
+            List<JournaledCommand> batch;
+            while (running && !(batch = journal.pending(BATCH_SIZE)).isEmpty()) {
+                if (!deliverAll(batch)) {
+                    failed = true;
+                    break;
+                }
+                backoff = initialBackoffMillis;
+            }
+            if (!running) {
+                break;
+            }
+            try {
+                if (!failed) {
+                    journal.compact();
+                }
+                journal.flush();
+            } catch (IOException e) {
+                logger.error("指令日志压缩失败: {}", e.getMessage(), e);
+            }
+            // 失败时退避等待；空闲时等待新指令，新指令不打断退避
+            lock.lock();
+            try {
+                if (failed) {
+                    long waitNanos = TimeUnit.MILLISECONDS.toNanos(backoff);
+                    while (running && waitNanos > 0) {
+                        waitNanos = wakeup.awaitNanos(waitNanos);
+                    }
+                    backoff = Math.min(maxBackoffMillis, backoff * 2);
+                } else {
+                    while (running && !signalled) {
+                        wakeup.await();
+                    }
+                }
+                signalled = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 按顺序发送，遇到暂时性故障时返回false，后续指令留待下次发送
+     */
+    private boolean deliverAll(List<JournaledCommand> batch) {
+        for (JournaledCommand command : batch) {
+            if (!running) {
+                return true;
+            }
+            try {
+                JsonObject response = deliver(command);
+                journal.acknowledge(command.getSequence());
+                delivered.increment();
+                if (listener != null) {
+                    notifyListener(() -> listener.onDelivered(command, response));
+                }
+            } catch (IOException | RuntimeException e) {
+                if (isRejection(e)) {
+                    logger.warn("平台拒绝指令, 不再重发, 序号: {}, 设备: {}, 错误: {}",
+                            command.getSequence(), command.getDeviceName(), e.getMessage());
+                    if (!acknowledgeQuietly(command)) {
+                        return false;
+                    }
+                    rejected.increment();
+                    if (listener != null) {
+                        notifyListener(() -> listener.onRejected(command, e));
+                    }
+                    continue;
+                }
+                transientFailures.increment();
+                logger.warn("指令发送失败, 稍后重试, 序号: {}, 设备: {}, 错误: {}",
+                        command.getSequence(), command.getDeviceName(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 重发不会成功的失败：业务失败、除408/429外的4xx以及无法解析的响应体，
+     * 这类指令若按暂时性故障处理会永远停在队首并阻塞后续指令
+     */
+    private static boolean isRejection(Exception e) {
+        if (e instanceof ApiException) {
+            return true;
+        }
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatusCode();
+            return status >= 400 && status < 500 && status != 408 && status != 429;
+        }
+        return e instanceof JsonParseException || e instanceof IllegalStateException;
+    }
+
+    private JsonObject deliver(JournaledCommand command) throws IOException {
+        if (command.getType() == JournaledCommand.Type.RRPC) {
+            return deviceManager.deliverRrpcMessage(command.getDeviceName(), command.getProductKey(),
+                    command.getMessageContent(), command.getTimeout());
+        }
+        return deviceManager.deliverCustomCommand(command.getDeviceName(), command.getMessageContent());
+    }
+
+    private boolean acknowledgeQuietly(JournaledCommand command) {
+        try {
+            journal.acknowledge(command.getSequence());
+            return true;
+        } catch (IOException e) {
+            logger.error("写入指令确认失败: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void notifyListener(Runnable notification) {
+        try {
+            notification.run();
+        } catch (RuntimeException e) {
+            logger.error("指令发送结果监听器执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 发送器构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private final CommandJournal journal;
+        private long initialBackoffMillis = 500;
+        private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(30);
+        private DeliveryListener listener;
+
+        private Builder(DeviceManager deviceManager, CommandJournal journal) {
+            if (deviceManager == null || journal == null) {
+                throw new IllegalArgumentException("设备管理器和指令日志不能为空");
+            }
+            this.deviceManager = deviceManager;
+            this.journal = journal;
+        }
+
+        /**
+         * 设置平台不可达时的退避时间，从初始值开始每次失败翻倍，默认500毫秒到30秒
+         *
+         * @param initialBackoff 初始退避时间
+         * @param maxBackoff     最大退避时间
+         * @param unit           时间单位
+         * @return 当前构建器
+         */
+        public Builder backoff(long initialBackoff, long maxBackoff, TimeUnit unit) {
+            if (initialBackoff <= 0 || maxBackoff < initialBackoff) {
+                throw new IllegalArgumentException("无效的退避时间");
+            }
+            this.initialBackoffMillis = unit.toMillis(initialBackoff);
+            this.maxBackoffMillis = unit.toMillis(maxBackoff);
+            return this;
+        }
+
+        /**
+         * 设置发送结果监听器，在转发线程中调用
+         *
+         * @param listener 监听器
+         * @return 当前构建器
+         */
+        public Builder listener(DeliveryListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * 构建发送器，需调用 {@link JournaledCommandSender#start()} 开始转发
+         *
+         * @return 发送器
+         */
+        public JournaledCommandSender build() {
+            return new JournaledCommandSender(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.iot.sdk.device;
+
+/**
+ * 批量注册的一行输入
+ */
+public class RegistrationRow {
+    private final String productKey;
+    private final String deviceName;
+    private final String nickName;
+
+    /**
+     * @param productKey 产品唯一标识码
+     * @param deviceName 设备标识码，批量注册时必填，用于断点续传
+     * @param nickName   设备显示名称，可选
+     */
+    public RegistrationRow(String productKey, String deviceName, String nickName) {
+        this.productKey = productKey;
+        this.deviceName = deviceName;
+        this.nickName = nickName;
+    }
+
+    /**
+     * @return 产品密钥
+     */
+    public String getProductKey() {
+        return productKey;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 设备显示名称
+     */
+    public String getNickName() {
+        return nickName;
+    }
+
+    @Override
+    public String toString() {
+        return "RegistrationRow{productKey=" + productKey + ", deviceName=" + deviceName + ", nickName=" + nickName + "}";
+    }
+}
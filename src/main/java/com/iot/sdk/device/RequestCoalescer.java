@@ -0,0 +1,178 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.Futures;
+import com.iot.sdk.client.RequestPayload;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 相同读请求的合并(single-flight)
+ * 端点和请求体相同的并发请求只发出一次，所有等待者得到同一结果或同一异常。
+ * 同步和异步调用方共享同一个在途表。共享的结果只用于复制，发起者和跟随者各自得到一份副本，
+ * 调用方修改结果不会影响其他等待者。
+ */
+final class RequestCoalescer {
+    private final ConcurrentHashMap<Key, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 同步调用
+     */
+    interface Call<V> {
+        V call() throws IOException;
+    }
+
+    /**
+     * 同步执行，相同请求在途时等待其结果
+     *
+     * @param endpoint API端点
+     * @param variant  区分同一请求的不同解码方式
+     * @param payload  请求体
+     * @param copier   为每个调用方复制结果，避免共享可变对象
+     * @param call     实际请求
+     */
+    @SuppressWarnings("unchecked")
+    <V> V execute(String endpoint, Object variant, RequestPayload payload, UnaryOperator<V> copier,
+                  Call<V> call) throws IOException {
+        Key key = new Key(endpoint, variant, payload);
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = (CompletableFuture<V>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return copier.apply(await(existing));
+        }
+
+        executed.increment();
+        V result;
+        try {
+            result = call.call();
+        } catch (Throwable t) {
+            // 包括Error在内的任何异常都要移除在途项并通知跟随者，否则跟随者会永久等待
+            inFlight.remove(key, created);
+            created.completeExceptionally(t);
+            throw t;
+        }
+        inFlight.remove(key, created);
+        created.complete(result);
+        return copier.apply(result);
+    }
+
+    /**
+     * 异步执行，相同请求在途时复用其Future
+     *
+     * @param executor 执行完成回调的线程池，可为null
+     */
+    @SuppressWarnings("unchecked")
+    <V> CompletableFuture<V> executeAsync(String endpoint, Object variant, RequestPayload payload,
+                                          UnaryOperator<V> copier, Executor executor,
+                                          Supplier<CompletableFuture<V>> call) {
+        Key key = new Key(endpoint, variant, payload);
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = (CompletableFuture<V>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return deliver(existing, copier, executor);
+        }
+
+        executed.increment();
+        CompletableFuture<V> source;
+        try {
+            source = call.get();
+        } catch (Throwable t) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(t);
+            return created;
+        }
+        source.whenComplete((result, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(Futures.unwrap(error));
+            } else {
+                created.complete(result);
+            }
+        });
+        return deliver(created, copier, executor);
+    }
+
+    /**
+     * @return 实际发出的请求数
+     */
+    long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return 被合并(未实际发出)的请求数
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static <V> CompletableFuture<V> deliver(CompletableFuture<V> shared, UnaryOperator<V> copier,
+                                                    Executor executor) {
+        return executor != null ? shared.thenApplyAsync(copier, executor) : shared.thenApply(copier);
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待合并请求结果时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static final class Key {
+        final String endpoint;
+        final Object variant;
+        final RequestPayload payload;
+        final int hash;
+
+        Key(String endpoint, Object variant, RequestPayload payload) {
+            this.endpoint = endpoint;
+            this.variant = variant;
+            this.payload = payload;
+            this.hash = Objects.hash(endpoint, variant, payload);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && endpoint.equals(other.endpoint)
+                    && Objects.equals(variant, other.variant) && payload.equals(other.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.ApiException;
+import com.iot.sdk.client.Futures;
+import com.iot.sdk.client.SharedScheduler;
+import com.iot.sdk.model.RrpcResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * RRPC广播
+ * 向一批设备发送RRPC消息(同一条消息或每个设备各自的消息)，以固定数量的在途异步请求并行发送，
+ * 整个广播受一个总截止时间约束：每个请求的RRPC超时不超过剩余时间，截止时已发出但仍未完成的设备记为超时，
+ * 尚未发出请求的设备记为未发送。
+ * 平台在RRPC超时后仍未返回的请求在本地记为超时并让出并行通道，因此实际的网络在途请求数可能暂时超过并行数，
+ * 由客户端的连接数上限约束。
+ * <p>
+ * 每个设备的结果完成时立即通知监听器，慢设备不会阻塞快设备的结果；
+ * 全部完成或到达截止时间后返回汇总结果，包含每个设备的结果和响应延迟分布。
+ * 同一个广播对象可重复使用，多次广播互不影响。
+ */
+public class RrpcBroadcast {
+    /**
+     * RRPC超时之后继续等待平台返回的时间
+     */
+    private static final long RESPONSE_GRACE_MILLIS = 1000;
+
+    private final DeviceManager deviceManager;
+    private final int maxInFlight;
+    private final long deadlineMillis;
+    private final long rrpcTimeoutMillis;
+    private final Consumer<RrpcOutcome> listener;
+    private final Executor listenerExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final Logger logger = LoggerFactory.getLogger(RrpcBroadcast.class);
+
+    private RrpcBroadcast(Builder builder) {
+        this.deviceManager = builder.deviceManager;
+        this.maxInFlight = builder.maxInFlight;
+        this.deadlineMillis = builder.deadlineMillis;
+        this.rrpcTimeoutMillis = builder.rrpcTimeoutMillis;
+        this.listener = builder.listener;
+        this.listenerExecutor = builder.listenerExecutor;
+        this.scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * 创建RRPC广播构建器
+     *
+     * @param deviceManager 设备管理器
+     * @return RRPC广播构建器
+     */
+    public static Builder builder(DeviceManager deviceManager) {
+        return new Builder(deviceManager);
+    }
+
+    /**
+     * 向多个设备异步广播同一条消息
+     *
+     * @param productKey     产品密钥
+     * @param deviceNames    设备编码，结果顺序与其一致
+     * @param messageContent 消息内容
+     * @return 汇总结果，取消时停止发出新的请求
+     */
+    public CompletableFuture<RrpcBroadcastResult> broadcastAsync(String productKey, Collection<String> deviceNames,
+                                                                 String messageContent) {
+        if (messageContent == null || messageContent.isEmpty()) {
+            throw new IllegalArgumentException("消息内容不能为空");
+        }
+        List<String[]> targets = new ArrayList<>(deviceNames.size());
+        for (String deviceName : deviceNames) {
+            targets.add(new String[]{deviceName, messageContent});
+        }
+        return start(productKey, targets);
+    }
+
+    /**
+     * 向多个设备异步发送各自的消息
+     *
+     * @param productKey       产品密钥
+     * @param messagesByDevice 设备编码到消息内容的映射，结果顺序与其迭代顺序一致
+     * @return 汇总结果，取消时停止发出新的请求
+     */
+    public CompletableFuture<RrpcBroadcastResult> broadcastAsync(String productKey,
+                                                                 Map<String, String> messagesByDevice) {
+        List<String[]> targets = new ArrayList<>(messagesByDevice.size());
+        for (Map.Entry<String, String> entry : messagesByDevice.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("消息内容不能为空: " + entry.getKey());
+            }
+            targets.add(new String[]{entry.getKey(), entry.getValue()});
+        }
+        return start(productKey, targets);
+    }
+
+    /**
+     * 向多个设备广播同一条消息，阻塞直到全部完成或到达截止时间
+     *
+     * @param productKey     产品密钥
+     * @param deviceNames    设备编码
+     * @param messageContent 消息内容
+     * @return 汇总结果
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public RrpcBroadcastResult broadcast(String productKey, Collection<String> deviceNames, String messageContent)
+            throws IOException {
+        return await(broadcastAsync(productKey, deviceNames, messageContent));
+    }
+
+    /**
+     * 向多个设备发送各自的消息，阻塞直到全部完成或到达截止时间
+     *
+     * @param productKey       产品密钥
+     * @param messagesByDevice 设备编码到消息内容的映射
+     * @return 汇总结果
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public RrpcBroadcastResult broadcast(String productKey, Map<String, String> messagesByDevice) throws IOException {
+        return await(broadcastAsync(productKey, messagesByDevice));
+    }
+
+    private static RrpcBroadcastResult await(CompletableFuture<RrpcBroadcastResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待RRPC广播结果时被中断");
+        } catch (ExecutionException e) {
+            throw new IOException("RRPC广播失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private CompletableFuture<RrpcBroadcastResult> start(String productKey, List<String[]> targets) {
+        if (productKey == null || productKey.isEmpty()) {
+            throw new IllegalArgumentException("产品密钥不能为空");
+        }
+        Run run = new Run(productKey, targets);
+        if (targets.isEmpty()) {
+            run.finish();
+            return run.result;
+        }
+        logger.info("开始RRPC广播, 设备数: {}, 并行数: {}, 截止时间: {}毫秒", targets.size(), maxInFlight, deadlineMillis);
+        run.deadlineTimer = scheduler.schedule(run::expire, deadlineMillis, TimeUnit.MILLISECONDS);
+        // 调用方取消时停止发出新的请求
+        run.result.whenComplete((result, error) -> run.stopped = true);
+        for (int lane = 0; lane < Math.min(maxInFlight, targets.size()); lane++) {
+            run.launch();
+        }
+        return run.result;
+    }
+
+    /**
+     * 单次广播的状态
+     * 每个并行通道在一个请求完成后立即发出下一个请求
+     */
+    private final class Run {
+        static final int PENDING = 0;
+        static final int SENT = 1;
+        static final int ABANDONED = 2;
+
+        final String productKey;
+        final List<String[]> targets;
+        final long startNanos = System.nanoTime();
+        final long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger remaining;
+        final AtomicReferenceArray<RrpcOutcome> outcomes;
+        /**
+         * 每个设备的发送状态，发送与截止处理通过CAS争用，保证未发送的设备不会在截止后再被发出
+         */
+        final AtomicIntegerArray dispatch;
+        final AtomicInteger launchWip = new AtomicInteger();
+        final AtomicBoolean finished = new AtomicBoolean();
+        final CompletableFuture<RrpcBroadcastResult> result = new CompletableFuture<>();
+        volatile ScheduledFuture<?> deadlineTimer;
+        volatile boolean stopped;
+
+        Run(String productKey, List<String[]> targets) {
+            this.productKey = productKey;
+            this.targets = targets;
+            this.remaining = new AtomicInteger(targets.size());
+            this.outcomes = new AtomicReferenceArray<>(targets.size());
+            this.dispatch = new AtomicIntegerArray(targets.size());
+        }
+
+        /**
+         * 为一个空闲通道发出下一个请求；请求同步完成时在当前循环中继续发出，避免逐个递归导致栈溢出
+         */
+        void launch() {
+            if (launchWip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                launchNext();
+            } while (launchWip.decrementAndGet() != 0);
+        }
+
+        private void launchNext() {
+            // 参数无效的设备同步失败，继续取下一个，直到发出一个请求
+            while (!stopped) {
+                int index = next.getAndIncrement();
+                if (index >= targets.size()) {
+                    return;
+                }
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (remainingMillis <= 0 || !dispatch.compareAndSet(index, PENDING, SENT)) {
+                    // 截止处理会记录所有未发送的设备
+                    return;
+                }
+                String[] target = targets.get(index);
+                int timeout = (int) Math.min(rrpcTimeoutMillis, remainingMillis);
+                long sentNanos = System.nanoTime();
+                CompletableFuture<RrpcResult> future;
+                try {
+                    future = deviceManager.sendRrpcMessageForResultAsync(target[0], productKey, target[1], timeout, null);
+                } catch (Throwable t) {
+                    record(index, RrpcOutcome.Status.FAILED, null, String.valueOf(t.getMessage()), -1);
+                    continue;
+                }
+                // 平台未在RRPC超时后及时返回时本地记为超时，让出并行通道，迟到的结果丢弃
+                AtomicBoolean settled = new AtomicBoolean();
+                ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        record(index, RrpcOutcome.Status.TIMED_OUT, null, "等待平台返回超时",
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNanos));
+                        launch();
+                    }
+                }, timeout + RESPONSE_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                future.whenComplete((reply, error) -> {
+                    if (!settled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    timer.cancel(false);
+                    long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNanos);
+                    if (error == null) {
+                        record(index, RrpcOutcome.Status.REPLIED, reply, null, latency);
+                    } else {
+                        Throwable cause = Futures.unwrap(error);
+                        record(index, isTimeout(cause) ? RrpcOutcome.Status.TIMED_OUT : RrpcOutcome.Status.FAILED,
+                                null, cause.getMessage(), latency);
+                    }
+                    launch();
+                });
+                return;
+            }
+        }
+
+        void record(int index, RrpcOutcome.Status status, RrpcResult reply, String errorMessage, long latency) {
+            RrpcOutcome outcome = new RrpcOutcome(targets.get(index)[0], status, reply, errorMessage, latency);
+            // 截止时已记为超时的设备，迟到的结果丢弃
+            if (!outcomes.compareAndSet(index, null, outcome)) {
+                return;
+            }
+            notifyListener(outcome);
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        void expire() {
+            stopped = true;
+            for (int i = 0; i < targets.size(); i++) {
+                if (outcomes.get(i) != null) {
+                    continue;
+                }
+                if (dispatch.compareAndSet(i, PENDING, ABANDONED)) {
+                    record(i, RrpcOutcome.Status.NOT_SENT, null, "广播到达截止时间前未发出", -1);
+                } else {
+                    record(i, RrpcOutcome.Status.TIMED_OUT, null, "广播已到达截止时间", -1);
+                }
+            }
+        }
+
+        void finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> timer = deadlineTimer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            List<RrpcOutcome> list = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                list.add(outcomes.get(i));
+            }
+            RrpcBroadcastResult summary = new RrpcBroadcastResult(list,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            logger.info("RRPC广播完成: {}", summary);
+            result.complete(summary);
+        }
+    }
+
+    private void notifyListener(RrpcOutcome outcome) {
+        if (listener == null) {
+            return;
+        }
+        if (listenerExecutor != null) {
+            listenerExecutor.execute(() -> invokeListener(outcome));
+        } else {
+            invokeListener(outcome);
+        }
+    }
+
+    private void invokeListener(RrpcOutcome outcome) {
+        try {
+            listener.accept(outcome);
+        } catch (RuntimeException e) {
+            logger.error("RRPC结果监听器执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 网络超时，或平台返回设备响应超时
+     */
+    private static boolean isTimeout(Throwable error) {
+        if (error instanceof SocketTimeoutException) {
+            return true;
+        }
+        if (error instanceof ApiException && error.getMessage() != null) {
+            String message = error.getMessage().toLowerCase(Locale.ROOT);
+            return message.contains("超时") || message.contains("timeout");
+        }
+        return false;
+    }
+
+    /**
+     * RRPC广播构建器
+     */
+    public static class Builder {
+        private final DeviceManager deviceManager;
+        private int maxInFlight = 32;
+        private long deadlineMillis = TimeUnit.SECONDS.toMillis(60);
+        private long rrpcTimeoutMillis = TimeUnit.SECONDS.toMillis(5);
+        private Consumer<RrpcOutcome> listener;
+        private Executor listenerExecutor;
+        private ScheduledExecutorService scheduler;
+
+        private Builder(DeviceManager deviceManager) {
+            if (deviceManager == null) {
+                throw new IllegalArgumentException("设备管理器不能为空");
+            }
+            this.deviceManager = deviceManager;
+        }
+
+        /**
+         * 设置最大在途请求数，默认32
+         *
+         * @param maxInFlight 最大在途请求数
+         * @return 当前构建器
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("在途请求数必须大于0");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 设置整个广播的截止时间，默认60秒
+         *
+         * @param deadline 截止时间
+         * @param unit     时间单位
+         * @return 当前构建器
+         */
+        public Builder deadline(long deadline, TimeUnit unit) {
+            if (deadline <= 0) {
+                throw new IllegalArgumentException("截止时间必须大于0");
+            }
+            this.deadlineMillis = unit.toMillis(deadline);
+            return this;
+        }
+
+        /**
+         * 设置单个设备的RRPC超时，默认5秒，不超过广播剩余时间
+         *
+         * @param timeout 超时时间
+         * @param unit    时间单位
+         * @return 当前构建器
+         */
+        public Builder rrpcTimeout(long timeout, TimeUnit unit) {
+            if (timeout <= 0 || unit.toMillis(timeout) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("无效的RRPC超时时间");
+            }
+            this.rrpcTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * 设置结果监听器，每个设备的结果确定时调用一次
+         *
+         * @param listener 监听器
+         * @return 当前构建器
+         */
+        public Builder listener(Consumer<RrpcOutcome> listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * 设置执行监听器的线程池，默认在完成请求的网络线程中执行
+         *
+         * @param listenerExecutor 线程池
+         * @return 当前构建器
+         */
+        public Builder listenerExecutor(Executor listenerExecutor) {
+            this.listenerExecutor = listenerExecutor;
+            return this;
+        }
+
+        /**
+         * 设置截止时间调度器，默认使用SDK共享的 {@link SharedScheduler}
+         *
+         * @param scheduler 调度器
+         * @return 当前构建器
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * 构建RRPC广播
+         *
+         * @return RRPC广播
+         */
+        public RrpcBroadcast build() {
+            return new RrpcBroadcast(this);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.iot.sdk.device;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RRPC广播的汇总结果
+ */
+public class RrpcBroadcastResult {
+    private final List<RrpcOutcome> outcomes;
+    private final int repliedCount;
+    private final int timedOutCount;
+    private final int failedCount;
+    private final int notSentCount;
+    private final long elapsedMillis;
+    private final long[] sortedLatencies;
+
+    RrpcBroadcastResult(List<RrpcOutcome> outcomes, long elapsedMillis) {
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        this.elapsedMillis = elapsedMillis;
+        int replied = 0;
+        int timedOut = 0;
+        int failed = 0;
+        int notSent = 0;
+        long[] latencies = new long[outcomes.size()];
+        for (RrpcOutcome outcome : outcomes) {
+            switch (outcome.getStatus()) {
+                case REPLIED:
+                    latencies[replied++] = outcome.getLatencyMillis();
+                    break;
+                case TIMED_OUT:
+                    timedOut++;
+                    break;
+                case NOT_SENT:
+                    notSent++;
+                    break;
+                default:
+                    failed++;
+                    break;
+            }
+        }
+        this.repliedCount = replied;
+        this.timedOutCount = timedOut;
+        this.failedCount = failed;
+        this.notSentCount = notSent;
+        this.sortedLatencies = Arrays.copyOf(latencies, replied);
+        Arrays.sort(sortedLatencies);
+    }
+
+    /**
+     * @return 每个设备的结果，顺序与输入一致
+     */
+    public List<RrpcOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * @return 已响应的设备数
+     */
+    public int getRepliedCount() {
+        return repliedCount;
+    }
+
+    /**
+     * @return 超时的设备数
+     */
+    public int getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    /**
+     * @return 失败的设备数
+     */
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return 截止时间前未发出请求的设备数
+     */
+    public int getNotSentCount() {
+        return notSentCount;
+    }
+
+    /**
+     * @return 广播总耗时(毫秒)
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 已响应设备的延迟分位数
+     *
+     * @param percentile 分位数，取值[0, 100]
+     * @return 延迟(毫秒)，没有设备响应时为-1
+     */
+    public long getLatencyPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("分位数必须在0到100之间");
+        }
+        if (sortedLatencies.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))];
+    }
+
+    /**
+     * @return 已响应设备的平均延迟(毫秒)，没有设备响应时为-1
+     */
+    public double getMeanLatencyMillis() {
+        if (sortedLatencies.length == 0) {
+            return -1;
+        }
+        long sum = 0;
+        for (long latency : sortedLatencies) {
+            sum += latency;
+        }
+        return (double) sum / sortedLatencies.length;
+    }
+
+    @Override
+    public String toString() {
+        return "RrpcBroadcastResult{devices=" + outcomes.size() + ", replied=" + repliedCount
+                + ", timedOut=" + timedOutCount + ", failed=" + failedCount
+                + ", notSent=" + notSentCount + ", elapsedMillis=" + elapsedMillis
+                + ", p50=" + getLatencyPercentileMillis(50) + ", p90=" + getLatencyPercentileMillis(90)
+                + ", p99=" + getLatencyPercentileMillis(99) + ", max=" + getLatencyPercentileMillis(100) + "}";
+    }
+}
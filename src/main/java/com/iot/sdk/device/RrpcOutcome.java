@@ -0,0 +1,87 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.model.RrpcResult;
+
+/**
+ * 广播中单个设备的RRPC结果
+ */
+public class RrpcOutcome {
+    /**
+     * 结果类型
+     */
+    public enum Status {
+        /**
+         * 设备已响应
+         */
+        REPLIED,
+        /**
+         * 请求已发出，设备未在超时时间或广播截止时间前响应
+         */
+        TIMED_OUT,
+        /**
+         * 请求失败
+         */
+        FAILED,
+        /**
+         * 广播到达截止时间前未发出请求，消息没有发送到设备
+         */
+        NOT_SENT
+    }
+
+    private final String deviceName;
+    private final Status status;
+    private final RrpcResult reply;
+    private final String errorMessage;
+    private final long latencyMillis;
+
+    RrpcOutcome(String deviceName, Status status, RrpcResult reply, String errorMessage, long latencyMillis) {
+        this.deviceName = deviceName;
+        this.status = status;
+        this.reply = reply;
+        this.errorMessage = errorMessage;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 结果类型
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return 设备响应，未响应时为null
+     */
+    public RrpcResult getReply() {
+        return reply;
+    }
+
+    /**
+     * @return 错误信息，已响应时为null
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * @return 从发出请求到得到结果的耗时(毫秒)，未发出时为-1
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RrpcOutcome{deviceName=" + deviceName + ", status=" + status
+                + (reply != null ? ", reply=" + reply : "")
+                + (errorMessage != null ? ", errorMessage=" + errorMessage : "")
+                + ", latencyMillis=" + latencyMillis + "}";
+    }
+}
@@ -0,0 +1,64 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.model.DeviceState;
+
+/**
+ * 设备状态变化事件
+ */
+public class StatusChangeEvent {
+    private final String deviceName;
+    private final DeviceState previousState;
+    private final DeviceState currentState;
+    private final long timestamp;
+    private final long observedAt;
+
+    StatusChangeEvent(String deviceName, DeviceState previousState, DeviceState currentState,
+                      long timestamp, long observedAt) {
+        this.deviceName = deviceName;
+        this.previousState = previousState;
+        this.currentState = currentState;
+        this.timestamp = timestamp;
+        this.observedAt = observedAt;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 变化前的状态
+     */
+    public DeviceState getPreviousState() {
+        return previousState;
+    }
+
+    /**
+     * @return 变化后的状态
+     */
+    public DeviceState getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * @return 平台返回的状态更新时间戳(毫秒)，未知时为0
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return 本地观测到变化的时间(毫秒)
+     */
+    public long getObservedAt() {
+        return observedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusChangeEvent{deviceName=" + deviceName + ", " + previousState + " -> " + currentState
+                + ", timestamp=" + timestamp + "}";
+    }
+}
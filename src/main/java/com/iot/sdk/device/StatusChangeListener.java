@@ -0,0 +1,15 @@
+package com.iot.sdk.device;
+
+/**
+ * 设备状态变化监听器
+ */
+@FunctionalInterface
+public interface StatusChangeListener {
+
+    /**
+     * 设备状态发生变化时调用
+     *
+     * @param event 状态变化事件
+     */
+    void onStatusChange(StatusChangeEvent event);
+}
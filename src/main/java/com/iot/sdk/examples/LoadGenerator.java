@@ -0,0 +1,477 @@
+package com.iot.sdk.examples;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.SharedScheduler;
+import com.iot.sdk.client.VirtualThreads;
+import com.iot.sdk.device.DeviceManager;
+import okhttp3.OkHttpClient;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 压测工具
+ * 按操作比例向平台发起设备注册、详情、状态、批量状态、RRPC和自定义指令调用，统计每种操作的吞吐和延迟分布。
+ * <p>
+ * 两种施压方式：
+ * <ul>
+ *     <li>固定速率(--rate)：按计划时刻发起调用，不等待前一个调用完成，响应时间从计划时刻算起，
+ *     服务端变慢时排队时间计入延迟，避免协调遗漏</li>
+ *     <li>固定并发(--concurrency)：每个工作线程完成一次调用后立即发起下一次，用于测量给定并发下的最大吞吐</li>
+ * </ul>
+ * <pre>
+ * mvn package dependency:copy-dependencies -DincludeScope=runtime
+ * java -cp "target/cloud-sdk-java-1.0.0.jar:target/dependency/*" com.iot.sdk.examples.LoadGenerator --base-url http://127.0.0.1:8080 \
+ *     --app-id demo --app-secret secret --product-key mock-product --devices 10000 \
+ *     --mix status=6,batch=2,detail=1,command=1 --rate 2000 --duration 60 --json result.json
+ * </pre>
+ */
+public class LoadGenerator {
+    private final DeviceManager deviceManager;
+    private final LoadTarget target;
+    private final OperationMix mix;
+    private final Options options;
+    private final LoadReport report = new LoadReport();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+
+    private LoadGenerator(DeviceManager deviceManager, LoadTarget target, OperationMix mix, Options options) {
+        this.deviceManager = deviceManager;
+        this.target = target;
+        this.mix = mix;
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        OperationMix mix;
+        LoadTarget target;
+        try {
+            options = Options.parse(args);
+            if (options == null) {
+                printUsage();
+                return;
+            }
+            mix = OperationMix.parse(options.mix);
+            if (options.productKey == null
+                    && (mix.contains(LoadOperation.REGISTER) || mix.contains(LoadOperation.RRPC))) {
+                throw new IllegalArgumentException("注册设备和RRPC需要指定产品密钥(--product-key)");
+            }
+            target = new LoadTarget(options.productKey, options.devicePrefix, options.deviceCount,
+                    options.batchSize, options.messageContent, options.rrpcTimeout);
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            printUsage();
+            return;
+        }
+
+        IoTClient.Builder builder = IoTSdk.clientBuilder(options.baseUrl)
+                .maxRequests(options.maxRequests)
+                .maxRequestsPerHost(options.maxRequests)
+                .virtualThreads(options.virtualThreads);
+        if (options.token != null) {
+            builder.token(options.token);
+        }
+        if (options.appId != null) {
+            builder.credentials(options.appId, options.appSecret);
+        }
+
+        IoTClient client = builder.build();
+        try {
+            DeviceManager deviceManager = IoTSdk.deviceManagerBuilder(client).quiet(true).build();
+            LoadReport report = new LoadGenerator(deviceManager, target, mix, options).run();
+            report.print(System.out);
+            if (options.jsonPath != null) {
+                report.writeJson(Paths.get(options.jsonPath));
+                System.out.println("JSON报告已写入: " + options.jsonPath);
+            }
+            if (options.csvPath != null) {
+                report.writeCsv(Paths.get(options.csvPath));
+                System.out.println("CSV报告已写入: " + options.csvPath);
+            }
+        } finally {
+            client.close();
+            // 传输层由本工具独占，结束后关闭调度线程池并释放空闲连接，JVM无需等待其空闲超时即可退出
+            OkHttpClient httpClient = client.getHttpClient();
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+        }
+    }
+
+    private LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        ScheduledFuture<?> progress = SharedScheduler.get().scheduleAtFixedRate(new Runnable() {
+            private long previous;
+
+            @Override
+            public void run() {
+                long current = completed.get();
+                System.out.printf("已完成: %d, 最近吞吐: %d/秒, 在途: %d%n", current,
+                        (current - previous) / options.progressSeconds, outstanding.get());
+                previous = current;
+            }
+        }, options.progressSeconds, options.progressSeconds, TimeUnit.SECONDS);
+
+        try {
+            if (options.rate > 0) {
+                runOpenLoop(start, measureStart, end);
+            } else {
+                runClosedLoop(measureStart, end);
+            }
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.drainSeconds);
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            if (outstanding.get() > 0) {
+                System.out.println("等待超时，仍有 " + outstanding.get() + " 个调用未完成，未计入统计");
+            }
+        } finally {
+            progress.cancel(false);
+        }
+        report.finish(end - measureStart);
+        return report;
+    }
+
+    /**
+     * 固定速率：第i次调用的计划时刻为 start + i * 间隔，落后时立即补发
+     */
+    private void runOpenLoop(long start, long measureStart, long end) {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        Random random = new Random();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadOperation operation = mix.next(random);
+            if (outstanding.get() >= options.maxOutstanding) {
+                if (intended >= measureStart) {
+                    report.recordDropped(operation);
+                }
+                continue;
+            }
+            outstanding.incrementAndGet();
+            long actual = System.nanoTime();
+            invoke(operation, random).whenComplete((response, error) ->
+                    complete(operation, response, error, intended, actual, measureStart));
+        }
+    }
+
+    /**
+     * 固定并发：每个工作线程串行发起调用，直到结束时刻
+     */
+    private void runClosedLoop(long measureStart, long end) throws InterruptedException {
+        ExecutorService workers = options.virtualThreads
+                ? VirtualThreads.newExecutor("load-worker-")
+                : Executors.newFixedThreadPool(options.concurrency, runnable -> {
+                    Thread thread = new Thread(runnable, "load-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            for (int i = 0; i < options.concurrency; i++) {
+                workers.execute(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < end && !Thread.currentThread().isInterrupted()) {
+                        LoadOperation operation = mix.next(random);
+                        outstanding.incrementAndGet();
+                        JsonObject response = null;
+                        Throwable error = null;
+                        try {
+                            response = invoke(operation, random).get();
+                        } catch (ExecutionException e) {
+                            error = e.getCause();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            error = e;
+                        }
+                        complete(operation, response, error, now, now, measureStart);
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+        }
+        long timeout = Math.max(0, end - System.nanoTime()) + TimeUnit.SECONDS.toNanos(options.drainSeconds);
+        if (!workers.awaitTermination(timeout, TimeUnit.NANOSECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<JsonObject> invoke(LoadOperation operation, Random random) {
+        try {
+            return operation.invoke(deviceManager, target, random);
+        } catch (RuntimeException e) {
+            CompletableFuture<JsonObject> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private void complete(LoadOperation operation, JsonObject response, Throwable error,
+                          long intended, long actual, long measureStart) {
+        long done = System.nanoTime();
+        if (intended >= measureStart) {
+            report.record(operation, outcome(response, error), TimeUnit.NANOSECONDS.toMicros(done - intended),
+                    TimeUnit.NANOSECONDS.toMicros(done - actual));
+        }
+        completed.incrementAndGet();
+        outstanding.decrementAndGet();
+    }
+
+    private static LoadReport.Outcome outcome(JsonObject response, Throwable error) {
+        if (error != null || response == null) {
+            return LoadReport.Outcome.ERROR;
+        }
+        JsonElement success = response.get("success");
+        return success != null && success.isJsonPrimitive() && success.getAsBoolean()
+                ? LoadReport.Outcome.SUCCESS : LoadReport.Outcome.FAILED;
+    }
+
+    private static void printUsage() {
+        System.out.println("用法: java -cp cloud-sdk-java.jar com.iot.sdk.examples.LoadGenerator [选项]");
+        System.out.println("  --base-url <地址>           平台地址，必填");
+        System.out.println("  --app-id <appId>            应用ID，与--app-secret一起使用");
+        System.out.println("  --app-secret <appSecret>    应用密钥");
+        System.out.println("  --token <token>             认证令牌，未配置应用凭证时必填");
+        System.out.println("  --product-key <密钥>        产品密钥，注册设备和RRPC时必填");
+        System.out.println("  --device-prefix <前缀>      设备编码前缀，默认device-");
+        System.out.println("  --devices <数量>            设备编码为 前缀+0 到 前缀+(数量-1)，默认1000");
+        System.out.println("  --mix <操作=权重,...>       操作比例，可选register/detail/status/batch/rrpc/command，默认status=1");
+        System.out.println("  --rate <次/秒>              固定速率模式的目标速率");
+        System.out.println("  --concurrency <并发数>      固定并发模式的并发数，与--rate二选一");
+        System.out.println("  --duration <秒>             统计时长，默认60");
+        System.out.println("  --warmup <秒>               预热时长，不计入统计，默认10");
+        System.out.println("  --batch-size <数量>         每次批量查询的设备数，默认100");
+        System.out.println("  --message <内容>            RRPC和自定义指令的消息内容");
+        System.out.println("  --rrpc-timeout <毫秒>       RRPC超时时间，默认5000");
+        System.out.println("  --max-requests <数量>       客户端最大并发请求数，默认256");
+        System.out.println("  --max-outstanding <数量>    固定速率模式的最大在途调用数，超过时丢弃并计数，默认10000");
+        System.out.println("  --virtual-threads           使用虚拟线程(需要Java 21)");
+        System.out.println("  --json <文件>               以JSON格式写出报告");
+        System.out.println("  --csv <文件>                以CSV格式写出报告");
+    }
+
+    /**
+     * 按权重随机选择操作
+     */
+    static final class OperationMix {
+        private final LoadOperation[] operations;
+        private final int[] cumulativeWeights;
+        private final int totalWeight;
+
+        private OperationMix(List<LoadOperation> operations, List<Integer> weights) {
+            this.operations = operations.toArray(new LoadOperation[0]);
+            this.cumulativeWeights = new int[weights.size()];
+            int total = 0;
+            for (int i = 0; i < weights.size(); i++) {
+                total += weights.get(i);
+                cumulativeWeights[i] = total;
+            }
+            this.totalWeight = total;
+        }
+
+        /**
+         * 解析 操作=权重 列表，如 status=6,batch=2,command=1，省略权重时为1
+         */
+        static OperationMix parse(String mix) {
+            List<LoadOperation> operations = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            for (String part : mix.split(",")) {
+                String item = part.trim();
+                if (item.isEmpty()) {
+                    continue;
+                }
+                int separator = item.indexOf('=');
+                LoadOperation operation = LoadOperation.fromKey(separator < 0 ? item : item.substring(0, separator).trim());
+                int weight = separator < 0 ? 1 : Integer.parseInt(item.substring(separator + 1).trim());
+                if (weight < 0) {
+                    throw new IllegalArgumentException("操作权重不能小于0: " + item);
+                }
+                if (weight > 0) {
+                    operations.add(operation);
+                    weights.add(weight);
+                }
+            }
+            if (operations.isEmpty()) {
+                throw new IllegalArgumentException("操作比例不能为空");
+            }
+            return new OperationMix(operations, weights);
+        }
+
+        boolean contains(LoadOperation operation) {
+            for (LoadOperation candidate : operations) {
+                if (candidate == operation) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        LoadOperation next(Random random) {
+            int value = random.nextInt(totalWeight);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    /**
+     * 命令行参数
+     */
+    private static final class Options {
+        String baseUrl;
+        String appId;
+        String appSecret;
+        String token;
+        String productKey;
+        String devicePrefix = "device-";
+        int deviceCount = 1000;
+        String mix = "status=1";
+        double rate;
+        int concurrency;
+        long durationSeconds = 60;
+        long warmupSeconds = 10;
+        long drainSeconds = 30;
+        long progressSeconds = 5;
+        int batchSize = 100;
+        String messageContent = "{\"load\":true}";
+        int rrpcTimeout = 5000;
+        int maxRequests = 256;
+        int maxOutstanding = 10000;
+        boolean virtualThreads;
+        String jsonPath;
+        String csvPath;
+
+        /**
+         * @return 解析结果，请求帮助时返回null
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    return null;
+                }
+                if ("--virtual-threads".equals(arg)) {
+                    options.virtualThreads = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("参数缺少取值: " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--base-url":
+                        options.baseUrl = value;
+                        break;
+                    case "--app-id":
+                        options.appId = value;
+                        break;
+                    case "--app-secret":
+                        options.appSecret = value;
+                        break;
+                    case "--token":
+                        options.token = value;
+                        break;
+                    case "--product-key":
+                        options.productKey = value;
+                        break;
+                    case "--device-prefix":
+                        options.devicePrefix = value;
+                        break;
+                    case "--devices":
+                        options.deviceCount = Integer.parseInt(value);
+                        break;
+                    case "--mix":
+                        options.mix = value;
+                        break;
+                    case "--rate":
+                        options.rate = Double.parseDouble(value);
+                        break;
+                    case "--concurrency":
+                        options.concurrency = Integer.parseInt(value);
+                        break;
+                    case "--duration":
+                        options.durationSeconds = Long.parseLong(value);
+                        break;
+                    case "--warmup":
+                        options.warmupSeconds = Long.parseLong(value);
+                        break;
+                    case "--batch-size":
+                        options.batchSize = Integer.parseInt(value);
+                        break;
+                    case "--message":
+                        options.messageContent = value;
+                        break;
+                    case "--rrpc-timeout":
+                        options.rrpcTimeout = Integer.parseInt(value);
+                        break;
+                    case "--max-requests":
+                        options.maxRequests = Integer.parseInt(value);
+                        break;
+                    case "--max-outstanding":
+                        options.maxOutstanding = Integer.parseInt(value);
+                        break;
+                    case "--json":
+                        options.jsonPath = value;
+                        break;
+                    case "--csv":
+                        options.csvPath = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知参数: " + arg);
+                }
+            }
+            options.validate();
+            return options;
+        }
+
+        private void validate() {
+            if (baseUrl == null || baseUrl.isEmpty()) {
+                throw new IllegalArgumentException("平台地址不能为空");
+            }
+            if ((appId == null) != (appSecret == null)) {
+                throw new IllegalArgumentException("应用ID和应用密钥必须同时配置");
+            }
+            if (appId == null && token == null) {
+                throw new IllegalArgumentException("需要配置应用凭证或token");
+            }
+            if ((rate > 0) == (concurrency > 0)) {
+                throw new IllegalArgumentException("--rate 和 --concurrency 必须且只能配置一个");
+            }
+            if (durationSeconds <= 0 || warmupSeconds < 0) {
+                throw new IllegalArgumentException("统计时长必须大于0，预热时长不能小于0");
+            }
+            if (maxRequests <= 0 || maxOutstanding <= 0) {
+                throw new IllegalArgumentException("最大并发请求数和最大在途调用数必须大于0");
+            }
+        }
+    }
+}
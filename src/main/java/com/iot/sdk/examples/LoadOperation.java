@@ -0,0 +1,107 @@
+package com.iot.sdk.examples;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.device.DeviceManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 压测支持的操作
+ */
+public enum LoadOperation {
+    /**
+     * 注册设备，每次注册一个平台自动命名的新设备
+     */
+    REGISTER("register") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            return deviceManager.registerDeviceAsync(target.getProductKey(), null, null);
+        }
+    },
+    /**
+     * 查询设备详情
+     */
+    DETAIL("detail") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            return deviceManager.getDeviceDetailAsync(target.randomDevice(random), null);
+        }
+    },
+    /**
+     * 查询单个设备状态
+     */
+    STATUS("status") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            return deviceManager.getDeviceStatusAsync(target.randomDevice(random), null);
+        }
+    },
+    /**
+     * 批量查询设备状态
+     */
+    BATCH_STATUS("batch") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            List<String> deviceNames = new ArrayList<>(target.getBatchSize());
+            for (int i = 0; i < target.getBatchSize(); i++) {
+                deviceNames.add(target.randomDevice(random));
+            }
+            return deviceManager.batchGetDeviceStatusAsync(deviceNames, null);
+        }
+    },
+    /**
+     * 发送RRPC消息
+     */
+    RRPC("rrpc") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            return deviceManager.sendRrpcMessageAsync(target.randomDevice(random), target.getProductKey(),
+                    target.getMessageContent(), target.getRrpcTimeout());
+        }
+    },
+    /**
+     * 发送自定义指令
+     */
+    COMMAND("command") {
+        @Override
+        CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random) {
+            return deviceManager.sendCustomCommandAsync(target.randomDevice(random), target.getMessageContent());
+        }
+    };
+
+    private final String key;
+
+    LoadOperation(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return 命令行和报告中使用的名称
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 按名称查找操作
+     *
+     * @param key 操作名称
+     * @return 操作
+     */
+    public static LoadOperation fromKey(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("未知操作: " + key);
+    }
+
+    /**
+     * 发起一次异步调用
+     */
+    abstract CompletableFuture<JsonObject> invoke(DeviceManager deviceManager, LoadTarget target, Random random);
+}
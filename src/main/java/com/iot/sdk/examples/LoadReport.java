@@ -0,0 +1,258 @@
+package com.iot.sdk.examples;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.iot.sdk.client.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测结果：按操作统计次数和延迟分布
+ * 响应时间从计划发起时刻算起，包含在客户端排队的时间，固定速率模式下不受协调遗漏影响；
+ * 服务时间从实际发起时刻算起。延迟以微秒记录。
+ */
+public final class LoadReport {
+    private static final double[] PERCENTILES = {50, 75, 90, 99, 99.9, 99.99};
+
+    private final Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+    private volatile long elapsedNanos;
+
+    LoadReport() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    void record(LoadOperation operation, Outcome outcome, long responseMicros, long serviceMicros) {
+        OperationStats operationStats = stats.get(operation);
+        operationStats.outcomes.get(outcome).increment();
+        operationStats.responseMicros.record(responseMicros);
+        operationStats.serviceMicros.record(serviceMicros);
+    }
+
+    void recordDropped(LoadOperation operation) {
+        stats.get(operation).dropped.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return 统计时长(秒)，不含预热
+     */
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    /**
+     * @param operation 操作
+     * @return 完成的调用数
+     */
+    public long getCompleted(LoadOperation operation) {
+        return stats.get(operation).responseMicros.snapshot().getCount();
+    }
+
+    /**
+     * @param operation 操作
+     * @param outcome   结果类型
+     * @return 该结果类型的调用数
+     */
+    public long getCount(LoadOperation operation, Outcome outcome) {
+        return stats.get(operation).outcomes.get(outcome).sum();
+    }
+
+    /**
+     * @param operation 操作
+     * @return 因在途请求达到上限而未发起的调用数
+     */
+    public long getDropped(LoadOperation operation) {
+        return stats.get(operation).dropped.sum();
+    }
+
+    /**
+     * @param operation 操作
+     * @return 响应时间分布(微秒)
+     */
+    public Histogram.Snapshot getResponseMicros(LoadOperation operation) {
+        return stats.get(operation).responseMicros.snapshot();
+    }
+
+    /**
+     * @param operation 操作
+     * @return 服务时间分布(微秒)
+     */
+    public Histogram.Snapshot getServiceMicros(LoadOperation operation) {
+        return stats.get(operation).serviceMicros.snapshot();
+    }
+
+    /**
+     * 输出文本报告，只包含有调用的操作
+     *
+     * @param out 输出流
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "统计时长: %.1f秒%n", getElapsedSeconds());
+        out.printf(Locale.ROOT, "%-8s %10s %10s %8s %8s %8s %9s %9s %9s %9s %9s %9s%n", "操作", "完成", "吞吐/秒",
+                "失败", "异常", "丢弃", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "服务p99");
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram.Snapshot response = getResponseMicros(operation);
+            if (response.getCount() == 0 && getDropped(operation) == 0) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-8s %10d %10.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.getKey(), response.getCount(), throughput(response.getCount()),
+                    getCount(operation, Outcome.FAILED), getCount(operation, Outcome.ERROR), getDropped(operation),
+                    millis(response.getPercentile(50)), millis(response.getPercentile(90)),
+                    millis(response.getPercentile(99)), millis(response.getPercentile(99.9)),
+                    millis(response.getMax()), millis(getServiceMicros(operation).getPercentile(99)));
+        }
+    }
+
+    /**
+     * 以JSON格式写出报告
+     *
+     * @param path 文件路径
+     * @throws IOException 写入失败
+     */
+    public void writeJson(Path path) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("elapsedSeconds", getElapsedSeconds());
+        JsonArray operations = new JsonArray();
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram.Snapshot response = getResponseMicros(operation);
+            if (response.getCount() == 0 && getDropped(operation) == 0) {
+                continue;
+            }
+            JsonObject item = new JsonObject();
+            item.addProperty("operation", operation.getKey());
+            item.addProperty("completed", response.getCount());
+            item.addProperty("throughput", throughput(response.getCount()));
+            item.addProperty("successThroughput", throughput(getCount(operation, Outcome.SUCCESS)));
+            for (Outcome outcome : Outcome.values()) {
+                item.addProperty(outcome.key, getCount(operation, outcome));
+            }
+            item.addProperty("dropped", getDropped(operation));
+            item.add("responseMillis", percentiles(response));
+            item.add("serviceMillis", percentiles(getServiceMicros(operation)));
+            operations.add(item);
+        }
+        root.add("operations", operations);
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(root, writer);
+        }
+    }
+
+    /**
+     * 以CSV格式写出报告，每个操作一行
+     *
+     * @param path 文件路径
+     * @throws IOException 写入失败
+     */
+    public void writeCsv(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("operation,completed,throughput,success,failed,error,dropped");
+            for (String prefix : new String[]{"response", "service"}) {
+                for (double percentile : PERCENTILES) {
+                    header.append(',').append(prefix).append("_p").append(label(percentile)).append("_ms");
+                }
+                header.append(',').append(prefix).append("_max_ms,").append(prefix).append("_mean_ms");
+            }
+            writer.write(header.append('\n').toString());
+            for (LoadOperation operation : LoadOperation.values()) {
+                Histogram.Snapshot response = getResponseMicros(operation);
+                if (response.getCount() == 0 && getDropped(operation) == 0) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder(operation.getKey())
+                        .append(',').append(response.getCount())
+                        .append(',').append(format(throughput(response.getCount())));
+                for (Outcome outcome : Outcome.values()) {
+                    line.append(',').append(getCount(operation, outcome));
+                }
+                line.append(',').append(getDropped(operation));
+                for (Histogram.Snapshot snapshot : new Histogram.Snapshot[]{response, getServiceMicros(operation)}) {
+                    for (double percentile : PERCENTILES) {
+                        line.append(',').append(format(millis(snapshot.getPercentile(percentile))));
+                    }
+                    line.append(',').append(format(millis(snapshot.getMax())))
+                            .append(',').append(format(snapshot.getMean() / 1000));
+                }
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    private double throughput(long count) {
+        return elapsedNanos > 0 ? count / getElapsedSeconds() : 0;
+    }
+
+    private static JsonObject percentiles(Histogram.Snapshot snapshot) {
+        JsonObject item = new JsonObject();
+        for (double percentile : PERCENTILES) {
+            item.addProperty("p" + label(percentile), millis(snapshot.getPercentile(percentile)));
+        }
+        item.addProperty("max", millis(snapshot.getMax()));
+        item.addProperty("mean", snapshot.getMean() / 1000);
+        return item;
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * 调用结果类型
+     */
+    public enum Outcome {
+        /**
+         * 平台返回成功
+         */
+        SUCCESS("success"),
+        /**
+         * 平台返回失败(success=false)
+         */
+        FAILED("failed"),
+        /**
+         * 网络异常、HTTP错误、超时等未拿到平台结果的调用
+         */
+        ERROR("error");
+
+        private final String key;
+
+        Outcome(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class OperationStats {
+        final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+        final LongAdder dropped = new LongAdder();
+        final Histogram responseMicros = new Histogram();
+        final Histogram serviceMicros = new Histogram();
+
+        OperationStats() {
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, new LongAdder());
+            }
+        }
+    }
+}
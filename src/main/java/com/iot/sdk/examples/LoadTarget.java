@@ -0,0 +1,52 @@
+package com.iot.sdk.examples;
+
+import java.util.Random;
+
+/**
+ * 压测对象：设备集合和请求参数
+ * 设备编码为 前缀+序号(从0开始)，与平台替身预置设备的命名方式一致
+ */
+final class LoadTarget {
+    private final String productKey;
+    private final String devicePrefix;
+    private final int deviceCount;
+    private final int batchSize;
+    private final String messageContent;
+    private final int rrpcTimeout;
+
+    LoadTarget(String productKey, String devicePrefix, int deviceCount, int batchSize, String messageContent,
+               int rrpcTimeout) {
+        if (deviceCount <= 0) {
+            throw new IllegalArgumentException("设备数必须大于0");
+        }
+        if (batchSize <= 0 || batchSize > 100) {
+            throw new IllegalArgumentException("批量查询设备数必须在1到100之间");
+        }
+        this.productKey = productKey;
+        this.devicePrefix = devicePrefix;
+        this.deviceCount = deviceCount;
+        this.batchSize = batchSize;
+        this.messageContent = messageContent;
+        this.rrpcTimeout = rrpcTimeout;
+    }
+
+    String randomDevice(Random random) {
+        return devicePrefix + random.nextInt(deviceCount);
+    }
+
+    String getProductKey() {
+        return productKey;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    String getMessageContent() {
+        return messageContent;
+    }
+
+    int getRrpcTimeout() {
+        return rrpcTimeout;
+    }
+}
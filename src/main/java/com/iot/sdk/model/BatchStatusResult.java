@@ -0,0 +1,67 @@
+package com.iot.sdk.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量设备状态查询结果
+ */
+public class BatchStatusResult {
+    private final List<DeviceStatus> devices;
+    private final int onlineCount;
+    private final int offlineCount;
+    private final int unactiveCount;
+
+    public BatchStatusResult(List<DeviceStatus> devices) {
+        this.devices = Collections.unmodifiableList(devices);
+        int online = 0;
+        int offline = 0;
+        int unactive = 0;
+        for (DeviceStatus device : devices) {
+            switch (device.getState()) {
+                case ONLINE:
+                    online++;
+                    break;
+                case OFFLINE:
+                    offline++;
+                    break;
+                case UNACTIVE:
+                    unactive++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.onlineCount = online;
+        this.offlineCount = offline;
+        this.unactiveCount = unactive;
+    }
+
+    /**
+     * @return 设备状态列表
+     */
+    public List<DeviceStatus> getDevices() {
+        return devices;
+    }
+
+    /**
+     * @return 在线设备数
+     */
+    public int getOnlineCount() {
+        return onlineCount;
+    }
+
+    /**
+     * @return 离线设备数
+     */
+    public int getOfflineCount() {
+        return offlineCount;
+    }
+
+    /**
+     * @return 未激活设备数
+     */
+    public int getUnactiveCount() {
+        return unactiveCount;
+    }
+}
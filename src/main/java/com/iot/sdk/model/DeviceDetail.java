@@ -0,0 +1,61 @@
+package com.iot.sdk.model;
+
+/**
+ * 设备详情
+ */
+public class DeviceDetail {
+    private final String deviceId;
+    private final String deviceName;
+    private final String productKey;
+    private final String nickName;
+    private final DeviceState state;
+
+    public DeviceDetail(String deviceId, String deviceName, String productKey, String nickName, DeviceState state) {
+        this.deviceId = deviceId;
+        this.deviceName = deviceName;
+        this.productKey = productKey;
+        this.nickName = nickName;
+        this.state = state != null ? state : DeviceState.UNKNOWN;
+    }
+
+    /**
+     * @return 设备唯一标识
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 产品密钥
+     */
+    public String getProductKey() {
+        return productKey;
+    }
+
+    /**
+     * @return 设备显示名称
+     */
+    public String getNickName() {
+        return nickName;
+    }
+
+    /**
+     * @return 在线状态
+     */
+    public DeviceState getState() {
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceDetail{deviceId=" + deviceId + ", deviceName=" + deviceName + ", productKey=" + productKey
+                + ", nickName=" + nickName + ", state=" + state + "}";
+    }
+}
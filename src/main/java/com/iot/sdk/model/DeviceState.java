@@ -0,0 +1,60 @@
+package com.iot.sdk.model;
+
+/**
+ * 设备在线状态
+ */
+public enum DeviceState {
+    /**
+     * 在线
+     */
+    ONLINE("在线"),
+    /**
+     * 离线
+     */
+    OFFLINE("离线"),
+    /**
+     * 未激活
+     */
+    UNACTIVE("未激活"),
+    /**
+     * 平台未返回或无法识别的状态
+     */
+    UNKNOWN("未知");
+
+    private final String label;
+
+    DeviceState(String label) {
+        this.label = label;
+    }
+
+    /**
+     * 获取状态的中文描述
+     *
+     * @return 状态描述
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 将平台返回的状态字符串转换为枚举
+     *
+     * @param status 状态字符串
+     * @return 对应的状态，无法识别时返回UNKNOWN
+     */
+    public static DeviceState of(String status) {
+        if (status == null) {
+            return UNKNOWN;
+        }
+        switch (status) {
+            case "ONLINE":
+                return ONLINE;
+            case "OFFLINE":
+                return OFFLINE;
+            case "UNACTIVE":
+                return UNACTIVE;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.iot.sdk.model;
+
+/**
+ * 设备在线状态
+ */
+public class DeviceStatus {
+    private final String deviceName;
+    private final String deviceId;
+    private final DeviceState state;
+    private final long timestamp;
+
+    public DeviceStatus(String deviceName, String deviceId, DeviceState state, long timestamp) {
+        this.deviceName = deviceName;
+        this.deviceId = deviceId;
+        this.state = state != null ? state : DeviceState.UNKNOWN;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return 设备编码，平台未返回时为null
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 设备唯一标识，平台未返回时为null
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return 在线状态
+     */
+    public DeviceState getState() {
+        return state;
+    }
+
+    /**
+     * @return 状态更新时间戳(毫秒)，未知时为0
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceStatus{deviceName=" + deviceName + ", deviceId=" + deviceId
+                + ", state=" + state + ", timestamp=" + timestamp + "}";
+    }
+}
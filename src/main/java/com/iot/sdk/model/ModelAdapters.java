@@ -0,0 +1,271 @@
+package com.iot.sdk.model;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 响应模型的手写TypeAdapter
+ * 直接在 {@link JsonReader} 上按字段名解码，不使用反射，也不构建中间JSON树
+ */
+public final class ModelAdapters {
+
+    /**
+     * 设备状态
+     */
+    public static final TypeAdapter<DeviceStatus> DEVICE_STATUS = new TypeAdapter<DeviceStatus>() {
+        @Override
+        public DeviceStatus read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String deviceName = null;
+            String deviceId = null;
+            DeviceState state = DeviceState.UNKNOWN;
+            long timestamp = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "deviceName":
+                        deviceName = nextStringOrNull(in);
+                        break;
+                    case "deviceId":
+                        deviceId = nextStringOrNull(in);
+                        break;
+                    case "status":
+                        state = DeviceState.of(nextStringOrNull(in));
+                        break;
+                    case "timestamp":
+                        timestamp = nextLongOrZero(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new DeviceStatus(deviceName, deviceId, state, timestamp);
+        }
+
+        @Override
+        public void write(JsonWriter out, DeviceStatus value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("deviceName").value(value.getDeviceName());
+            out.name("deviceId").value(value.getDeviceId());
+            out.name("status").value(value.getState().name());
+            out.name("timestamp").value(value.getTimestamp());
+            out.endObject();
+        }
+    };
+
+    /**
+     * 设备详情
+     */
+    public static final TypeAdapter<DeviceDetail> DEVICE_DETAIL = new TypeAdapter<DeviceDetail>() {
+        @Override
+        public DeviceDetail read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String deviceId = null;
+            String deviceName = null;
+            String productKey = null;
+            String nickName = null;
+            DeviceState state = DeviceState.UNKNOWN;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "deviceId":
+                        deviceId = nextStringOrNull(in);
+                        break;
+                    case "deviceName":
+                        deviceName = nextStringOrNull(in);
+                        break;
+                    case "productKey":
+                        productKey = nextStringOrNull(in);
+                        break;
+                    case "nickName":
+                        nickName = nextStringOrNull(in);
+                        break;
+                    case "status":
+                        state = DeviceState.of(nextStringOrNull(in));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new DeviceDetail(deviceId, deviceName, productKey, nickName, state);
+        }
+
+        @Override
+        public void write(JsonWriter out, DeviceDetail value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("deviceId").value(value.getDeviceId());
+            out.name("deviceName").value(value.getDeviceName());
+            out.name("productKey").value(value.getProductKey());
+            out.name("nickName").value(value.getNickName());
+            out.name("status").value(value.getState().name());
+            out.endObject();
+        }
+    };
+
+    /**
+     * 设备注册结果
+     */
+    public static final TypeAdapter<RegistrationResult> REGISTRATION_RESULT = new TypeAdapter<RegistrationResult>() {
+        @Override
+        public RegistrationResult read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String productKey = null;
+            String deviceName = null;
+            String nickName = null;
+            String deviceId = null;
+            String deviceSecret = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "productKey":
+                        productKey = nextStringOrNull(in);
+                        break;
+                    case "deviceName":
+                        deviceName = nextStringOrNull(in);
+                        break;
+                    case "nickName":
+                        nickName = nextStringOrNull(in);
+                        break;
+                    case "deviceId":
+                        deviceId = nextStringOrNull(in);
+                        break;
+                    case "deviceSecret":
+                        deviceSecret = nextStringOrNull(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new RegistrationResult(productKey, deviceName, nickName, deviceId, deviceSecret);
+        }
+
+        @Override
+        public void write(JsonWriter out, RegistrationResult value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("productKey").value(value.getProductKey());
+            out.name("deviceName").value(value.getDeviceName());
+            out.name("nickName").value(value.getNickName());
+            out.name("deviceId").value(value.getDeviceId());
+            out.name("deviceSecret").value(value.getDeviceSecret());
+            out.endObject();
+        }
+    };
+
+    /**
+     * 批量设备状态，data可能是设备数组，也可能是包含devices数组的对象
+     */
+    public static final TypeAdapter<BatchStatusResult> BATCH_STATUS_RESULT = new TypeAdapter<BatchStatusResult>() {
+        @Override
+        public BatchStatusResult read(JsonReader in) throws IOException {
+            List<DeviceStatus> devices = new ArrayList<>();
+            JsonToken token = in.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                readDeviceStatusArray(in, devices);
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    if ("devices".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                        readDeviceStatusArray(in, devices);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+            return new BatchStatusResult(devices);
+        }
+
+        @Override
+        public void write(JsonWriter out, BatchStatusResult value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (DeviceStatus device : value.getDevices()) {
+                DEVICE_STATUS.write(out, device);
+            }
+            out.endArray();
+        }
+    };
+
+    private ModelAdapters() {
+    }
+
+    /**
+     * 将所有模型的TypeAdapter注册到Gson构建器
+     *
+     * @param builder Gson构建器
+     * @return 同一个构建器
+     */
+    public static GsonBuilder registerAll(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(DeviceStatus.class, DEVICE_STATUS)
+                .registerTypeAdapter(DeviceDetail.class, DEVICE_DETAIL)
+                .registerTypeAdapter(RegistrationResult.class, REGISTRATION_RESULT)
+                .registerTypeAdapter(BatchStatusResult.class, BATCH_STATUS_RESULT);
+    }
+
+    private static void readDeviceStatusArray(JsonReader in, List<DeviceStatus> devices) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            DeviceStatus device = DEVICE_STATUS.read(in);
+            if (device != null) {
+                devices.add(device);
+            }
+        }
+        in.endArray();
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static long nextLongOrZero(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextLong();
+    }
+}
@@ -0,0 +1,62 @@
+package com.iot.sdk.model;
+
+/**
+ * 设备注册结果
+ */
+public class RegistrationResult {
+    private final String productKey;
+    private final String deviceName;
+    private final String nickName;
+    private final String deviceId;
+    private final String deviceSecret;
+
+    public RegistrationResult(String productKey, String deviceName, String nickName, String deviceId, String deviceSecret) {
+        this.productKey = productKey;
+        this.deviceName = deviceName;
+        this.nickName = nickName;
+        this.deviceId = deviceId;
+        this.deviceSecret = deviceSecret;
+    }
+
+    /**
+     * @return 产品密钥
+     */
+    public String getProductKey() {
+        return productKey;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 设备显示名称
+     */
+    public String getNickName() {
+        return nickName;
+    }
+
+    /**
+     * @return 设备唯一标识
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return 设备密钥
+     */
+    public String getDeviceSecret() {
+        return deviceSecret;
+    }
+
+    @Override
+    public String toString() {
+        // 不输出设备密钥
+        return "RegistrationResult{productKey=" + productKey + ", deviceName=" + deviceName
+                + ", nickName=" + nickName + ", deviceId=" + deviceId + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.iot.sdk.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * RRPC调用结果
+ */
+public class RrpcResult {
+    private final String payloadBase64;
+
+    public RrpcResult(String payloadBase64) {
+        this.payloadBase64 = payloadBase64;
+    }
+
+    /**
+     * 设备是否返回了响应内容
+     *
+     * @return 是否有响应内容
+     */
+    public boolean hasPayload() {
+        return payloadBase64 != null;
+    }
+
+    /**
+     * @return 设备响应的Base64编码内容，无响应时为null
+     */
+    public String getPayloadBase64() {
+        return payloadBase64;
+    }
+
+    /**
+     * 解码设备响应内容
+     *
+     * @return 原始字节，无响应时为null
+     * @throws IllegalArgumentException 内容不是合法的Base64编码
+     */
+    public byte[] getPayloadBytes() {
+        return payloadBase64 != null ? Base64.getDecoder().decode(payloadBase64) : null;
+    }
+
+    /**
+     * 按UTF-8解码设备响应内容
+     *
+     * @return 响应文本，无响应时为null
+     * @throws IllegalArgumentException 内容不是合法的Base64编码
+     */
+    public String getPayload() {
+        byte[] bytes = getPayloadBytes();
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "RrpcResult{payloadBase64=" + payloadBase64 + "}";
+    }
+}
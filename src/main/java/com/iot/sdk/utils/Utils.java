@@ -2,9 +2,11 @@ package com.iot.sdk.utils;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -13,6 +15,13 @@ import java.util.regex.Pattern;
  */
 public class Utils {
     private static final Pattern UUID_PATTERN = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
+    private static final String DEFAULT_TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final DateTimeFormatter DEFAULT_TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_TIMESTAMP_FORMAT);
+    /**
+     * 自定义格式的格式化器缓存，DateTimeFormatter线程安全，可共享
+     */
+    private static final int MAX_CACHED_FORMATTERS = 32;
+    private static final ConcurrentHashMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
     
     /**
      * 检查字符串是否为有效的UUID格式
@@ -56,9 +65,21 @@ public class Utils {
             return "未知时间";
         }
         
-        String dateFormat = (format != null && !format.isEmpty()) ? format : "yyyy-MM-dd HH:mm:ss";
-        SimpleDateFormat sdf = new SimpleDateFormat(dateFormat);
-        return sdf.format(new Date(timestamp));
+        DateTimeFormatter formatter = (format != null && !format.isEmpty() && !DEFAULT_TIMESTAMP_FORMAT.equals(format))
+                ? formatter(format) : DEFAULT_TIMESTAMP_FORMATTER;
+        // 每次取当前默认时区，与原先的SimpleDateFormat行为一致
+        return formatter.format(Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()));
+    }
+
+    private static DateTimeFormatter formatter(String format) {
+        DateTimeFormatter formatter = FORMATTERS.get(format);
+        if (formatter == null) {
+            formatter = DateTimeFormatter.ofPattern(format);
+            if (FORMATTERS.size() < MAX_CACHED_FORMATTERS) {
+                FORMATTERS.putIfAbsent(format, formatter);
+            }
+        }
+        return formatter;
     }
     
     /**
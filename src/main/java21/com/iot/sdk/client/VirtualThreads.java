@@ -0,0 +1,34 @@
+package com.iot.sdk.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持
+ * Java 21及以上版本的实现，由多版本jar的 META-INF/versions/21 加载。
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * 可用于在虚拟线程上调用 {@link IoTClient} 和 DeviceManager 的阻塞接口
+     *
+     * @param namePrefix 线程名前缀
+     * @return 线程池
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
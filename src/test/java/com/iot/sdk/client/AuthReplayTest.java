@@ -0,0 +1,118 @@
+package com.iot.sdk.client;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthReplayTest {
+    private static final String AUTH = "/api/v1/oauth/auth";
+    private static final String DETAIL = "/api/v1/quickdevice/detail";
+    private static final String REGISTER = "/api/v1/quickdevice/register";
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        respond(AUTH, n -> "200 {\"success\":true,\"data\":\"token-" + n + "\"}");
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void errorMessageMentioningTokenIsNotAnAuthFailure() throws Exception {
+        respond(DETAIL, n -> "200 {\"success\":false,\"errorMessage\":\"token字段格式错误\"}");
+        try (IoTClient client = client()) {
+            JsonObject response = client.post(DETAIL, JsonPayload.builder().add("deviceName", "d").build());
+
+            assertFalse(client.checkResponse(response));
+            assertEquals(1, count(DETAIL));
+            assertEquals(1, count(AUTH));
+        }
+    }
+
+    @Test
+    void authFailureCodeIsReplayedForReadsEvenWithNonBooleanSuccess() throws Exception {
+        respond(DETAIL, n -> n == 1 ? "200 {\"success\":{},\"code\":401}" : "200 {\"success\":true,\"data\":{}}");
+        try (IoTClient client = client()) {
+            JsonObject response = client.postAsync(DETAIL, JsonPayload.builder().add("deviceName", "d").build())
+                    .get(5, TimeUnit.SECONDS);
+
+            assertTrue(client.checkResponse(response));
+            assertEquals(2, count(DETAIL));
+            assertEquals(2, count(AUTH));
+            assertEquals("token-2", client.getToken());
+        }
+    }
+
+    @Test
+    void registerIsNotReplayedAfterHttp401() throws Exception {
+        respond(REGISTER, n -> "401 {}");
+        try (IoTClient client = client()) {
+            assertThrows(HttpStatusException.class,
+                    () -> client.post(REGISTER, JsonPayload.builder().add("deviceName", "d").build()));
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> client.postAsync(REGISTER, JsonPayload.builder().add("deviceName", "d").build())
+                            .get(5, TimeUnit.SECONDS));
+            assertEquals(401, assertInstanceOf(HttpStatusException.class, e.getCause()).getStatusCode());
+
+            assertEquals(2, count(REGISTER));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (count(AUTH) < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(count(AUTH) >= 2, "认证失效后应触发刷新");
+        }
+    }
+
+    private IoTClient client() {
+        return IoTClient.builder("http://127.0.0.1:" + server.getAddress().getPort())
+                .credentials("app", "secret")
+                .build();
+    }
+
+    private int count(String path) {
+        AtomicInteger counter = calls.get(path);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * 注册端点响应，函数参数为第几次调用，返回 "状态码 响应体"
+     */
+    private void respond(String path, IntFunction<String> response) {
+        AtomicInteger counter = calls.computeIfAbsent(path, key -> new AtomicInteger());
+        server.createContext(path, exchange -> {
+            String[] reply = response.apply(counter.incrementAndGet()).split(" ", 2);
+            byte[] body = reply[1].getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(Integer.parseInt(reply[0]), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+    }
+}
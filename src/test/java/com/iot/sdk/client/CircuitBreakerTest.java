@@ -0,0 +1,74 @@
+package com.iot.sdk.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+    private static final String ENDPOINT = "/api/v1/quickdevice/detail";
+
+    @Test
+    void opensAtFailureRateAndClosesAfterSuccessfulProbes() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .window(4, 4)
+                .failureRateThreshold(0.5)
+                .openDuration(50, TimeUnit.MILLISECONDS)
+                .halfOpenProbes(1)
+                .build();
+
+        for (boolean failure : new boolean[]{false, true, false}) {
+            breaker.acquire(ENDPOINT);
+            breaker.record(ENDPOINT, failure);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT));
+        breaker.acquire(ENDPOINT);
+        breaker.record(ENDPOINT, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(ENDPOINT));
+        assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire(ENDPOINT));
+
+        Thread.sleep(80);
+        breaker.acquire(ENDPOINT);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(ENDPOINT));
+        assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire(ENDPOINT));
+        breaker.record(ENDPOINT, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT));
+    }
+
+    @Test
+    void failedProbeReopensAndIgnoredProbeFreesSlot() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .window(1, 1)
+                .openDuration(50, TimeUnit.MILLISECONDS)
+                .halfOpenProbes(1)
+                .build();
+        breaker.acquire(ENDPOINT);
+        breaker.record(ENDPOINT, true);
+
+        Thread.sleep(80);
+        breaker.acquire(ENDPOINT);
+        breaker.ignore(ENDPOINT);
+        breaker.acquire(ENDPOINT);
+        breaker.record(ENDPOINT, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(ENDPOINT));
+    }
+
+    @Test
+    void rejectionIsSerializable() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new CircuitBreakerOpenException(ENDPOINT, 1000));
+            out.writeObject(new HttpStatusException(503, "Service Unavailable"));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(ENDPOINT, ((CircuitBreakerOpenException) in.readObject()).getEndpoint());
+            assertEquals(503, ((HttpStatusException) in.readObject()).getStatusCode());
+        }
+    }
+}
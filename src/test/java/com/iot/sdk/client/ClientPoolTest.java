@@ -0,0 +1,67 @@
+package com.iot.sdk.client;
+
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.MockPlatform;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ClientPoolTest {
+
+    @Test
+    void clientsReturnedDuringEvictionStayOpen() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder().port(0).start();
+             ClientPool pool = ClientPool.builder(platform.getBaseUrl())
+                     .secretResolver(appId -> "secret-" + appId)
+                     .maxTenants(1)
+                     .build()) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread sweeper = new Thread(() -> {
+                while (running.get()) {
+                    pool.sweep();
+                }
+            });
+            sweeper.start();
+            try {
+                // 上限为1，每次切换租户时另一个租户成为淘汰对象，淘汰与获取并发进行
+                for (int i = 0; i < 20000; i++) {
+                    IoTClient client = pool.get(i % 2 == 0 ? "tenant-a" : "tenant-b");
+                    // 刚返回的租户是最近使用的，之后的淘汰只会选中另一个租户
+                    Thread.yield();
+                    assertFalse(client.isClosed(), "第" + i + "次获取的客户端在使用中被关闭");
+                }
+            } finally {
+                running.set(false);
+                sweeper.join();
+            }
+        }
+    }
+
+    @Test
+    void idleTenantIsEvictedAndReusesCachedToken() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder().port(0).start();
+             ClientPool pool = ClientPool.builder(platform.getBaseUrl())
+                     .secretResolver(appId -> "secret-" + appId)
+                     .idleTimeout(1, TimeUnit.MILLISECONDS)
+                     .build()) {
+            IoTClient first = pool.get("tenant-a");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, pool.size());
+            assertEquals(1, pool.cachedTokenCount());
+
+            IoTClient second = pool.get("tenant-a");
+            assertNotSame(first, second);
+            assertFalse(second.isClosed());
+            assertEquals(first.getToken(), second.getToken());
+            assertEquals(1, platform.getRequestCount(Endpoint.AUTH));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.iot.sdk.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+    private static final String ENDPOINT = "/api/v1/quickdevice/status";
+
+    @Test
+    void queuesUpToLimitThenRejectsAndGrantsOnRelease() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .limitRange(1, 1)
+                .maxQueueSize(1)
+                .maxWait(1, TimeUnit.HOURS)
+                .build();
+
+        ConcurrencyLimiter.Permit first = limiter.acquire(ENDPOINT);
+        CompletableFuture<ConcurrencyLimiter.Permit> queued = limiter.acquireAsync(ENDPOINT);
+        CompletableFuture<ConcurrencyLimiter.Permit> rejected = limiter.acquireAsync(ENDPOINT);
+
+        assertFalse(queued.isDone());
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        ConcurrencyLimitExceededException cause = assertInstanceOf(ConcurrencyLimitExceededException.class,
+                e.getCause());
+        assertEquals(ENDPOINT, cause.getEndpoint());
+        assertEquals(1, cause.getQueueDepth());
+
+        first.discard();
+        assertTrue(queued.isDone());
+        queued.get().discard();
+        assertEquals(0, limiter.snapshot().get(ENDPOINT).getInFlight());
+        assertEquals(1, limiter.snapshot().get(ENDPOINT).getRejectedCount());
+    }
+
+    @Test
+    void queuedAcquireTimesOut() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .limitRange(1, 1)
+                .maxWait(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        ConcurrencyLimiter.Permit held = limiter.acquire(ENDPOINT);
+        assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire(ENDPOINT));
+        CompletableFuture<ConcurrencyLimiter.Permit> queued = limiter.acquireAsync(ENDPOINT);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ConcurrencyLimitExceededException.class, e.getCause());
+
+        held.discard();
+        assertEquals(2, limiter.snapshot().get(ENDPOINT).getTimeoutCount());
+        assertEquals(0, limiter.snapshot().get(ENDPOINT).getQueueDepth());
+    }
+
+    @Test
+    void grantedWaitersCancelTheirTimeoutTasks() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .limitRange(1, 1)
+                .maxQueueSize(1000)
+                .maxWait(1, TimeUnit.HOURS)
+                .build();
+        BlockingQueue<Runnable> timers = SharedScheduler.executor().getQueue();
+        int timersBefore = timers.size();
+
+        ConcurrencyLimiter.Permit held = limiter.acquire(ENDPOINT);
+        List<CompletableFuture<ConcurrencyLimiter.Permit>> queued = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            queued.add(limiter.acquireAsync(ENDPOINT));
+        }
+        assertTrue(timers.size() >= timersBefore + 1000);
+
+        held.discard();
+        for (CompletableFuture<ConcurrencyLimiter.Permit> future : queued) {
+            // 归还许可时同步分配给下一个等待者
+            future.get(5, TimeUnit.SECONDS).discard();
+        }
+        assertTrue(timers.size() < timersBefore + 10, "残留的超时任务: " + (timers.size() - timersBefore));
+    }
+
+    @Test
+    void rejectionIsSerializable() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ConcurrencyLimitExceededException(ENDPOINT, "并发已达上限", 4, 2));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ConcurrencyLimitExceededException copy = (ConcurrencyLimitExceededException) in.readObject();
+            assertEquals(4, copy.getLimit());
+            assertEquals(2, copy.getQueueDepth());
+        }
+    }
+}
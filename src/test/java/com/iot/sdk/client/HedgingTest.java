@@ -0,0 +1,222 @@
+package com.iot.sdk.client;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.device.DeviceRequests;
+import com.iot.sdk.mock.DeviceState;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.MockPlatform;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingTest {
+    private static final String ENDPOINT = Endpoint.STATUS.getPath();
+
+    @Test
+    void hedgeWinsOverSlowPrimaryAndCancelsIt() throws Exception {
+        AtomicInteger statusRequests = new AtomicInteger();
+        AtomicInteger canceled = new AtomicInteger();
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void canceled(Call call) {
+                        canceled.incrementAndGet();
+                    }
+                })
+                .build();
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .fixedDelay(50, TimeUnit.MILLISECONDS)
+                .maxHedgeRatio(1)
+                .build();
+        // 首个请求2秒后才响应，对冲请求立即响应
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.STATUS, () -> statusRequests.getAndIncrement() == 0
+                        ? TimeUnit.SECONDS.toMicros(2) : 0)
+                .start();
+             IoTClient client = IoTClient.builder(platform.getBaseUrl())
+                     .token("test-token")
+                     .httpClient(httpClient)
+                     .hedgingPolicy(policy)
+                     .build()) {
+            platform.getDevices().add("pk", "device-0", DeviceState.ONLINE);
+
+            long start = System.nanoTime();
+            JsonObject response = client.post(ENDPOINT, DeviceRequests.deviceKey("device-0", null));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(client.checkResponse(response));
+            assertTrue(elapsedMillis < 1000, "耗时: " + elapsedMillis);
+            assertEquals(2, platform.getRequestCount(Endpoint.STATUS));
+            HedgingPolicy.EndpointStats stats = policy.snapshot().get(ENDPOINT);
+            assertEquals(1, stats.getRequestCount());
+            assertEquals(1, stats.getHedgeCount());
+            assertEquals(1, stats.getHedgeWinCount());
+            // 落败的首个请求通过Call.cancel()取消
+            assertTrue(canceled.get() >= 1);
+        }
+    }
+
+    @Test
+    void onlyTheFirstSuccessfulResponseIsDecoded() throws Exception {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .fixedDelay(1, TimeUnit.MILLISECONDS)
+                .maxHedgeRatio(1)
+                .build();
+        AtomicInteger decoded = new AtomicInteger();
+        JsonObject decodedJson = new JsonObject();
+        IoTClient.ResponseDecoder decoder = response -> {
+            decoded.incrementAndGet();
+            return decodedJson;
+        };
+        OkHttpClient httpClient = new OkHttpClient();
+        Call primaryCall = httpClient.newCall(new Request.Builder().url("http://127.0.0.1:1/").build());
+        IoTClient.ResponseDecoder[] guarded = new IoTClient.ResponseDecoder[2];
+        CountDownLatch hedged = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<JsonObject> result = new HedgedExchange(ENDPOINT, policy, decoder, (guard, tracker) -> {
+            int index = attempts.getAndIncrement();
+            guarded[index] = guard;
+            if (index == 0) {
+                tracker.register(primaryCall);
+            } else {
+                hedged.countDown();
+            }
+            return new CompletableFuture<>();
+        }).start();
+        assertTrue(hedged.await(5, TimeUnit.SECONDS));
+
+        // 对冲一路先收到响应头，获得解码权并取消首个请求
+        guarded[1].decode(response());
+        assertTrue(primaryCall.isCanceled());
+        IOException e = assertThrows(IOException.class, () -> guarded[0].decode(response()));
+        assertTrue(e.getMessage().contains("另一路"));
+        assertEquals(1, decoded.get());
+        assertFalse(result.isDone());
+    }
+
+    @Test
+    void winnerCompletesTheExchangeAndLoserIsIgnored() throws Exception {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .fixedDelay(1, TimeUnit.MILLISECONDS)
+                .maxHedgeRatio(1)
+                .build();
+        AtomicReference<CompletableFuture<JsonObject>> primary = new AtomicReference<>();
+        JsonObject hedgeJson = new JsonObject();
+        CompletableFuture<JsonObject> result = new HedgedExchange(ENDPOINT, policy, response -> hedgeJson,
+                (guard, tracker) -> {
+                    if (primary.get() == null) {
+                        primary.set(new CompletableFuture<>());
+                        return primary.get();
+                    }
+                    CompletableFuture<JsonObject> hedge = new CompletableFuture<>();
+                    try {
+                        hedge.complete(guard.decode(response()));
+                    } catch (IOException e) {
+                        hedge.completeExceptionally(e);
+                    }
+                    return hedge;
+                }).start();
+
+        assertSame(hedgeJson, result.get(5, TimeUnit.SECONDS));
+        primary.get().completeExceptionally(new IOException("Canceled"));
+        assertSame(hedgeJson, result.get());
+        assertEquals(1, policy.snapshot().get(ENDPOINT).getHedgeWinCount());
+    }
+
+    @Test
+    void hedgesAreCappedByTheBudget() {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .fixedDelay(1, TimeUnit.MILLISECONDS)
+                .maxHedgeRatio(0.05)
+                .build();
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest(ENDPOINT);
+            if (policy.tryHedge(ENDPOINT)) {
+                hedges++;
+            }
+        }
+        // 预算初始可突发10次，此后每个请求存入0.05次
+        assertTrue(hedges <= 10 + 50, "对冲次数: " + hedges);
+        assertTrue(hedges >= 50, "对冲次数: " + hedges);
+        HedgingPolicy.EndpointStats stats = policy.snapshot().get(ENDPOINT);
+        assertEquals(1000, stats.getRequestCount());
+        assertEquals(hedges, stats.getHedgeCount());
+    }
+
+    @Test
+    void percentileDelayReplacesFallbackOnceMinimumSamplesAreReached() {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .percentileDelay(95, 100, TimeUnit.MILLISECONDS)
+                .build();
+        for (int i = 1; i < 100; i++) {
+            policy.onSuccess(ENDPOINT, false, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.delayNanos(ENDPOINT));
+
+        // 第100个样本: 1~100毫秒的p95
+        policy.onSuccess(ENDPOINT, false, TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(95), policy.delayNanos(ENDPOINT));
+
+        // 此后每64个样本重算一次
+        for (int i = 0; i < 63; i++) {
+            policy.onSuccess(ENDPOINT, false, TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(95), policy.delayNanos(ENDPOINT));
+        policy.onSuccess(ENDPOINT, false, TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), policy.delayNanos(ENDPOINT));
+    }
+
+    @Test
+    void hedgeWinsRecordThePrimaryLatency() throws Exception {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .percentileDelay(95, 10, TimeUnit.MILLISECONDS)
+                .maxHedgeRatio(1)
+                .build();
+        JsonObject json = new JsonObject();
+        // 首个请求始终不返回，对冲请求立即返回；若只记录获胜一路，分位数会降到接近0
+        for (int i = 0; i < 100; i++) {
+            AtomicInteger attempts = new AtomicInteger();
+            new HedgedExchange(ENDPOINT, policy, response -> json, (guard, tracker) ->
+                    attempts.getAndIncrement() == 0
+                            ? new CompletableFuture<>() : CompletableFuture.completedFuture(json))
+                    .start()
+                    .get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(100, policy.snapshot().get(ENDPOINT).getHedgeWinCount());
+        assertTrue(policy.delayNanos(ENDPOINT) >= TimeUnit.MILLISECONDS.toNanos(10),
+                "对冲延迟: " + policy.delayNanos(ENDPOINT));
+    }
+
+    private static Response response() {
+        return new Response.Builder()
+                .request(new Request.Builder().url("http://127.0.0.1/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create("{}", MediaType.get("application/json")))
+                .build();
+    }
+}
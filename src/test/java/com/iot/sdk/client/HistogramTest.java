@@ -0,0 +1,96 @@
+package com.iot.sdk.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HistogramTest {
+
+    @Test
+    void valuesBelowSixteenHaveTheirOwnBuckets() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        for (int i = 1; i < 16; i++) {
+            histogram.record(i);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(16, snapshot.getCount());
+        assertEquals(120, snapshot.getSum());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, snapshot.getPercentile(100.0 * (i + 1) / 16));
+            assertEquals(i + 1, snapshot.getCountAtOrBelow(i));
+        }
+        assertEquals(0, snapshot.getCountAtOrBelow(-1));
+    }
+
+    @Test
+    void powersOfTwoStartANewBucket() {
+        for (int exponent = 4; exponent <= 40; exponent++) {
+            long value = 1L << exponent;
+            Histogram histogram = new Histogram();
+            histogram.record(value - 1);
+            histogram.record(value);
+            histogram.record(1L << 41);
+            Histogram.Snapshot snapshot = histogram.snapshot();
+
+            assertEquals(1, snapshot.getCountAtOrBelow(value - 1), "2^" + exponent);
+            assertEquals(2, snapshot.getCountAtOrBelow(value), "2^" + exponent);
+            // 2^e所在桶宽度为2^(e-4)，分位数返回桶上界
+            assertEquals(value + (value >>> 4) - 1, snapshot.getPercentile(50), "2^" + exponent);
+            assertEquals(value - 1, snapshot.getPercentile(1), "2^" + exponent);
+        }
+    }
+
+    @Test
+    void valuesFromTwoToTheFortyOneShareTheLastBucket() {
+        Histogram histogram = new Histogram();
+        histogram.record(1L << 40);
+        histogram.record(1L << 41);
+        histogram.record((1L << 41) + 1);
+        histogram.record(Long.MAX_VALUE);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(Long.MAX_VALUE, snapshot.getMax());
+        assertEquals((1L << 40) + (1L << 36) - 1, snapshot.getPercentile(25));
+        // 最后一个桶没有上界，按最大值返回
+        assertEquals(Long.MAX_VALUE, snapshot.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, snapshot.getPercentile(100));
+        assertEquals(1, snapshot.getCountAtOrBelow((1L << 41) - (1L << 37)));
+        assertEquals(4, snapshot.getCountAtOrBelow(1L << 41));
+        assertEquals(4, snapshot.getCountAtOrBelow(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentileRankRoundsUpWithoutFloatingPointError() {
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < 999; i++) {
+            histogram.record(1);
+        }
+        histogram.record(15);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        // 99.9%的排名恰为第999个值
+        assertEquals(1, snapshot.getPercentile(99.9));
+        assertEquals(15, snapshot.getPercentile(99.91));
+        assertEquals(15, snapshot.getPercentile(100));
+        assertEquals(1, snapshot.getPercentile(0.001));
+
+        Histogram two = new Histogram();
+        two.record(3);
+        two.record(7);
+        assertEquals(3, two.snapshot().getPercentile(50));
+        assertEquals(7, two.snapshot().getPercentile(50.1));
+    }
+
+    @Test
+    void emptyHistogramAndInvalidPercentiles() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.getPercentile(99));
+        assertEquals(0, snapshot.getCountAtOrBelow(Long.MAX_VALUE));
+        assertEquals(0, snapshot.getMean());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(100.5));
+    }
+}
@@ -0,0 +1,137 @@
+package com.iot.sdk.client;
+
+import com.google.gson.Gson;
+import com.iot.sdk.device.DeviceRequests;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonRequestBodyTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    void registerMatchesMapSerialization() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("productKey", "pk-<1>&'2'");
+        map.put("deviceName", "device-0001");
+        map.put("nickName", "温度传感器🌡");
+        assertSameBytes(map, DeviceRequests.register("pk-<1>&'2'", "device-0001", "温度传感器🌡"));
+
+        Map<String, Object> required = new LinkedHashMap<>();
+        required.put("productKey", "pk");
+        assertSameBytes(required, DeviceRequests.register("pk", "", null));
+    }
+
+    @Test
+    void deviceKeyMatchesMapSerialization() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("deviceName", "device-0001");
+        map.put("deviceId", "id-1");
+        assertSameBytes(map, DeviceRequests.deviceKey("device-0001", "id-1"));
+
+        Map<String, Object> byId = new LinkedHashMap<>();
+        byId.put("deviceId", "id-1");
+        assertSameBytes(byId, DeviceRequests.deviceKey(null, "id-1"));
+    }
+
+    @Test
+    void batchStatusMatchesMapSerialization() throws IOException {
+        List<String> names = Arrays.asList("device-0001", "设备-2", "device-\"3\"");
+        List<String> ids = Arrays.asList("id-1", "id-2");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("deviceName", names);
+        map.put("deviceId", ids);
+        assertSameBytes(map, DeviceRequests.batchStatus(names, ids));
+    }
+
+    @Test
+    void rrpcMatchesMapSerialization() throws IOException {
+        String message = "{\"cmd\":\"重启\"}";
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("deviceName", "device-0001");
+        map.put("productKey", "pk");
+        map.put("requestBase64Byte", base64(message));
+        map.put("timeout", 5000);
+        assertSameBytes(map, DeviceRequests.rrpc("device-0001", "pk", message, 5000));
+
+        map.remove("timeout");
+        assertSameBytes(map, DeviceRequests.rrpc("device-0001", "pk", message, 0));
+    }
+
+    @Test
+    void customCommandMatchesMapSerialization() throws IOException {
+        // Base64填充字符'='与Gson一样被转义
+        String message = "on";
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("deviceName", "device-0001");
+        map.put("messageContent", base64(message));
+        assertSameBytes(map, DeviceRequests.customCommand("device-0001", message));
+    }
+
+    @Test
+    void emptyPayloadIsEmptyObject() throws IOException {
+        assertEquals("{}", bytes(JsonRequestBody.create((RequestPayload) null)).readUtf8());
+        assertEquals("{}", bytes(JsonRequestBody.create(JsonPayload.empty())).readUtf8());
+    }
+
+    @Test
+    void writerJoinsSurrogatePairsSplitAcrossWrites() throws IOException {
+        Buffer buffer = new Buffer();
+        try (Utf8SinkWriter writer = new Utf8SinkWriter(buffer)) {
+            writer.write("a\uD83D");
+            writer.write('\uDE00');
+            writer.write("b\uD83D");
+            writer.write("\uDE01c");
+            writer.write('\uD83D');
+        }
+        assertEquals("a😀b😁c?", buffer.readUtf8());
+    }
+
+    @Test
+    void lengthWriterCountsWhatSinkWriterWrites() throws IOException {
+        String text = "a\u00e9\u4e2d😀\uDE00x\uD83D";
+        Buffer buffer = new Buffer();
+        try (Utf8SinkWriter writer = new Utf8SinkWriter(buffer)) {
+            writer.write(text);
+        }
+        Utf8LengthWriter counter = new Utf8LengthWriter();
+        counter.write(text);
+        counter.close();
+        assertEquals(buffer.size(), counter.byteCount());
+    }
+
+    @Test
+    void bodyCanBeWrittenMoreThanOnce() throws IOException {
+        JsonRequestBody body = JsonRequestBody.create(DeviceRequests.deviceKey("device-0001", null));
+        assertEquals(bytes(body).readUtf8(), bytes(body).readUtf8());
+        assertEquals("{\"deviceName\":\"device-0001\"}", body.utf8());
+    }
+
+    private void assertSameBytes(Map<String, Object> map, RequestPayload typed) throws IOException {
+        byte[] expected = gson.toJson(map).getBytes(StandardCharsets.UTF_8);
+        JsonRequestBody typedBody = JsonRequestBody.create(typed);
+        assertEquals(expected.length, typedBody.contentLength());
+        assertArrayEquals(expected, bytes(typedBody).readByteArray());
+        assertArrayEquals(expected, bytes(JsonRequestBody.create(new MapPayload(gson, map))).readByteArray());
+    }
+
+    private static Buffer bytes(JsonRequestBody body) throws IOException {
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        return sink;
+    }
+
+    private static String base64(String message) {
+        return Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
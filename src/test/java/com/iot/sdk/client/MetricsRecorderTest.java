@@ -0,0 +1,50 @@
+package com.iot.sdk.client;
+
+import com.iot.sdk.device.DeviceRequests;
+import com.iot.sdk.mock.DeviceState;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.MockPlatform;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRecorderTest {
+
+    @Test
+    void statusCodesAndPlatformFailuresAreCountedPerEndpoint() throws Exception {
+        String endpoint = Endpoint.STATUS.getPath();
+        MetricsRecorder recorder = new MetricsRecorder();
+        try (MockPlatform platform = MockPlatform.builder().port(0).permanentToken("test-token").start();
+             IoTClient client = IoTClient.builder(platform.getBaseUrl())
+                     .token("test-token")
+                     .metrics(recorder)
+                     .build()) {
+            platform.getDevices().add("pk", "device-0", DeviceState.ONLINE);
+            platform.failRequests(Endpoint.STATUS,
+                    request -> "device-bad".equals(request.get("deviceName").getAsString()));
+
+            assertTrue(client.checkResponse(client.post(endpoint, DeviceRequests.deviceKey("device-0", null))));
+            assertFalse(client.checkResponse(client.post(endpoint, DeviceRequests.deviceKey("device-bad", null))));
+            platform.setHttpErrorRate(1);
+            assertThrows(HttpStatusException.class, () -> client.post(endpoint, DeviceRequests.deviceKey("device-0", null)));
+
+            MetricsRecorder.EndpointStats stats = recorder.snapshot().get(endpoint);
+            assertEquals(3, stats.getCallCount());
+            assertEquals(0, stats.getCancelledCount());
+            assertEquals(Long.valueOf(2), stats.getStatusCounts().get(200));
+            assertEquals(Long.valueOf(1), stats.getStatusCounts().get(500));
+            assertEquals(1, stats.getHttpErrorCount());
+            assertEquals(1, stats.getSuccessResultCount());
+            assertEquals(1, stats.getFailedResultCount());
+            assertEquals(2.0 / 3, stats.getErrorRate(), 1e-9);
+            assertEquals(3, stats.getTotalMicros().getCount());
+            assertTrue(stats.getRequestBytes().getMax() > 0);
+            assertEquals(Collections.singleton(endpoint), recorder.snapshot().keySet());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.iot.sdk.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SharedSchedulerTest {
+
+    @Test
+    void callersCannotShutDownTheSharedScheduler() throws Exception {
+        ScheduledExecutorService scheduler = SharedScheduler.get();
+        assertSame(scheduler, SharedScheduler.get());
+
+        assertThrows(UnsupportedOperationException.class, scheduler::shutdown);
+        assertThrows(UnsupportedOperationException.class, scheduler::shutdownNow);
+
+        assertFalse(scheduler.isShutdown());
+        assertEquals("ok", scheduler.schedule(() -> "ok", 1, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+    }
+}
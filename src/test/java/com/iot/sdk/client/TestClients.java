@@ -0,0 +1,51 @@
+package com.iot.sdk.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试用客户端工具
+ */
+public final class TestClients {
+    /**
+     * 不会被访问到的地址，配合已熔断的熔断器使用
+     */
+    public static final String UNREACHABLE_URL = "http://127.0.0.1:9";
+
+    private TestClients() {
+    }
+
+    /**
+     * 创建对指定端点已熔断一小时的熔断器，经过这些端点的请求同步失败
+     *
+     * @param endpoints API端点路径
+     * @return 熔断器
+     */
+    public static CircuitBreaker openCircuitBreaker(String... endpoints) {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .window(1, 1)
+                .openDuration(1, TimeUnit.HOURS)
+                .build();
+        for (String endpoint : endpoints) {
+            try {
+                breaker.acquire(endpoint);
+            } catch (CircuitBreakerOpenException e) {
+                throw new IllegalStateException(e);
+            }
+            breaker.record(endpoint, true);
+        }
+        return breaker;
+    }
+
+    /**
+     * 创建请求全部被熔断器拒绝的客户端
+     *
+     * @param endpoints API端点路径
+     * @return 客户端
+     */
+    public static IoTClient rejectingClient(String... endpoints) {
+        return IoTClient.builder(UNREACHABLE_URL)
+                .token("test-token")
+                .circuitBreaker(openCircuitBreaker(endpoints))
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.client.SharedScheduler;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingOperatorTest {
+
+    @Test
+    void emitsBatchResultsWithinDemandAndCompletes() throws Exception {
+        RangeSource source = new RangeSource(10, null);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        Publisher<Integer> publisher = BatchingOperator.publisher(source, items -> {
+            batchSizes.add(items.size());
+            List<Integer> results = new ArrayList<>();
+            for (Integer item : items) {
+                results.add(item * 10);
+            }
+            return CompletableFuture.completedFuture(results);
+        }, 4, 2, 10, SharedScheduler.get());
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.items.size());
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(10, subscriber.items.size());
+        assertEquals(90, (int) subscriber.items.get(9));
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        assertFalse(source.overlapped.get());
+    }
+
+    @Test
+    void cancelIsSerializedWithUpstreamRequest() throws Exception {
+        CountDownLatch requestEntered = new CountDownLatch(1);
+        CountDownLatch releaseRequest = new CountDownLatch(1);
+        RangeSource source = new RangeSource(100, () -> {
+            requestEntered.countDown();
+            awaitUninterruptibly(releaseRequest);
+        });
+        Publisher<Integer> publisher = BatchingOperator.publisher(source,
+                items -> new CompletableFuture<List<Integer>>(), 4, 2, 10, SharedScheduler.get());
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        Thread requester = new Thread(() -> subscriber.subscription.request(1));
+        requester.start();
+        assertTrue(requestEntered.await(5, TimeUnit.SECONDS));
+        // 上游request尚未返回，cancel只登记，由正在执行的drain在request返回后转发给上游
+        subscriber.subscription.cancel();
+        assertEquals(0, source.cancelCount.get());
+        releaseRequest.countDown();
+        requester.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(1, source.cancelCount.get());
+        assertFalse(source.overlapped.get());
+    }
+
+    @Test
+    void batchFailureCancelsUpstreamAndSignalsError() throws Exception {
+        RangeSource source = new RangeSource(100, null);
+        Function<List<Integer>, CompletableFuture<List<Integer>>> failing = items -> {
+            CompletableFuture<List<Integer>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("batch failed"));
+            return future;
+        };
+        Publisher<Integer> publisher = BatchingOperator.publisher(source, failing, 4, 2, 10, SharedScheduler.get());
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(10);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, subscriber.error.get());
+        assertEquals(1, source.cancelCount.get());
+        assertFalse(source.overlapped.get());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 同步发出0到count-1的上游，记录request与cancel是否被并发调用
+     */
+    private static final class RangeSource implements Publisher<Integer>, Subscription {
+        private final int count;
+        private final Runnable onRequest;
+        private final AtomicBoolean active = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final AtomicInteger cancelCount = new AtomicInteger();
+        private Subscriber<? super Integer> subscriber;
+        private int next;
+        private boolean emitting;
+        private boolean completed;
+        private long pending;
+
+        RangeSource(int count, Runnable onRequest) {
+            this.count = count;
+            this.onRequest = onRequest;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Integer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (!active.compareAndSet(false, true)) {
+                overlapped.set(true);
+            }
+            try {
+                if (onRequest != null) {
+                    onRequest.run();
+                }
+                pending += n;
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+                while (pending > 0 && next < count && cancelCount.get() == 0) {
+                    pending--;
+                    subscriber.onNext(next++);
+                }
+                emitting = false;
+                if (next == count && cancelCount.get() == 0 && !completed) {
+                    completed = true;
+                    subscriber.onComplete();
+                }
+            } finally {
+                active.set(false);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (active.get()) {
+                overlapped.set(true);
+            }
+            cancelCount.incrementAndGet();
+        }
+    }
+
+    private static final class CollectingSubscriber implements Subscriber<Integer> {
+        final List<Integer> items = new CopyOnWriteArrayList<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.MockDevice;
+import com.iot.sdk.mock.MockPlatform;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkRegistrarTest {
+    private static final String REGISTER_ENDPOINT = "/api/v1/quickdevice/register";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void countersResetBetweenRunsAndFinalListenerFailureIsContained() throws Exception {
+        List<RegistrationRow> rows = Arrays.asList(
+                new RegistrationRow("pk", "device-1", null),
+                new RegistrationRow("pk", "device-2", null),
+                new RegistrationRow("pk", "device-3", null));
+        try (IoTClient client = TestClients.rejectingClient(REGISTER_ENDPOINT)) {
+            BulkRegistrar registrar = BulkRegistrar.builder(DeviceManager.builder(client).quiet(true).build(),
+                            dir.resolve("registered.tsv"))
+                    .progressListener(progress -> {
+                        throw new IllegalStateException("listener failed");
+                    })
+                    .build();
+
+            BulkRegistrationProgress first = registrar.run(rows);
+            BulkRegistrationProgress second = registrar.run(rows);
+
+            assertEquals(3, first.getFailed());
+            assertEquals(3, second.getFailed());
+            assertEquals(0, second.getSucceeded());
+            assertEquals(0, second.getSkipped());
+        }
+    }
+
+    @Test
+    void closeableInputIsClosedWhenStoppedEarly() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicReference<BulkRegistrar> registrar = new AtomicReference<>();
+        try (IoTClient client = TestClients.rejectingClient(REGISTER_ENDPOINT)) {
+            registrar.set(BulkRegistrar.builder(DeviceManager.builder(client).quiet(true).build(),
+                    dir.resolve("registered.tsv")).build());
+
+            BulkRegistrationProgress progress = registrar.get().run(new StoppingRows(registrar, closed), -1);
+
+            assertEquals(1, progress.getFailed());
+            assertTrue(closed.get());
+        }
+    }
+
+    @Test
+    void rerunSkipsRegisteredRowsAndRetriesFailedOnes() throws Exception {
+        List<RegistrationRow> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(new RegistrationRow("pk", "device-" + i, i == 1 ? "温度\t传感器" : null));
+        }
+        Path output = dir.resolve("registered.tsv");
+        try (MockPlatform platform = MockPlatform.builder().port(0).permanentToken("test-token").start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            BulkRegistrar registrar = BulkRegistrar.builder(DeviceManager.builder(client).quiet(true).build(), output)
+                    .maxInFlight(2)
+                    .build();
+
+            // 第一次只运行前4行，其中device-2注册失败
+            platform.failRequests(Endpoint.REGISTER,
+                    request -> "device-2".equals(request.get("deviceName").getAsString()));
+            BulkRegistrationProgress first = registrar.run(rows.subList(0, 4));
+            assertEquals(3, first.getSucceeded());
+            assertEquals(1, first.getFailed());
+
+            platform.failRequests(Endpoint.REGISTER, null);
+            BulkRegistrationProgress second = registrar.run(rows);
+            assertEquals(3, second.getSkipped());
+            assertEquals(3, second.getSucceeded());
+            assertEquals(0, second.getFailed());
+            assertEquals(7, platform.getRequestCount(Endpoint.REGISTER));
+
+            List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+            assertEquals(7, lines.size());
+            int ok = 0;
+            for (String line : lines) {
+                String[] fields = line.split("\t", -1);
+                if (fields[0].equals("FAIL")) {
+                    assertEquals(5, fields.length, line);
+                    assertEquals("pk", fields[1]);
+                    assertEquals("device-2", fields[2]);
+                    assertEquals("", fields[3]);
+                    assertTrue(fields[4].contains("模拟的平台错误"), line);
+                    continue;
+                }
+                ok++;
+                assertEquals("OK", fields[0]);
+                assertEquals(6, fields.length, line);
+                MockDevice device = platform.getDevices().get(fields[2]);
+                assertEquals("pk", fields[1]);
+                assertEquals(fields[2].equals("device-1") ? "温度 传感器" : "", fields[3]);
+                assertEquals(device.getDeviceId(), fields[4]);
+                assertEquals(device.getDeviceSecret(), fields[5]);
+            }
+            assertEquals(6, ok);
+            assertEquals(6, platform.getDevices().size());
+        }
+    }
+
+    /**
+     * 无限输入，读取第一行后停止注册
+     */
+    private static final class StoppingRows implements Iterator<RegistrationRow>, Closeable {
+        private final AtomicReference<BulkRegistrar> registrar;
+        private final AtomicBoolean closed;
+        private int index;
+
+        StoppingRows(AtomicReference<BulkRegistrar> registrar, AtomicBoolean closed) {
+            this.registrar = registrar;
+            this.closed = closed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return true;
+        }
+
+        @Override
+        public RegistrationRow next() {
+            registrar.get().stop();
+            return new RegistrationRow("pk", "device-" + index++, null);
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandDispatcherTest {
+
+    @Test
+    void errorFromDeliveryFailsCommandAndKeepsLaneRunning() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        try (IoTClient client = TestClients.rejectingClient()) {
+            DeviceManager deviceManager = new DeviceManager(client) {
+                @Override
+                JsonObject deliverCustomCommand(String deviceName, String messageContent) {
+                    if (calls.incrementAndGet() == 1) {
+                        throw new OutOfMemoryError("simulated");
+                    }
+                    return new JsonObject();
+                }
+            };
+            CommandDispatcher dispatcher = CommandDispatcher.builder(deviceManager).workers(1).build();
+
+            CompletableFuture<JsonObject> first = dispatcher.submit("device-1", "{}");
+            CompletableFuture<JsonObject> second = dispatcher.submit("device-1", "{}");
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, e.getCause());
+            second.get(5, TimeUnit.SECONDS);
+            assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+            assertEquals(1, dispatcher.getStats().getFailedCount());
+            assertEquals(1, dispatcher.getStats().getDeliveredCount());
+        }
+    }
+
+    @Test
+    void capacityIsEnforcedPerLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (IoTClient client = TestClients.rejectingClient()) {
+            DeviceManager deviceManager = new DeviceManager(client) {
+                @Override
+                JsonObject deliverCustomCommand(String deviceName, String messageContent) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new JsonObject();
+                }
+            };
+            // 两个通道，每个通道容量为2
+            CommandDispatcher dispatcher = CommandDispatcher.builder(deviceManager)
+                    .workers(2)
+                    .queueCapacity(4)
+                    .overflowPolicy(CommandDispatcher.OverflowPolicy.REJECT)
+                    .build();
+            try {
+                dispatcher.submit("device-1", "{}");
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (dispatcher.getStats().getQueueDepth() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                dispatcher.submit("device-1", "{}");
+                dispatcher.submit("device-1", "{}");
+
+                assertThrows(CommandRejectedException.class, () -> dispatcher.submit("device-1", "{}"));
+                assertEquals(2, dispatcher.getStats().getQueueDepth());
+            } finally {
+                release.countDown();
+                dispatcher.shutdown(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void commandsForOneDeviceStayOrderedWhileDevicesRunInParallel() throws Exception {
+        Map<String, List<String>> deliveredByDevice = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        try (IoTClient client = TestClients.rejectingClient()) {
+            DeviceManager deviceManager = new DeviceManager(client) {
+                @Override
+                JsonObject deliverCustomCommand(String deviceName, String messageContent) {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    deliveredByDevice.computeIfAbsent(deviceName, key -> new CopyOnWriteArrayList<>())
+                            .add(messageContent);
+                    return new JsonObject();
+                }
+            };
+            CommandDispatcher dispatcher = CommandDispatcher.builder(deviceManager).workers(4).build();
+
+            List<CompletableFuture<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                for (int device = 0; device < 8; device++) {
+                    futures.add(dispatcher.submit("device-" + device, String.valueOf(i)));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                expected.add(String.valueOf(i));
+            }
+            assertEquals(8, deliveredByDevice.size());
+            for (Map.Entry<String, List<String>> entry : deliveredByDevice.entrySet()) {
+                assertEquals(expected, entry.getValue(), entry.getKey());
+            }
+            assertTrue(maxInFlight.get() > 1, "最大并行发送数: " + maxInFlight.get());
+            assertEquals(160, dispatcher.getStats().getDeliveredCount());
+        }
+    }
+
+    @Test
+    void dropOldestCompletesTheEvictedCommand() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        try (IoTClient client = TestClients.rejectingClient()) {
+            CommandDispatcher dispatcher = CommandDispatcher.builder(blockingManager(client, release, delivered))
+                    .workers(1)
+                    .queueCapacity(2)
+                    .overflowPolicy(CommandDispatcher.OverflowPolicy.DROP_OLDEST)
+                    .build();
+            try {
+                CompletableFuture<JsonObject> a = dispatcher.submit("device-1", "a");
+                awaitEmptyQueue(dispatcher);
+                CompletableFuture<JsonObject> b = dispatcher.submit("device-1", "b");
+                CompletableFuture<JsonObject> c = dispatcher.submit("device-1", "c");
+                CompletableFuture<JsonObject> d = dispatcher.submit("device-1", "d");
+
+                ExecutionException e = assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(CommandRejectedException.class, e.getCause());
+                assertEquals(2, dispatcher.getStats().getQueueDepth());
+
+                release.countDown();
+                CompletableFuture.allOf(a, c, d).get(5, TimeUnit.SECONDS);
+                assertEquals(Arrays.asList("a", "c", "d"), delivered);
+                assertEquals(1, dispatcher.getStats().getDroppedCount());
+                assertEquals(4, dispatcher.getStats().getSubmittedCount());
+            } finally {
+                release.countDown();
+                dispatcher.shutdown(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void blockingSubmitTimesOutWhenTheLaneStaysFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (IoTClient client = TestClients.rejectingClient()) {
+            CommandDispatcher dispatcher = CommandDispatcher.builder(
+                            blockingManager(client, release, new CopyOnWriteArrayList<>()))
+                    .workers(1)
+                    .queueCapacity(1)
+                    .overflowPolicy(CommandDispatcher.OverflowPolicy.BLOCK)
+                    .blockTimeout(100, TimeUnit.MILLISECONDS)
+                    .build();
+            try {
+                dispatcher.submit("device-1", "a");
+                awaitEmptyQueue(dispatcher);
+                dispatcher.submit("device-1", "b");
+
+                long start = System.nanoTime();
+                CommandRejectedException e = assertThrows(CommandRejectedException.class,
+                        () -> dispatcher.submit("device-1", "c"));
+                long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                assertTrue(waitedMillis >= 100, "等待: " + waitedMillis);
+                assertTrue(e.getMessage().contains("超时"), e.getMessage());
+                assertEquals(1, dispatcher.getStats().getRejectedCount());
+                assertEquals(1, dispatcher.getStats().getQueueDepth());
+            } finally {
+                release.countDown();
+                dispatcher.shutdown(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * 发送在release之前阻塞的设备管理器
+     */
+    private static DeviceManager blockingManager(IoTClient client, CountDownLatch release, List<String> delivered) {
+        return new DeviceManager(client) {
+            @Override
+            JsonObject deliverCustomCommand(String deviceName, String messageContent) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(messageContent);
+                return new JsonObject();
+            }
+        };
+    }
+
+    /**
+     * 等待工作线程取走队列中的指令
+     */
+    private static void awaitEmptyQueue(CommandDispatcher dispatcher) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.getStats().getQueueDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, dispatcher.getStats().getQueueDepth());
+    }
+}
@@ -0,0 +1,101 @@
+package com.iot.sdk.device;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CommandJournalTest {
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenReturnsOnlyUnacknowledgedCommands() throws Exception {
+        try (CommandJournal journal = open()) {
+            journal.appendCustomCommand("device-1", "{\"n\":1}");
+            long second = journal.appendCustomCommand("device-2", "{\"n\":2}");
+            journal.appendRrpcMessage("product-1", "device-3", "{\"n\":3}", 1000);
+            journal.acknowledge(second);
+        }
+
+        try (CommandJournal journal = open()) {
+            List<JournaledCommand> pending = journal.pending();
+            assertEquals(2, pending.size());
+            assertEquals("device-1", pending.get(0).getDeviceName());
+            assertEquals("device-3", pending.get(1).getDeviceName());
+            assertEquals(JournaledCommand.Type.RRPC, pending.get(1).getType());
+            assertEquals("product-1", pending.get(1).getProductKey());
+            assertEquals(4, journal.appendCustomCommand("device-4", "{}"));
+        }
+    }
+
+    @Test
+    void zeroHeaderLastSegmentIsRecreated() throws Exception {
+        try (CommandJournal journal = open()) {
+            journal.appendCustomCommand("device-1", "{}");
+        }
+        // 创建分段后、写入文件头前崩溃
+        Files.write(nextSegment(), new byte[SEGMENT_SIZE]);
+
+        assertRecovered();
+    }
+
+    @Test
+    void headerlessLastSegmentIsRecreated() throws Exception {
+        try (CommandJournal journal = open()) {
+            journal.appendCustomCommand("device-1", "{}");
+        }
+        Files.createFile(nextSegment());
+
+        assertRecovered();
+    }
+
+    @Test
+    void zeroHeaderEarlierSegmentIsRejected() throws Exception {
+        try (CommandJournal journal = open()) {
+            journal.appendCustomCommand("device-1", "{}");
+        }
+        Path first = segments().get(0);
+        Files.write(first, new byte[SEGMENT_SIZE]);
+        Files.write(nextSegment(), new byte[SEGMENT_SIZE]);
+
+        assertThrows(IOException.class, this::open);
+    }
+
+    private void assertRecovered() throws IOException {
+        try (CommandJournal journal = open()) {
+            assertEquals(1, journal.getPendingCount());
+            assertEquals(2, journal.getSegmentCount());
+            journal.appendCustomCommand("device-2", "{}");
+        }
+        try (CommandJournal journal = open()) {
+            List<JournaledCommand> pending = journal.pending();
+            assertEquals(2, pending.size());
+            assertEquals("device-2", pending.get(1).getDeviceName());
+        }
+    }
+
+    private CommandJournal open() throws IOException {
+        return CommandJournal.builder(directory).segmentSize(SEGMENT_SIZE).open();
+    }
+
+    private Path nextSegment() throws IOException {
+        return directory.resolve(String.format("segment-%020d.log", segments().size() + 1));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
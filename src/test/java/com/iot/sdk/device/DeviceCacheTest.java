@@ -0,0 +1,189 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.Latency;
+import com.iot.sdk.mock.MockDevice;
+import com.iot.sdk.mock.MockPlatform;
+import com.iot.sdk.model.DeviceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeviceCacheTest {
+
+    @Test
+    void entriesExpireAfterTheirKindsTtl() throws Exception {
+        DeviceCache cache = DeviceCache.builder()
+                .statusTtl(50, TimeUnit.MILLISECONDS)
+                .detailTtl(1, TimeUnit.HOURS)
+                .build();
+        cache.put(DeviceCache.Kind.STATUS, "device-1", null, response("device-1", null), cache.stamp());
+        cache.put(DeviceCache.Kind.DETAIL, "device-1", null, response("device-1", null), cache.stamp());
+        assertNotNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+
+        Thread.sleep(80);
+        assertNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+        assertNotNull(cache.get(DeviceCache.Kind.DETAIL, "device-1", null));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    void zeroTtlDisablesCachingForThatKind() {
+        DeviceCache cache = DeviceCache.builder().statusTtl(0, TimeUnit.SECONDS).build();
+        cache.put(DeviceCache.Kind.STATUS, "device-1", null, response("device-1", null), cache.stamp());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        DeviceCache cache = DeviceCache.builder().maximumSize(2).concurrencyLevel(1).build();
+        put(cache, "device-a");
+        put(cache, "device-b");
+        assertNotNull(cache.get(DeviceCache.Kind.STATUS, "device-a", null));
+        put(cache, "device-c");
+
+        assertNull(cache.get(DeviceCache.Kind.STATUS, "device-b", null));
+        assertNotNull(cache.get(DeviceCache.Kind.STATUS, "device-a", null));
+        assertNotNull(cache.get(DeviceCache.Kind.STATUS, "device-c", null));
+        assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void capacityIsBoundedPerSegment() {
+        // 4段，每段容量1
+        DeviceCache cache = DeviceCache.builder().maximumSize(4).concurrencyLevel(4).build();
+        for (int i = 0; i < 50; i++) {
+            put(cache, "device-" + i);
+        }
+        assertTrue(cache.size() <= 4, "条目数: " + cache.size());
+        assertEquals(50 - cache.size(), cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void statsCountHitsAndMisses() {
+        DeviceCache cache = DeviceCache.builder().build();
+        assertNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+        put(cache, "device-1");
+        JsonObject first = cache.get(DeviceCache.Kind.STATUS, "device-1", null);
+        first.addProperty("mutated", true);
+        JsonObject second = cache.get(DeviceCache.Kind.STATUS, "device-1", null);
+
+        // 返回副本，调用方修改不影响缓存
+        assertFalse(second.has("mutated"));
+        DeviceCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void putAfterInvalidationIsDropped() {
+        DeviceCache cache = DeviceCache.builder().build();
+        long stamp = cache.stamp();
+        cache.invalidate("device-1", null);
+        cache.put(DeviceCache.Kind.STATUS, "device-1", null, response("device-1", "id-1"), stamp);
+        assertNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+
+        long later = cache.stamp();
+        cache.put(DeviceCache.Kind.STATUS, "device-1", null, response("device-1", "id-1"), later);
+        assertNotNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+    }
+
+    @Test
+    void invalidatingOneKeyRemovesTheAlias() {
+        DeviceCache cache = DeviceCache.builder().build();
+        cache.put(DeviceCache.Kind.STATUS, "device-1", null, response("device-1", "id-1"), cache.stamp());
+        cache.put(DeviceCache.Kind.DETAIL, null, "id-1", response("device-1", "id-1"), cache.stamp());
+
+        cache.invalidate(null, "id-1");
+        assertNull(cache.get(DeviceCache.Kind.STATUS, "device-1", null));
+        assertNull(cache.get(DeviceCache.Kind.DETAIL, null, "id-1"));
+
+        cache.put(DeviceCache.Kind.STATUS, null, "id-1", response("device-1", "id-1"), cache.stamp());
+        cache.invalidate("device-1", null);
+        assertNull(cache.get(DeviceCache.Kind.STATUS, null, "id-1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void batchQueryFillsStatusEntriesByNameAndId() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder().port(0).permanentToken("test-token").start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            platform.getDevices().populate("mock-product", "device-", 3);
+            DeviceCache cache = DeviceCache.builder().build();
+            DeviceManager deviceManager = DeviceManager.builder(client).cache(cache).quiet(true).build();
+
+            deviceManager.queryBatchDeviceStatus(Arrays.asList("device-0", "device-1", "device-2"), null);
+            List<String> ids = new ArrayList<>();
+            for (MockDevice device : platform.getDevices().devices()) {
+                ids.add(device.getDeviceId());
+            }
+            for (int i = 0; i < 3; i++) {
+                DeviceStatus status = deviceManager.queryDeviceStatus("device-" + i, null);
+                assertEquals("device-" + i, status.getDeviceName());
+                assertNotNull(deviceManager.queryDeviceStatus(null, ids.get(i)));
+            }
+
+            assertEquals(0, platform.getRequestCount(Endpoint.STATUS));
+            assertEquals(6, cache.stats().getHitCount());
+            assertEquals(6, cache.size());
+        }
+    }
+
+    @Test
+    void readThroughStartedBeforeInvalidateDoesNotRepopulate() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.STATUS, Latency.fixed(200, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            platform.getDevices().populate("mock-product", "device-", 1);
+            DeviceCache cache = DeviceCache.builder().build();
+            DeviceManager deviceManager = DeviceManager.builder(client).cache(cache).quiet(true).build();
+
+            CompletableFuture<DeviceStatus> inFlight = deviceManager.queryDeviceStatusAsync("device-0", null, null);
+            Thread.sleep(50);
+            cache.invalidate("device-0", null);
+            inFlight.get(5, TimeUnit.SECONDS);
+            assertNull(cache.get(DeviceCache.Kind.STATUS, "device-0", null));
+
+            deviceManager.queryDeviceStatus("device-0", null);
+            deviceManager.queryDeviceStatus("device-0", null);
+            assertEquals(2, platform.getRequestCount(Endpoint.STATUS));
+        }
+    }
+
+    private static void put(DeviceCache cache, String deviceName) {
+        cache.put(DeviceCache.Kind.STATUS, deviceName, null, response(deviceName, null), cache.stamp());
+    }
+
+    private static JsonObject response(String deviceName, String deviceId) {
+        JsonObject data = new JsonObject();
+        if (deviceName != null) {
+            data.addProperty("deviceName", deviceName);
+        }
+        if (deviceId != null) {
+            data.addProperty("deviceId", deviceId);
+        }
+        data.addProperty("status", "ONLINE");
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.add("data", data);
+        return response;
+    }
+}
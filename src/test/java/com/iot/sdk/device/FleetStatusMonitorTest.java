@@ -0,0 +1,232 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.Latency;
+import com.iot.sdk.mock.MockPlatform;
+import com.iot.sdk.model.DeviceState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetStatusMonitorTest {
+
+    @Test
+    void synchronouslyFailingPagesDoNotOverflowTheStack() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            names.add("device-" + i);
+        }
+        try (IoTClient client = TestClients.rejectingClient("/api/v1/quickdevice/batchGetDeviceState")) {
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+            try (FleetStatusMonitor monitor = FleetStatusMonitor.builder(deviceManager)
+                    .interval(1, TimeUnit.HOURS)
+                    .jitter(0, TimeUnit.MILLISECONDS)
+                    .maxInFlight(1)
+                    .build()) {
+                assertEquals(100_000, monitor.registerAll(names));
+                monitor.start();
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (monitor.getSweepCount() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+
+                assertEquals(1, monitor.getSweepCount());
+                assertEquals(1000, monitor.getFailedPageCount());
+            }
+        }
+    }
+
+    @Test
+    void defaultJitterFitsShortIntervals() {
+        try (IoTClient client = TestClients.rejectingClient()) {
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+
+            FleetStatusMonitor.builder(deviceManager).interval(1, TimeUnit.SECONDS).build().close();
+            FleetStatusMonitor.builder(deviceManager).interval(1, TimeUnit.MILLISECONDS).build().close();
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> FleetStatusMonitor.builder(deviceManager)
+                            .interval(1, TimeUnit.SECONDS)
+                            .jitter(1, TimeUnit.SECONDS)
+                            .build());
+            assertTrue(e.getMessage().contains("抖动"));
+        }
+    }
+
+    @Test
+    void onlyStateChangesAreReported() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder().port(0).permanentToken("test-token").start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            List<String> names = addOnlineDevices(platform, 150);
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+            List<StatusChangeEvent> events = new CopyOnWriteArrayList<>();
+            try (FleetStatusMonitor monitor = FleetStatusMonitor.builder(deviceManager)
+                    .interval(50, TimeUnit.MILLISECONDS)
+                    .jitter(0, TimeUnit.MILLISECONDS)
+                    .build()) {
+                monitor.addListener(events::add);
+                monitor.registerAll(names);
+                monitor.start();
+
+                awaitSweeps(monitor, 1);
+                assertTrue(events.isEmpty());
+                assertEquals(DeviceState.ONLINE, monitor.getStatus("device-5").getState());
+
+                platform.getDevices().get("device-5").setState(com.iot.sdk.mock.DeviceState.OFFLINE);
+                platform.getDevices().get("device-120").setState(com.iot.sdk.mock.DeviceState.OFFLINE);
+                // 变更时可能有一轮已经在途，再等两轮保证有一轮完整观测到变更
+                awaitSweeps(monitor, monitor.getSweepCount() + 2);
+                awaitSweeps(monitor, monitor.getSweepCount() + 1);
+
+                assertEquals(2, events.size());
+                Map<String, StatusChangeEvent> byName = new HashMap<>();
+                for (StatusChangeEvent event : events) {
+                    byName.put(event.getDeviceName(), event);
+                }
+                for (String deviceName : new String[]{"device-5", "device-120"}) {
+                    StatusChangeEvent event = byName.get(deviceName);
+                    assertEquals(DeviceState.ONLINE, event.getPreviousState());
+                    assertEquals(DeviceState.OFFLINE, event.getCurrentState());
+                }
+                assertEquals(2, monitor.getChangeCount());
+                assertEquals(DeviceState.OFFLINE, monitor.getStatus("device-120").getState());
+                assertEquals(0, monitor.getFailedPageCount());
+            }
+        }
+    }
+
+    @Test
+    void initialStateIsReportedFromUnknownWhenEnabled() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder().port(0).permanentToken("test-token").start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            List<String> names = addOnlineDevices(platform, 3);
+            platform.getDevices().get("device-2").setState(com.iot.sdk.mock.DeviceState.OFFLINE);
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+            List<StatusChangeEvent> events = new CopyOnWriteArrayList<>();
+            try (FleetStatusMonitor monitor = FleetStatusMonitor.builder(deviceManager)
+                    .interval(1, TimeUnit.HOURS)
+                    .jitter(0, TimeUnit.MILLISECONDS)
+                    .emitInitialState(true)
+                    .build()) {
+                monitor.addListener(events::add);
+                monitor.registerAll(names);
+                monitor.start();
+                awaitSweeps(monitor, 1);
+
+                assertEquals(3, events.size());
+                for (StatusChangeEvent event : events) {
+                    assertEquals(DeviceState.UNKNOWN, event.getPreviousState());
+                    DeviceState expected = event.getDeviceName().equals("device-2") ? DeviceState.OFFLINE : DeviceState.ONLINE;
+                    assertEquals(expected, event.getCurrentState());
+                }
+            }
+        }
+    }
+
+    @Test
+    void devicesUnregisteredDuringASweepAreNotUpdated() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.BATCH_STATUS, Latency.fixed(200, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            List<String> names = addOnlineDevices(platform, 3);
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+            List<StatusChangeEvent> events = new CopyOnWriteArrayList<>();
+            try (FleetStatusMonitor monitor = FleetStatusMonitor.builder(deviceManager)
+                    .interval(1, TimeUnit.HOURS)
+                    .jitter(0, TimeUnit.MILLISECONDS)
+                    .emitInitialState(true)
+                    .build()) {
+                monitor.addListener(events::add);
+                monitor.registerAll(names);
+                monitor.start();
+
+                // 请求已到达平台、响应尚未返回时取消监控
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (platform.getRequestCount(Endpoint.BATCH_STATUS) == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+                assertEquals(0, monitor.getSweepCount());
+                assertTrue(monitor.unregister("device-1"));
+                awaitSweeps(monitor, 1);
+
+                assertEquals(2, monitor.getDeviceCount());
+                assertNull(monitor.getStatus("device-1"));
+                assertEquals(2, events.size());
+                for (StatusChangeEvent event : events) {
+                    assertFalse(event.getDeviceName().equals("device-1"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void deletingFromTheIndexKeepsProbeChainsIntact() {
+        try (IoTClient client = TestClients.rejectingClient()) {
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+            try (FleetStatusMonitor monitor = FleetStatusMonitor.builder(deviceManager).build()) {
+                List<String> names = new ArrayList<>();
+                for (int i = 0; i < 5000; i++) {
+                    names.add("device-" + i);
+                }
+                assertEquals(5000, monitor.registerAll(names));
+
+                // 删除会在探测链中留下空位，反向移位后其余设备仍应可查找
+                for (int i = 0; i < 5000; i += 3) {
+                    assertTrue(monitor.unregister(names.get(i)));
+                }
+                for (int i = 0; i < 5000; i++) {
+                    if (i % 3 == 0) {
+                        assertFalse(monitor.unregister(names.get(i)), names.get(i));
+                    } else {
+                        assertFalse(monitor.register(names.get(i)), names.get(i));
+                    }
+                }
+                assertEquals(3333, monitor.getDeviceCount());
+
+                // 重新注册复用空闲槽位
+                for (int i = 0; i < 5000; i += 3) {
+                    assertTrue(monitor.register(names.get(i)));
+                }
+                assertEquals(5000, monitor.getDeviceCount());
+                for (String name : names) {
+                    assertFalse(monitor.register(name), name);
+                }
+            }
+        }
+    }
+
+    private static List<String> addOnlineDevices(MockPlatform platform, int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            platform.getDevices().add("mock-product", "device-" + i, com.iot.sdk.mock.DeviceState.ONLINE);
+            names.add("device-" + i);
+        }
+        return names;
+    }
+
+    private static void awaitSweeps(FleetStatusMonitor monitor, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (monitor.getSweepCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(monitor.getSweepCount() >= count, "轮询轮数: " + monitor.getSweepCount());
+    }
+}
@@ -0,0 +1,116 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonElement;
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.CircuitBreakerOpenException;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.Latency;
+import com.iot.sdk.mock.MockPlatform;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetStatusQueryTest {
+
+    @Test
+    void synchronouslyFailingPagesDoNotOverflowTheStack() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            names.add("device-" + i);
+        }
+        try (IoTClient client = TestClients.rejectingClient("/api/v1/quickdevice/batchGetDeviceState")) {
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+
+            FleetStatusResult result = deviceManager.getFleetStatusAsync(names, null, 4, null)
+                    .get(30, TimeUnit.SECONDS);
+
+            assertEquals(2000, result.getPageCount());
+            assertEquals(2000, result.getFailures().size());
+            assertInstanceOf(CircuitBreakerOpenException.class, result.getFailures().get(0).getCause());
+        }
+    }
+
+    @Test
+    void pagesByNameAndIdAreMergedWithinTheInFlightCap() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.BATCH_STATUS, Latency.fixed(50, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            platform.getDevices().populate("mock-product", "device-", 270);
+            // 前150个按设备编码查询(2页)，其余120个按设备ID查询(2页)
+            List<String> names = new ArrayList<>();
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 270; i++) {
+                if (i < 150) {
+                    names.add("device-" + i);
+                } else {
+                    ids.add(platform.getDevices().get("device-" + i).getDeviceId());
+                }
+            }
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+
+            FleetStatusResult result = deviceManager.getFleetStatusAsync(names, ids, 3, null)
+                    .get(30, TimeUnit.SECONDS);
+
+            assertTrue(result.isComplete());
+            assertEquals(4, result.getPageCount());
+            assertEquals(270, result.getDevices().size());
+            assertEquals(4, platform.getRequestCount(Endpoint.BATCH_STATUS));
+            assertEquals(3, platform.getMaxInFlight(Endpoint.BATCH_STATUS));
+        }
+    }
+
+    @Test
+    void failedPageKeepsTheOtherPages() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.BATCH_STATUS, Latency.fixed(50, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            platform.getDevices().populate("mock-product", "device-", 250);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                names.add("device-" + i);
+            }
+            // 第2页(device-100 ~ device-199)失败
+            platform.failRequests(Endpoint.BATCH_STATUS, request -> {
+                for (JsonElement name : request.getAsJsonArray("deviceName")) {
+                    if ("device-100".equals(name.getAsString())) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+
+            FleetStatusResult result = deviceManager.getFleetStatusAsync(names, null, 2, null)
+                    .get(30, TimeUnit.SECONDS);
+
+            assertFalse(result.isComplete());
+            assertEquals(3, result.getPageCount());
+            assertEquals(150, result.getDevices().size());
+            assertTrue(result.getDevices().containsKey("device-0"));
+            assertTrue(result.getDevices().containsKey("device-249"));
+            assertNull(result.getDevices().get("device-150"));
+
+            assertEquals(1, result.getFailures().size());
+            FleetStatusResult.PageFailure failure = result.getFailures().get(0);
+            assertEquals(names.subList(100, 200), failure.getDeviceNames());
+            assertEquals("模拟的平台错误", failure.getErrorMessage());
+            assertEquals(2, platform.getMaxInFlight(Endpoint.BATCH_STATUS));
+        }
+    }
+}
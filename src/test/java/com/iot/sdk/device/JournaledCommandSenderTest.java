@@ -0,0 +1,110 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.iot.sdk.client.HttpStatusException;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournaledCommandSenderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unretryableFailuresAreAcknowledgedAndDoNotBlockLaterCommands() throws Exception {
+        List<Exception> rejections = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        try (IoTClient client = TestClients.rejectingClient();
+             CommandJournal journal = CommandJournal.builder(directory).segmentSize(4096).open()) {
+            DeviceManager deviceManager = new DeviceManager(client) {
+                @Override
+                JsonObject deliverCustomCommand(String deviceName, String messageContent) throws IOException {
+                    if ("bad-request".equals(deviceName)) {
+                        throw new HttpStatusException(400, "Bad Request");
+                    }
+                    if ("bad-body".equals(deviceName)) {
+                        throw new JsonSyntaxException("not json");
+                    }
+                    return new JsonObject();
+                }
+            };
+            journal.appendCustomCommand("bad-request", "{}");
+            journal.appendCustomCommand("bad-body", "{}");
+            journal.appendCustomCommand("device-1", "{}");
+
+            try (JournaledCommandSender sender = JournaledCommandSender.builder(deviceManager, journal)
+                    .backoff(10, 10, TimeUnit.MILLISECONDS)
+                    .listener(new JournaledCommandSender.DeliveryListener() {
+                        @Override
+                        public void onDelivered(JournaledCommand command, JsonObject response) {
+                            delivered.countDown();
+                        }
+
+                        @Override
+                        public void onRejected(JournaledCommand command, Exception error) {
+                            rejections.add(error);
+                        }
+                    })
+                    .build()) {
+                sender.start();
+
+                assertTrue(delivered.await(5, TimeUnit.SECONDS));
+                assertEquals(2, sender.getRejectedCount());
+                assertEquals(0, sender.getTransientFailureCount());
+                assertEquals(0, sender.getPendingCount());
+            }
+            assertInstanceOf(HttpStatusException.class, rejections.get(0));
+            assertInstanceOf(JsonSyntaxException.class, rejections.get(1));
+        }
+    }
+
+    @Test
+    void serverErrorsAndThrottlingAreRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(1);
+        try (IoTClient client = TestClients.rejectingClient();
+             CommandJournal journal = CommandJournal.builder(directory).segmentSize(4096).open()) {
+            DeviceManager deviceManager = new DeviceManager(client) {
+                @Override
+                JsonObject deliverCustomCommand(String deviceName, String messageContent) throws IOException {
+                    switch (calls.incrementAndGet()) {
+                        case 1:
+                            throw new HttpStatusException(503, "Service Unavailable");
+                        case 2:
+                            throw new HttpStatusException(429, "Too Many Requests");
+                        default:
+                            return new JsonObject();
+                    }
+                }
+            };
+            journal.appendCustomCommand("device-1", "{}");
+
+            try (JournaledCommandSender sender = JournaledCommandSender.builder(deviceManager, journal)
+                    .backoff(10, 10, TimeUnit.MILLISECONDS)
+                    .listener((command, response) -> delivered.countDown())
+                    .build()) {
+                sender.start();
+
+                assertTrue(delivered.await(5, TimeUnit.SECONDS));
+                assertEquals(2, sender.getTransientFailureCount());
+                assertEquals(0, sender.getRejectedCount());
+                assertEquals(0, sender.getPendingCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.iot.sdk.device;
+
+import com.google.gson.JsonObject;
+import com.iot.sdk.client.RequestPayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+    private static final String ENDPOINT = "/api/v1/quickdevice/status";
+    private static final RequestPayload PAYLOAD = DeviceRequests.deviceKey("device-1", null);
+
+    @Test
+    void leaderErrorReleasesFollowersAndInFlightEntry() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<JsonObject> leader = threads.submit(() -> coalescer.execute(ENDPOINT, JsonObject.class, PAYLOAD,
+                    JsonObject::deepCopy, () -> {
+                        leaderStarted.countDown();
+                        awaitUninterruptibly(release);
+                        throw new StackOverflowError("leader failed");
+                    }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<JsonObject> follower = threads.submit(() -> coalescer.execute(ENDPOINT, JsonObject.class, PAYLOAD,
+                    JsonObject::deepCopy, JsonObject::new));
+            while (coalescer.getCoalescedCount() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertTrue(assertThrows(ExecutionException.class,
+                    () -> leader.get(5, TimeUnit.SECONDS)).getCause() instanceof StackOverflowError);
+            assertTrue(assertThrows(ExecutionException.class,
+                    () -> follower.get(5, TimeUnit.SECONDS)).getCause() instanceof StackOverflowError);
+
+            JsonObject fresh = coalescer.execute(ENDPOINT, JsonObject.class, PAYLOAD, JsonObject::deepCopy,
+                    JsonObject::new);
+            assertEquals(0, fresh.size());
+            assertEquals(2, coalescer.getExecutedCount());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void leaderReceivesCopyOfSharedResult() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        JsonObject shared = new JsonObject();
+        shared.addProperty("status", "ONLINE");
+
+        JsonObject syncResult = coalescer.execute(ENDPOINT, JsonObject.class, PAYLOAD, JsonObject::deepCopy,
+                () -> shared);
+        assertNotSame(shared, syncResult);
+        assertEquals(shared, syncResult);
+
+        CompletableFuture<JsonObject> source = new CompletableFuture<>();
+        CompletableFuture<JsonObject> leader = coalescer.executeAsync(ENDPOINT, JsonObject.class, PAYLOAD,
+                JsonObject::deepCopy, null, () -> source);
+        CompletableFuture<JsonObject> follower = coalescer.executeAsync(ENDPOINT, JsonObject.class, PAYLOAD,
+                JsonObject::deepCopy, null, () -> {
+                    throw new AssertionError("follower must not execute");
+                });
+        source.complete(shared);
+
+        assertNotSame(shared, leader.get());
+        assertNotSame(shared, follower.get());
+        assertNotSame(leader.get(), follower.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
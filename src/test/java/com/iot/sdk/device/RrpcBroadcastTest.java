@@ -0,0 +1,161 @@
+package com.iot.sdk.device;
+
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.client.TestClients;
+import com.iot.sdk.mock.DeviceState;
+import com.iot.sdk.mock.Endpoint;
+import com.iot.sdk.mock.Latency;
+import com.iot.sdk.mock.MockPlatform;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RrpcBroadcastTest {
+    private static final String RRPC_ENDPOINT = "/api/v1/device/rrpc";
+
+    @Test
+    void synchronouslyFailingRequestsDoNotOverflowTheStack() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            names.add("device-" + i);
+        }
+        try (IoTClient client = TestClients.rejectingClient(RRPC_ENDPOINT)) {
+            RrpcBroadcast broadcast = RrpcBroadcast.builder(DeviceManager.builder(client).quiet(true).build())
+                    .maxInFlight(1)
+                    .build();
+
+            RrpcBroadcastResult result = broadcast.broadcastAsync("pk", names, "ping").get(30, TimeUnit.SECONDS);
+
+            assertEquals(100_000, result.getFailedCount());
+            assertEquals(0, result.getNotSentCount());
+        }
+    }
+
+    @Test
+    void devicesNotDispatchedBeforeDeadlineAreReportedAsNotSent() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext(RRPC_ENDPOINT, exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+        try (IoTClient client = IoTClient.builder("http://127.0.0.1:" + server.getAddress().getPort())
+                .token("test-token")
+                .build()) {
+            RrpcBroadcast broadcast = RrpcBroadcast.builder(DeviceManager.builder(client).quiet(true).build())
+                    .maxInFlight(1)
+                    .deadline(200, TimeUnit.MILLISECONDS)
+                    .build();
+
+            RrpcBroadcastResult result = broadcast.broadcastAsync("pk", Arrays.asList("a", "b", "c"), "ping")
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(RrpcOutcome.Status.TIMED_OUT, result.getOutcomes().get(0).getStatus());
+            assertEquals(RrpcOutcome.Status.NOT_SENT, result.getOutcomes().get(1).getStatus());
+            assertEquals(RrpcOutcome.Status.NOT_SENT, result.getOutcomes().get(2).getStatus());
+            assertEquals(1, result.getTimedOutCount());
+            assertEquals(2, result.getNotSentCount());
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void repliesAreCollectedWithLatencies() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.RRPC, Latency.fixed(50, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            List<String> names = addOnlineDevices(platform, 20);
+            List<RrpcOutcome> delivered = new CopyOnWriteArrayList<>();
+            RrpcBroadcast broadcast = RrpcBroadcast.builder(DeviceManager.builder(client).quiet(true).build())
+                    .maxInFlight(4)
+                    .listener(delivered::add)
+                    .build();
+
+            RrpcBroadcastResult result = broadcast.broadcastAsync("pk", names, "{\"cmd\":\"重启\"}")
+                    .get(10, TimeUnit.SECONDS);
+
+            assertEquals(20, result.getRepliedCount());
+            for (int i = 0; i < names.size(); i++) {
+                RrpcOutcome outcome = result.getOutcomes().get(i);
+                assertEquals(names.get(i), outcome.getDeviceName());
+                assertEquals(RrpcOutcome.Status.REPLIED, outcome.getStatus());
+                assertEquals("{\"cmd\":\"重启\"}", outcome.getReply().getPayload());
+                assertTrue(outcome.getLatencyMillis() >= 50, outcome.toString());
+            }
+            assertTrue(result.getLatencyPercentileMillis(50) >= 50);
+            assertTrue(result.getLatencyPercentileMillis(99) >= result.getLatencyPercentileMillis(50));
+            assertTrue(result.getMeanLatencyMillis() >= 50);
+            // 20个设备、4个并行通道，每个通道5轮
+            assertTrue(result.getElapsedMillis() >= 250, "耗时: " + result.getElapsedMillis());
+
+            Set<String> notified = new HashSet<>();
+            for (RrpcOutcome outcome : delivered) {
+                notified.add(outcome.getDeviceName());
+            }
+            assertEquals(20, delivered.size());
+            assertEquals(new HashSet<>(names), notified);
+            assertEquals(20, platform.getRequestCount(Endpoint.RRPC));
+        }
+    }
+
+    @Test
+    void rrpcTimeoutIsCappedAtTheRemainingDeadline() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Endpoint.RRPC, Latency.fixed(100, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            List<String> names = addOnlineDevices(platform, 3);
+            List<Long> timeouts = new CopyOnWriteArrayList<>();
+            platform.observeRequests(Endpoint.RRPC, request -> timeouts.add(request.get("timeout").getAsLong()));
+            RrpcBroadcast broadcast = RrpcBroadcast.builder(DeviceManager.builder(client).quiet(true).build())
+                    .maxInFlight(1)
+                    .rrpcTimeout(5, TimeUnit.SECONDS)
+                    .deadline(2, TimeUnit.SECONDS)
+                    .build();
+
+            RrpcBroadcastResult result = broadcast.broadcastAsync("pk", names, "ping").get(10, TimeUnit.SECONDS);
+
+            assertEquals(3, result.getRepliedCount());
+            assertEquals(3, timeouts.size());
+            assertTrue(timeouts.get(0) <= 2000, "超时: " + timeouts);
+            // 逐个发送，后发出的请求剩余时间至少少一次RRPC延迟
+            assertTrue(timeouts.get(1) <= timeouts.get(0) - 100, "超时: " + timeouts);
+            assertTrue(timeouts.get(2) <= timeouts.get(1) - 100, "超时: " + timeouts);
+        }
+    }
+
+    private static List<String> addOnlineDevices(MockPlatform platform, int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            platform.getDevices().add("pk", "device-" + i, DeviceState.ONLINE);
+            names.add("device-" + i);
+        }
+        return names;
+    }
+}
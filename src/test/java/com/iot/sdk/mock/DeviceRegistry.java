@@ -0,0 +1,105 @@
+package com.iot.sdk.mock;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平台替身的内存设备表，按设备编码和设备ID索引
+ */
+public class DeviceRegistry {
+    private final ConcurrentMap<String, MockDevice> byName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MockDevice> byId = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    /**
+     * 注册设备
+     *
+     * @param productKey 产品密钥
+     * @param deviceName 设备编码，为null时自动生成
+     * @param nickName   设备名称，可为null
+     * @return 新设备，设备编码已存在时返回null
+     */
+    public MockDevice register(String productKey, String deviceName, String nickName) {
+        return add(productKey, deviceName, nickName, DeviceState.UNACTIVE);
+    }
+
+    /**
+     * 添加指定状态的设备，用于预置测试数据
+     *
+     * @param productKey 产品密钥
+     * @param deviceName 设备编码，为null时自动生成
+     * @param state      在线状态
+     * @return 新设备，设备编码已存在时返回null
+     */
+    public MockDevice add(String productKey, String deviceName, DeviceState state) {
+        return add(productKey, deviceName, null, state);
+    }
+
+    /**
+     * 批量添加设备，设备编码为 前缀+序号(从0开始)，状态按在线、离线、未激活循环分配
+     *
+     * @param productKey 产品密钥
+     * @param prefix     设备编码前缀
+     * @param count      设备数
+     */
+    public void populate(String productKey, String prefix, int count) {
+        DeviceState[] states = DeviceState.values();
+        for (int i = 0; i < count; i++) {
+            add(productKey, prefix + i, null, states[i % states.length]);
+        }
+    }
+
+    private MockDevice add(String productKey, String deviceName, String nickName, DeviceState state) {
+        long sequence = idSequence.incrementAndGet();
+        String name = deviceName != null && !deviceName.isEmpty() ? deviceName : "mock-device-" + sequence;
+        MockDevice device = new MockDevice(productKey, name, "id-" + sequence,
+                UUID.randomUUID().toString().replace("-", ""), nickName, state);
+        if (byName.putIfAbsent(name, device) != null) {
+            return null;
+        }
+        byId.put(device.getDeviceId(), device);
+        return device;
+    }
+
+    /**
+     * @param deviceName 设备编码
+     * @return 设备，不存在时返回null
+     */
+    public MockDevice get(String deviceName) {
+        return byName.get(deviceName);
+    }
+
+    /**
+     * @param deviceId 设备唯一标识
+     * @return 设备，不存在时返回null
+     */
+    public MockDevice getById(String deviceId) {
+        return byId.get(deviceId);
+    }
+
+    /**
+     * @return 全部设备
+     */
+    public Collection<MockDevice> devices() {
+        return Collections.unmodifiableCollection(byName.values());
+    }
+
+    /**
+     * @return 设备数
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    /**
+     * 删除全部设备
+     */
+    public void clear() {
+        byName.clear();
+        byId.clear();
+    }
+}
@@ -0,0 +1,19 @@
+package com.iot.sdk.mock;
+
+/**
+ * 设备在线状态，与平台返回的状态值一致
+ */
+public enum DeviceState {
+    /**
+     * 在线
+     */
+    ONLINE,
+    /**
+     * 离线
+     */
+    OFFLINE,
+    /**
+     * 未激活
+     */
+    UNACTIVE
+}
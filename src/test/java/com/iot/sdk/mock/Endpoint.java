@@ -0,0 +1,63 @@
+package com.iot.sdk.mock;
+
+/**
+ * 平台替身实现的接口
+ */
+public enum Endpoint {
+    /**
+     * 获取token
+     */
+    AUTH("/api/v1/oauth/auth"),
+    /**
+     * 设备注册
+     */
+    REGISTER("/api/v1/quickdevice/register"),
+    /**
+     * 设备详情
+     */
+    DETAIL("/api/v1/quickdevice/detail"),
+    /**
+     * 设备状态
+     */
+    STATUS("/api/v1/quickdevice/status"),
+    /**
+     * 批量设备状态
+     */
+    BATCH_STATUS("/api/v1/quickdevice/batchGetDeviceState"),
+    /**
+     * RRPC消息
+     */
+    RRPC("/api/v1/device/rrpc"),
+    /**
+     * 自定义指令
+     */
+    CUSTOM_COMMAND("/api/v1/device/down/record/add/custom");
+
+    private final String path;
+
+    Endpoint(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return 接口路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 按路径查找接口
+     *
+     * @param path 请求路径
+     * @return 接口，未知路径返回null
+     */
+    public static Endpoint forPath(String path) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.path.equals(path)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.iot.sdk.mock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注入的响应延迟分布
+ * 每次请求抽取一个延迟，到期后由调度线程写出响应，不占用处理线程
+ */
+@FunctionalInterface
+public interface Latency {
+    /**
+     * 不注入延迟
+     */
+    Latency NONE = () -> 0;
+
+    /**
+     * 抽取一次延迟
+     *
+     * @return 延迟(微秒)，小于等于0时立即响应
+     */
+    long sampleMicros();
+
+    /**
+     * 固定延迟
+     *
+     * @param delay 延迟
+     * @param unit  时间单位
+     * @return 延迟分布
+     */
+    static Latency fixed(long delay, TimeUnit unit) {
+        long micros = unit.toMicros(delay);
+        return () -> micros;
+    }
+
+    /**
+     * 均匀分布的延迟
+     *
+     * @param min  最小延迟
+     * @param max  最大延迟
+     * @param unit 时间单位
+     * @return 延迟分布
+     */
+    static Latency uniform(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("无效的延迟范围");
+        }
+        long minMicros = unit.toMicros(min);
+        long maxMicros = unit.toMicros(max);
+        return () -> minMicros == maxMicros ? minMicros
+                : ThreadLocalRandom.current().nextLong(minMicros, maxMicros + 1);
+    }
+
+    /**
+     * 对数正态分布的延迟，按中位数和p99描述，近似真实服务的长尾
+     *
+     * @param median 中位数
+     * @param p99    99分位
+     * @param unit   时间单位
+     * @return 延迟分布
+     */
+    static Latency logNormal(long median, long p99, TimeUnit unit) {
+        if (median <= 0 || p99 < median) {
+            throw new IllegalArgumentException("无效的延迟分布参数");
+        }
+        double mu = Math.log(unit.toMicros(median));
+        // 标准正态分布的99分位约为2.326
+        double sigma = (Math.log(unit.toMicros(p99)) - mu) / 2.326;
+        return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+
+    /**
+     * 以一定概率叠加额外延迟，模拟偶发的慢请求
+     *
+     * @param probability 概率(0~1)
+     * @param extra       额外延迟
+     * @param unit        时间单位
+     * @return 延迟分布
+     */
+    default Latency withSpikes(double probability, long extra, TimeUnit unit) {
+        long extraMicros = unit.toMicros(extra);
+        return () -> sampleMicros() + (ThreadLocalRandom.current().nextDouble() < probability ? extraMicros : 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.iot.sdk.mock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平台替身中的一个设备
+ * 状态可在运行中修改，修改时更新状态时间戳
+ */
+public class MockDevice {
+    private final String productKey;
+    private final String deviceName;
+    private final String deviceId;
+    private final String deviceSecret;
+    private final String nickName;
+    private volatile DeviceState state;
+    private volatile long stateTimestamp;
+    private final AtomicLong rrpcCount = new AtomicLong();
+    private final AtomicLong commandCount = new AtomicLong();
+
+    MockDevice(String productKey, String deviceName, String deviceId, String deviceSecret, String nickName,
+               DeviceState state) {
+        this.productKey = productKey;
+        this.deviceName = deviceName;
+        this.deviceId = deviceId;
+        this.deviceSecret = deviceSecret;
+        this.nickName = nickName;
+        this.state = state;
+        this.stateTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * @return 产品密钥
+     */
+    public String getProductKey() {
+        return productKey;
+    }
+
+    /**
+     * @return 设备编码
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return 设备唯一标识
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return 设备密钥
+     */
+    public String getDeviceSecret() {
+        return deviceSecret;
+    }
+
+    /**
+     * @return 设备名称，可能为null
+     */
+    public String getNickName() {
+        return nickName;
+    }
+
+    /**
+     * @return 在线状态
+     */
+    public DeviceState getState() {
+        return state;
+    }
+
+    /**
+     * @return 最近一次状态变化的时间戳(毫秒)
+     */
+    public long getStateTimestamp() {
+        return stateTimestamp;
+    }
+
+    /**
+     * 修改在线状态
+     *
+     * @param state 在线状态
+     */
+    public void setState(DeviceState state) {
+        if (state == null) {
+            throw new IllegalArgumentException("设备状态不能为空");
+        }
+        if (this.state != state) {
+            this.stateTimestamp = System.currentTimeMillis();
+            this.state = state;
+        }
+    }
+
+    /**
+     * 修改在线状态并指定状态变化的时间，用于模拟已离线较长时间的设备
+     *
+     * @param state     在线状态
+     * @param timestamp 状态变化的时间戳(毫秒)
+     */
+    public void setState(DeviceState state, long timestamp) {
+        if (state == null) {
+            throw new IllegalArgumentException("设备状态不能为空");
+        }
+        this.stateTimestamp = timestamp;
+        this.state = state;
+    }
+
+    /**
+     * @return 收到的RRPC消息数
+     */
+    public long getRrpcCount() {
+        return rrpcCount.get();
+    }
+
+    /**
+     * @return 收到的自定义指令数
+     */
+    public long getCommandCount() {
+        return commandCount.get();
+    }
+
+    long recordRrpc() {
+        return rrpcCount.incrementAndGet();
+    }
+
+    long recordCommand() {
+        return commandCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,754 @@
+package com.iot.sdk.mock;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * IoT平台替身
+ * 在本机启动HTTP服务，实现SDK使用的全部接口，设备数据保存在内存中。
+ * 可为每个接口注入延迟分布、平台错误率(success=false)和HTTP 500错误率，token按有效期过期，也可随时使全部token失效。
+ * 延迟到期后由调度线程写出响应，处理线程不会因注入的延迟而阻塞，适合作为压测目标。
+ * <p>
+ * 未配置应用凭证时接受任意appId/appSecret。开启自动建档时，查询不存在的设备编码会创建一个在线设备，
+ * 便于用任意设备编码压测。
+ */
+public class MockPlatform implements AutoCloseable {
+    static {
+        // 关闭Nagle算法，否则保持连接上的小响应会等待对端的延迟确认，客户端看到的延迟比注入的延迟多约40毫秒
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String ENDPOINT_ATTRIBUTE = MockPlatform.class.getName() + ".endpoint";
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledThreadPoolExecutor delayer;
+    private final DeviceRegistry devices;
+    private final TokenStore tokens;
+    private final Map<String, String> credentials;
+    private final String autoCreateProductKey;
+    private final Gson gson = new Gson();
+    private final AtomicLong recordSequence = new AtomicLong();
+    private final Map<Endpoint, LongAdder> requestCounts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> injectedErrorCounts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicInteger> inFlightCounts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicInteger> maxInFlightCounts = new EnumMap<>(Endpoint.class);
+    private final LongAdder authFailureCount = new LongAdder();
+    private volatile Map<Endpoint, Latency> latencies;
+    private volatile Map<Endpoint, Predicate<JsonObject>> failures = new EnumMap<>(Endpoint.class);
+    private volatile Map<Endpoint, Consumer<JsonObject>> observers = new EnumMap<>(Endpoint.class);
+    private volatile Latency defaultLatency;
+    private volatile double errorRate;
+    private volatile double httpErrorRate;
+
+    private MockPlatform(Builder builder) throws IOException {
+        this.devices = new DeviceRegistry();
+        this.tokens = new TokenStore(builder.tokenTtlMillis);
+        for (String token : builder.permanentTokens) {
+            tokens.addPermanent(token);
+        }
+        this.credentials = new HashMap<>(builder.credentials);
+        this.autoCreateProductKey = builder.autoCreateProductKey;
+        this.defaultLatency = builder.defaultLatency;
+        this.latencies = new EnumMap<>(builder.latencies);
+        this.errorRate = builder.errorRate;
+        this.httpErrorRate = builder.httpErrorRate;
+        for (Endpoint endpoint : Endpoint.values()) {
+            requestCounts.put(endpoint, new LongAdder());
+            inFlightCounts.put(endpoint, new AtomicInteger());
+            maxInFlightCounts.put(endpoint, new AtomicInteger());
+            injectedErrorCounts.put(endpoint, new LongAdder());
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(builder.workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "mock-platform-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.delayer = new ScheduledThreadPoolExecutor(builder.delayThreads, runnable -> {
+            Thread thread = new Thread(runnable, "mock-platform-delay-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        InetAddress address = builder.host != null ? InetAddress.getByName(builder.host) : InetAddress.getLoopbackAddress();
+        this.server = HttpServer.create(new InetSocketAddress(address, builder.port), builder.backlog);
+        server.createContext("/", this::handle);
+        server.setExecutor(workers);
+        server.start();
+    }
+
+    /**
+     * 创建平台替身构建器
+     *
+     * @return 构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 服务地址，可直接作为SDK的baseUrl
+     */
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        String host = address.getAddress().getHostAddress();
+        if (address.getAddress() instanceof Inet6Address) {
+            host = "[" + host + "]";
+        }
+        return "http://" + host + ":" + address.getPort();
+    }
+
+    /**
+     * @return 监听端口
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return 设备表，可预置或修改设备
+     */
+    public DeviceRegistry getDevices() {
+        return devices;
+    }
+
+    /**
+     * 使全部已签发的token立即失效，预置的token除外
+     */
+    public void expireTokens() {
+        tokens.expireAll();
+    }
+
+    /**
+     * 设置全部接口的默认延迟分布
+     *
+     * @param latency 延迟分布
+     */
+    public void setLatency(Latency latency) {
+        this.defaultLatency = latency != null ? latency : Latency.NONE;
+    }
+
+    /**
+     * 设置单个接口的延迟分布
+     *
+     * @param endpoint 接口
+     * @param latency  延迟分布，为null时使用默认延迟
+     */
+    public synchronized void setLatency(Endpoint endpoint, Latency latency) {
+        // 写时复制，请求处理时无锁读取
+        Map<Endpoint, Latency> updated = new EnumMap<>(latencies);
+        if (latency != null) {
+            updated.put(endpoint, latency);
+        } else {
+            updated.remove(endpoint);
+        }
+        latencies = updated;
+    }
+
+    /**
+     * 设置平台错误率，命中时返回 success=false
+     *
+     * @param errorRate 错误率(0~1)
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = checkRate(errorRate);
+    }
+
+    /**
+     * 设置HTTP错误率，命中时返回HTTP 500
+     *
+     * @param httpErrorRate 错误率(0~1)
+     */
+    public void setHttpErrorRate(double httpErrorRate) {
+        this.httpErrorRate = checkRate(httpErrorRate);
+    }
+
+    /**
+     * 使满足条件的请求返回平台错误(success=false)，不受错误率影响，用于让指定请求确定地失败
+     *
+     * @param endpoint  接口
+     * @param condition 请求体判断条件，为null时取消
+     */
+    public synchronized void failRequests(Endpoint endpoint, Predicate<JsonObject> condition) {
+        Map<Endpoint, Predicate<JsonObject>> updated = new EnumMap<>(failures);
+        if (condition != null) {
+            updated.put(endpoint, condition);
+        } else {
+            updated.remove(endpoint);
+        }
+        failures = updated;
+    }
+
+    /**
+     * 在处理线程上把收到的请求体交给观察者，用于核对客户端发出的参数
+     *
+     * @param endpoint 接口
+     * @param observer 观察者，为null时取消
+     */
+    public synchronized void observeRequests(Endpoint endpoint, Consumer<JsonObject> observer) {
+        Map<Endpoint, Consumer<JsonObject>> updated = new EnumMap<>(observers);
+        if (observer != null) {
+            updated.put(endpoint, observer);
+        } else {
+            updated.remove(endpoint);
+        }
+        observers = updated;
+    }
+
+    /**
+     * @param endpoint 接口
+     * @return 收到的请求数
+     */
+    public long getRequestCount(Endpoint endpoint) {
+        return requestCounts.get(endpoint).sum();
+    }
+
+    /**
+     * @param endpoint 接口
+     * @return 注入的错误数(平台错误和HTTP错误)
+     */
+    public long getInjectedErrorCount(Endpoint endpoint) {
+        return injectedErrorCounts.get(endpoint).sum();
+    }
+
+    /**
+     * @param endpoint 接口
+     * @return 同时处理中(已收到、响应未写出)的请求数峰值
+     */
+    public int getMaxInFlight(Endpoint endpoint) {
+        return maxInFlightCounts.get(endpoint).get();
+    }
+
+    /**
+     * @return 因token无效或过期被拒绝的请求数
+     */
+    public long getAuthFailureCount() {
+        return authFailureCount.sum();
+    }
+
+    /**
+     * 停止服务
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        delayer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            Endpoint endpoint = Endpoint.forPath(exchange.getRequestURI().getPath());
+            byte[] body = readBody(exchange);
+            if (endpoint == null) {
+                send(exchange, 404, error("接口不存在"));
+                return;
+            }
+            requestCounts.get(endpoint).increment();
+            enter(exchange, endpoint);
+
+            JsonObject request;
+            try {
+                JsonElement parsed = body.length > 0
+                        ? JsonParser.parseString(new String(body, StandardCharsets.UTF_8)) : new JsonObject();
+                request = parsed.isJsonObject() ? parsed.getAsJsonObject() : new JsonObject();
+            } catch (JsonParseException e) {
+                send(exchange, 400, error("请求体不是有效的JSON"));
+                return;
+            }
+            Consumer<JsonObject> observer = observers.get(endpoint);
+            if (observer != null) {
+                observer.accept(request);
+            }
+
+            if (endpoint != Endpoint.AUTH && !tokens.isValid(exchange.getRequestHeaders().getFirst("token"))) {
+                authFailureCount.increment();
+                JsonObject response = error("token无效或已过期");
+                response.addProperty("code", "401");
+                respond(exchange, 401, response, sampleLatency(endpoint));
+                return;
+            }
+
+            Predicate<JsonObject> failure = failures.get(endpoint);
+            if (failure != null && failure.test(request)) {
+                injectedErrorCounts.get(endpoint).increment();
+                respond(exchange, 200, error("模拟的平台错误"), sampleLatency(endpoint));
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (httpErrorRate > 0 && random.nextDouble() < httpErrorRate) {
+                injectedErrorCounts.get(endpoint).increment();
+                respond(exchange, 500, error("模拟的服务端错误"), sampleLatency(endpoint));
+                return;
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                injectedErrorCounts.get(endpoint).increment();
+                respond(exchange, 200, error("模拟的平台错误"), sampleLatency(endpoint));
+                return;
+            }
+
+            long latencyMicros = sampleLatency(endpoint);
+            if (endpoint == Endpoint.RRPC) {
+                long timeoutMillis = request.has("timeout") ? request.get("timeout").getAsLong() : 5000;
+                if (timeoutMillis > 0 && latencyMicros > TimeUnit.MILLISECONDS.toMicros(timeoutMillis)) {
+                    // 设备未在超时时间内响应
+                    respond(exchange, 200, error("RRPC调用超时"), TimeUnit.MILLISECONDS.toMicros(timeoutMillis));
+                    return;
+                }
+            }
+            respond(exchange, 200, dispatch(endpoint, request), latencyMicros);
+        } catch (RuntimeException e) {
+            send(exchange, 500, error("处理请求失败: " + e.getMessage()));
+        }
+    }
+
+    private JsonObject dispatch(Endpoint endpoint, JsonObject request) {
+        switch (endpoint) {
+            case AUTH:
+                return auth(request);
+            case REGISTER:
+                return register(request);
+            case DETAIL:
+                return detail(request);
+            case STATUS:
+                return status(request);
+            case BATCH_STATUS:
+                return batchStatus(request);
+            case RRPC:
+                return rrpc(request);
+            case CUSTOM_COMMAND:
+                return customCommand(request);
+            default:
+                return error("接口不存在");
+        }
+    }
+
+    private JsonObject auth(JsonObject request) {
+        String appId = string(request, "appId");
+        String appSecret = string(request, "appSecret");
+        if (appId == null || appSecret == null
+                || (!credentials.isEmpty() && !appSecret.equals(credentials.get(appId)))) {
+            return error("应用凭证无效");
+        }
+        JsonObject response = success();
+        response.addProperty("data", tokens.issue());
+        return response;
+    }
+
+    private JsonObject register(JsonObject request) {
+        String productKey = string(request, "productKey");
+        if (productKey == null) {
+            return error("产品密钥不能为空");
+        }
+        MockDevice device = devices.register(productKey, string(request, "deviceName"), string(request, "nickName"));
+        if (device == null) {
+            return error("设备编码已存在");
+        }
+        JsonObject data = new JsonObject();
+        data.addProperty("productKey", device.getProductKey());
+        data.addProperty("deviceName", device.getDeviceName());
+        data.addProperty("nickName", device.getNickName());
+        data.addProperty("deviceId", device.getDeviceId());
+        data.addProperty("deviceSecret", device.getDeviceSecret());
+        JsonObject response = success();
+        response.add("data", data);
+        return response;
+    }
+
+    private JsonObject detail(JsonObject request) {
+        MockDevice device = lookup(string(request, "deviceName"), string(request, "deviceId"));
+        if (device == null) {
+            return error("设备不存在");
+        }
+        JsonObject data = new JsonObject();
+        data.addProperty("deviceId", device.getDeviceId());
+        data.addProperty("deviceName", device.getDeviceName());
+        data.addProperty("productKey", device.getProductKey());
+        data.addProperty("nickName", device.getNickName());
+        data.addProperty("status", device.getState().name());
+        JsonObject response = success();
+        response.add("data", data);
+        return response;
+    }
+
+    private JsonObject status(JsonObject request) {
+        MockDevice device = lookup(string(request, "deviceName"), string(request, "deviceId"));
+        if (device == null) {
+            return error("设备不存在");
+        }
+        JsonObject data = new JsonObject();
+        data.addProperty("status", device.getState().name());
+        data.addProperty("timestamp", device.getStateTimestamp());
+        JsonObject response = success();
+        response.add("data", data);
+        return response;
+    }
+
+    private JsonObject batchStatus(JsonObject request) {
+        JsonArray data = new JsonArray();
+        addStatuses(data, request.get("deviceName"), true);
+        addStatuses(data, request.get("deviceId"), false);
+        JsonObject response = success();
+        response.add("data", data);
+        return response;
+    }
+
+    private void addStatuses(JsonArray data, JsonElement keys, boolean byName) {
+        if (keys == null || !keys.isJsonArray()) {
+            return;
+        }
+        for (JsonElement key : keys.getAsJsonArray()) {
+            if (key.isJsonNull()) {
+                continue;
+            }
+            MockDevice device = byName ? lookup(key.getAsString(), null) : lookup(null, key.getAsString());
+            if (device == null) {
+                continue;
+            }
+            JsonObject status = new JsonObject();
+            status.addProperty("deviceName", device.getDeviceName());
+            status.addProperty("deviceId", device.getDeviceId());
+            status.addProperty("status", device.getState().name());
+            status.addProperty("timestamp", device.getStateTimestamp());
+            data.add(status);
+        }
+    }
+
+    private JsonObject rrpc(JsonObject request) {
+        MockDevice device = lookup(string(request, "deviceName"), null);
+        if (device == null) {
+            return error("设备不存在");
+        }
+        if (device.getState() != DeviceState.ONLINE) {
+            return error("设备不在线");
+        }
+        device.recordRrpc();
+        // 设备原样回复请求内容
+        JsonObject response = success();
+        response.addProperty("payloadBase64Byte", string(request, "requestBase64Byte"));
+        return response;
+    }
+
+    private JsonObject customCommand(JsonObject request) {
+        MockDevice device = lookup(string(request, "deviceName"), null);
+        if (device == null) {
+            return error("设备不存在");
+        }
+        device.recordCommand();
+        JsonObject data = new JsonObject();
+        data.addProperty("recordId", "record-" + recordSequence.incrementAndGet());
+        JsonObject response = success();
+        response.add("data", data);
+        return response;
+    }
+
+    private MockDevice lookup(String deviceName, String deviceId) {
+        if (deviceName != null) {
+            MockDevice device = devices.get(deviceName);
+            if (device == null && autoCreateProductKey != null) {
+                devices.add(autoCreateProductKey, deviceName, DeviceState.ONLINE);
+                device = devices.get(deviceName);
+            }
+            return device;
+        }
+        return deviceId != null ? devices.getById(deviceId) : null;
+    }
+
+    private long sampleLatency(Endpoint endpoint) {
+        Latency latency = latencies.get(endpoint);
+        return (latency != null ? latency : defaultLatency).sampleMicros();
+    }
+
+    private void respond(HttpExchange exchange, int code, JsonObject body, long delayMicros) {
+        if (delayMicros <= 0) {
+            send(exchange, code, body);
+            return;
+        }
+        delayer.schedule(() -> send(exchange, code, body), delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private void enter(HttpExchange exchange, Endpoint endpoint) {
+        exchange.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+        int inFlight = inFlightCounts.get(endpoint).incrementAndGet();
+        maxInFlightCounts.get(endpoint).accumulateAndGet(inFlight, Math::max);
+    }
+
+    private void send(HttpExchange exchange, int code, JsonObject body) {
+        // 写出响应前退出计数，客户端收到响应后发出的下一个请求不会与本请求重叠计数
+        Endpoint endpoint = (Endpoint) exchange.getAttribute(ENDPOINT_ATTRIBUTE);
+        if (endpoint != null) {
+            inFlightCounts.get(endpoint).decrementAndGet();
+        }
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // 客户端已断开
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("读取请求体失败", e);
+        }
+    }
+
+    private static String string(JsonObject request, String name) {
+        JsonElement value = request.get(name);
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        String text = value.getAsString();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static JsonObject success() {
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        return response;
+    }
+
+    private static JsonObject error(String errorMessage) {
+        JsonObject response = new JsonObject();
+        response.addProperty("success", false);
+        response.addProperty("errorMessage", errorMessage);
+        return response;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("错误率必须在0到1之间");
+        }
+        return rate;
+    }
+
+    /**
+     * 平台替身构建器
+     */
+    public static class Builder {
+        private String host;
+        private int port;
+        private int backlog = 1024;
+        private int workerThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        private int delayThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        private long tokenTtlMillis = TimeUnit.HOURS.toMillis(2);
+        private final Map<String, String> credentials = new HashMap<>();
+        private final List<String> permanentTokens = new ArrayList<>();
+        private Latency defaultLatency = Latency.NONE;
+        private final Map<Endpoint, Latency> latencies = new EnumMap<>(Endpoint.class);
+        private double errorRate;
+        private double httpErrorRate;
+        private String autoCreateProductKey;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置监听地址，默认本机回环地址
+         *
+         * @param host 主机名或IP
+         * @return 当前构建器
+         */
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * 设置监听端口，默认0(随机端口)
+         *
+         * @param port 端口
+         * @return 当前构建器
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * 设置连接等待队列长度，默认1024
+         *
+         * @param backlog 队列长度
+         * @return 当前构建器
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * 设置处理线程数，默认CPU核数的2倍
+         *
+         * @param workerThreads 线程数
+         * @return 当前构建器
+         */
+        public Builder workerThreads(int workerThreads) {
+            if (workerThreads <= 0) {
+                throw new IllegalArgumentException("线程数必须大于0");
+            }
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * 设置写出延迟响应的调度线程数，默认CPU核数的一半
+         *
+         * @param delayThreads 线程数
+         * @return 当前构建器
+         */
+        public Builder delayThreads(int delayThreads) {
+            if (delayThreads <= 0) {
+                throw new IllegalArgumentException("线程数必须大于0");
+            }
+            this.delayThreads = delayThreads;
+            return this;
+        }
+
+        /**
+         * 设置签发token的有效期，默认2小时
+         *
+         * @param ttl  有效期，小于等于0时不过期
+         * @param unit 时间单位
+         * @return 当前构建器
+         */
+        public Builder tokenTtl(long ttl, TimeUnit unit) {
+            this.tokenTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * 添加有效的应用凭证，未添加任何凭证时接受任意凭证
+         *
+         * @param appId     应用ID
+         * @param appSecret 应用密钥
+         * @return 当前构建器
+         */
+        public Builder credentials(String appId, String appSecret) {
+            credentials.put(appId, appSecret);
+            return this;
+        }
+
+        /**
+         * 预置不过期的token，供直接以token构建的客户端使用
+         *
+         * @param token token
+         * @return 当前构建器
+         */
+        public Builder permanentToken(String token) {
+            permanentTokens.add(token);
+            return this;
+        }
+
+        /**
+         * 设置全部接口的默认延迟分布，默认不注入延迟
+         *
+         * @param latency 延迟分布
+         * @return 当前构建器
+         */
+        public Builder latency(Latency latency) {
+            this.defaultLatency = latency != null ? latency : Latency.NONE;
+            return this;
+        }
+
+        /**
+         * 设置单个接口的延迟分布，RRPC接口的延迟视为设备响应时间，超过请求的超时时间时返回超时
+         *
+         * @param endpoint 接口
+         * @param latency  延迟分布
+         * @return 当前构建器
+         */
+        public Builder latency(Endpoint endpoint, Latency latency) {
+            latencies.put(endpoint, latency);
+            return this;
+        }
+
+        /**
+         * 设置平台错误率，命中时返回 success=false
+         *
+         * @param errorRate 错误率(0~1)
+         * @return 当前构建器
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = checkRate(errorRate);
+            return this;
+        }
+
+        /**
+         * 设置HTTP错误率，命中时返回HTTP 500
+         *
+         * @param httpErrorRate 错误率(0~1)
+         * @return 当前构建器
+         */
+        public Builder httpErrorRate(double httpErrorRate) {
+            this.httpErrorRate = checkRate(httpErrorRate);
+            return this;
+        }
+
+        /**
+         * 开启自动建档：按设备编码查询不存在的设备时创建一个在线设备
+         *
+         * @param productKey 自动创建设备的产品密钥
+         * @return 当前构建器
+         */
+        public Builder autoCreateDevices(String productKey) {
+            this.autoCreateProductKey = productKey;
+            return this;
+        }
+
+        /**
+         * 启动平台替身
+         *
+         * @return 已启动的平台替身
+         * @throws IOException 端口绑定失败
+         */
+        public MockPlatform start() throws IOException {
+            return new MockPlatform(this);
+        }
+    }
+}
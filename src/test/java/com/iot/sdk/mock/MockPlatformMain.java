@@ -0,0 +1,143 @@
+package com.iot.sdk.mock;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以独立进程运行平台替身，作为压测目标
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/test-classes:target/classes:$(cat target/classpath.txt)" com.iot.sdk.mock.MockPlatformMain \
+ *     --port 8080 --devices 10000 --latency-median 20 --latency-p99 200 --error-rate 0.01
+ * </pre>
+ */
+public final class MockPlatformMain {
+
+    private MockPlatformMain() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        MockPlatform.Builder builder = MockPlatform.builder().port(8080);
+        int deviceCount = 1000;
+        String prefix = "device-";
+        String productKey = "mock-product";
+        long latencyMedian = 0;
+        long latencyP99 = 0;
+        long reportSeconds = 10;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--help".equals(arg) || "-h".equals(arg)) {
+                printUsage();
+                return;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数缺少取值: " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--host":
+                    builder.host(value);
+                    break;
+                case "--port":
+                    builder.port(Integer.parseInt(value));
+                    break;
+                case "--workers":
+                    builder.workerThreads(Integer.parseInt(value));
+                    break;
+                case "--devices":
+                    deviceCount = Integer.parseInt(value);
+                    break;
+                case "--device-prefix":
+                    prefix = value;
+                    break;
+                case "--product-key":
+                    productKey = value;
+                    break;
+                case "--auto-create":
+                    if (Boolean.parseBoolean(value)) {
+                        builder.autoCreateDevices(productKey);
+                    }
+                    break;
+                case "--latency-median":
+                    latencyMedian = Long.parseLong(value);
+                    break;
+                case "--latency-p99":
+                    latencyP99 = Long.parseLong(value);
+                    break;
+                case "--error-rate":
+                    builder.errorRate(Double.parseDouble(value));
+                    break;
+                case "--http-error-rate":
+                    builder.httpErrorRate(Double.parseDouble(value));
+                    break;
+                case "--token-ttl":
+                    builder.tokenTtl(Long.parseLong(value), TimeUnit.SECONDS);
+                    break;
+                case "--credentials":
+                    int separator = value.indexOf(':');
+                    if (separator <= 0) {
+                        throw new IllegalArgumentException("凭证格式应为 appId:appSecret");
+                    }
+                    builder.credentials(value.substring(0, separator), value.substring(separator + 1));
+                    break;
+                case "--token":
+                    builder.permanentToken(value);
+                    break;
+                case "--report-interval":
+                    reportSeconds = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        if (latencyMedian > 0) {
+            builder.latency(Latency.logNormal(latencyMedian, Math.max(latencyMedian, latencyP99), TimeUnit.MILLISECONDS));
+        }
+
+        MockPlatform platform = builder.start();
+        platform.getDevices().populate(productKey, prefix, deviceCount);
+        System.out.println("平台替身已启动: " + platform.getBaseUrl() + ", 设备数: " + deviceCount);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            platform.close();
+            stopped.countDown();
+        }));
+        Map<Endpoint, Long> previous = new EnumMap<>(Endpoint.class);
+        while (!stopped.await(reportSeconds, TimeUnit.SECONDS)) {
+            StringBuilder line = new StringBuilder("请求速率(次/秒):");
+            for (Endpoint endpoint : Endpoint.values()) {
+                long count = platform.getRequestCount(endpoint);
+                long delta = count - previous.getOrDefault(endpoint, 0L);
+                previous.put(endpoint, count);
+                if (delta > 0) {
+                    line.append(' ').append(endpoint.name()).append('=').append(delta / reportSeconds);
+                }
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("用法: java -cp <测试类路径> com.iot.sdk.mock.MockPlatformMain [选项]");
+        System.out.println("  --host <地址>              监听地址，默认本机回环地址");
+        System.out.println("  --port <端口>              监听端口，默认8080");
+        System.out.println("  --workers <线程数>         处理线程数");
+        System.out.println("  --devices <数量>           预置设备数，默认1000");
+        System.out.println("  --device-prefix <前缀>     预置设备编码前缀，默认device-");
+        System.out.println("  --product-key <密钥>       预置设备的产品密钥，默认mock-product");
+        System.out.println("  --auto-create <true|false> 查询不存在的设备时自动创建");
+        System.out.println("  --latency-median <毫秒>    对数正态延迟的中位数");
+        System.out.println("  --latency-p99 <毫秒>       对数正态延迟的99分位");
+        System.out.println("  --error-rate <0~1>         平台错误率(success=false)");
+        System.out.println("  --http-error-rate <0~1>    HTTP 500错误率");
+        System.out.println("  --token-ttl <秒>           签发token的有效期，默认7200");
+        System.out.println("  --credentials <id:secret>  有效的应用凭证，可重复，未配置时接受任意凭证");
+        System.out.println("  --token <token>            预置不过期的token，可重复");
+        System.out.println("  --report-interval <秒>     请求速率输出间隔，默认10");
+    }
+}
@@ -0,0 +1,48 @@
+package com.iot.sdk.mock;
+
+import com.iot.sdk.IoTSdk;
+import com.iot.sdk.client.IoTClient;
+import com.iot.sdk.device.DeviceManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MockPlatformTest {
+    private static final long LATENCY_MILLIS = 20;
+    private static final int CALLS = 20;
+
+    @Test
+    void keepAliveCallsSeeConfiguredLatency() throws Exception {
+        try (MockPlatform platform = MockPlatform.builder()
+                .port(0)
+                .permanentToken("test-token")
+                .latency(Latency.fixed(LATENCY_MILLIS, TimeUnit.MILLISECONDS))
+                .start();
+             IoTClient client = IoTSdk.clientBuilder(platform.getBaseUrl()).token("test-token").build()) {
+            platform.getDevices().populate("mock-product", "device-", 1);
+            DeviceManager deviceManager = DeviceManager.builder(client).quiet(true).build();
+
+            // 预热，之后的调用复用同一个连接
+            for (int i = 0; i < 3; i++) {
+                deviceManager.queryDeviceStatus("device-0", null);
+            }
+            long[] elapsed = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                long start = System.nanoTime();
+                deviceManager.queryDeviceStatus("device-0", null);
+                elapsed[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            Arrays.sort(elapsed);
+            long median = elapsed[CALLS / 2];
+
+            assertTrue(elapsed[0] >= LATENCY_MILLIS, "最小延迟: " + elapsed[0]);
+            // Nagle算法与延迟确认叠加时每次调用多出约40毫秒
+            assertTrue(median < LATENCY_MILLIS + 15, "延迟中位数: " + median);
+            assertEquals(CALLS + 3, platform.getRequestCount(Endpoint.STATUS));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.iot.sdk.mock;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已签发的token及其过期时间
+ */
+final class TokenStore {
+    private final Map<String, Long> expiresAtMillis = new ConcurrentHashMap<>();
+    private final Set<String> permanent = ConcurrentHashMap.newKeySet();
+    private final long ttlMillis;
+
+    TokenStore(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    String issue() {
+        String token = "mock-" + UUID.randomUUID().toString().replace("-", "");
+        long now = System.currentTimeMillis();
+        if (ttlMillis > 0) {
+            purgeExpired(now);
+        }
+        expiresAtMillis.put(token, ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE);
+        return token;
+    }
+
+    /**
+     * 预置不过期的token，用于直接以token构建的客户端
+     */
+    void addPermanent(String token) {
+        permanent.add(token);
+    }
+
+    boolean isValid(String token) {
+        if (token == null) {
+            return false;
+        }
+        if (permanent.contains(token)) {
+            return true;
+        }
+        Long expiresAt = expiresAtMillis.get(token);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 使所有已签发的token立即失效，预置的token除外
+     */
+    void expireAll() {
+        expiresAtMillis.clear();
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = expiresAtMillis.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue() <= now) {
+                iterator.remove();
+            }
+        }
+    }
+}
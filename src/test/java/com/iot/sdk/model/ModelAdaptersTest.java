@@ -0,0 +1,174 @@
+package com.iot.sdk.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelAdaptersTest {
+    private final Gson gson = ModelAdapters.registerAll(new GsonBuilder()).create();
+
+    @Test
+    void deviceStatusMatchesTreeDecoding() throws IOException {
+        List<String> documents = Arrays.asList(
+                "{\"deviceName\":\"device-1\",\"deviceId\":\"id-1\",\"status\":\"ONLINE\",\"timestamp\":1700000000000}",
+                "{\"timestamp\":\"1700000000001\",\"status\":\"OFFLINE\",\"deviceId\":\"id-2\",\"deviceName\":\"device-2\"}",
+                "{\"deviceName\":\"device-3\"}",
+                "{\"deviceName\":null,\"deviceId\":null,\"status\":null,\"timestamp\":null}",
+                "{\"deviceName\":\"device-4\",\"status\":\"SLEEPING\",\"extra\":{\"nested\":[1,2,{\"a\":null}]},\"tags\":[]}",
+                "{\"deviceName\":\"device-5\",\"status\":\"UNACTIVE\",\"timestamp\":0}",
+                "{}");
+        for (String json : documents) {
+            DeviceStatus streamed = ModelAdapters.DEVICE_STATUS.fromJson(json);
+            assertSameStatus(treeStatus(JsonParser.parseString(json).getAsJsonObject()), streamed, json);
+            assertSameStatus(streamed, ModelAdapters.DEVICE_STATUS.fromJsonTree(JsonParser.parseString(json)), json);
+        }
+        assertEquals(DeviceState.UNKNOWN, ModelAdapters.DEVICE_STATUS.fromJson(documents.get(4)).getState());
+        assertNull(ModelAdapters.DEVICE_STATUS.fromJson("null"));
+    }
+
+    @Test
+    void deviceStatusRoundTrips() throws IOException {
+        DeviceStatus status = new DeviceStatus("设备-1", "id-1", DeviceState.OFFLINE, 1700000000000L);
+        String json = ModelAdapters.DEVICE_STATUS.toJson(status);
+        assertSameStatus(status, ModelAdapters.DEVICE_STATUS.fromJson(json), json);
+        assertSameStatus(status, gson.fromJson(gson.toJson(status), DeviceStatus.class), json);
+
+        DeviceStatus empty = new DeviceStatus(null, null, DeviceState.UNKNOWN, 0);
+        assertSameStatus(empty, ModelAdapters.DEVICE_STATUS.fromJson(ModelAdapters.DEVICE_STATUS.toJson(empty)), "empty");
+    }
+
+    @Test
+    void batchStatusAcceptsArrayOrObjectWithDevices() throws IOException {
+        String devices = "[{\"deviceName\":\"device-1\",\"status\":\"ONLINE\"},null,"
+                + "{\"deviceName\":\"device-2\",\"deviceId\":\"id-2\",\"status\":\"OFFLINE\",\"timestamp\":5},"
+                + "{\"deviceId\":\"id-3\",\"status\":\"UNACTIVE\"},{\"status\":\"???\"}]";
+        List<String> documents = Arrays.asList(
+                devices,
+                "{\"total\":4,\"devices\":" + devices + "}",
+                "{\"devices\":" + devices + ",\"pageNo\":1}",
+                "{\"devices\":[]}",
+                "[]");
+        for (String json : documents) {
+            BatchStatusResult streamed = ModelAdapters.BATCH_STATUS_RESULT.fromJson(json);
+            List<DeviceStatus> expected = treeBatch(JsonParser.parseString(json));
+            assertEquals(expected.size(), streamed.getDevices().size(), json);
+            for (int i = 0; i < expected.size(); i++) {
+                assertSameStatus(expected.get(i), streamed.getDevices().get(i), json);
+            }
+        }
+
+        BatchStatusResult result = ModelAdapters.BATCH_STATUS_RESULT.fromJson(documents.get(1));
+        assertEquals(4, result.getDevices().size());
+        assertEquals(1, result.getOnlineCount());
+        assertEquals(1, result.getOfflineCount());
+        assertEquals(1, result.getUnactiveCount());
+    }
+
+    @Test
+    void batchStatusToleratesUnexpectedData() throws IOException {
+        // 旧的树解析对这些data返回"格式不正确"，流式解码返回空结果
+        for (String json : Arrays.asList("{}", "{\"devices\":null}", "{\"devices\":{\"a\":1}}", "\"text\"", "42", "null")) {
+            assertTrue(ModelAdapters.BATCH_STATUS_RESULT.fromJson(json).getDevices().isEmpty(), json);
+        }
+    }
+
+    @Test
+    void batchStatusRoundTrips() throws IOException {
+        BatchStatusResult result = new BatchStatusResult(Arrays.asList(
+                new DeviceStatus("device-1", "id-1", DeviceState.ONLINE, 1),
+                new DeviceStatus("device-2", null, DeviceState.UNKNOWN, 0)));
+        BatchStatusResult decoded = ModelAdapters.BATCH_STATUS_RESULT.fromJson(
+                ModelAdapters.BATCH_STATUS_RESULT.toJson(result));
+        assertEquals(2, decoded.getDevices().size());
+        for (int i = 0; i < 2; i++) {
+            assertSameStatus(result.getDevices().get(i), decoded.getDevices().get(i), "batch");
+        }
+    }
+
+    @Test
+    void deviceDetailToleratesMissingAndNullFields() throws IOException {
+        DeviceDetail full = ModelAdapters.DEVICE_DETAIL.fromJson("{\"deviceId\":\"id-1\",\"deviceName\":\"device-1\","
+                + "\"productKey\":\"pk\",\"nickName\":\"温度传感器\",\"status\":\"ONLINE\",\"gmtCreate\":123}");
+        assertEquals("id-1", full.getDeviceId());
+        assertEquals("device-1", full.getDeviceName());
+        assertEquals("pk", full.getProductKey());
+        assertEquals("温度传感器", full.getNickName());
+        assertEquals(DeviceState.ONLINE, full.getState());
+
+        DeviceDetail sparse = ModelAdapters.DEVICE_DETAIL.fromJson("{\"deviceName\":\"device-2\",\"nickName\":null,"
+                + "\"status\":\"DISABLE\"}");
+        assertEquals("device-2", sparse.getDeviceName());
+        assertNull(sparse.getDeviceId());
+        assertNull(sparse.getNickName());
+        assertEquals(DeviceState.UNKNOWN, sparse.getState());
+
+        DeviceDetail decoded = ModelAdapters.DEVICE_DETAIL.fromJson(ModelAdapters.DEVICE_DETAIL.toJson(full));
+        assertEquals(full.toString(), decoded.toString());
+    }
+
+    @Test
+    void registrationResultToleratesMissingAndNullFields() throws IOException {
+        RegistrationResult result = ModelAdapters.REGISTRATION_RESULT.fromJson("{\"productKey\":\"pk\","
+                + "\"deviceName\":\"device-1\",\"nickName\":null,\"deviceId\":\"id-1\",\"deviceSecret\":\"secret\","
+                + "\"iotId\":\"ignored\"}");
+        assertEquals("pk", result.getProductKey());
+        assertEquals("device-1", result.getDeviceName());
+        assertNull(result.getNickName());
+        assertEquals("id-1", result.getDeviceId());
+        assertEquals("secret", result.getDeviceSecret());
+
+        RegistrationResult missing = ModelAdapters.REGISTRATION_RESULT.fromJson("{\"deviceName\":\"device-2\"}");
+        assertNull(missing.getDeviceSecret());
+        assertNull(missing.getProductKey());
+
+        RegistrationResult decoded = gson.fromJson(gson.toJson(result), RegistrationResult.class);
+        assertEquals(result.toString(), decoded.toString());
+    }
+
+    /**
+     * 按旧的JsonObject路径读取设备状态
+     */
+    private static DeviceStatus treeStatus(JsonObject device) {
+        return new DeviceStatus(string(device, "deviceName"), string(device, "deviceId"),
+                DeviceState.of(string(device, "status")),
+                device.has("timestamp") && !device.get("timestamp").isJsonNull() ? device.get("timestamp").getAsLong() : 0);
+    }
+
+    /**
+     * 按旧的JsonObject路径提取设备数组：data为数组，或为包含devices数组的对象
+     */
+    private static List<DeviceStatus> treeBatch(JsonElement data) {
+        JsonArray array = data.isJsonArray() ? data.getAsJsonArray() : data.getAsJsonObject().getAsJsonArray("devices");
+        List<DeviceStatus> devices = new ArrayList<>();
+        for (JsonElement element : array) {
+            if (!element.isJsonNull()) {
+                devices.add(treeStatus(element.getAsJsonObject()));
+            }
+        }
+        return devices;
+    }
+
+    private static String string(JsonObject object, String field) {
+        return object.has(field) && !object.get(field).isJsonNull() ? object.get(field).getAsString() : null;
+    }
+
+    private static void assertSameStatus(DeviceStatus expected, DeviceStatus actual, String message) {
+        assertEquals(expected.getDeviceName(), actual.getDeviceName(), message);
+        assertEquals(expected.getDeviceId(), actual.getDeviceId(), message);
+        assertEquals(expected.getState(), actual.getState(), message);
+        assertEquals(expected.getTimestamp(), actual.getTimestamp(), message);
+    }
+}